@@ -0,0 +1,4 @@
+#!/bin/bash
+# Lets the replica service stream WAL from this server (runs on first start)
+set -e
+echo "host replication ${POSTGRES_USER} all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,135 @@
+package org.acme.web.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.acme.web.dto.response.MessageResponse;
+import org.acme.web.entity.Author;
+import org.acme.web.entity.Book;
+import org.acme.web.entity.Message;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
+import org.acme.web.entity.User;
+
+/**
+ * Object graphs shaped like production data: every book has up to three
+ * authors, every author a handful of books, and all carry audit users and
+ * timestamps.
+ */
+final class BenchmarkData {
+
+    static final int AUTHORS_PER_BOOK = 3;
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 6, 9, 30, 15);
+
+    private BenchmarkData() {
+    }
+
+    static User user() {
+        return User.builder()
+                .id(1L)
+                .username("librarian")
+                .email("librarian@example.com")
+                .firstName("Ada")
+                .lastName("Lovelace")
+                .createdAt(BASE)
+                .updatedAt(BASE)
+                .build();
+    }
+
+    /**
+     * {@code size} books and as many authors, linked in both directions.
+     */
+    static List<Book> books(int size) {
+        User user = user();
+        List<Author> authors = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            authors.add(Author.builder()
+                    .id((long) i + 1)
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .bio("Author of several books on topic " + i % 40 + ".")
+                    .createdBy(user)
+                    .updatedBy(user)
+                    .createdAt(BASE.plusMinutes(i))
+                    .updatedAt(BASE.plusMinutes(i))
+                    .build());
+        }
+        List<Book> books = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Book book = Book.builder()
+                    .id((long) i + 1)
+                    .title("Title " + i)
+                    .isbn(String.format("978-0-%09d", i))
+                    .publicationYear(1950 + i % 75)
+                    .createdBy(user)
+                    .updatedBy(user)
+                    .createdAt(BASE.plusMinutes(i))
+                    .updatedAt(BASE.plusMinutes(i))
+                    .build();
+            for (int a = 0; a < Math.min(AUTHORS_PER_BOOK, size); a++) {
+                Author author = authors.get((i + a) % size);
+                book.getAuthors().add(author);
+                author.getBooks().add(book);
+            }
+            books.add(book);
+        }
+        return books;
+    }
+
+    static List<Author> authors(List<Book> books) {
+        return books.stream()
+                .flatMap(book -> book.getAuthors().stream())
+                .distinct()
+                .toList();
+    }
+
+    static List<Message> messages(int size) {
+        User user = user();
+        MessageType[] types = MessageType.values();
+        List<Message> messages = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDateTime createdAt = BASE.plusHours(i);
+            MessageType type = types[i % types.length];
+            messages.add(Message.builder()
+                    .id((long) i + 1)
+                    .msgId(createdAt.toLocalDate() + "/" + type + "/" + i)
+                    .subject("Weekly digest " + i)
+                    .message("Summary of this week's updates, changes to opening hours and new arrivals. #" + i)
+                    .createdAt(createdAt)
+                    .messageType(type)
+                    .issue((long) i)
+                    .status(MessageStatus.PUBLISHED)
+                    .effectiveStart(createdAt.toLocalDate())
+                    .effectiveEnd(i % 3 == 0 ? null : createdAt.toLocalDate().plusDays(7))
+                    .createdBy(user)
+                    .updatedBy(user)
+                    .updatedAt(createdAt)
+                    .build());
+        }
+        return messages;
+    }
+
+    static List<MessageResponse> messageResponses(int size) {
+        List<MessageResponse> responses = new ArrayList<>(size);
+        for (Message message : messages(size)) {
+            MessageResponse response = new MessageResponse();
+            response.setId(message.getId());
+            response.setMsgId(message.getMsgId());
+            response.setTitle(message.getSubject());
+            response.setMessage(message.getMessage());
+            response.setCreatedAt(message.getCreatedAt());
+            response.setMessageType(message.getMessageType());
+            response.setIssue(message.getIssue());
+            response.setStatus(message.getStatus());
+            response.setEffectiveStart(message.getEffectiveStart());
+            response.setEffectiveEnd(message.getEffectiveEnd());
+            response.setCreatedById(1L);
+            response.setUpdatedById(1L);
+            response.setUpdatedAt(message.getUpdatedAt());
+            responses.add(response);
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,86 @@
+package org.acme.web.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.web.dto.response.AuthorResponse;
+import org.acme.web.dto.response.BookResponse;
+import org.acme.web.dto.response.MessageResponse;
+import org.acme.web.entity.Author;
+import org.acme.web.entity.Book;
+import org.acme.web.entity.Message;
+import org.acme.web.mapper.AuthorMapper;
+import org.acme.web.mapper.BookMapper;
+import org.acme.web.mapper.MessageMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Entity to response mapping for a list of {@code size} elements, as done by
+ * the list and detail endpoints. Each invocation maps the whole list, so
+ * gc.alloc.rate.norm is the allocation per list.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({ "1", "100", "10000" })
+    private int size;
+
+    private final BookMapper bookMapper = Mappers.getMapper(BookMapper.class);
+    private final AuthorMapper authorMapper = Mappers.getMapper(AuthorMapper.class);
+    private final MessageMapper messageMapper = Mappers.getMapper(MessageMapper.class);
+
+    private List<Book> books;
+    private List<Author> authors;
+    private List<Message> messages;
+
+    @Setup
+    public void setUp() {
+        books = BenchmarkData.books(size);
+        authors = BenchmarkData.authors(books);
+        messages = BenchmarkData.messages(size);
+    }
+
+    @Benchmark
+    public List<BookResponse> bookToResponse() {
+        List<BookResponse> responses = new ArrayList<>(books.size());
+        for (Book book : books) {
+            responses.add(bookMapper.toResponse(book));
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public List<AuthorResponse> authorToResponse() {
+        List<AuthorResponse> responses = new ArrayList<>(authors.size());
+        for (Author author : authors) {
+            responses.add(authorMapper.toResponse(author));
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public List<MessageResponse> messageToResponse() {
+        List<MessageResponse> responses = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            responses.add(messageMapper.toResponse(message));
+        }
+        return responses;
+    }
+}
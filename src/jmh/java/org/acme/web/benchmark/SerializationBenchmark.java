@@ -0,0 +1,96 @@
+package org.acme.web.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.web.config.JacksonConfig;
+import org.acme.web.dto.response.MessageResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+
+/**
+ * Writing and reading a list of {@code size} {@link MessageResponse}s in each
+ * format the REST API negotiates. The mappers are built the way Spring Boot
+ * builds the ones behind the HTTP message converters, with {@link JacksonConfig}'s
+ * LocalDateTime serializer applied, plus the matching deserializer a client
+ * would need. Output goes to a discarding stream so only serialization is
+ * measured; the encoded size of the list is printed at setup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({ "1", "100", "10000" })
+    private int size;
+
+    @Param({ "json", "xml", "cbor", "smile" })
+    private String format;
+
+    private List<MessageResponse> messages;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        DateTimeFormatter dateTimeFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        // As Spring Boot does; XML cannot read back LocalDates written as arrays
+        builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        new JacksonConfig().jsonCustomizer().customize(builder);
+        builder.deserializers(new LocalDateTimeDeserializer(dateTimeFormat));
+        ObjectMapper mapper = switch (format) {
+            case "json" -> builder.build();
+            case "xml" -> builder.createXmlMapper(true).build();
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        JavaType listType = mapper.getTypeFactory().constructCollectionType(List.class, MessageResponse.class);
+        writer = mapper.writerFor(listType);
+        reader = mapper.readerFor(listType);
+        messages = BenchmarkData.messageResponses(size);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeValue(out, messages);
+        encoded = out.toByteArray();
+        System.out.printf("%n%s, %d messages: %d bytes%n", format, size, encoded.length);
+    }
+
+    @Benchmark
+    public void writeMessages() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), messages);
+    }
+
+    @Benchmark
+    public List<MessageResponse> readMessages() throws IOException {
+        return reader.readValue(encoded);
+    }
+}
@@ -0,0 +1,90 @@
+package org.acme.web.benchmark;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.acme.web.config.CatalogProperties;
+import org.acme.web.dto.response.Suggestion;
+import org.acme.web.service.impl.CatalogSuggestIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Latency of one typeahead lookup (sampled, so the output includes p99) over
+ * a catalog shaped like the generate profile's: {@code books} books titled
+ * with two to five words from a 40-word vocabulary, so every word prefix
+ * matches a large part of the catalog, and a tenth as many authors. Index
+ * build time and size are printed at setup.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SuggestBenchmark {
+
+    private static final String[] WORDS = { "silent", "river", "empire", "garden", "winter", "shadow", "light",
+            "city", "stone", "memory", "ocean", "machine", "forest", "letter", "house", "storm", "journey", "night",
+            "glass", "fire", "secret", "island", "road", "voice", "map", "summer", "iron", "crown", "dream", "bridge",
+            "update", "release", "service", "window", "report", "notice", "change", "schedule", "network", "review" };
+    private static final String[] FIRST_NAMES = { "Ada", "Alan", "Alice", "Amir", "Ana", "Ben", "Chen", "Clara",
+            "Daniel", "Elena", "Emma", "Farah", "George", "Grace", "Hana", "Ivan", "James", "Jane", "Kenji", "Lena" };
+    private static final String[] LAST_NAMES = { "Adams", "Austen", "Brown", "Costa", "Dubois", "Garcia", "Hughes",
+            "Ivanova", "Jensen", "Kim", "Kowalski", "Lee", "Martin", "Meyer", "Nakamura", "Novak", "Okafor" };
+
+    @Param({ "1000000" })
+    private int books;
+
+    /**
+     * A word prefix, several words, an ISBN prefix and a prefix nothing has.
+     */
+    @Param({ "ri", "river storm gl", "978-0000123", "zz" })
+    private String query;
+
+    private CatalogSuggestIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new CatalogSuggestIndex(new CatalogProperties(), new SimpleMeterRegistry());
+        SplittableRandom random = new SplittableRandom(42);
+        Stream<Suggestion> bookSuggestions = LongStream.rangeClosed(1, books)
+                .mapToObj(id -> Suggestion.book(id, title(random), String.format("978-%010d", id)));
+        Stream<Suggestion> authorSuggestions = LongStream.rangeClosed(1, books / 10)
+                .mapToObj(id -> Suggestion.author(id, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                        LAST_NAMES[random.nextInt(LAST_NAMES.length)]));
+        long started = System.nanoTime();
+        index.load(Stream.concat(bookSuggestions, authorSuggestions));
+        System.out.printf("%nBuilt index of %d books and %d authors in %d ms%n", books, books / 10,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static String title(SplittableRandom random) {
+        StringBuilder title = new StringBuilder();
+        for (int i = 2 + random.nextInt(4); i > 0; i--) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            title.append(title.isEmpty() ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+            title.append(i > 1 ? " " : "");
+        }
+        return title.toString();
+    }
+
+    @Benchmark
+    public List<Suggestion> suggest() {
+        return index.suggest(query, 10);
+    }
+}
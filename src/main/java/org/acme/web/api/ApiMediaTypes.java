@@ -0,0 +1,20 @@
+package org.acme.web.api;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Media types the REST controllers negotiate beyond those in
+ * {@link MediaType}.
+ */
+public final class ApiMediaTypes {
+
+    /**
+     * Jackson's binary JSON; the type Spring's Smile converter reads and writes.
+     */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    private ApiMediaTypes() {
+    }
+}
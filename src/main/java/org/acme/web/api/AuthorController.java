@@ -4,21 +4,26 @@ import java.util.List;
 
 import jakarta.validation.Valid;
 
+import org.acme.web.dto.request.BulkCreateAuthorRequest;
 import org.acme.web.dto.request.CreateAuthorRequest;
 import org.acme.web.dto.request.UpdateAuthorRequest;
 import org.acme.web.dto.response.AuthorResponse;
+import org.acme.web.dto.response.PageResponse;
 import org.acme.web.service.AuthorService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 @RestController
-@RequestMapping(path = "/api/authors", produces = "application/json")
+@RequestMapping(path = "/api/authors", produces = { MediaType.APPLICATION_JSON_VALUE,
+        MediaType.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE })
 @Tag(name = "Authors", description = "Author management API")
 public class AuthorController {
 
@@ -35,15 +40,29 @@ public class AuthorController {
         return ResponseEntity.ok(authorService.findAll());
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Get a page of authors", description = "Offset pagination. page is zero-based, size is capped at 100, sort is name (last name, first name), direction is asc or desc.")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved page")
+    @ApiResponse(responseCode = "400", description = "Invalid page, sort or direction")
+    public ResponseEntity<PageResponse<AuthorResponse>> getAuthorPage(
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "sort", defaultValue = "name") @NonNull String sort,
+            @RequestParam(name = "direction", defaultValue = "asc") @NonNull String direction) {
+        return ResponseEntity.ok(authorService.findPage(page, size, sort, direction));
+    }
+
     @GetMapping("/{id}")
-    @Operation(summary = "Get author by ID", description = "Retrieve an author by their ID")
+    @Operation(summary = "Get author by ID", description = "Retrieve an author by their ID. Supports If-None-Match / If-Modified-Since; the version is checked before the author is loaded.")
     @ApiResponse(responseCode = "200", description = "Author found")
+    @ApiResponse(responseCode = "304", description = "Author not modified")
     @ApiResponse(responseCode = "404", description = "Author not found")
-    public ResponseEntity<AuthorResponse> getAuthorById(@PathVariable("id") @NonNull Long id) {
-        return ResponseEntity.ok(authorService.findById(id));
+    public ResponseEntity<AuthorResponse> getAuthorById(@PathVariable("id") @NonNull Long id, WebRequest request) {
+        return ConditionalGet.respond(request, authorService.findVersion(id), () -> authorService.findById(id));
     }
 
-    @PostMapping(consumes = "application/json")
+    @PostMapping(consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            ApiMediaTypes.APPLICATION_SMILE_VALUE })
     @Operation(summary = "Create a new author", description = "Create a new author")
     @ApiResponse(responseCode = "201", description = "Author created successfully")
     @ApiResponse(responseCode = "400", description = "Invalid input")
@@ -52,7 +71,18 @@ public class AuthorController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
-    @PutMapping(path = "/{id}", consumes = "application/json")
+    @PostMapping(path = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            ApiMediaTypes.APPLICATION_SMILE_VALUE })
+    @Operation(summary = "Create authors in bulk", description = "Create many authors in one request from a JSON array. All authors are created in one transaction using JDBC batch inserts; responses are returned in request order.")
+    @ApiResponse(responseCode = "201", description = "Authors created successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid input or too many authors")
+    public ResponseEntity<List<AuthorResponse>> createAuthors(@Valid @RequestBody @NonNull BulkCreateAuthorRequest request) {
+        List<AuthorResponse> responses = authorService.createAll(request.getAuthors());
+        return ResponseEntity.status(HttpStatus.CREATED).body(responses);
+    }
+
+    @PutMapping(path = "/{id}", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            ApiMediaTypes.APPLICATION_SMILE_VALUE })
     @Operation(summary = "Update author", description = "Update an existing author")
     @ApiResponse(responseCode = "200", description = "Author updated successfully")
     @ApiResponse(responseCode = "404", description = "Author not found")
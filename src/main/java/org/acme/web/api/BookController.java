@@ -4,21 +4,26 @@ import java.util.List;
 
 import jakarta.validation.Valid;
 
+import org.acme.web.dto.request.BulkCreateBookRequest;
 import org.acme.web.dto.request.CreateBookRequest;
 import org.acme.web.dto.request.UpdateBookRequest;
 import org.acme.web.dto.response.BookResponse;
+import org.acme.web.dto.response.PageResponse;
 import org.acme.web.service.BookService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 @RestController
-@RequestMapping(path = "/api/books", produces = "application/json")
+@RequestMapping(path = "/api/books", produces = { MediaType.APPLICATION_JSON_VALUE,
+        MediaType.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE })
 @Tag(name = "Books", description = "Book management API")
 public class BookController {
 
@@ -35,15 +40,29 @@ public class BookController {
         return ResponseEntity.ok(bookService.findAll());
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Get a page of books", description = "Offset pagination. page is zero-based, size is capped at 100, sort is title or year (publication year), direction is asc or desc.")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved page")
+    @ApiResponse(responseCode = "400", description = "Invalid page, sort or direction")
+    public ResponseEntity<PageResponse<BookResponse>> getBookPage(
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "sort", defaultValue = "title") @NonNull String sort,
+            @RequestParam(name = "direction", defaultValue = "asc") @NonNull String direction) {
+        return ResponseEntity.ok(bookService.findPage(page, size, sort, direction));
+    }
+
     @GetMapping("/{id}")
-    @Operation(summary = "Get book by ID", description = "Retrieve a book by its ID")
+    @Operation(summary = "Get book by ID", description = "Retrieve a book by its ID. Supports If-None-Match / If-Modified-Since; the version is checked before the book is loaded.")
     @ApiResponse(responseCode = "200", description = "Book found")
+    @ApiResponse(responseCode = "304", description = "Book not modified")
     @ApiResponse(responseCode = "404", description = "Book not found")
-    public ResponseEntity<BookResponse> getBookById(@PathVariable("id") @NonNull Long id) {
-        return ResponseEntity.ok(bookService.findById(id));
+    public ResponseEntity<BookResponse> getBookById(@PathVariable("id") @NonNull Long id, WebRequest request) {
+        return ConditionalGet.respond(request, bookService.findVersion(id), () -> bookService.findById(id));
     }
 
-    @PostMapping(consumes = "application/json")
+    @PostMapping(consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            ApiMediaTypes.APPLICATION_SMILE_VALUE })
     @Operation(summary = "Create a new book", description = "Create a new book")
     @ApiResponse(responseCode = "201", description = "Book created successfully")
     @ApiResponse(responseCode = "400", description = "Invalid input")
@@ -52,7 +71,19 @@ public class BookController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
-    @PutMapping(path = "/{id}", consumes = "application/json")
+    @PostMapping(path = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            ApiMediaTypes.APPLICATION_SMILE_VALUE })
+    @Operation(summary = "Create books in bulk", description = "Create many books in one request from a JSON array. All books are created in one transaction using JDBC batch inserts; responses are returned in request order.")
+    @ApiResponse(responseCode = "201", description = "Books created successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid input or too many books")
+    @ApiResponse(responseCode = "404", description = "One or more authors not found")
+    public ResponseEntity<List<BookResponse>> createBooks(@Valid @RequestBody @NonNull BulkCreateBookRequest request) {
+        List<BookResponse> responses = bookService.createAll(request.getBooks());
+        return ResponseEntity.status(HttpStatus.CREATED).body(responses);
+    }
+
+    @PutMapping(path = "/{id}", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            ApiMediaTypes.APPLICATION_SMILE_VALUE })
     @Operation(summary = "Update book", description = "Update an existing book")
     @ApiResponse(responseCode = "200", description = "Book updated successfully")
     @ApiResponse(responseCode = "404", description = "Book not found")
@@ -0,0 +1,80 @@
+package org.acme.web.api;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.acme.web.dto.response.ResourceVersion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Conditional GET for single-resource reads. The caller passes the resource
+ * version (a cheap lookup) and a supplier for the full response; when
+ * If-None-Match / If-Modified-Since match the version, the answer is 304 and the
+ * supplier is never called.
+ */
+final class ConditionalGet {
+
+    // In the order the controllers list them in produces
+    private static final Map<MediaType, String> VARIANTS = new LinkedHashMap<>();
+
+    static {
+        VARIANTS.put(MediaType.APPLICATION_JSON, "json");
+        VARIANTS.put(MediaType.APPLICATION_XML, "xml");
+        VARIANTS.put(MediaType.APPLICATION_CBOR, "cbor");
+        VARIANTS.put(ApiMediaTypes.APPLICATION_SMILE, "smile");
+    }
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * Each representation (JSON, XML, CBOR, Smile) gets its own entity tag, and
+     * responses vary by Accept.
+     */
+    static <T> ResponseEntity<T> respond(WebRequest request, ResourceVersion version, Supplier<T> body) {
+        if (!version.isKnown()) {
+            return ResponseEntity.ok(body.get());
+        }
+        String eTag = version.eTag(variant(request.getHeader(HttpHeaders.ACCEPT)));
+        long lastModified = version.lastModified().toEpochMilli();
+        // Also writes ETag and Last-Modified to the response, for 200 and 304 alike
+        boolean notModified = request.checkNotModified(eTag, lastModified);
+        ResponseEntity.BodyBuilder response = ResponseEntity
+                .status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .varyBy(HttpHeaders.ACCEPT);
+        return notModified ? response.build() : response.body(body.get());
+    }
+
+    /**
+     * The representation content negotiation will pick: the first of
+     * {@link #VARIANTS} compatible with the most specific accepted type. JSON
+     * when nothing is accepted in particular.
+     */
+    private static String variant(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return "json";
+        }
+        try {
+            List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(mediaTypes);
+            for (MediaType mediaType : mediaTypes) {
+                for (Map.Entry<MediaType, String> variant : VARIANTS.entrySet()) {
+                    if (mediaType.isCompatibleWith(variant.getKey())) {
+                        return variant.getValue();
+                    }
+                }
+            }
+        } catch (InvalidMediaTypeException ex) {
+            // Rejected later by content negotiation
+        }
+        return "json";
+    }
+}
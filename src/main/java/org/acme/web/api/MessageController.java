@@ -2,20 +2,33 @@ package org.acme.web.api;
 
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 
 import jakarta.validation.Valid;
 
+import org.acme.web.dto.request.BulkMessageRequest;
 import org.acme.web.dto.request.CreateMessageRequest;
+import org.acme.web.dto.response.BulkMessageResponse;
+import org.acme.web.dto.response.MessagePageResponse;
 import org.acme.web.dto.response.MessageResponse;
+import org.acme.web.dto.response.MessageSearchResponse;
+import org.acme.web.dto.response.MessageUpsertResult;
+import org.acme.web.dto.response.ResourceVersion;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
+import org.acme.web.service.CurrentMessageService;
 import org.acme.web.service.MessageService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -25,37 +38,90 @@ import lombok.extern.slf4j.Slf4j;
 
 @RestController
 @RequestMapping(path = "/api/messages", produces = { MediaType.APPLICATION_JSON_VALUE,
-        MediaType.APPLICATION_XML_VALUE })
-@Tag(name = "Messages", description = "Message management API (JSON or XML)")
+        MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE })
+@Tag(name = "Messages", description = "Message management API (JSON, XML, CBOR or Smile)")
 @Slf4j
 public class MessageController {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final MessageService messageService;
+    private final CurrentMessageService currentMessageService;
 
-    public MessageController(MessageService messageService) {
+    public MessageController(MessageService messageService, CurrentMessageService currentMessageService) {
         this.messageService = messageService;
+        this.currentMessageService = currentMessageService;
     }
 
     @GetMapping
-    @Operation(summary = "Get all messages", description = "Retrieve a list of all messages")
+    @Operation(summary = "Get all messages", description = "Retrieve a list of all messages. Prefer /api/messages/page for large tables.")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved list")
     public ResponseEntity<List<MessageResponse>> getAllMessages() {
         return ResponseEntity.ok(messageService.findAll());
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Get a page of messages", description = "Keyset pagination ordered by (createdAt, id). Pass the nextCursor of one page as the cursor of the next; it is null on the last page.")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved page", content = {
+            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = MessagePageResponse.class)),
+            @Content(mediaType = MediaType.APPLICATION_XML_VALUE, schema = @Schema(implementation = MessagePageResponse.class))
+    })
+    @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    public ResponseEntity<MessagePageResponse> getMessagePage(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = "50") int limit) {
+        return ResponseEntity.ok(messageService.findPage(cursor, limit));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search messages", description = "Full-text search of subject and body. q takes words, \"quoted phrases\", OR and -excluded words; words are stemmed (English). Results are ordered by relevance, with subject matches weighing more, and come with a snippet of the body around the matches. Only the newest app.messages.search.max-candidates matches are ranked; a phrase or exclusion made only of common words is looked for among the newest 50 times that many messages. truncated is true when either limit may have left older matches out. Pass the nextCursor of one page as the cursor of the next; it is null on the last page.")
+    @ApiResponse(responseCode = "200", description = "Successfully searched", content = {
+            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = MessageSearchResponse.class)),
+            @Content(mediaType = MediaType.APPLICATION_XML_VALUE, schema = @Schema(implementation = MessageSearchResponse.class))
+    })
+    @ApiResponse(responseCode = "400", description = "Missing or too long query, or invalid cursor")
+    public ResponseEntity<MessageSearchResponse> searchMessages(
+            @RequestParam(name = "q") @NonNull String query,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(messageService.search(query, cursor, limit));
+    }
+
+    @GetMapping("/active")
+    @Operation(summary = "Get messages in effect", description = "Messages whose effective period (effectiveStart to effectiveEnd, both inclusive; no effectiveEnd means open-ended) contains the given date. on defaults to today, status to PUBLISHED; type is optional.")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved list")
+    @ApiResponse(responseCode = "400", description = "Invalid date, type or status")
+    public ResponseEntity<List<MessageResponse>> getActiveMessages(
+            @RequestParam(name = "on", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate on,
+            @RequestParam(name = "type", required = false) MessageType type,
+            @RequestParam(name = "status", defaultValue = "PUBLISHED") @NonNull MessageStatus status) {
+        return ResponseEntity.ok(messageService.findActive(on != null ? on : LocalDate.now(), type, status));
+    }
+
+    @GetMapping("/current")
+    @Operation(summary = "Get current messages", description = "PUBLISHED messages in effect today, optionally of one type. Served from an in-memory snapshot refreshed every app.messages.snapshot.refresh-interval, so recent uploads can take that long to appear; use /api/messages/active for an exact answer from the database.")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved list")
+    @ApiResponse(responseCode = "400", description = "Invalid type")
+    public ResponseEntity<List<MessageResponse>> getCurrentMessages(
+            @RequestParam(name = "type", required = false) MessageType type) {
+        return ResponseEntity.ok(currentMessageService.findCurrent(type));
+    }
+
     // {*msgId} captures all path segments after /msg-id/ so both work:
     // - /api/messages/msg-id/2025-01-13/NOTICE/1 (literal slashes)
     // - /api/messages/msg-id/2025-01-13%2FNOTICE%2F1 (encoded, e.g. from Swagger)
     @GetMapping("/msg-id/{*msgId}")
-    @Operation(summary = "Get message by MSG_ID", description = "Retrieve a message by its business key (e.g. 2025-02-02/NEWS/42). Slashes in msgId are allowed.")
+    @Operation(summary = "Get message by MSG_ID", description = "Retrieve a message by its business key (e.g. 2025-02-02/NEWS/42). Slashes in msgId are allowed. Supports If-None-Match / If-Modified-Since.")
     @ApiResponse(responseCode = "200", description = "Message found", content = {
             @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = MessageResponse.class)),
             @Content(mediaType = MediaType.APPLICATION_XML_VALUE, schema = @Schema(implementation = MessageResponse.class))
     })
+    @ApiResponse(responseCode = "304", description = "Message not modified")
     @ApiResponse(responseCode = "404", description = "Message not found")
-    public ResponseEntity<MessageResponse> getMessageByMsgId(@PathVariable("msgId") @NonNull String msgId) {
+    public ResponseEntity<MessageResponse> getMessageByMsgId(@PathVariable("msgId") @NonNull String msgId,
+            WebRequest request) {
         String decodedId = decodeWildcardPathVariable(msgId);
-        return ResponseEntity.ok(messageService.findByMsgId(decodedId));
+        return notModifiedOrOk(request, messageService.findByMsgId(decodedId));
     }
 
     private String decodeWildcardPathVariable(String pathVar) {
@@ -63,26 +129,54 @@ public class MessageController {
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get message by ID", description = "Retrieve a message by its numeric ID")
+    @Operation(summary = "Get message by ID", description = "Retrieve a message by its numeric ID. Supports If-None-Match / If-Modified-Since.")
     @ApiResponse(responseCode = "200", description = "Message found", content = {
             @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = MessageResponse.class)),
             @Content(mediaType = MediaType.APPLICATION_XML_VALUE, schema = @Schema(implementation = MessageResponse.class))
     })
+    @ApiResponse(responseCode = "304", description = "Message not modified")
     @ApiResponse(responseCode = "404", description = "Message not found")
-    public ResponseEntity<MessageResponse> getMessageById(@PathVariable("id") @NonNull Long id) {
-        return ResponseEntity.ok(messageService.findById(id));
+    public ResponseEntity<MessageResponse> getMessageById(@PathVariable("id") @NonNull Long id, WebRequest request) {
+        return notModifiedOrOk(request, messageService.findById(id));
     }
 
-    @PostMapping(consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE })
-    @Operation(summary = "Upload (upsert) message", description = "Create or update a message by uniqueness (date, issue, type). Accepts JSON or XML.")
-    @ApiResponse(responseCode = "200", description = "Message created or updated", content = {
+    // Lookups are served from the message cache, so the cached response itself
+    // is the version check
+    private ResponseEntity<MessageResponse> notModifiedOrOk(WebRequest request, MessageResponse message) {
+        return ConditionalGet.respond(request, new ResourceVersion(message.getUpdatedAt()), () -> message);
+    }
+
+    @PostMapping(consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE })
+    @Operation(summary = "Upload (upsert) message", description = "Create or update a message by uniqueness (date, issue, type). Accepts JSON, XML, CBOR or Smile.")
+    @ApiResponse(responseCode = "200", description = "Existing message updated", content = {
+            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = MessageResponse.class)),
+            @Content(mediaType = MediaType.APPLICATION_XML_VALUE, schema = @Schema(implementation = MessageResponse.class))
+    })
+    @ApiResponse(responseCode = "201", description = "Message created (when new row inserted)", content = {
             @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = MessageResponse.class)),
             @Content(mediaType = MediaType.APPLICATION_XML_VALUE, schema = @Schema(implementation = MessageResponse.class))
     })
-    @ApiResponse(responseCode = "201", description = "Message created (when new row inserted)")
     @ApiResponse(responseCode = "400", description = "Invalid input")
-    public ResponseEntity<MessageResponse> uploadMessage(@Valid @RequestBody @NonNull CreateMessageRequest request) {
-        MessageResponse response = messageService.upload(request);
-        return ResponseEntity.status(HttpStatus.OK).body(response);
+    @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different message")
+    public ResponseEntity<MessageResponse> uploadMessage(@Valid @RequestBody @NonNull CreateMessageRequest request,
+            @Parameter(description = "Client-chosen key identifying this upload. Repeats with the same key and body within app.messages.idempotency.window get the first response without another write; a repeat that arrives while the first is running waits for it.")
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        MessageUpsertResult result = idempotencyKey != null ? messageService.upload(request, idempotencyKey)
+                : messageService.upload(request);
+        HttpStatus status = result.isInserted() ? HttpStatus.CREATED : HttpStatus.OK;
+        return ResponseEntity.status(status).body(result.getMessage());
+    }
+
+    @PostMapping(path = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE })
+    @Operation(summary = "Bulk upload (upsert) messages", description = "Create or update many messages by uniqueness (date, issue, type) in one request. Accepts an array in JSON, CBOR or Smile, or an XML <messages> document. The batch is applied in chunks, each in its own transaction; results are returned per message in request order.")
+    @ApiResponse(responseCode = "200", description = "Messages created or updated", content = {
+            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = BulkMessageResponse.class)),
+            @Content(mediaType = MediaType.APPLICATION_XML_VALUE, schema = @Schema(implementation = BulkMessageResponse.class))
+    })
+    @ApiResponse(responseCode = "400", description = "Invalid input or too many messages")
+    public ResponseEntity<BulkMessageResponse> uploadMessages(@Valid @RequestBody @NonNull BulkMessageRequest request) {
+        return ResponseEntity.ok(messageService.uploadAll(request.getMessages()));
     }
 }
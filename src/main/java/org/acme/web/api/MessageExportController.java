@@ -0,0 +1,60 @@
+package org.acme.web.api;
+
+import java.util.List;
+
+import org.acme.web.service.MessageExportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping(path = "/api/messages/export")
+@Tag(name = "Messages", description = "Message management API (JSON, XML, CBOR or Smile)")
+public class MessageExportController {
+
+    private final MessageExportService messageExportService;
+
+    public MessageExportController(MessageExportService messageExportService) {
+        this.messageExportService = messageExportService;
+    }
+
+    @GetMapping(produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_XML_VALUE })
+    @Operation(summary = "Export all messages", description = "Stream every message as newline-delimited JSON (Accept: application/x-ndjson, the default) or as one <messages> XML document (Accept: application/xml). Rows are written as they are read, so memory use is constant.")
+    @ApiResponse(responseCode = "200", description = "Export streamed")
+    public ResponseEntity<StreamingResponseBody> exportMessages(
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (prefersXml(accept)) {
+            StreamingResponseBody body = out -> messageExportService.exportXml(out);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_XML).body(body);
+        }
+        StreamingResponseBody body = out -> messageExportService.exportNdjson(out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private boolean prefersXml(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+        MimeTypeUtils.sortBySpecificity(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+                return false;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_XML)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
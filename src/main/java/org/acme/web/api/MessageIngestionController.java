@@ -0,0 +1,63 @@
+package org.acme.web.api;
+
+import java.net.URI;
+
+import jakarta.validation.Valid;
+
+import org.acme.web.dto.request.CreateMessageRequest;
+import org.acme.web.dto.response.IngestionStatusResponse;
+import org.acme.web.service.MessageIngestionService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+/**
+ * Asynchronous message upload, available when
+ * {@code app.messages.spool.enabled} is set.
+ */
+@RestController
+@RequestMapping(path = "/api/messages/async", produces = { MediaType.APPLICATION_JSON_VALUE,
+        MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE })
+@Tag(name = "Messages", description = "Message management API (JSON, XML, CBOR or Smile)")
+@ConditionalOnProperty(prefix = "app.messages.spool", name = "enabled", havingValue = "true")
+public class MessageIngestionController {
+
+    private final MessageIngestionService messageIngestionService;
+
+    public MessageIngestionController(MessageIngestionService messageIngestionService) {
+        this.messageIngestionService = messageIngestionService;
+    }
+
+    @PostMapping(consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE })
+    @Operation(summary = "Upload (upsert) message asynchronously", description = "Validates the message and writes it to a local spool, from which it is applied like POST /api/messages in the background. Returns once the message is on disk, with a tracking id; follow the Location header for its status.")
+    @ApiResponse(responseCode = "202", description = "Message spooled")
+    @ApiResponse(responseCode = "400", description = "Invalid input")
+    @ApiResponse(responseCode = "503", description = "Spool is full; retry after the Retry-After delay")
+    public ResponseEntity<IngestionStatusResponse> submitMessage(
+            @Valid @RequestBody @NonNull CreateMessageRequest request) {
+        IngestionStatusResponse status = messageIngestionService.submit(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/messages/async/" + status.getTrackingId()))
+                .body(status);
+    }
+
+    @GetMapping("/{trackingId}")
+    @Operation(summary = "Get the status of an asynchronous upload", description = "PENDING until the message is applied, then APPLIED with its id and msgId, or FAILED with the database's error. Applied and failed statuses are kept for app.messages.spool.status-retention.")
+    @ApiResponse(responseCode = "200", description = "Status found")
+    @ApiResponse(responseCode = "404", description = "Unknown or expired tracking id")
+    public ResponseEntity<IngestionStatusResponse> getStatus(@PathVariable @NonNull String trackingId) {
+        return ResponseEntity.ok(messageIngestionService.getStatus(trackingId));
+    }
+}
@@ -0,0 +1,40 @@
+package org.acme.web.api;
+
+import java.util.List;
+
+import org.acme.web.dto.response.Suggestion;
+import org.acme.web.service.SuggestService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping(path = "/api/search", produces = { MediaType.APPLICATION_JSON_VALUE,
+        MediaType.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE })
+@Tag(name = "Search", description = "Catalog typeahead API")
+public class SuggestController {
+
+    private final SuggestService suggestService;
+
+    public SuggestController(SuggestService suggestService) {
+        this.suggestService = suggestService;
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest books and authors", description = "Books and authors with a word of the title or name starting with q (case, accents and punctuation are ignored; several words must follow each other), and books whose ISBN starts with q, hyphens optional. Ordered by the matching text. limit defaults to 10 and is capped at 50. Answered from an in-memory index, without a database query.")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved suggestions")
+    @ApiResponse(responseCode = "400", description = "Missing query")
+    public ResponseEntity<List<Suggestion>> suggest(
+            @RequestParam(name = "q") @NonNull String query,
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(suggestService.suggest(query, limit));
+    }
+}
@@ -9,16 +9,19 @@ import org.acme.web.dto.request.UpdateUserRequest;
 import org.acme.web.dto.response.UserResponse;
 import org.acme.web.service.UserService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 @RestController
-@RequestMapping(path = "/api/users", produces = "application/json")
+@RequestMapping(path = "/api/users", produces = { MediaType.APPLICATION_JSON_VALUE,
+        MediaType.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE })
 @Tag(name = "Users", description = "User management API")
 public class UserController {
 
@@ -36,14 +39,16 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get user by ID", description = "Retrieve a user by their ID")
+    @Operation(summary = "Get user by ID", description = "Retrieve a user by their ID. Supports If-None-Match / If-Modified-Since; the version is checked before the user is loaded.")
     @ApiResponse(responseCode = "200", description = "User found")
+    @ApiResponse(responseCode = "304", description = "User not modified")
     @ApiResponse(responseCode = "404", description = "User not found")
-    public ResponseEntity<UserResponse> getUserById(@PathVariable("id") @NonNull Long id) {
-        return ResponseEntity.ok(userService.findById(id));
+    public ResponseEntity<UserResponse> getUserById(@PathVariable("id") @NonNull Long id, WebRequest request) {
+        return ConditionalGet.respond(request, userService.findVersion(id), () -> userService.findById(id));
     }
 
-    @PostMapping(consumes = "application/json")
+    @PostMapping(consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            ApiMediaTypes.APPLICATION_SMILE_VALUE })
     @Operation(summary = "Create a new user", description = "Create a new user")
     @ApiResponse(responseCode = "201", description = "User created successfully")
     @ApiResponse(responseCode = "400", description = "Invalid input")
@@ -52,7 +57,8 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
-    @PutMapping(path = "/{id}", consumes = "application/json")
+    @PutMapping(path = "/{id}", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            ApiMediaTypes.APPLICATION_SMILE_VALUE })
     @Operation(summary = "Update user", description = "Update an existing user")
     @ApiResponse(responseCode = "200", description = "User updated successfully")
     @ApiResponse(responseCode = "404", description = "User not found")
@@ -0,0 +1,47 @@
+package org.acme.web.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Tunables for the author and book API, bound from {@code app.catalog.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.catalog")
+public class CatalogProperties {
+
+    private final Bulk bulk = new Bulk();
+
+    private final Suggest suggest = new Suggest();
+
+    @Data
+    public static class Bulk {
+        /**
+         * Entities persisted between flushes. Keep equal to
+         * {@code hibernate.jdbc.batch_size} so each flush is one JDBC batch.
+         */
+        private int flushSize = 50;
+
+        /**
+         * Largest number of entities accepted by a single bulk request.
+         */
+        private int maxItems = 10_000;
+    }
+
+    @Data
+    public static class Suggest {
+        /**
+         * Build the typeahead index when the application starts. Off for
+         * processes that serve no requests, such as the generate profile.
+         */
+        private boolean buildOnStartup = true;
+
+        /**
+         * Books and authors changed since the last merge before the small
+         * segment holding them is merged into the main one. Each change
+         * rebuilds the small segment; a merge rebuilds the whole index.
+         */
+        private int mergeThreshold = 4096;
+    }
+}
@@ -0,0 +1,85 @@
+package org.acme.web.config;
+
+import javax.sql.DataSource;
+
+import org.acme.web.datasource.ConnectionLimitingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.lang.NonNull;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Wraps the Hikari pool in a {@link ConnectionLimitingDataSource} when
+ * {@code app.datasource.limiter.enabled} is set. Hikari's metrics and health
+ * check unwrap it, so they keep reporting the pool. The queue is published as
+ * {@code jdbc.connections.limiter.waiting} and {@code .available}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.limiter", name = "enabled", havingValue = "true")
+public class ConnectionLimiterConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimiterPostProcessor(
+            ObjectProvider<ConnectionLimiterProperties> connectionLimiterProperties) {
+        return new ConnectionLimiterPostProcessor(connectionLimiterProperties);
+    }
+
+    @Bean
+    public MeterBinder connectionLimiterMetrics(DataSource dataSource) {
+        return registry -> {
+            ConnectionLimitingDataSource limiter = DataSourceUnwrapper.unwrap(dataSource,
+                    ConnectionLimitingDataSource.class);
+            if (limiter != null) {
+                Gauge.builder("jdbc.connections.limiter.waiting", limiter,
+                        ConnectionLimitingDataSource::getQueueLength)
+                        .description("Callers queued for a database connection")
+                        .register(registry);
+                Gauge.builder("jdbc.connections.limiter.available", limiter,
+                        ConnectionLimitingDataSource::getAvailablePermits)
+                        .description("Connections that can be borrowed without queuing")
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * Queues callers of {@code pool} as configured; also used for the replica
+     * pools.
+     */
+    public static ConnectionLimitingDataSource limit(HikariDataSource pool, ConnectionLimiterProperties properties) {
+        int permits = properties.getPermits() > 0 ? properties.getPermits() : pool.getMaximumPoolSize();
+        return new ConnectionLimitingDataSource(pool, permits, properties.getAcquireTimeout());
+    }
+
+    // Ordered, so it wraps the pool before read-replica routing wraps the result
+    private static final class ConnectionLimiterPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<ConnectionLimiterProperties> connectionLimiterProperties;
+
+        ConnectionLimiterPostProcessor(ObjectProvider<ConnectionLimiterProperties> connectionLimiterProperties) {
+            this.connectionLimiterProperties = connectionLimiterProperties;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+            if (!(bean instanceof HikariDataSource pool)) {
+                return bean;
+            }
+            return limit(pool, connectionLimiterProperties.getObject());
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.acme.web.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Queue in front of the connection pool, bound from
+ * {@code app.datasource.limiter.*}. Switched on by the "virtual-threads"
+ * profile, where request concurrency is no longer capped by Tomcat's thread
+ * pool.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource.limiter")
+public class ConnectionLimiterProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Connections borrowed at once; 0 means the pool's maximum size.
+     */
+    private int permits = 0;
+
+    /**
+     * How long a caller waits in the queue before the connection request fails.
+     * Independent of the pool's connection-timeout, which the queue keeps from
+     * ever being reached under load.
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,56 @@
+package org.acme.web.config;
+
+import java.time.LocalDate;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Volumes and shape of the synthetic dataset loaded by the "generate"
+ * profile, bound from {@code app.generator.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.generator")
+public class GeneratorProperties {
+
+    /**
+     * Seed of every random choice. The same seed and volumes produce the same
+     * rows, whatever the number of threads.
+     */
+    private long seed = 42;
+
+    private long users = 1_000;
+
+    private long authors = 100_000;
+
+    private long books = 1_000_000;
+
+    private long messages = 1_000_000;
+
+    /**
+     * Upper bound on authors per book. Most books get one author; the rest
+     * fall off roughly geometrically up to this bound.
+     */
+    private int maxAuthorsPerBook = 5;
+
+    /**
+     * First day of the message period; messages are spread evenly over
+     * {@code messageDays} days from here, with increasing issue numbers.
+     */
+    private LocalDate messageStart = LocalDate.of(2024, 1, 1);
+
+    private int messageDays = 730;
+
+    /**
+     * Concurrent COPY streams, each on its own connection. Keep at or below the
+     * connection pool size.
+     */
+    private int threads = 8;
+
+    /**
+     * Rows per COPY statement. Slices are also the unit of determinism: each
+     * one has its own random stream.
+     */
+    private int sliceSize = 100_000;
+}
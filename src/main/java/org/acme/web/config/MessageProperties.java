@@ -0,0 +1,169 @@
+package org.acme.web.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * Tunables for the message API, bound from {@code app.messages.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.messages")
+public class MessageProperties {
+
+    private final Bulk bulk = new Bulk();
+
+    private final Cache cache = new Cache();
+
+    private final Snapshot snapshot = new Snapshot();
+
+    private final Spool spool = new Spool();
+
+    private final Idempotency idempotency = new Idempotency();
+
+    private final Search search = new Search();
+
+    private final Partitions partitions = new Partitions();
+
+    @Data
+    public static class Bulk {
+        /**
+         * Messages applied per statement. Each chunk runs in its own transaction so
+         * one request never holds a transaction for the whole upload.
+         */
+        private int chunkSize = 1000;
+
+        /**
+         * Largest number of messages accepted by a single bulk request.
+         */
+        private int maxItems = 50_000;
+    }
+
+    @Data
+    public static class Cache {
+        /**
+         * Entries kept per lookup cache (by id and by msgId).
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * Upper bound on how long an entry is served. Uploads through the API
+         * refresh entries on commit; this only limits staleness after changes
+         * made directly in the database.
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Snapshot {
+        /**
+         * Delay between incremental refreshes of the current-messages snapshot.
+         */
+        private Duration refreshInterval = Duration.ofSeconds(10);
+
+        /**
+         * How far before the watermark each refresh starts reading. updated_at
+         * is set when a transaction starts, so a row can become visible after a
+         * refresh has already moved past its timestamp; the overlap picks it up.
+         * Must exceed the longest message write transaction.
+         */
+        private Duration overlap = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Spool {
+        /**
+         * Accept messages on /api/messages/async into a local spool that is
+         * applied to the database in the background.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory holding the segment files and the checkpoint.
+         */
+        private String directory = "spool";
+
+        /**
+         * Size of each memory-mapped segment file.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(16);
+
+        /**
+         * Disk the segment files may take. Once it is used up by messages not yet
+         * applied, submissions are refused with 503 until the drainer catches up.
+         * Must hold at least two segments; the application does not start
+         * otherwise.
+         */
+        private DataSize maxSize = DataSize.ofGigabytes(1);
+
+        /**
+         * Messages applied per insert_messages call. At most bulk.chunk-size, so a
+         * batch is one transaction.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Wait before retrying a batch that failed because the database could not
+         * be reached.
+         */
+        private Duration retryInterval = Duration.ofSeconds(5);
+
+        /**
+         * How long the status of an applied or failed message can be looked up.
+         */
+        private Duration statusRetention = Duration.ofHours(1);
+
+        /**
+         * Statuses of applied or failed messages kept at most.
+         */
+        private long statusMaximumSize = 100_000;
+    }
+
+    @Data
+    public static class Idempotency {
+        /**
+         * How long the result of an upload is returned for requests repeating its
+         * Idempotency-Key.
+         */
+        private Duration window = Duration.ofMinutes(10);
+
+        /**
+         * Idempotency keys of finished uploads remembered at most. Keys of uploads
+         * still running are kept regardless.
+         */
+        private long maximumSize = 100_000;
+    }
+
+    @Data
+    public static class Search {
+        /**
+         * How many of the newest matching messages a search ranks. Bounds the
+         * cost of terms that occur in a large part of the table; older matches
+         * are not returned. The newest 50 times this many messages are searched
+         * first, so raising it also makes common-word searches scan further.
+         */
+        private int maxCandidates = 1000;
+    }
+
+    @Data
+    public static class Partitions {
+        /**
+         * Create the monthly partitions of messages ahead of time. Off where the
+         * schema does not come from the Flyway migrations (tests on H2).
+         */
+        private boolean enabled = true;
+
+        /**
+         * Months after the current one whose partitions are created in advance.
+         */
+        private int monthsAhead = 3;
+
+        /**
+         * Delay between checks for missing partitions; the first runs at startup.
+         */
+        private Duration checkInterval = Duration.ofHours(6);
+    }
+}
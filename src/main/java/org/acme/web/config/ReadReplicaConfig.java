@@ -0,0 +1,136 @@
+package org.acme.web.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.acme.web.datasource.ReadReplicas;
+import org.acme.web.datasource.ReadYourWritesFilter;
+import org.acme.web.datasource.ReplicaReadJpaDialect;
+import org.acme.web.datasource.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.lang.NonNull;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends read-only transactions to the read replicas when
+ * {@code app.datasource.read-replicas.enabled} is set. The primary data source
+ * is wrapped in a {@link LazyConnectionDataSourceProxy} whose read-only data
+ * source is a {@link ReplicaRoutingDataSource}: the physical connection is
+ * fetched at the first statement, when the transaction's read-only flag is
+ * known. Everything else, including reads outside a transaction, stays on the
+ * primary. Replica pools publish the usual hikaricp metrics tagged with their
+ * pool name, and whether each is in rotation as {@code jdbc.replica.up}.
+ * Read-only transactions that may use a replica do not fill the Hibernate
+ * caches (see {@link ReplicaReadJpaDialect}).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.read-replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    public static BeanPostProcessor readReplicaRoutingPostProcessor(ObjectProvider<ReadReplicas> readReplicas) {
+        return new ReadReplicaRoutingPostProcessor(readReplicas);
+    }
+
+    @Bean
+    public static BeanPostProcessor replicaReadJpaDialectPostProcessor() {
+        return new ReplicaReadJpaDialectPostProcessor();
+    }
+
+    @Bean
+    public ReadReplicas readReplicas(ReadReplicaProperties readReplicaProperties,
+            DataSourceProperties dataSourceProperties, ObjectProvider<ConnectionLimiterProperties> limiterProperties,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        List<ReadReplicas.Replica> replicas = new ArrayList<>();
+        for (ReadReplicaProperties.Replica replica : readReplicaProperties.getReplicas()) {
+            String name = "replica-" + (replicas.size() + 1);
+            HikariConfig config = new HikariConfig();
+            config.setPoolName(name);
+            config.setJdbcUrl(replica.getUrl());
+            config.setUsername(replica.getUsername() != null ? replica.getUsername()
+                    : dataSourceProperties.determineUsername());
+            config.setPassword(replica.getPassword() != null ? replica.getPassword()
+                    : dataSourceProperties.determinePassword());
+            config.setMaximumPoolSize(readReplicaProperties.getMaximumPoolSize());
+            config.setConnectionTimeout(readReplicaProperties.getConnectionTimeout().toMillis());
+            config.setReadOnly(true);
+            // Start even when a replica is down; the health check brings it in later
+            config.setInitializationFailTimeout(-1);
+            meterRegistry.ifAvailable(registry -> config
+                    .setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            HikariDataSource pool = new HikariDataSource(config);
+
+            ConnectionLimiterProperties limiter = limiterProperties.getIfAvailable();
+            DataSource dataSource = limiter != null && limiter.isEnabled()
+                    ? ConnectionLimiterConfig.limit(pool, limiter)
+                    : pool;
+            replicas.add(new ReadReplicas.Replica(name, dataSource, pool));
+        }
+        ReadReplicas readReplicas = new ReadReplicas(replicas);
+        meterRegistry.ifAvailable(registry -> readReplicas.getReplicas().forEach(replica -> Gauge
+                .builder("jdbc.replica.up", replica, r -> r.isUp() ? 1 : 0)
+                .description("Whether the read replica is in rotation")
+                .tag("replica", replica.getName())
+                .register(registry)));
+        return readReplicas;
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReadReplicaProperties readReplicaProperties) {
+        return new ReadYourWritesFilter(readReplicaProperties.getReadYourWritesWindow());
+    }
+
+    // Ordered, so it runs after the connection limiter and before statement counting wraps the result
+    private static final class ReadReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<ReadReplicas> readReplicas;
+
+        ReadReplicaRoutingPostProcessor(ObjectProvider<ReadReplicas> readReplicas) {
+            this.readReplicas = readReplicas;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+            // The auto-configured DataSource, possibly behind the connection limiter
+            if (!"dataSource".equals(beanName) || !(bean instanceof DataSource primary)) {
+                return bean;
+            }
+            LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+            routing.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, readReplicas.getObject()));
+            return routing;
+        }
+
+        @Override
+        public int getOrder() {
+            return 0;
+        }
+    }
+
+    // Before initialization, so the factory does not fall back to the vendor adapter's dialect
+    private static final class ReplicaReadJpaDialectPostProcessor implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessBeforeInitialization(@NonNull Object bean, @NonNull String beanName) {
+            if (bean instanceof LocalContainerEntityManagerFactoryBean entityManagerFactory) {
+                entityManagerFactory.setJpaDialect(new ReplicaReadJpaDialect());
+            }
+            return bean;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.acme.web.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Read replicas for read-only transactions, bound from
+ * {@code app.datasource.read-replicas.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource.read-replicas")
+public class ReadReplicaProperties {
+
+    private boolean enabled = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * Connections per replica pool.
+     */
+    private int maximumPoolSize = 10;
+
+    /**
+     * How long a replica pool waits for a connection before the read falls back
+     * to the primary. Short, as the primary can serve the read instead.
+     */
+    private Duration connectionTimeout = Duration.ofSeconds(1);
+
+    /**
+     * How often replicas are checked; a replica taken out of rotation returns
+     * on the first check that gets a valid connection from it.
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    /**
+     * After a client writes, its reads go to the primary for this long, so it
+     * sees its own writes while the replicas catch up. Zero turns it off.
+     */
+    private Duration readYourWritesWindow = Duration.ZERO;
+
+    @Data
+    public static class Replica {
+        private String url;
+
+        /**
+         * Defaults to spring.datasource.username.
+         */
+        private String username;
+
+        /**
+         * Defaults to spring.datasource.password.
+         */
+        private String password;
+    }
+}
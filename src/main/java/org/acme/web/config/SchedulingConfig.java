@@ -0,0 +1,15 @@
+package org.acme.web.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Off in the "generate" profile, which loads data and exits rather than
+ * serving.
+ */
+@Configuration
+@Profile("!generate")
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,42 @@
+package org.acme.web.config;
+
+import javax.cache.CacheManager;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+
+/**
+ * Monitoring for the Hibernate second-level cache ("cache" profile). Hibernate
+ * statistics already cover hits, misses and puts per region
+ * ({@code hibernate.second.level.cache.*}); this adds the JCache view of every
+ * region ({@code cache.gets}, {@code cache.puts}, {@code cache.evictions},
+ * tagged with the region name), which is where evictions show up.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.cache.use_second_level_cache", havingValue = "true")
+public class SecondLevelCacheConfig {
+
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            RegionFactory regionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getCache()
+                    .getRegionFactory();
+            if (regionFactory instanceof JCacheRegionFactory jcache) {
+                CacheManager cacheManager = jcache.getCacheManager();
+                for (String cacheName : cacheManager.getCacheNames()) {
+                    JCacheMetrics.monitor(registry, cacheManager.getCache(cacheName));
+                }
+            }
+        };
+    }
+}
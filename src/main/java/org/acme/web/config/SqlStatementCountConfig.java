@@ -0,0 +1,61 @@
+package org.acme.web.config;
+
+import javax.sql.DataSource;
+
+import org.acme.web.datasource.StatementCountingDataSource;
+import org.acme.web.monitoring.SqlStatementCountFilter;
+import org.acme.web.monitoring.SqlStatementCounter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.lang.NonNull;
+
+/**
+ * Per-request SQL statement counting. The application's DataSource is wrapped
+ * in a {@link StatementCountingDataSource}, outside the connection limiter and
+ * read-replica routing, so statements sent to a replica are counted too.
+ */
+@Configuration
+public class SqlStatementCountConfig {
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+
+    @Bean
+    public static BeanPostProcessor statementCountingPostProcessor(ObjectProvider<SqlStatementCounter> counter) {
+        return new StatementCountingPostProcessor(counter);
+    }
+
+    @Bean
+    public SqlStatementCountFilter sqlStatementCountFilter(SqlStatementCounter sqlStatementCounter,
+            SqlStatementProperties sqlStatementProperties) {
+        return new SqlStatementCountFilter(sqlStatementCounter, sqlStatementProperties);
+    }
+
+    // Ordered last, so it wraps whatever the other post-processors made of the DataSource
+    private static final class StatementCountingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<SqlStatementCounter> counter;
+
+        StatementCountingPostProcessor(ObjectProvider<SqlStatementCounter> counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+            if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            return new StatementCountingDataSource(dataSource, counter.getObject());
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
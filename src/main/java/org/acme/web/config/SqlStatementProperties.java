@@ -0,0 +1,24 @@
+package org.acme.web.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Per-request SQL statement counting, bound from {@code app.sql-statements.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.sql-statements")
+public class SqlStatementProperties {
+
+    /**
+     * Statements one request may execute before it is logged as a warning.
+     */
+    private int budget = 20;
+
+    /**
+     * Adds the count as an X-SQL-Statement-Count response header. Meant for
+     * development; it exposes a detail of the implementation.
+     */
+    private boolean header = false;
+}
@@ -0,0 +1,126 @@
+package org.acme.web.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The read replicas and whether each is in rotation. A replica that fails to
+ * hand out a connection is taken out and reads fall back to the primary; the
+ * next health check that gets a valid connection from it puts it back.
+ */
+@Slf4j
+public class ReadReplicas implements DisposableBean {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadReplicas(List<Replica> replicas) {
+        this.replicas = List.copyOf(replicas);
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Replicas in rotation, starting with a different one on each call.
+     */
+    public List<Replica> rotation() {
+        int size = replicas.size();
+        List<Replica> rotation = new ArrayList<>(size);
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isUp()) {
+                rotation.add(replica);
+            }
+        }
+        return rotation;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.read-replicas.health-check-interval:5s}",
+            initialDelayString = "${app.datasource.read-replicas.health-check-interval:5s}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.getDataSource().getConnection()) {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    replica.markUp();
+                } else {
+                    replica.markDown(new SQLException("Connection is not valid"));
+                }
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (Replica replica : replicas) {
+            replica.close();
+        }
+    }
+
+    public static final class Replica implements AutoCloseable {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final AutoCloseable pool;
+        private volatile boolean up = true;
+
+        /**
+         * @param dataSource where connections come from, possibly queued in front
+         *            of {@code pool}
+         * @param pool closed on shutdown
+         */
+        public Replica(String name, DataSource dataSource, AutoCloseable pool) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.pool = pool;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isUp() {
+            return up;
+        }
+
+        void markDown(SQLException cause) {
+            if (up) {
+                up = false;
+                log.warn("Read replica {} taken out of rotation, reads go to the primary: {}", name,
+                        cause.getMessage());
+            }
+        }
+
+        void markUp() {
+            if (!up) {
+                up = true;
+                log.info("Read replica {} back in rotation", name);
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            pool.close();
+        }
+    }
+}
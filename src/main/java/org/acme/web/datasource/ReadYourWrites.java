@@ -0,0 +1,58 @@
+package org.acme.web.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks the current thread's reads as needing the primary, because its
+ * client wrote recently. Set by {@link ReadYourWritesFilter}, read by
+ * {@link ReplicaRoutingDataSource}. Reads whose result is kept beyond the
+ * request (caches, in-memory indexes) pin themselves with
+ * {@link #onPrimary(Supplier)}: a lagging replica's row would outlive the
+ * write that replaced it.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        PINNED.remove();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    /**
+     * Runs {@code read} pinned to the primary, then restores the thread's
+     * previous state. The read must open its own transaction: one already
+     * holding a replica connection keeps it.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (isPinnedToPrimary()) {
+            return read.get();
+        }
+        pinToPrimary();
+        try {
+            return read.get();
+        } finally {
+            clear();
+        }
+    }
+
+    /**
+     * {@link #onPrimary(Supplier)} for a read without a result.
+     */
+    public static void runOnPrimary(Runnable read) {
+        onPrimary(() -> {
+            read.run();
+            return null;
+        });
+    }
+}
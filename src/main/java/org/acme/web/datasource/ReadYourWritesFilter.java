@@ -0,0 +1,84 @@
+package org.acme.web.datasource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Keeps requests that can write (any method but GET, HEAD and OPTIONS) on the
+ * primary, including their read-only transactions: with open-in-view, a
+ * request's transactions share one connection, so a read-only one must not
+ * pick a replica connection that a later write would reuse.
+ * <p>
+ * With a read-your-writes window, such requests also get a {@value #COOKIE}
+ * cookie holding the time, and reads presenting one younger than the window go
+ * to the primary as well. Clients that drop cookies read from the replicas and
+ * may not see their last write for as long as replication lags.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "last-write";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean pinned;
+        if (SAFE_METHODS.contains(request.getMethod())) {
+            pinned = now - lastWrite(request) < window.toMillis();
+        } else if (window.isZero()) {
+            pinned = true;
+        } else {
+            // Set up front: the response may be committed by the time the write returns
+            Cookie cookie = new Cookie(COOKIE, Long.toString(now));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+            response.addCookie(cookie);
+            pinned = true;
+        }
+        if (!pinned) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        ReadYourWrites.pinToPrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.clear();
+        }
+    }
+
+    private static long lastWrite(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE.equals(cookie.getName())) {
+                    try {
+                        return Long.parseLong(cookie.getValue());
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,50 @@
+package org.acme.web.datasource;
+
+import java.sql.SQLException;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+/**
+ * Keeps rows read from a replica out of the Hibernate second-level and query
+ * caches. A read-only transaction that is not pinned to the primary (see
+ * {@link ReadYourWrites}) runs with {@link CacheMode#GET}: it reads cached
+ * entries but adds none, so a lagging replica cannot put back a row that a
+ * write on the primary just replaced, to stay cached until it expires. The
+ * caches fill from writes and from reads on the primary. The session's
+ * previous cache mode is restored when the transaction ends.
+ */
+public class ReplicaReadJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly() || ReadYourWrites.isPinnedToPrimary()) {
+            return transactionData;
+        }
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode previousCacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.GET);
+        return new ReplicaReadData(transactionData, session, previousCacheMode);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReplicaReadData replicaRead) {
+            replicaRead.session().setCacheMode(replicaRead.previousCacheMode());
+            super.cleanupTransaction(replicaRead.transactionData());
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+
+    private record ReplicaReadData(Object transactionData, Session session, CacheMode previousCacheMode) {
+    }
+}
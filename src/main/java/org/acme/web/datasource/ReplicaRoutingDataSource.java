@@ -0,0 +1,55 @@
+package org.acme.web.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.lang.NonNull;
+
+/**
+ * Connections for read-only transactions: from the next replica in rotation,
+ * or from the primary when the thread is pinned to it (see
+ * {@link ReadYourWrites}), when no replica is in rotation, or when none could
+ * hand out a connection. Installed as the read-only data source of a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * which fetches the connection only once the transaction's read-only flag is
+ * known.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final ReadReplicas replicas;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReadReplicas replicas) {
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection() throws SQLException {
+        if (!ReadYourWrites.isPinnedToPrimary()) {
+            for (ReadReplicas.Replica replica : replicas.rotation()) {
+                try {
+                    return replica.getDataSource().getConnection();
+                } catch (SQLException e) {
+                    // Hikari attaches the last connection failure to its timeout;
+                    // without one (or from the limiter) the replica is only busy
+                    if (!(e instanceof SQLTransientConnectionException) || e.getCause() != null) {
+                        replica.markDown(e);
+                    }
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection(@NonNull String username, @NonNull String password) throws SQLException {
+        throw new SQLException("Replica connections use the configured credentials");
+    }
+}
@@ -0,0 +1,65 @@
+package org.acme.web.datasource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.acme.web.monitoring.SqlStatementCounter;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.lang.NonNull;
+
+/**
+ * Reports every statement created on its connections to a
+ * {@link SqlStatementCounter}: Hibernate's and JdbcTemplate's alike. A
+ * statement counts once however often it is executed, so a JDBC batch counts
+ * once.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    private final SqlStatementCounter counter;
+
+    public StatementCountingDataSource(DataSource targetDataSource, SqlStatementCounter counter) {
+        super(targetDataSource);
+        this.counter = counter;
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection() throws SQLException {
+        return counting(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection(@NonNull String username, @NonNull String password) throws SQLException {
+        return counting(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection counting(Connection target) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[] { ConnectionProxy.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "getTargetConnection":
+                            return target;
+                        case "prepareStatement", "prepareCall", "createStatement":
+                            counter.increment();
+                            break;
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
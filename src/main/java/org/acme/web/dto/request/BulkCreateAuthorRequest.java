@@ -0,0 +1,32 @@
+package org.acme.web.dto.request;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import lombok.Data;
+
+/**
+ * JSON array of authors to create. Wrapped so each element is validated like a
+ * single create request.
+ */
+@Data
+@Schema(description = "Array of authors to create")
+public class BulkCreateAuthorRequest {
+
+    @Valid
+    @NotEmpty(message = "At least one author is required")
+    @JsonValue
+    private final List<CreateAuthorRequest> authors;
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public BulkCreateAuthorRequest(List<CreateAuthorRequest> authors) {
+        this.authors = authors;
+    }
+}
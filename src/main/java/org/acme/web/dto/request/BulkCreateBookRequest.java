@@ -0,0 +1,32 @@
+package org.acme.web.dto.request;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import lombok.Data;
+
+/**
+ * JSON array of books to create. Wrapped so each element is validated like a
+ * single create request.
+ */
+@Data
+@Schema(description = "Array of books to create")
+public class BulkCreateBookRequest {
+
+    @Valid
+    @NotEmpty(message = "At least one book is required")
+    @JsonValue
+    private final List<CreateBookRequest> books;
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public BulkCreateBookRequest(List<CreateBookRequest> books) {
+        this.books = books;
+    }
+}
@@ -0,0 +1,52 @@
+package org.acme.web.dto.request;
+
+import java.io.IOException;
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Batch of messages to upsert. Reads a bare JSON array, or an XML document of
+ * the form {@code <messages><message>...</message></messages>}; the wrapper
+ * object only exists so each element is validated like a single upload.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonDeserialize(using = BulkMessageRequest.Deserializer.class)
+@Schema(description = "Array of messages to create or upsert")
+public class BulkMessageRequest {
+
+    @Valid
+    @NotEmpty(message = "At least one message is required")
+    @JsonValue
+    private List<CreateMessageRequest> messages;
+
+    /**
+     * Reads the whole body as a list. Going through the collection deserializer
+     * (rather than a delegating creator) lets the XML parser expose the repeated
+     * &lt;message&gt; elements under the root as an array.
+     */
+    static class Deserializer extends JsonDeserializer<BulkMessageRequest> {
+        @Override
+        public BulkMessageRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JavaType listType = ctxt.getTypeFactory().constructCollectionType(List.class,
+                    CreateMessageRequest.class);
+            return new BulkMessageRequest(ctxt.readValue(p, listType));
+        }
+    }
+}
@@ -8,6 +8,7 @@ import jakarta.validation.constraints.NotNull;
 
 import org.acme.web.entity.MessageStatus;
 import org.acme.web.entity.MessageType;
+import org.acme.web.validation.EffectivePeriod;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
@@ -17,6 +18,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 
 @Data
+@EffectivePeriod
 @JacksonXmlRootElement(localName = "message")
 @Schema(name = "message", description = "Request to create or upsert a message", example = """
         {
@@ -62,7 +64,7 @@ public class CreateMessageRequest {
     @Schema(description = "When the message becomes active", example = "2025-02-02", requiredMode = Schema.RequiredMode.REQUIRED)
     private LocalDate effectiveStart;
 
-    @Schema(description = "When the message stops being active (nullable)", example = "2025-02-09")
+    @Schema(description = "Last day the message is active (nullable: open-ended); not before effectiveStart", example = "2025-02-09")
     private LocalDate effectiveEnd;
 
     @Schema(description = "User ID for audit (optional)", example = "1")
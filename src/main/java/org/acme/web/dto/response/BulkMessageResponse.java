@@ -0,0 +1,29 @@
+package org.acme.web.dto.response;
+
+import java.util.List;
+
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JacksonXmlRootElement(localName = "bulkResult")
+public class BulkMessageResponse {
+
+    private int total;
+    private int inserted;
+    private int updated;
+
+    /**
+     * One result per submitted message, in request order.
+     */
+    @JacksonXmlElementWrapper(localName = "results")
+    @JacksonXmlProperty(localName = "result")
+    private List<BulkMessageResult> results;
+}
@@ -0,0 +1,17 @@
+package org.acme.web.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkMessageResult {
+    private Long id;
+    private String msgId;
+    /**
+     * True when the upsert inserted a new row, false when it updated one.
+     */
+    private boolean inserted;
+}
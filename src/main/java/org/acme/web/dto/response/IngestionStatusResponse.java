@@ -0,0 +1,40 @@
+package org.acme.web.dto.response;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Where a message submitted to /api/messages/async is. The id, msgId and
+ * inserted flag are set once it is applied, the error once it has failed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JacksonXmlRootElement(localName = "ingestion")
+public class IngestionStatusResponse {
+
+    public enum State {
+        /** Spooled, not yet applied. */
+        PENDING,
+        /** Stored in the database. */
+        APPLIED,
+        /** Rejected by the database; it will not be retried. */
+        FAILED
+    }
+
+    private String trackingId;
+    private State state;
+    private LocalDateTime acceptedAt;
+    private LocalDateTime completedAt;
+    private Long id;
+    private String msgId;
+    private Boolean inserted;
+    private String error;
+}
@@ -0,0 +1,29 @@
+package org.acme.web.dto.response;
+
+import java.util.List;
+
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JacksonXmlRootElement(localName = "messagePage")
+public class MessagePageResponse {
+
+    @JacksonXmlElementWrapper(localName = "messages")
+    @JacksonXmlProperty(localName = "message")
+    private List<MessageResponse> items;
+
+    private int limit;
+
+    /**
+     * Opaque cursor for the next page, or null when this is the last page.
+     */
+    private String nextCursor;
+}
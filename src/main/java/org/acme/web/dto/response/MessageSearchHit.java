@@ -0,0 +1,21 @@
+package org.acme.web.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A message matching a search, with its ts_rank and an excerpt of the body
+ * around the matched words (marked with {@code <b>...</b>}).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSearchHit {
+
+    private MessageResponse message;
+
+    private float rank;
+
+    private String snippet;
+}
@@ -0,0 +1,37 @@
+package org.acme.web.dto.response;
+
+import java.util.List;
+
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JacksonXmlRootElement(localName = "searchResults")
+public class MessageSearchResponse {
+
+    @JacksonXmlElementWrapper(localName = "hits")
+    @JacksonXmlProperty(localName = "hit")
+    private List<MessageSearchHit> items;
+
+    private int limit;
+
+    /**
+     * Opaque cursor for the next page, or null when this is the last page.
+     */
+    private String nextCursor;
+
+    /**
+     * True when older matches may be missing from the results: only the newest
+     * app.messages.search.max-candidates matches are ranked, and a phrase or
+     * exclusion made only of common words is looked for among the newest
+     * messages only.
+     */
+    private boolean truncated;
+}
@@ -0,0 +1,20 @@
+package org.acme.web.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSearchResult {
+    private List<MessageSearchHit> hits;
+    /**
+     * True when matches may have been left out: the candidate cap was
+     * reached, or only the newest window was searched and older messages
+     * exist.
+     */
+    private boolean truncated;
+}
@@ -0,0 +1,16 @@
+package org.acme.web.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageUpsertResult {
+    private MessageResponse message;
+    /**
+     * True when the upsert inserted a new row, false when it updated one.
+     */
+    private boolean inserted;
+}
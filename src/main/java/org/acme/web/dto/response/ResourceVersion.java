@@ -0,0 +1,51 @@
+package org.acme.web.dto.response;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Version of a single resource, read without loading the resource itself, for
+ * conditional GETs. {@code updatedAt} is the row's audit timestamp.
+ * {@code links} and {@code linksUpdatedAt} describe its book_authors rows (count
+ * and newest created_at): linking or unlinking an author does not touch the
+ * book or author row, but does change the authorIds / bookIds in the response.
+ */
+public record ResourceVersion(LocalDateTime updatedAt, long links, LocalDateTime linksUpdatedAt) {
+
+    public ResourceVersion(LocalDateTime updatedAt) {
+        this(updatedAt, 0, null);
+    }
+
+    /**
+     * False for rows that were never stamped (e.g. written outside the
+     * application); those are served without validators.
+     */
+    public boolean isKnown() {
+        return updatedAt != null;
+    }
+
+    /**
+     * Strong entity tag. {@code variant} distinguishes representations of the
+     * same version (e.g. "json" and "xml").
+     */
+    public String eTag(String variant) {
+        return "\"" + variant + "-" + micros(updatedAt) + "-" + links + "-" + micros(linksUpdatedAt) + "\"";
+    }
+
+    /**
+     * Newest timestamp of the row and its links, at second precision as sent in
+     * Last-Modified. Unlinking cannot be seen here, only in the entity tag.
+     */
+    public Instant lastModified() {
+        LocalDateTime newest = linksUpdatedAt != null && linksUpdatedAt.isAfter(updatedAt) ? linksUpdatedAt
+                : updatedAt;
+        return newest.atZone(ZoneId.systemDefault()).toInstant().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private static long micros(LocalDateTime timestamp) {
+        return timestamp == null ? 0
+                : ChronoUnit.MICROS.between(Instant.EPOCH, timestamp.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,38 @@
+package org.acme.web.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A typeahead match: a book (label is the title) or an author (label is
+ * "first last").
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Suggestion {
+
+    public enum Type {
+        BOOK, AUTHOR
+    }
+
+    private Type type;
+
+    private long id;
+
+    private String label;
+
+    /**
+     * The book's ISBN; null for authors and for books without one.
+     */
+    private String isbn;
+
+    public static Suggestion book(long id, String title, String isbn) {
+        return new Suggestion(Type.BOOK, id, title, isbn);
+    }
+
+    public static Suggestion author(long id, String firstName, String lastName) {
+        return new Suggestion(Type.AUTHOR, id, firstName + " " + lastName, null);
+    }
+}
@@ -6,6 +6,9 @@ import java.util.Set;
 
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
@@ -21,6 +24,8 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "author")
 @Table(name = "authors")
 @Getter
 @Setter
@@ -33,7 +38,8 @@ import lombok.ToString;
 public class Author {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "authors_id_seq")
+    @SequenceGenerator(name = "authors_id_seq", sequenceName = "authors_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "first_name", nullable = false)
@@ -45,7 +51,10 @@ public class Author {
     @Column(columnDefinition = "TEXT")
     private String bio;
 
+    // Initialized for up to a page of authors at once with a single IN query
     @ManyToMany(mappedBy = "authors")
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "author-books")
     @Builder.Default
     private Set<Book> books = new HashSet<>();
 
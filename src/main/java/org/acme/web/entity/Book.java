@@ -6,6 +6,9 @@ import java.util.Set;
 
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
@@ -21,6 +24,8 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
 @Table(name = "books")
 @Getter
 @Setter
@@ -33,7 +38,8 @@ import lombok.ToString;
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_id_seq")
+    @SequenceGenerator(name = "books_id_seq", sequenceName = "books_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -45,7 +51,10 @@ public class Book {
     @Column(name = "publication_year")
     private Integer publicationYear;
 
+    // Initialized for up to a page of books at once with a single IN query
     @ManyToMany
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book-authors")
     @JoinTable(name = "book_authors", joinColumns = @JoinColumn(name = "book_id"), inverseJoinColumns = @JoinColumn(name = "author_id"))
     @Builder.Default
     private Set<Author> authors = new HashSet<>();
@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -33,7 +34,9 @@ public class BookAuthor {
     @JoinColumn(name = "author_id", nullable = false)
     private Author author;
 
+    // Links written through Book.authors leave it to the database, as in V1
     @CreatedDate
+    @ColumnDefault("CURRENT_TIMESTAMP")
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 }
@@ -30,7 +30,8 @@ import lombok.ToString;
 public class Message {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "messages_id_seq")
+    @SequenceGenerator(name = "messages_id_seq", sequenceName = "messages_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "msg_id", nullable = false, unique = true)
@@ -45,6 +46,13 @@ public class Message {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    /**
+     * The date of createdAt, which the table is partitioned by. Set when the
+     * message is persisted.
+     */
+    @Column(name = "created_date", nullable = false, updatable = false)
+    private LocalDate createdDate;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "message_type", nullable = false)
     private MessageType messageType;
@@ -74,4 +82,9 @@ public class Message {
     @LastModifiedDate
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    @PrePersist
+    void deriveCreatedDate() {
+        createdDate = createdAt == null ? null : createdAt.toLocalDate();
+    }
 }
@@ -0,0 +1,7 @@
+package org.acme.web.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String key) {
+        super(String.format("Idempotency-Key '%s' was already used for a different message", key));
+    }
+}
@@ -0,0 +1,46 @@
+package org.acme.web.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes rows in the PostgreSQL COPY text format: tab-separated values,
+ * {@code \N} for null, one row per line.
+ */
+final class CopyRowWriter {
+
+    private final Writer out;
+    private boolean firstValue = true;
+
+    CopyRowWriter(Writer out) {
+        this.out = out;
+    }
+
+    CopyRowWriter value(Object value) throws IOException {
+        if (!firstValue) {
+            out.write('\t');
+        }
+        firstValue = false;
+        if (value == null) {
+            out.write("\\N");
+            return this;
+        }
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> out.write("\\\\");
+                case '\t' -> out.write("\\t");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                default -> out.write(c);
+            }
+        }
+        return this;
+    }
+
+    void endRow() throws IOException {
+        out.write('\n');
+        firstValue = true;
+    }
+}
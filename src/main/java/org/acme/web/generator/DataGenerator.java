@@ -0,0 +1,164 @@
+package org.acme.web.generator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.acme.web.config.GeneratorProperties;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads a synthetic dataset (see {@link SyntheticData}) when the application is
+ * started with the "generate" profile, then lets it exit. Tables are loaded in
+ * slices of {@code app.generator.slice-size} rows, each slice through its own
+ * COPY on its own connection, {@code app.generator.threads} at a time. Users go
+ * first, then authors, books and messages together, then book_authors, so
+ * every foreign key points at a committed row. Rows are appended above the
+ * existing ids; afterwards the id sequences are moved past them and the tables
+ * analyzed.
+ */
+@Slf4j
+@Component
+@Profile("generate")
+public class DataGenerator implements ApplicationRunner {
+
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final GeneratorProperties properties;
+
+    public DataGenerator(DataSource dataSource, JdbcTemplate jdbcTemplate, GeneratorProperties properties) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(@NonNull ApplicationArguments args) throws Exception {
+        if (properties.getThreads() < 1 || properties.getSliceSize() < 1 || properties.getMaxAuthorsPerBook() < 1
+                || properties.getMessageDays() < 1) {
+            throw new IllegalStateException(
+                    "app.generator threads, slice-size, max-authors-per-book and message-days must be positive");
+        }
+        SyntheticData data = new SyntheticData(properties, new SyntheticData.IdBases(maxId("users"),
+                maxId("authors"), maxId("books"), maxId("messages"),
+                jdbcTemplate.queryForObject("SELECT COALESCE(MAX(issue), 0) FROM messages", Long.class)));
+        log.info("Generating {} users, {} authors, {} books and {} messages (seed {}, {} threads)",
+                properties.getUsers(), properties.getAuthors(), properties.getBooks(), properties.getMessages(),
+                properties.getSeed(), properties.getThreads());
+
+        // COPY does not go through the write functions, which create partitions as needed
+        LocalDate messageStart = properties.getMessageStart();
+        jdbcTemplate.queryForObject("SELECT create_message_partitions(?, ?)", Integer.class, messageStart,
+                messageStart.plusDays(properties.getMessageDays()));
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getThreads());
+        try {
+            List<Slice> users = slices(SyntheticData.COPY_USERS, properties.getUsers(), data::users);
+            load(executor, users);
+
+            List<Slice> independent = new ArrayList<>();
+            independent.addAll(slices(SyntheticData.COPY_AUTHORS, properties.getAuthors(), data::authors));
+            independent.addAll(slices(SyntheticData.COPY_BOOKS, properties.getBooks(), data::books));
+            independent.addAll(slices(SyntheticData.COPY_MESSAGES, properties.getMessages(), data::messages));
+            load(executor, independent);
+
+            load(executor, slices(SyntheticData.COPY_BOOK_AUTHORS, properties.getBooks(), data::bookAuthors));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Same rule as V9: the next pooled block starts above every id in use
+        for (String table : List.of("users", "authors", "books", "messages")) {
+            jdbcTemplate.execute("SELECT setval('" + table + "_id_seq', COALESCE((SELECT MAX(id) FROM " + table
+                    + "), 0) + 50, false)");
+        }
+        jdbcTemplate.execute("ANALYZE users, authors, books, book_authors, messages");
+        log.info("Synthetic data loaded in {} s", (System.nanoTime() - start) / 1_000_000_000);
+    }
+
+    private List<Slice> slices(String copySql, long rows, RowSource source) {
+        List<Slice> slices = new ArrayList<>();
+        for (long from = 1; from <= rows; from += properties.getSliceSize()) {
+            slices.add(new Slice(copySql, from, Math.min(from + properties.getSliceSize() - 1, rows), source));
+        }
+        return slices;
+    }
+
+    private void load(ExecutorService executor, List<Slice> slices) throws InterruptedException {
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(slices.size());
+        for (Slice slice : slices) {
+            futures.add(executor.submit(() -> {
+                copy(slice);
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Synthetic data load failed", e.getCause());
+        }
+        log.info("Loaded {} slices in {} ms", slices.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void copy(Slice slice) throws SQLException, IOException {
+        // Autocommit: each slice is committed by its own COPY
+        try (Connection connection = dataSource.getConnection()) {
+            PGCopyOutputStream copy = new PGCopyOutputStream(connection.unwrap(PGConnection.class),
+                    slice.copySql(), COPY_BUFFER_SIZE);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8),
+                    COPY_BUFFER_SIZE);
+            try {
+                slice.source().write(slice.from(), slice.to(), new CopyRowWriter(writer));
+                // Flushes and ends the COPY
+                writer.close();
+            } catch (IOException | RuntimeException e) {
+                // Closing would end the COPY and commit a partial slice
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private long maxId(String table) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        void write(long from, long to, CopyRowWriter out) throws IOException;
+    }
+
+    private record Slice(String copySql, long from, long to, RowSource source) {
+    }
+}
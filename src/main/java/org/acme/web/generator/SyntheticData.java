@@ -0,0 +1,252 @@
+package org.acme.web.generator;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+import org.acme.web.config.GeneratorProperties;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
+
+/**
+ * Row contents of the synthetic dataset. Rows are numbered from 1 per table;
+ * row {@code n} gets id {@code base + n}, above the ids already in the table.
+ * Each slice of rows draws from its own random stream, seeded from the
+ * configured seed, the table and the slice's first row, so output does not
+ * depend on which thread writes which slice. Column lists match the COPY
+ * statements below.
+ */
+final class SyntheticData {
+
+    static final String COPY_USERS = "COPY users (id, username, email, first_name, last_name, created_at, "
+            + "updated_at) FROM STDIN";
+    static final String COPY_AUTHORS = "COPY authors (id, first_name, last_name, bio, created_by, created_at, "
+            + "updated_by, updated_at) FROM STDIN";
+    static final String COPY_BOOKS = "COPY books (id, title, isbn, publication_year, created_by, created_at, "
+            + "updated_by, updated_at) FROM STDIN";
+    static final String COPY_BOOK_AUTHORS = "COPY book_authors (book_id, author_id, created_at) FROM STDIN";
+    static final String COPY_MESSAGES = "COPY messages (id, msg_id, subject, message, created_at, message_type, "
+            + "issue, status, effective_start, effective_end, created_by, updated_by, updated_at, created_date) "
+            + "FROM STDIN";
+
+    private static final String[] FIRST_NAMES = { "Ada", "Alan", "Alice", "Amir", "Ana", "Ben", "Chen", "Clara",
+            "Daniel", "Elena", "Emma", "Farah", "George", "Grace", "Hana", "Ivan", "James", "Jane", "Kenji", "Lena",
+            "Lucas", "Maria", "Mateo", "Mia", "Noah", "Olga", "Omar", "Priya", "Rosa", "Sam", "Sofia", "Tom", "Yara",
+            "Zoe" };
+    private static final String[] LAST_NAMES = { "Adams", "Austen", "Brown", "Costa", "Dubois", "Garcia", "Hughes",
+            "Ivanova", "Jensen", "Kim", "Kowalski", "Lee", "Martin", "Meyer", "Nakamura", "Novak", "Okafor", "Patel",
+            "Rossi", "Santos", "Schmidt", "Silva", "Smith", "Tanaka", "Walker", "Wang", "Weber", "Young" };
+    private static final String[] WORDS = { "silent", "river", "empire", "garden", "winter", "shadow", "light",
+            "city", "stone", "memory", "ocean", "machine", "forest", "letter", "house", "storm", "journey", "night",
+            "glass", "fire", "secret", "island", "road", "voice", "map", "summer", "iron", "crown", "dream", "bridge",
+            "update", "release", "service", "window", "report", "notice", "change", "schedule", "network", "review" };
+
+    // Cumulative weights: NEWS 60%, ALERT 15%, NOTICE 25%
+    private static final MessageType[] TYPES = { MessageType.NEWS, MessageType.ALERT, MessageType.NOTICE };
+    private static final double[] TYPE_WEIGHTS = { 0.60, 0.75, 1.0 };
+    // PUBLISHED 70%, DRAFT 10%, ARCHIVED 15%, RETRACTED 5%
+    private static final MessageStatus[] STATUSES = { MessageStatus.PUBLISHED, MessageStatus.DRAFT,
+            MessageStatus.ARCHIVED, MessageStatus.RETRACTED };
+    private static final double[] STATUS_WEIGHTS = { 0.70, 0.80, 0.95, 1.0 };
+
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int CATALOG_DAYS = 365;
+
+    private final GeneratorProperties properties;
+    private final IdBases bases;
+    private final LocalDateTime catalogStart;
+    private final LocalDateTime messageStart;
+    private final double secondsPerMessage;
+    private final double secondsPerCatalogRow;
+
+    SyntheticData(GeneratorProperties properties, IdBases bases) {
+        this.properties = properties;
+        this.bases = bases;
+        this.messageStart = properties.getMessageStart().atStartOfDay();
+        // The catalog is built up over the year before the first message
+        this.catalogStart = messageStart.minusDays(CATALOG_DAYS);
+        this.secondsPerMessage = (double) properties.getMessageDays() * SECONDS_PER_DAY
+                / Math.max(properties.getMessages(), 1);
+        this.secondsPerCatalogRow = (double) CATALOG_DAYS * SECONDS_PER_DAY
+                / Math.max(Math.max(properties.getBooks(), properties.getAuthors()), 1);
+    }
+
+    void users(long from, long to, CopyRowWriter out) throws IOException {
+        SplittableRandom random = random("users", from);
+        for (long n = from; n <= to; n++) {
+            long id = bases.users() + n;
+            LocalDateTime createdAt = catalogStart.minusSeconds(random.nextInt(CATALOG_DAYS * SECONDS_PER_DAY));
+            out.value(id)
+                    .value("user" + id)
+                    .value("user" + id + "@example.com")
+                    .value(pick(random, FIRST_NAMES))
+                    .value(pick(random, LAST_NAMES))
+                    .value(createdAt)
+                    .value(createdAt)
+                    .endRow();
+        }
+    }
+
+    void authors(long from, long to, CopyRowWriter out) throws IOException {
+        SplittableRandom random = random("authors", from);
+        for (long n = from; n <= to; n++) {
+            LocalDateTime createdAt = catalogTime(n);
+            Long createdBy = userId(random);
+            out.value(bases.authors() + n)
+                    .value(pick(random, FIRST_NAMES))
+                    .value(pick(random, LAST_NAMES))
+                    .value(random.nextInt(10) < 3 ? null : "Writes about " + words(random, 3) + ".")
+                    .value(createdBy)
+                    .value(createdAt)
+                    .value(createdBy)
+                    .value(createdAt)
+                    .endRow();
+        }
+    }
+
+    void books(long from, long to, CopyRowWriter out) throws IOException {
+        SplittableRandom random = random("books", from);
+        for (long n = from; n <= to; n++) {
+            long id = bases.books() + n;
+            LocalDateTime createdAt = catalogTime(n);
+            Long createdBy = userId(random);
+            // Skewed towards recent years
+            double age = random.nextDouble();
+            out.value(id)
+                    .value(capitalize(words(random, 2 + random.nextInt(4))))
+                    .value(String.format("978-%010d", id))
+                    .value(2025 - (int) (75 * age * age))
+                    .value(createdBy)
+                    .value(createdAt)
+                    .value(createdBy)
+                    .value(createdAt)
+                    .endRow();
+        }
+    }
+
+    /**
+     * Authors of books {@code from..to}: one for most books, each further one
+     * with probability 0.3, up to the configured maximum. Authors are drawn with
+     * a heavy skew, so a few have thousands of books and most have a handful.
+     */
+    void bookAuthors(long from, long to, CopyRowWriter out) throws IOException {
+        if (properties.getAuthors() == 0) {
+            return;
+        }
+        SplittableRandom random = random("book_authors", from);
+        int maxAuthors = (int) Math.min(properties.getMaxAuthorsPerBook(), properties.getAuthors());
+        long[] chosen = new long[maxAuthors];
+        for (long n = from; n <= to; n++) {
+            int count = 1;
+            while (count < maxAuthors && random.nextDouble() < 0.3) {
+                count++;
+            }
+            LocalDateTime createdAt = catalogTime(n);
+            for (int i = 0; i < count; i++) {
+                long authorId;
+                do {
+                    double rank = random.nextDouble();
+                    authorId = bases.authors() + 1 + (long) (properties.getAuthors() * rank * rank * rank);
+                } while (contains(chosen, i, authorId));
+                chosen[i] = authorId;
+                out.value(bases.books() + n).value(authorId).value(createdAt).endRow();
+            }
+        }
+    }
+
+    /**
+     * Messages spread evenly over the message period, in issue order. Issue
+     * numbers continue above the highest one in the table and are unique, so
+     * the (created_date, issue, message_type) key never collides.
+     */
+    void messages(long from, long to, CopyRowWriter out) throws IOException {
+        SplittableRandom random = random("messages", from);
+        for (long n = from; n <= to; n++) {
+            LocalDateTime createdAt = messageStart
+                    .plusSeconds((long) ((n - 1 + random.nextDouble()) * secondsPerMessage));
+            MessageType type = pick(random, TYPES, TYPE_WEIGHTS);
+            long issue = bases.issue() + n;
+            LocalDate effectiveStart = createdAt.toLocalDate().plusDays(random.nextInt(10) < 8 ? 0
+                    : 1 + random.nextInt(3));
+            LocalDate effectiveEnd = random.nextInt(10) == 0 ? null
+                    : effectiveStart.plusDays(1 + random.nextInt(30));
+            Long createdBy = userId(random);
+            boolean updated = random.nextInt(10) < 4;
+            out.value(bases.messages() + n)
+                    .value(createdAt.toLocalDate() + "/" + type + "/" + issue)
+                    .value(capitalize(words(random, 2 + random.nextInt(3))))
+                    .value(capitalize(words(random, 8 + random.nextInt(25))) + ".")
+                    .value(createdAt)
+                    .value(type)
+                    .value(issue)
+                    .value(pick(random, STATUSES, STATUS_WEIGHTS))
+                    .value(effectiveStart)
+                    .value(effectiveEnd)
+                    .value(createdBy)
+                    .value(updated ? userId(random) : null)
+                    .value(updated ? createdAt.plusMinutes(1 + random.nextInt(72 * 60)) : null)
+                    .value(createdAt.toLocalDate())
+                    .endRow();
+        }
+    }
+
+    private SplittableRandom random(String table, long firstRow) {
+        long seed = properties.getSeed();
+        seed = seed * 31 + table.hashCode();
+        seed = seed * 31 + firstRow;
+        return new SplittableRandom(seed);
+    }
+
+    private LocalDateTime catalogTime(long n) {
+        return catalogStart.plusSeconds((long) ((n - 1) * secondsPerCatalogRow));
+    }
+
+    private Long userId(SplittableRandom random) {
+        return properties.getUsers() == 0 ? null : bases.users() + 1 + random.nextLong(properties.getUsers());
+    }
+
+    private static boolean contains(long[] values, int length, long value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String words(SplittableRandom random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(pick(random, WORDS));
+        }
+        return text.toString();
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static <T> T pick(SplittableRandom random, T[] values, double[] cumulativeWeights) {
+        double r = random.nextDouble();
+        for (int i = 0; i < values.length - 1; i++) {
+            if (r < cumulativeWeights[i]) {
+                return values[i];
+            }
+        }
+        return values[values.length - 1];
+    }
+
+    /**
+     * Highest id per table (and highest message issue) before the load.
+     */
+    record IdBases(long users, long authors, long books, long messages, long issue) {
+    }
+}
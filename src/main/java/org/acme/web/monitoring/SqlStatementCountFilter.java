@@ -0,0 +1,98 @@
+package org.acme.web.monitoring;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import org.acme.web.config.SqlStatementProperties;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Counts the SQL statements of each request (see
+ * {@link SqlStatementCounter}) and logs requests over
+ * {@code app.sql-statements.budget} as warnings, which is how an N+1 shows up.
+ * The count is left in the {@link #COUNT_ATTRIBUTE} request attribute and,
+ * with {@code app.sql-statements.header}, sent as {@link #HEADER}. The header
+ * is set when the body starts, so statements run while the body is written
+ * (lazy loading during serialization) are logged but not in the header.
+ * Streaming responses that write on another thread are not counted.
+ */
+@Slf4j
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-SQL-Statement-Count";
+    public static final String COUNT_ATTRIBUTE = SqlStatementCountFilter.class.getName() + ".count";
+
+    private final SqlStatementCounter counter;
+    private final SqlStatementProperties properties;
+
+    public SqlStatementCountFilter(SqlStatementCounter counter, SqlStatementProperties properties) {
+        this.counter = counter;
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        counter.start();
+        try {
+            filterChain.doFilter(request, properties.isHeader() ? new CountHeaderResponse(response) : response);
+        } finally {
+            int statements = counter.stop();
+            request.setAttribute(COUNT_ATTRIBUTE, statements);
+            if (properties.isHeader() && !response.isCommitted()) {
+                response.setHeader(HEADER, Integer.toString(statements));
+            }
+            if (statements > properties.getBudget()) {
+                log.warn("{} {} executed {} SQL statements (budget {})", request.getMethod(),
+                        request.getRequestURI(), statements, properties.getBudget());
+            } else {
+                log.debug("{} {} executed {} SQL statements", request.getMethod(), request.getRequestURI(),
+                        statements);
+            }
+        }
+    }
+
+    /**
+     * Sets the header from the running count just before the body is written.
+     */
+    private final class CountHeaderResponse extends HttpServletResponseWrapper {
+
+        CountHeaderResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setCountHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setCountHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setCountHeader();
+            super.flushBuffer();
+        }
+
+        private void setCountHeader() {
+            if (!isCommitted()) {
+                setHeader(HEADER, Integer.toString(counter.current()));
+            }
+        }
+    }
+}
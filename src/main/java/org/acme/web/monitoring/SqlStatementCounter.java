@@ -0,0 +1,43 @@
+package org.acme.web.monitoring;
+
+import org.acme.web.datasource.StatementCountingDataSource;
+
+/**
+ * Counts the SQL statements run on the current thread between {@link #start()}
+ * and {@link #stop()}. The application's DataSource is wrapped in a
+ * {@link StatementCountingDataSource}, so it sees every entity load, lazy
+ * initialization, query and flush, and the plain JDBC queries in the
+ * *RepositoryImpl classes. A JDBC batch counts once.
+ */
+public class SqlStatementCounter {
+
+    private final ThreadLocal<int[]> count = new ThreadLocal<>();
+
+    public void start() {
+        count.set(new int[1]);
+    }
+
+    /**
+     * Called for each statement; does nothing when not counting.
+     */
+    public void increment() {
+        int[] current = count.get();
+        if (current != null) {
+            current[0]++;
+        }
+    }
+
+    /**
+     * Statements so far, or 0 when not counting.
+     */
+    public int current() {
+        int[] current = count.get();
+        return current == null ? 0 : current[0];
+    }
+
+    public int stop() {
+        int statements = current();
+        count.remove();
+        return statements;
+    }
+}
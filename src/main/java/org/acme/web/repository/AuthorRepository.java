@@ -1,29 +1,65 @@
 package org.acme.web.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import jakarta.persistence.QueryHint;
+
+import org.acme.web.dto.response.ResourceVersion;
 import org.acme.web.entity.Author;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface AuthorRepository extends JpaRepository<Author, Long> {
+public interface AuthorRepository extends JpaRepository<Author, Long>, AuthorRepositoryCustom {
 
+    /**
+     * Fetches only the to-one audit users; the books collections are initialized
+     * in batches (see {@link Author#getBooks()}), so the result does not multiply
+     * by the number of books per author.
+     */
     @Override
     @Query("""
-            SELECT DISTINCT a
+            SELECT a
             FROM Author a
-            LEFT JOIN FETCH a.books
             LEFT JOIN FETCH a.createdBy
             LEFT JOIN FETCH a.updatedBy
             """)
     @NonNull
     List<Author> findAll();
 
+    /**
+     * First phase of a paged read: one page of author ids, sorted and limited in
+     * SQL.
+     */
+    @Query(value = "SELECT a.id FROM Author a", countQuery = "SELECT COUNT(a) FROM Author a")
+    Page<Long> findIdPage(@NonNull Pageable pageable);
+
+    /**
+     * Second phase of a paged read: the authors for one page of ids, with their
+     * audit users. Rows come back in no particular order.
+     */
+    @Query("""
+            SELECT a
+            FROM Author a
+            LEFT JOIN FETCH a.createdBy
+            LEFT JOIN FETCH a.updatedBy
+            WHERE a.id IN :ids
+            """)
+    List<Author> findAllWithUsersByIdIn(@NonNull @Param("ids") Collection<Long> ids);
+
+    /**
+     * Detail read. Marked cacheable: with the "cache" profile the result is
+     * served from the query and entity caches until one of the tables changes.
+     */
     @Override
     @Query("""
             SELECT a
@@ -33,6 +69,22 @@ public interface AuthorRepository extends JpaRepository<Author, Long> {
             LEFT JOIN FETCH a.updatedBy
             WHERE a.id = :id
             """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @NonNull
     Optional<Author> findById(@NonNull @Param("id") Long id);
+
+    long countByIdIn(@NonNull Collection<Long> ids);
+
+    /**
+     * Version check for conditional GETs: one indexed aggregate, no entity is
+     * loaded.
+     */
+    @Query("""
+            SELECT new org.acme.web.dto.response.ResourceVersion(a.updatedAt, COUNT(ba.id), MAX(ba.createdAt))
+            FROM Author a
+            LEFT JOIN BookAuthor ba ON ba.author = a
+            WHERE a.id = :id
+            GROUP BY a.id, a.updatedAt
+            """)
+    Optional<ResourceVersion> findVersionById(@NonNull @Param("id") Long id);
 }
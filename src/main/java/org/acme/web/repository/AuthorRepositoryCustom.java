@@ -0,0 +1,31 @@
+package org.acme.web.repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.acme.web.dto.response.AuthorResponse;
+import org.acme.web.dto.response.Suggestion;
+import org.springframework.lang.NonNull;
+
+/**
+ * Read-only author queries that return DTOs straight from SQL, implemented in
+ * {@link AuthorRepositoryImpl}.
+ */
+public interface AuthorRepositoryCustom {
+
+    /**
+     * Every author as an {@link AuthorResponse}, with their book ids aggregated
+     * from book_authors. No entities are loaded, so nothing is attached to the
+     * persistence context.
+     */
+    @NonNull
+    List<AuthorResponse> findAllResponses();
+
+    /**
+     * The name of every author, as {@link Suggestion}s in id order, read
+     * through a server-side cursor. Consume inside a transaction and close the
+     * stream.
+     */
+    @NonNull
+    Stream<Suggestion> streamSuggestions();
+}
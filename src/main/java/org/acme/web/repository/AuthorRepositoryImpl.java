@@ -0,0 +1,71 @@
+package org.acme.web.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+
+import org.acme.web.dto.response.AuthorResponse;
+import org.acme.web.dto.response.Suggestion;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.lang.NonNull;
+
+public class AuthorRepositoryImpl implements AuthorRepositoryCustom {
+
+    // Aggregating book_authors in a derived table keeps it to one row per author
+    // and lets the database hash-join it instead of probing once per author
+    private static final String FIND_ALL_RESPONSES_SQL = """
+            SELECT a.id, a.first_name, a.last_name, a.bio,
+                a.created_by, a.created_at, a.updated_by, a.updated_at,
+                ba.book_ids
+            FROM authors a
+            LEFT JOIN (
+                SELECT author_id, ARRAY_AGG(book_id ORDER BY book_id) AS book_ids
+                FROM book_authors
+                GROUP BY author_id
+            ) ba ON ba.author_id = a.id
+            ORDER BY a.id
+            """;
+
+    private static final RowMapper<AuthorResponse> AUTHOR_ROW_MAPPER = (rs, rowNum) -> {
+        AuthorResponse response = new AuthorResponse();
+        response.setId(rs.getLong("id"));
+        response.setFirstName(rs.getString("first_name"));
+        response.setLastName(rs.getString("last_name"));
+        response.setBio(rs.getString("bio"));
+        response.setBookIds(ProjectionRows.ids(rs, "book_ids"));
+        response.setCreatedById(rs.getObject("created_by", Long.class));
+        response.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        response.setUpdatedById(rs.getObject("updated_by", Long.class));
+        response.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        return response;
+    };
+
+    private static final String SUGGESTIONS_SQL = "SELECT id, first_name, last_name FROM authors ORDER BY id";
+
+    private static final RowMapper<Suggestion> SUGGESTION_ROW_MAPPER = (rs, rowNum) -> Suggestion.author(
+            rs.getLong("id"), rs.getString("first_name"), rs.getString("last_name"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    public AuthorRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @NonNull
+    public List<AuthorResponse> findAllResponses() {
+        ProjectionRows.flushPendingChanges(entityManager);
+        return jdbcTemplate.query(FIND_ALL_RESPONSES_SQL, AUTHOR_ROW_MAPPER);
+    }
+
+    @Override
+    @NonNull
+    public Stream<Suggestion> streamSuggestions() {
+        return ProjectionRows.stream(jdbcTemplate, SUGGESTIONS_SQL, SUGGESTION_ROW_MAPPER);
+    }
+}
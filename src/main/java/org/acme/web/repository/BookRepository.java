@@ -1,29 +1,65 @@
 package org.acme.web.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import jakarta.persistence.QueryHint;
+
+import org.acme.web.dto.response.ResourceVersion;
 import org.acme.web.entity.Book;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom {
 
+    /**
+     * Fetches only the to-one audit users; the authors collections are
+     * initialized in batches (see {@link Book#getAuthors()}), so the result does
+     * not multiply by the number of authors per book.
+     */
     @Override
     @Query("""
-            SELECT DISTINCT b
+            SELECT b
             FROM Book b
-            LEFT JOIN FETCH b.authors
             LEFT JOIN FETCH b.createdBy
             LEFT JOIN FETCH b.updatedBy
             """)
     @NonNull
     List<Book> findAll();
 
+    /**
+     * First phase of a paged read: one page of book ids, sorted and limited in
+     * SQL.
+     */
+    @Query(value = "SELECT b.id FROM Book b", countQuery = "SELECT COUNT(b) FROM Book b")
+    Page<Long> findIdPage(@NonNull Pageable pageable);
+
+    /**
+     * Second phase of a paged read: the books for one page of ids, with their
+     * audit users. Rows come back in no particular order.
+     */
+    @Query("""
+            SELECT b
+            FROM Book b
+            LEFT JOIN FETCH b.createdBy
+            LEFT JOIN FETCH b.updatedBy
+            WHERE b.id IN :ids
+            """)
+    List<Book> findAllWithUsersByIdIn(@NonNull @Param("ids") Collection<Long> ids);
+
+    /**
+     * Detail read. Marked cacheable: with the "cache" profile the result is
+     * served from the query and entity caches until one of the tables changes.
+     */
     @Override
     @Query("""
             SELECT b
@@ -33,6 +69,7 @@ public interface BookRepository extends JpaRepository<Book, Long> {
             LEFT JOIN FETCH b.updatedBy
             WHERE b.id = :id
             """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @NonNull
     Optional<Book> findById(@NonNull @Param("id") Long id);
 
@@ -44,5 +81,19 @@ public interface BookRepository extends JpaRepository<Book, Long> {
             LEFT JOIN FETCH b.updatedBy
             WHERE b.isbn = :isbn
             """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Book> findByIsbn(@NonNull @Param("isbn") String isbn);
+
+    /**
+     * Version check for conditional GETs: one indexed aggregate, no entity is
+     * loaded.
+     */
+    @Query("""
+            SELECT new org.acme.web.dto.response.ResourceVersion(b.updatedAt, COUNT(ba.id), MAX(ba.createdAt))
+            FROM Book b
+            LEFT JOIN BookAuthor ba ON ba.book = b
+            WHERE b.id = :id
+            GROUP BY b.id, b.updatedAt
+            """)
+    Optional<ResourceVersion> findVersionById(@NonNull @Param("id") Long id);
 }
@@ -0,0 +1,31 @@
+package org.acme.web.repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.acme.web.dto.response.BookResponse;
+import org.acme.web.dto.response.Suggestion;
+import org.springframework.lang.NonNull;
+
+/**
+ * Read-only book queries that return DTOs straight from SQL, implemented in
+ * {@link BookRepositoryImpl}.
+ */
+public interface BookRepositoryCustom {
+
+    /**
+     * Every book as a {@link BookResponse}, with its author ids aggregated from
+     * book_authors. No entities are loaded, so nothing is attached to the
+     * persistence context.
+     */
+    @NonNull
+    List<BookResponse> findAllResponses();
+
+    /**
+     * The title and ISBN of every book, as {@link Suggestion}s in id order, read
+     * through a server-side cursor. Consume inside a transaction and close the
+     * stream.
+     */
+    @NonNull
+    Stream<Suggestion> streamSuggestions();
+}
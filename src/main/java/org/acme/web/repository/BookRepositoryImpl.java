@@ -0,0 +1,71 @@
+package org.acme.web.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+
+import org.acme.web.dto.response.BookResponse;
+import org.acme.web.dto.response.Suggestion;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.lang.NonNull;
+
+public class BookRepositoryImpl implements BookRepositoryCustom {
+
+    // Aggregating book_authors in a derived table keeps it to one row per book
+    // and lets the database hash-join it instead of probing once per book
+    private static final String FIND_ALL_RESPONSES_SQL = """
+            SELECT b.id, b.title, b.isbn, b.publication_year,
+                b.created_by, b.created_at, b.updated_by, b.updated_at,
+                ba.author_ids
+            FROM books b
+            LEFT JOIN (
+                SELECT book_id, ARRAY_AGG(author_id ORDER BY author_id) AS author_ids
+                FROM book_authors
+                GROUP BY book_id
+            ) ba ON ba.book_id = b.id
+            ORDER BY b.id
+            """;
+
+    private static final RowMapper<BookResponse> BOOK_ROW_MAPPER = (rs, rowNum) -> {
+        BookResponse response = new BookResponse();
+        response.setId(rs.getLong("id"));
+        response.setTitle(rs.getString("title"));
+        response.setIsbn(rs.getString("isbn"));
+        response.setPublicationYear(rs.getObject("publication_year", Integer.class));
+        response.setAuthorIds(ProjectionRows.ids(rs, "author_ids"));
+        response.setCreatedById(rs.getObject("created_by", Long.class));
+        response.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        response.setUpdatedById(rs.getObject("updated_by", Long.class));
+        response.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        return response;
+    };
+
+    private static final String SUGGESTIONS_SQL = "SELECT id, title, isbn FROM books ORDER BY id";
+
+    private static final RowMapper<Suggestion> SUGGESTION_ROW_MAPPER = (rs, rowNum) -> Suggestion.book(
+            rs.getLong("id"), rs.getString("title"), rs.getString("isbn"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    public BookRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @NonNull
+    public List<BookResponse> findAllResponses() {
+        ProjectionRows.flushPendingChanges(entityManager);
+        return jdbcTemplate.query(FIND_ALL_RESPONSES_SQL, BOOK_ROW_MAPPER);
+    }
+
+    @Override
+    @NonNull
+    public Stream<Suggestion> streamSuggestions() {
+        return ProjectionRows.stream(jdbcTemplate, SUGGESTIONS_SQL, SUGGESTION_ROW_MAPPER);
+    }
+}
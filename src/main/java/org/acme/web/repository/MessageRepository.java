@@ -2,48 +2,25 @@ package org.acme.web.repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
 
 import org.acme.web.entity.Message;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface MessageRepository extends JpaRepository<Message, Long> {
-
-    /**
-     * Calls the insert_message PostgreSQL function (upsert by created_date, issue,
-     * message_type). Returns the id of the inserted or updated row.
-     */
-    @Query(value = """
-            SELECT insert_message(
-                :p_subject,
-                :p_message,
-                :p_created_at,
-                CAST(:p_message_type AS message_type_enum),
-                :p_issue,
-                CAST(:p_status AS message_status_enum),
-                :p_effective_start,
-                :p_effective_end,
-                :p_created_by,
-                :p_updated_by
-            )
-            """, nativeQuery = true)
-    Long callInsertMessage(
-            @Param("p_subject") String pSubject,
-            @Param("p_message") String pMessage,
-            @Param("p_created_at") LocalDateTime pCreatedAt,
-            @Param("p_message_type") String pMessageType,
-            @Param("p_issue") Long pIssue,
-            @Param("p_status") String pStatus,
-            @Param("p_effective_start") LocalDate pEffectiveStart,
-            @Param("p_effective_end") LocalDate pEffectiveEnd,
-            @Param("p_created_by") Long pCreatedBy,
-            @Param("p_updated_by") Long pUpdatedBy);
+public interface MessageRepository extends JpaRepository<Message, Long>, MessageRepositoryCustom {
 
     @Override
     @Query("""
@@ -66,12 +43,92 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     @NonNull
     Optional<Message> findById(@NonNull @Param("id") Long id);
 
+    /**
+     * A msgId starts with the message's created_date, which is passed along
+     * so that only that month's partition is read. A msgId that does not
+     * start with a date matches nothing.
+     */
+    @NonNull
+    default Optional<Message> findByMsgId(@NonNull String msgId) {
+        LocalDate createdDate = createdDateOf(msgId);
+        return createdDate == null ? Optional.empty() : findByMsgIdAndCreatedDate(msgId, createdDate);
+    }
+
+    @Query("""
+            SELECT m
+            FROM Message m
+            LEFT JOIN FETCH m.createdBy
+            LEFT JOIN FETCH m.updatedBy
+            WHERE m.msgId = :msgId AND m.createdDate = :createdDate
+            """)
+    Optional<Message> findByMsgIdAndCreatedDate(@NonNull @Param("msgId") String msgId,
+            @NonNull @Param("createdDate") LocalDate createdDate);
+
+    private static LocalDate createdDateOf(String msgId) {
+        int end = msgId.indexOf('/');
+        try {
+            return LocalDate.parse(end < 0 ? msgId : msgId.substring(0, end));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Newest updated_at in the table, or null when no row has one.
+     */
+    @Query("SELECT MAX(m.updatedAt) FROM Message m")
+    LocalDateTime findMaxUpdatedAt();
+
+    /**
+     * First page of the (created_at, id) ordering, served by
+     * idx_messages_created_at_id.
+     */
+    @Query("""
+            SELECT m
+            FROM Message m
+            LEFT JOIN FETCH m.createdBy
+            LEFT JOIN FETCH m.updatedBy
+            ORDER BY m.createdAt, m.id
+            """)
+    List<Message> findFirstPage(@NonNull Limit limit);
+
+    /**
+     * Keyset (seek) page: rows strictly after the given (created_at, id) position.
+     * The row-value comparison lets PostgreSQL start an index range scan at the
+     * cursor, so every page costs the same regardless of depth. The
+     * created_date bound, implied by it, skips the partitions of earlier months.
+     */
+    @Query("""
+            SELECT m
+            FROM Message m
+            LEFT JOIN FETCH m.createdBy
+            LEFT JOIN FETCH m.updatedBy
+            WHERE (m.createdAt, m.id) > (:createdAt, :id)
+              AND m.createdDate >= CAST(:createdAt AS LocalDate)
+            ORDER BY m.createdAt, m.id
+            """)
+    List<Message> findPageAfter(
+            @NonNull @Param("createdAt") LocalDateTime createdAt,
+            @NonNull @Param("id") Long id,
+            @NonNull Limit limit);
+
+    /**
+     * Streams every message in (created_at, id) order through a server-side
+     * cursor. Must be consumed inside a transaction (PostgreSQL only honours the
+     * fetch size when autocommit is off) and closed afterwards. Entities are
+     * loaded read-only so Hibernate keeps no dirty-checking snapshots.
+     */
     @Query("""
             SELECT m
             FROM Message m
             LEFT JOIN FETCH m.createdBy
             LEFT JOIN FETCH m.updatedBy
-            WHERE m.msgId = :msgId
+            ORDER BY m.createdAt, m.id
             """)
-    Optional<Message> findByMsgId(@NonNull @Param("msgId") String msgId);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<Message> streamAll();
 }
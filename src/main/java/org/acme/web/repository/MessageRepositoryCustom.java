@@ -0,0 +1,85 @@
+package org.acme.web.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.acme.web.dto.request.CreateMessageRequest;
+import org.acme.web.dto.response.BulkMessageResult;
+import org.acme.web.dto.response.MessageResponse;
+import org.acme.web.dto.response.MessageSearchResult;
+import org.acme.web.dto.response.MessageUpsertResult;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
+import org.springframework.lang.NonNull;
+
+/**
+ * Message queries that need plain JDBC (e.g. array parameters), implemented in
+ * {@link MessageRepositoryImpl}.
+ */
+public interface MessageRepositoryCustom {
+
+    /**
+     * Calls the upsert_message PostgreSQL function (upsert by created_date,
+     * issue, message_type). Returns the stored row and whether it was inserted,
+     * in a single round trip.
+     */
+    @NonNull
+    MessageUpsertResult upsert(@NonNull CreateMessageRequest request, Long updatedBy);
+
+    /**
+     * Calls the insert_messages PostgreSQL function, upserting the whole batch in
+     * one statement. Returns one result per distinct (created_date, issue,
+     * message_type) key in the batch.
+     */
+    @NonNull
+    List<BulkMessageResult> upsertAll(@NonNull List<CreateMessageRequest> requests, Long updatedBy);
+
+    /**
+     * Calls the create_message_partitions PostgreSQL function, creating the
+     * monthly partitions covering {@code from} to {@code to} that do not exist
+     * yet. Returns how many were created.
+     */
+    int createPartitions(@NonNull LocalDate from, @NonNull LocalDate to);
+
+    /**
+     * Messages with the given status whose effective period (both ends
+     * inclusive, open-ended when effective_end is null) contains {@code on},
+     * optionally of one type, ordered by effective_start and id. Served by the
+     * idx_messages_effective_range GiST index.
+     */
+    @NonNull
+    List<MessageResponse> findActive(@NonNull LocalDate on, MessageType type, @NonNull MessageStatus status);
+
+    /**
+     * PUBLISHED messages whose effective period has not ended before
+     * {@code date} (including ones that start later). Full load of the
+     * current-messages snapshot.
+     */
+    @NonNull
+    List<MessageResponse> findPublishedNotEndedBefore(@NonNull LocalDate date);
+
+    /**
+     * Messages of any status with updated_at after {@code since}, served by
+     * idx_messages_updated_at. Incremental refresh of the current-messages
+     * snapshot.
+     */
+    @NonNull
+    List<MessageResponse> findUpdatedSince(@NonNull LocalDateTime since);
+
+    /**
+     * Full-text search of subject and body (PostgreSQL websearch syntax:
+     * words, "quoted phrases", OR, -excluded), served by the
+     * idx_messages_search_vector GIN index. Ranks the newest
+     * {@code maxCandidates} matches and returns up to {@code limit} of them by
+     * rank then id, both descending, starting after ({@code afterRank},
+     * {@code afterId}) when given. Matches are looked for among the newest
+     * {@code 50 * maxCandidates} messages first, and over all messages only
+     * when the query's words are rare there; a phrase or exclusion made only of
+     * common words finds matches in that window only. The result says whether
+     * either limit may have left matches out.
+     */
+    @NonNull
+    MessageSearchResult search(@NonNull String query, int maxCandidates, Float afterRank, Long afterId,
+            int limit);
+}
@@ -0,0 +1,384 @@
+package org.acme.web.repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.acme.web.dto.request.CreateMessageRequest;
+import org.acme.web.dto.response.BulkMessageResult;
+import org.acme.web.dto.response.MessageResponse;
+import org.acme.web.dto.response.MessageSearchHit;
+import org.acme.web.dto.response.MessageSearchResult;
+import org.acme.web.dto.response.MessageUpsertResult;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.lang.NonNull;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+public class MessageRepositoryImpl implements MessageRepositoryCustom {
+
+    private static final String UPSERT_SQL = """
+            SELECT *
+            FROM upsert_message(
+                ?,
+                ?,
+                ?,
+                CAST(? AS message_type_enum),
+                ?,
+                CAST(? AS message_status_enum),
+                ?,
+                ?,
+                ?,
+                ?
+            )
+            """;
+
+    private static final RowMapper<MessageResponse> MESSAGE_ROW_MAPPER = (rs, rowNum) -> {
+        MessageResponse response = new MessageResponse();
+        response.setId(rs.getLong("id"));
+        response.setMsgId(rs.getString("msg_id"));
+        response.setTitle(rs.getString("subject"));
+        response.setMessage(rs.getString("message"));
+        response.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        response.setMessageType(MessageType.valueOf(rs.getString("message_type")));
+        response.setIssue(rs.getLong("issue"));
+        response.setStatus(MessageStatus.valueOf(rs.getString("status")));
+        response.setEffectiveStart(rs.getObject("effective_start", LocalDate.class));
+        response.setEffectiveEnd(rs.getObject("effective_end", LocalDate.class));
+        response.setCreatedById(rs.getObject("created_by", Long.class));
+        response.setUpdatedById(rs.getObject("updated_by", Long.class));
+        response.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        return response;
+    };
+
+    private static final RowMapper<MessageUpsertResult> UPSERT_ROW_MAPPER = (rs, rowNum) -> new MessageUpsertResult(
+            MESSAGE_ROW_MAPPER.mapRow(rs, rowNum), rs.getBoolean("inserted"));
+
+    private static final String UPSERT_ALL_SQL = """
+            SELECT id, msg_id, inserted
+            FROM insert_messages(
+                ?,
+                ?,
+                ?,
+                CAST(? AS message_type_enum[]),
+                ?,
+                CAST(? AS message_status_enum[]),
+                ?,
+                ?,
+                ?,
+                ?
+            )
+            """;
+
+    private static final String MESSAGE_COLUMNS = """
+            SELECT id, msg_id, subject, message, created_at, message_type, issue, status,
+                   effective_start, effective_end, created_by, updated_by, updated_at
+            FROM messages
+            """;
+
+    // Same expression as idx_messages_effective_range, so the index is used
+    private static final String ACTIVE_SQL = MESSAGE_COLUMNS + """
+            WHERE daterange(effective_start, effective_end, '[]') @> CAST(? AS date)
+              AND status = CAST(? AS message_status_enum)
+            """;
+
+    private static final String ACTIVE_TYPE_FILTER = "  AND message_type = CAST(? AS message_type_enum)\n";
+
+    private static final String ACTIVE_ORDER = "ORDER BY effective_start, id";
+
+    private static final String PUBLISHED_NOT_ENDED_SQL = MESSAGE_COLUMNS + """
+            WHERE status = 'PUBLISHED'
+              AND (effective_end IS NULL OR effective_end >= ?)
+            """;
+
+    private static final String UPDATED_SINCE_SQL = MESSAGE_COLUMNS + "WHERE updated_at > ?";
+
+    private static final String CREATE_PARTITIONS_SQL = "SELECT create_message_partitions(?, ?)";
+
+    /*
+     * The newest max-candidates matches are ranked, so a term found in half of
+     * the table costs no more than a rare one. They are found in one of two ways:
+     *
+     * - newest: walks idx_messages_created_at_id over the newest window of
+     *   messages, keeping those the GIN index could match ("indexed" is the
+     *   query with NOT dropped and phrases relaxed to AND; all of them when
+     *   only -excluded words are given) and flagging those that match the real
+     *   query. Enough matches there ends the search.
+     * - whole_history: when the window has too few, and the indexable words
+     *   are rare in it too, the GIN index is scanned over all messages. Rare
+     *   words make that bitmap small; common words that only combine into a
+     *   rare phrase (or a query with nothing indexable) would recheck most of
+     *   the table, so those stay limited to the window.
+     *
+     * The planner cannot tell these cases apart itself: a word missing from the
+     * statistics is estimated as common and it scans the whole table in
+     * created_at order. The CASE runs the count of "newest" only when needed,
+     * and "query" is materialized so a generic plan (the JDBC driver prepares
+     * the statement once it is reused) does not rebuild it for every row.
+     * The page is cut from the candidates by (rank, id), and only its rows are
+     * joined back for columns and a snippet; ts_headline re-parses the body, so
+     * it runs for the page only.
+     *
+     * "scope" tells whether matches may have been left out: the candidates
+     * were capped, or only the window was searched and older messages exist.
+     * The page is left-joined to it, so an empty page still returns that row.
+     */
+    private static final String SEARCH_SQL = """
+            WITH query AS MATERIALIZED (
+                SELECT q, querytree(q) <> 'T' AS indexable,
+                       CAST(regexp_replace(querytree(q), '<(-|[0-9]+)>', '&', 'g') AS tsquery) AS indexed
+                FROM websearch_to_tsquery('english', CAST(? AS text)) AS q
+            ),
+            newest AS (
+                SELECT w.id, w.created_at, w.search_vector @@ query.q AS matches
+                FROM (
+                    SELECT id, created_at, search_vector
+                    FROM messages
+                    ORDER BY created_at DESC, id DESC
+                    LIMIT ?
+                ) w, query
+                WHERE NOT query.indexable OR w.search_vector @@ query.indexed
+            ),
+            recent AS (
+                SELECT id, created_at FROM newest WHERE matches LIMIT ?
+            ),
+            whole_history AS (
+                SELECT CASE
+                           WHEN (SELECT count(*) FROM recent) = ? THEN false
+                           ELSE (SELECT indexable FROM query) AND (SELECT count(*) FROM newest) < ?
+                       END AS searched
+            ),
+            candidates AS (
+                SELECT id
+                FROM (
+                    SELECT id, created_at FROM recent WHERE NOT (SELECT searched FROM whole_history)
+                    UNION ALL
+                    SELECT m.id, m.created_at
+                    FROM messages m, query
+                    WHERE m.search_vector @@ query.q AND (SELECT searched FROM whole_history)
+                ) c
+                ORDER BY created_at DESC, id DESC
+                LIMIT ?
+            ),
+            page AS (
+                SELECT m.id, ts_rank(m.search_vector, query.q) AS rank
+                FROM candidates c
+                JOIN messages m ON m.id = c.id
+                CROSS JOIN query
+                WHERE CAST(? AS real) IS NULL
+                   OR (ts_rank(m.search_vector, query.q), m.id) < (CAST(? AS real), CAST(? AS bigint))
+                ORDER BY rank DESC, m.id DESC
+                LIMIT ?
+            ),
+            scope AS (
+                SELECT CASE
+                           WHEN (SELECT count(*) FROM candidates) = ? THEN true
+                           WHEN (SELECT searched FROM whole_history) THEN false
+                           ELSE EXISTS (SELECT 1 FROM messages OFFSET ?)
+                       END AS truncated
+            )
+            SELECT scope.truncated,
+                   m.id, m.msg_id, m.subject, m.message, m.created_at, m.message_type, m.issue, m.status,
+                   m.effective_start, m.effective_end, m.created_by, m.updated_by, m.updated_at, page.rank,
+                   ts_headline('english', m.message, query.q, 'MaxFragments=2, MinWords=5, MaxWords=20') AS snippet
+            FROM scope
+            LEFT JOIN page ON true
+            LEFT JOIN messages m ON m.id = page.id
+            CROSS JOIN query
+            ORDER BY page.rank DESC, page.id DESC
+            """;
+
+    /**
+     * Newest messages searched per candidate wanted before falling back to the
+     * whole history: a word in 2% of messages fills the candidates from the
+     * window alone.
+     */
+    private static final int SEARCH_WINDOW_PER_CANDIDATE = 50;
+
+    /**
+     * Indexable words matching fewer than 1 in this many window messages are
+     * rare enough to look up over the whole history.
+     */
+    private static final int SEARCH_RARE_WORD_RATIO = 500;
+
+    private static final RowMapper<MessageSearchHit> SEARCH_ROW_MAPPER = (rs, rowNum) -> new MessageSearchHit(
+            MESSAGE_ROW_MAPPER.mapRow(rs, rowNum), rs.getFloat("rank"), rs.getString("snippet"));
+
+    private static final ResultSetExtractor<MessageSearchResult> SEARCH_RESULT_EXTRACTOR = rs -> {
+        List<MessageSearchHit> hits = new ArrayList<>();
+        boolean truncated = false;
+        while (rs.next()) {
+            truncated = rs.getBoolean("truncated");
+            // An empty page is a single row of nulls besides "truncated"
+            if (rs.getObject("id") != null) {
+                hits.add(SEARCH_ROW_MAPPER.mapRow(rs, hits.size()));
+            }
+        }
+        return new MessageSearchResult(hits, truncated);
+    };
+
+    /**
+     * Duration of each call to a message write function, tagged with the
+     * function and the outcome (success / error).
+     */
+    static final String FUNCTION_CALLS_METRIC = "messages.db.function.calls";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public MessageRepositoryImpl(JdbcTemplate jdbcTemplate, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        // No registry in repository slice tests; the global one is a no-op there
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
+    @Override
+    @NonNull
+    @SuppressWarnings("null")
+    public MessageUpsertResult upsert(@NonNull CreateMessageRequest request, Long updatedBy) {
+        return timed("upsert_message", () -> jdbcTemplate.queryForObject(UPSERT_SQL, UPSERT_ROW_MAPPER,
+                request.getTitle(),
+                request.getMessage(),
+                request.getCreatedAt(),
+                request.getMessageType().name(),
+                request.getIssue(),
+                request.getStatus().name(),
+                request.getEffectiveStart(),
+                request.getEffectiveEnd(),
+                request.getCreatedBy(),
+                updatedBy));
+    }
+
+    @Override
+    @NonNull
+    @SuppressWarnings("null")
+    public List<BulkMessageResult> upsertAll(@NonNull List<CreateMessageRequest> requests, Long updatedBy) {
+        return timed("insert_messages", () -> jdbcTemplate.execute(upsertAllCallback(requests, updatedBy)));
+    }
+
+    private static ConnectionCallback<List<BulkMessageResult>> upsertAllCallback(List<CreateMessageRequest> requests,
+            Long updatedBy) {
+        return connection -> {
+            int size = requests.size();
+            String[] subjects = new String[size];
+            String[] messages = new String[size];
+            Timestamp[] createdAts = new Timestamp[size];
+            String[] messageTypes = new String[size];
+            Long[] issues = new Long[size];
+            String[] statuses = new String[size];
+            Date[] effectiveStarts = new Date[size];
+            Date[] effectiveEnds = new Date[size];
+            Long[] createdBys = new Long[size];
+            for (int i = 0; i < size; i++) {
+                CreateMessageRequest request = requests.get(i);
+                subjects[i] = request.getTitle();
+                messages[i] = request.getMessage();
+                createdAts[i] = Timestamp.valueOf(request.getCreatedAt());
+                messageTypes[i] = request.getMessageType().name();
+                issues[i] = request.getIssue();
+                statuses[i] = request.getStatus().name();
+                effectiveStarts[i] = Date.valueOf(request.getEffectiveStart());
+                effectiveEnds[i] = request.getEffectiveEnd() != null ? Date.valueOf(request.getEffectiveEnd()) : null;
+                createdBys[i] = request.getCreatedBy();
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT_ALL_SQL)) {
+                statement.setArray(1, array(connection, "varchar", subjects));
+                statement.setArray(2, array(connection, "text", messages));
+                statement.setArray(3, array(connection, "timestamp", createdAts));
+                statement.setArray(4, array(connection, "text", messageTypes));
+                statement.setArray(5, array(connection, "int8", issues));
+                statement.setArray(6, array(connection, "text", statuses));
+                statement.setArray(7, array(connection, "date", effectiveStarts));
+                statement.setArray(8, array(connection, "date", effectiveEnds));
+                statement.setArray(9, array(connection, "int8", createdBys));
+                statement.setObject(10, updatedBy, Types.BIGINT);
+                try (ResultSet rs = statement.executeQuery()) {
+                    List<BulkMessageResult> results = new ArrayList<>(size);
+                    while (rs.next()) {
+                        results.add(new BulkMessageResult(rs.getLong("id"), rs.getString("msg_id"),
+                                rs.getBoolean("inserted")));
+                    }
+                    return results;
+                }
+            }
+        };
+    }
+
+    private <T> T timed(String function, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder(FUNCTION_CALLS_METRIC)
+                    .description("Calls to message write functions")
+                    .tag("function", function)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    @SuppressWarnings("null")
+    public int createPartitions(@NonNull LocalDate from, @NonNull LocalDate to) {
+        return jdbcTemplate.queryForObject(CREATE_PARTITIONS_SQL, Integer.class, from, to);
+    }
+
+    @Override
+    @NonNull
+    public List<MessageResponse> findActive(@NonNull LocalDate on, MessageType type, @NonNull MessageStatus status) {
+        if (type == null) {
+            return jdbcTemplate.query(ACTIVE_SQL + ACTIVE_ORDER, MESSAGE_ROW_MAPPER, on, status.name());
+        }
+        return jdbcTemplate.query(ACTIVE_SQL + ACTIVE_TYPE_FILTER + ACTIVE_ORDER, MESSAGE_ROW_MAPPER, on,
+                status.name(), type.name());
+    }
+
+    @Override
+    @NonNull
+    public List<MessageResponse> findPublishedNotEndedBefore(@NonNull LocalDate date) {
+        return jdbcTemplate.query(PUBLISHED_NOT_ENDED_SQL, MESSAGE_ROW_MAPPER, date);
+    }
+
+    @Override
+    @NonNull
+    public List<MessageResponse> findUpdatedSince(@NonNull LocalDateTime since) {
+        return jdbcTemplate.query(UPDATED_SINCE_SQL, MESSAGE_ROW_MAPPER, since);
+    }
+
+    @Override
+    @NonNull
+    @SuppressWarnings("null")
+    public MessageSearchResult search(@NonNull String query, int maxCandidates, Float afterRank, Long afterId,
+            int limit) {
+        int window = maxCandidates * SEARCH_WINDOW_PER_CANDIDATE;
+        return jdbcTemplate.query(SEARCH_SQL, SEARCH_RESULT_EXTRACTOR, query, window, maxCandidates, maxCandidates,
+                window / SEARCH_RARE_WORD_RATIO, maxCandidates, afterRank, afterRank, afterId, limit, maxCandidates,
+                window);
+    }
+
+    private static Array array(Connection connection, String typeName, Object[] elements) throws SQLException {
+        return connection.createArrayOf(typeName, elements);
+    }
+}
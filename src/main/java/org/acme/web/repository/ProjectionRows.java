@@ -0,0 +1,72 @@
+package org.acme.web.repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Column readers shared by the JDBC projection queries.
+ */
+final class ProjectionRows {
+
+    static final int STREAM_FETCH_SIZE = 1000;
+
+    private ProjectionRows() {
+    }
+
+    /**
+     * Rows of {@code sql} read {@link #STREAM_FETCH_SIZE} at a time through a
+     * server-side cursor. PostgreSQL only honours the fetch size when autocommit
+     * is off, so consume inside a transaction, and close the stream.
+     */
+    static <T> Stream<T> stream(JdbcTemplate jdbcTemplate, String sql, RowMapper<T> rowMapper) {
+        return jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            return statement;
+        }, rowMapper);
+    }
+
+    /**
+     * Plain JDBC bypasses Hibernate's auto-flush, so push any pending changes of
+     * the current transaction first; otherwise the projection would not see
+     * them.
+     */
+    static void flushPendingChanges(EntityManager entityManager) {
+        if (entityManager.isJoinedToTransaction()) {
+            entityManager.flush();
+        }
+    }
+
+    /**
+     * Reads a BIGINT[] column (e.g. from array_agg) as a set of ids. A NULL
+     * array, which array_agg yields when there is nothing to aggregate, reads as
+     * an empty set.
+     */
+    static Set<Long> ids(ResultSet rs, String column) throws SQLException {
+        Array array = rs.getArray(column);
+        if (array == null) {
+            return new LinkedHashSet<>();
+        }
+        try {
+            Object[] elements = (Object[]) array.getArray();
+            Set<Long> ids = new LinkedHashSet<>(elements.length * 2);
+            for (Object element : elements) {
+                ids.add(((Number) element).longValue());
+            }
+            return ids;
+        } finally {
+            array.free();
+        }
+    }
+
+}
@@ -2,8 +2,11 @@ package org.acme.web.repository;
 
 import java.util.Optional;
 
+import org.acme.web.dto.response.ResourceVersion;
 import org.acme.web.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
@@ -18,4 +21,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(@NonNull String username);
 
     Optional<User> findByEmail(@NonNull String email);
+
+    /**
+     * Version check for conditional GETs.
+     */
+    @Query("SELECT new org.acme.web.dto.response.ResourceVersion(u.updatedAt) FROM User u WHERE u.id = :id")
+    Optional<ResourceVersion> findVersionById(@NonNull @Param("id") Long id);
 }
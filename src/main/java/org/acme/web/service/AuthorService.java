@@ -5,15 +5,23 @@ import java.util.List;
 import org.acme.web.dto.request.CreateAuthorRequest;
 import org.acme.web.dto.request.UpdateAuthorRequest;
 import org.acme.web.dto.response.AuthorResponse;
+import org.acme.web.dto.response.PageResponse;
+import org.acme.web.dto.response.ResourceVersion;
 import org.springframework.lang.NonNull;
 
 public interface AuthorService {
     List<AuthorResponse> findAll();
 
+    PageResponse<AuthorResponse> findPage(int page, int size, @NonNull String sort, @NonNull String direction);
+
     AuthorResponse findById(@NonNull Long id);
 
+    ResourceVersion findVersion(@NonNull Long id);
+
     AuthorResponse create(@NonNull CreateAuthorRequest request);
 
+    List<AuthorResponse> createAll(@NonNull List<CreateAuthorRequest> requests);
+
     AuthorResponse update(@NonNull Long id, @NonNull UpdateAuthorRequest request);
 
     void delete(@NonNull Long id);
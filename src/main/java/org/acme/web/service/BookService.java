@@ -5,15 +5,23 @@ import java.util.List;
 import org.acme.web.dto.request.CreateBookRequest;
 import org.acme.web.dto.request.UpdateBookRequest;
 import org.acme.web.dto.response.BookResponse;
+import org.acme.web.dto.response.PageResponse;
+import org.acme.web.dto.response.ResourceVersion;
 import org.springframework.lang.NonNull;
 
 public interface BookService {
     List<BookResponse> findAll();
 
+    PageResponse<BookResponse> findPage(int page, int size, @NonNull String sort, @NonNull String direction);
+
     BookResponse findById(@NonNull Long id);
 
+    ResourceVersion findVersion(@NonNull Long id);
+
     BookResponse create(@NonNull CreateBookRequest request);
 
+    List<BookResponse> createAll(@NonNull List<CreateBookRequest> requests);
+
     BookResponse update(@NonNull Long id, @NonNull UpdateBookRequest request);
 
     void delete(@NonNull Long id);
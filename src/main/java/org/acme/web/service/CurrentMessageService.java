@@ -0,0 +1,17 @@
+package org.acme.web.service;
+
+import java.util.List;
+
+import org.acme.web.dto.response.MessageResponse;
+import org.acme.web.entity.MessageType;
+
+public interface CurrentMessageService {
+
+    /**
+     * PUBLISHED messages in effect today, optionally of one type, ordered by
+     * effectiveStart and id. Answered from memory.
+     */
+    List<MessageResponse> findCurrent(MessageType type);
+
+    void refresh();
+}
@@ -0,0 +1,39 @@
+package org.acme.web.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import org.acme.web.exception.BadRequestException;
+import org.springframework.lang.NonNull;
+
+/**
+ * Position in the (created_at, id) ordering of messages. Clients only ever see
+ * the encoded form, which is an opaque URL-safe token.
+ */
+public record MessageCursor(@NonNull LocalDateTime createdAt, @NonNull Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    @NonNull
+    public String encode() {
+        String raw = createdAt + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @NonNull
+    public static MessageCursor decode(@NonNull String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new MessageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new BadRequestException("Invalid cursor", ex);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.acme.web.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.springframework.lang.NonNull;
+
+public interface MessageExportService {
+
+    /**
+     * Writes every message as newline-delimited JSON. Returns the number of
+     * messages written.
+     */
+    long exportNdjson(@NonNull OutputStream out) throws IOException;
+
+    /**
+     * Writes every message as a single &lt;messages&gt; XML document. Returns the
+     * number of messages written.
+     */
+    long exportXml(@NonNull OutputStream out) throws IOException;
+}
@@ -0,0 +1,18 @@
+package org.acme.web.service;
+
+import org.acme.web.dto.request.CreateMessageRequest;
+import org.acme.web.dto.response.IngestionStatusResponse;
+import org.springframework.lang.NonNull;
+
+public interface MessageIngestionService {
+
+    /**
+     * Spools the message for the background drainer and returns once it is on
+     * disk, without touching the database.
+     *
+     * @throws org.acme.web.spool.SpoolFullException if the spool has no room
+     */
+    IngestionStatusResponse submit(@NonNull CreateMessageRequest request);
+
+    IngestionStatusResponse getStatus(@NonNull String trackingId);
+}
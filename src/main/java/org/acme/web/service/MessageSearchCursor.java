@@ -0,0 +1,42 @@
+package org.acme.web.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.acme.web.exception.BadRequestException;
+import org.springframework.lang.NonNull;
+
+/**
+ * Position in the (rank descending, id descending) ordering of search results.
+ * The rank is the float4 PostgreSQL computed; Float.toString round-trips it
+ * exactly, so the next page starts right after the last row. Clients only
+ * ever see the encoded form, which is an opaque URL-safe token.
+ */
+public record MessageSearchCursor(float rank, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    @NonNull
+    public String encode() {
+        String raw = Float.toString(rank) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @NonNull
+    public static MessageSearchCursor decode(@NonNull String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            float rank = Float.parseFloat(raw.substring(0, separator));
+            if (!Float.isFinite(rank)) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new MessageSearchCursor(rank, Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid cursor", ex);
+        }
+    }
+}
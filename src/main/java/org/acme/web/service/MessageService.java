@@ -1,18 +1,39 @@
 package org.acme.web.service;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import org.acme.web.dto.request.CreateMessageRequest;
+import org.acme.web.dto.response.BulkMessageResponse;
+import org.acme.web.dto.response.MessagePageResponse;
 import org.acme.web.dto.response.MessageResponse;
+import org.acme.web.dto.response.MessageSearchResponse;
+import org.acme.web.dto.response.MessageUpsertResult;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
 import org.springframework.lang.NonNull;
 
 public interface MessageService {
 
-    MessageResponse upload(@NonNull CreateMessageRequest request);
+    MessageUpsertResult upload(@NonNull CreateMessageRequest request);
+
+    /**
+     * Uploads the message once per {@code idempotencyKey}; repeats of the key
+     * within the idempotency window get the first upload's result.
+     */
+    MessageUpsertResult upload(@NonNull CreateMessageRequest request, @NonNull String idempotencyKey);
+
+    BulkMessageResponse uploadAll(@NonNull List<CreateMessageRequest> requests);
 
     MessageResponse findById(@NonNull Long id);
 
     MessageResponse findByMsgId(@NonNull String msgId);
 
     List<MessageResponse> findAll();
+
+    MessagePageResponse findPage(String cursor, int limit);
+
+    MessageSearchResponse search(@NonNull String query, String cursor, int limit);
+
+    List<MessageResponse> findActive(@NonNull LocalDate on, MessageType type, @NonNull MessageStatus status);
 }
@@ -0,0 +1,46 @@
+package org.acme.web.service;
+
+import java.util.Map;
+
+import org.acme.web.exception.BadRequestException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.NonNull;
+
+/**
+ * Builds {@link Pageable}s for the offset-paginated listings from raw request
+ * parameters. Only whitelisted sort keys are accepted, and id is always added
+ * as the last sort column so rows with equal keys keep a stable order across
+ * pages.
+ */
+public final class PageRequests {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private PageRequests() {
+    }
+
+    /**
+     * @param sorts
+     *            the accepted sort keys mapped to the entity properties they
+     *            order by
+     */
+    @NonNull
+    public static Pageable of(int page, int size, @NonNull String sort, @NonNull String direction,
+            @NonNull Map<String, String[]> sorts) {
+        String[] properties = sorts.get(sort);
+        if (properties == null) {
+            throw new BadRequestException(
+                    String.format("Unsupported sort '%s', expected one of %s", sort, sorts.keySet()));
+        }
+        Sort.Direction sortDirection = Sort.Direction.fromOptionalString(direction)
+                .orElseThrow(() -> new BadRequestException(
+                        String.format("Unsupported direction '%s', expected asc or desc", direction)));
+        if (page < 0) {
+            throw new BadRequestException("Page must not be negative");
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        return PageRequest.of(page, pageSize, Sort.by(sortDirection, properties).and(Sort.by(sortDirection, "id")));
+    }
+}
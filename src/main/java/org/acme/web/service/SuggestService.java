@@ -0,0 +1,20 @@
+package org.acme.web.service;
+
+import java.util.List;
+
+import org.acme.web.dto.response.Suggestion;
+import org.springframework.lang.NonNull;
+
+public interface SuggestService {
+
+    /**
+     * Books and authors for a typeahead: those with a word of the title or
+     * name, or an ISBN, starting with the query. Answered from memory.
+     */
+    List<Suggestion> suggest(@NonNull String query, int limit);
+
+    /**
+     * Reloads the whole index from the database.
+     */
+    void rebuild();
+}
@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.acme.web.dto.request.CreateUserRequest;
 import org.acme.web.dto.request.UpdateUserRequest;
+import org.acme.web.dto.response.ResourceVersion;
 import org.acme.web.dto.response.UserResponse;
 import org.springframework.lang.NonNull;
 
@@ -12,6 +13,8 @@ public interface UserService {
 
     UserResponse findById(@NonNull Long id);
 
+    ResourceVersion findVersion(@NonNull Long id);
+
     UserResponse create(@NonNull CreateUserRequest request);
 
     UserResponse update(@NonNull Long id, @NonNull UpdateUserRequest request);
@@ -1,15 +1,29 @@
 package org.acme.web.service.impl;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import jakarta.persistence.EntityManager;
+
+import org.acme.web.config.CatalogProperties;
 import org.acme.web.dto.request.CreateAuthorRequest;
 import org.acme.web.dto.request.UpdateAuthorRequest;
 import org.acme.web.dto.response.AuthorResponse;
+import org.acme.web.dto.response.PageResponse;
+import org.acme.web.dto.response.ResourceVersion;
+import org.acme.web.dto.response.Suggestion;
 import org.acme.web.entity.Author;
+import org.acme.web.exception.BadRequestException;
 import org.acme.web.exception.ResourceNotFoundException;
 import org.acme.web.mapper.AuthorMapper;
 import org.acme.web.repository.AuthorRepository;
 import org.acme.web.service.AuthorService;
+import org.acme.web.service.PageRequests;
+import org.springframework.data.domain.Page;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,20 +35,61 @@ import lombok.extern.slf4j.Slf4j;
 @Transactional
 public class AuthorServiceImpl implements AuthorService {
 
+    private static final Map<String, String[]> SORTS = Map.of(
+            "name", new String[] { "lastName", "firstName" });
+
     private final AuthorRepository authorRepository;
     private final AuthorMapper authorMapper;
+    private final EntityManager entityManager;
+    private final CatalogProperties catalogProperties;
+    private final CatalogCacheEvictor cacheEvictor;
+    private final CatalogSuggestIndex suggestIndex;
 
-    public AuthorServiceImpl(AuthorRepository authorRepository, AuthorMapper authorMapper) {
+    public AuthorServiceImpl(AuthorRepository authorRepository, AuthorMapper authorMapper,
+            EntityManager entityManager, CatalogProperties catalogProperties, CatalogCacheEvictor cacheEvictor,
+            CatalogSuggestIndex suggestIndex) {
         this.authorRepository = authorRepository;
         this.authorMapper = authorMapper;
+        this.entityManager = entityManager;
+        this.catalogProperties = catalogProperties;
+        this.cacheEvictor = cacheEvictor;
+        this.suggestIndex = suggestIndex;
     }
 
+    /**
+     * Read-only listing served by a JDBC projection, so no Author entities (or
+     * their dirty-checking snapshots) are created. Writes keep using the entity
+     * path.
+     */
     @Override
     @Transactional(readOnly = true)
     public List<AuthorResponse> findAll() {
-        return authorRepository.findAll().stream()
+        return authorRepository.findAllResponses();
+    }
+
+    /**
+     * Reads one page in two phases: a page of ids (sorted, limited and counted
+     * in SQL), then the authors for those ids with their audit users. The
+     * books collections of the page are initialized by one batched query, so
+     * a page always costs the same number of statements. A row deleted
+     * between the two queries is left out, so that page comes back short.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<AuthorResponse> findPage(int page, int size, @NonNull String sort, @NonNull String direction) {
+        Page<Long> ids = authorRepository.findIdPage(PageRequests.of(page, size, sort, direction, SORTS));
+        if (ids.isEmpty()) {
+            return PageResponse.of(ids, List.of());
+        }
+        Map<Long, Author> byId = authorRepository.findAllWithUsersByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(Author::getId, Function.identity()));
+        List<AuthorResponse> content = ids.getContent().stream()
+                .map(byId::get)
+                // Deleted between the two queries
+                .filter(Objects::nonNull)
                 .map(authorMapper::toResponse)
                 .toList();
+        return PageResponse.of(ids, content);
     }
 
     @Override
@@ -48,16 +103,57 @@ public class AuthorServiceImpl implements AuthorService {
         return authorMapper.toResponse(author);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("null")
+    public ResourceVersion findVersion(@NonNull Long id) {
+        return authorRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Author", id));
+    }
+
     @Override
     @SuppressWarnings("null")
     public AuthorResponse create(@NonNull CreateAuthorRequest request) {
         log.info("Creating author: {} {}", request.getFirstName(), request.getLastName());
         Author author = authorMapper.toEntity(request);
         Author saved = authorRepository.save(author);
+        suggestIndex.put(Suggestion.author(saved.getId(), saved.getFirstName(), saved.getLastName()));
         log.info("Created author with id: {}", saved.getId());
         return authorMapper.toResponse(saved);
     }
 
+    /**
+     * Persists the authors in one transaction, flushing and clearing the
+     * persistence context every {@code app.catalog.bulk.flush-size} entities so
+     * each flush goes out as a single JDBC batch and memory stays flat.
+     */
+    @Override
+    public List<AuthorResponse> createAll(@NonNull List<CreateAuthorRequest> requests) {
+        CatalogProperties.Bulk bulk = catalogProperties.getBulk();
+        if (requests.size() > bulk.getMaxItems()) {
+            throw new BadRequestException(String.format("A bulk create may contain at most %d authors, got %d",
+                    bulk.getMaxItems(), requests.size()));
+        }
+        int flushSize = Math.max(bulk.getFlushSize(), 1);
+        log.info("Creating {} authors in batches of {}", requests.size(), flushSize);
+
+        List<AuthorResponse> responses = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += flushSize) {
+            List<Author> batch = requests.subList(from, Math.min(from + flushSize, requests.size())).stream()
+                    .map(authorMapper::toEntity)
+                    .toList();
+            authorRepository.saveAll(batch);
+            entityManager.flush();
+            batch.stream().map(authorMapper::toResponse).forEach(responses::add);
+            entityManager.clear();
+        }
+        suggestIndex.put(responses.stream()
+                .map(response -> Suggestion.author(response.getId(), response.getFirstName(), response.getLastName()))
+                .toList());
+        log.info("Created {} authors", responses.size());
+        return responses;
+    }
+
     @Override
     @SuppressWarnings("null")
     public AuthorResponse update(@NonNull Long id, @NonNull UpdateAuthorRequest request) {
@@ -66,6 +162,7 @@ public class AuthorServiceImpl implements AuthorService {
                 .orElseThrow(() -> new ResourceNotFoundException("Author", id));
         authorMapper.updateEntity(request, author);
         Author updated = authorRepository.save(author);
+        suggestIndex.put(Suggestion.author(updated.getId(), updated.getFirstName(), updated.getLastName()));
         log.info("Updated author with id: {}", updated.getId());
         return authorMapper.toResponse(updated);
     }
@@ -77,6 +174,9 @@ public class AuthorServiceImpl implements AuthorService {
             throw new ResourceNotFoundException("Author", id);
         }
         authorRepository.deleteById(id);
+        // book_authors rows go with the author (ON DELETE CASCADE)
+        cacheEvictor.evictBookAuthors();
+        suggestIndex.remove(Suggestion.Type.AUTHOR, id);
         log.info("Deleted author with id: {}", id);
     }
 }
@@ -1,19 +1,33 @@
 package org.acme.web.service.impl;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import jakarta.persistence.EntityManager;
+
+import org.acme.web.config.CatalogProperties;
 import org.acme.web.dto.request.CreateBookRequest;
 import org.acme.web.dto.request.UpdateBookRequest;
 import org.acme.web.dto.response.BookResponse;
+import org.acme.web.dto.response.PageResponse;
+import org.acme.web.dto.response.ResourceVersion;
+import org.acme.web.dto.response.Suggestion;
 import org.acme.web.entity.Author;
 import org.acme.web.entity.Book;
+import org.acme.web.exception.BadRequestException;
 import org.acme.web.exception.ResourceNotFoundException;
 import org.acme.web.mapper.BookMapper;
 import org.acme.web.repository.AuthorRepository;
 import org.acme.web.repository.BookRepository;
 import org.acme.web.service.BookService;
+import org.acme.web.service.PageRequests;
+import org.springframework.data.domain.Page;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,22 +39,64 @@ import lombok.extern.slf4j.Slf4j;
 @Transactional
 public class BookServiceImpl implements BookService {
 
+    private static final Map<String, String[]> SORTS = Map.of(
+            "title", new String[] { "title" },
+            "year", new String[] { "publicationYear" });
+
     private final BookRepository bookRepository;
     private final AuthorRepository authorRepository;
     private final BookMapper bookMapper;
+    private final EntityManager entityManager;
+    private final CatalogProperties catalogProperties;
+    private final CatalogCacheEvictor cacheEvictor;
+    private final CatalogSuggestIndex suggestIndex;
 
-    public BookServiceImpl(BookRepository bookRepository, AuthorRepository authorRepository, BookMapper bookMapper) {
+    public BookServiceImpl(BookRepository bookRepository, AuthorRepository authorRepository, BookMapper bookMapper,
+            EntityManager entityManager, CatalogProperties catalogProperties, CatalogCacheEvictor cacheEvictor,
+            CatalogSuggestIndex suggestIndex) {
         this.bookRepository = bookRepository;
         this.authorRepository = authorRepository;
         this.bookMapper = bookMapper;
+        this.entityManager = entityManager;
+        this.catalogProperties = catalogProperties;
+        this.cacheEvictor = cacheEvictor;
+        this.suggestIndex = suggestIndex;
     }
 
+    /**
+     * Read-only listing served by a JDBC projection, so no Book entities (or
+     * their dirty-checking snapshots) are created. Writes keep using the entity
+     * path.
+     */
     @Override
     @Transactional(readOnly = true)
     public List<BookResponse> findAll() {
-        return bookRepository.findAll().stream()
+        return bookRepository.findAllResponses();
+    }
+
+    /**
+     * Reads one page in two phases: a page of ids (sorted, limited and counted
+     * in SQL), then the books for those ids with their audit users. The
+     * authors collections of the page are initialized by one batched query, so
+     * a page always costs the same number of statements. A row deleted
+     * between the two queries is left out, so that page comes back short.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<BookResponse> findPage(int page, int size, @NonNull String sort, @NonNull String direction) {
+        Page<Long> ids = bookRepository.findIdPage(PageRequests.of(page, size, sort, direction, SORTS));
+        if (ids.isEmpty()) {
+            return PageResponse.of(ids, List.of());
+        }
+        Map<Long, Book> byId = bookRepository.findAllWithUsersByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<BookResponse> content = ids.getContent().stream()
+                .map(byId::get)
+                // Deleted between the two queries
+                .filter(Objects::nonNull)
                 .map(bookMapper::toResponse)
                 .toList();
+        return PageResponse.of(ids, content);
     }
 
     @Override
@@ -54,6 +110,14 @@ public class BookServiceImpl implements BookService {
         return bookMapper.toResponse(book);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("null")
+    public ResourceVersion findVersion(@NonNull Long id) {
+        return bookRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Book", id));
+    }
+
     @Override
     @SuppressWarnings("null")
     public BookResponse create(@NonNull CreateBookRequest request) {
@@ -61,11 +125,72 @@ public class BookServiceImpl implements BookService {
         Book book = bookMapper.toEntity(request);
         validateAndSetAuthors(book, request.getAuthorIds());
         Book saved = bookRepository.save(book);
+        cacheEvictor.evictAuthorBooks();
+        suggestIndex.put(Suggestion.book(saved.getId(), saved.getTitle(), saved.getIsbn()));
         log.info("Created book with id: {} and {} authors", saved.getId(),
                 saved.getAuthors().size());
         return bookMapper.toResponse(saved);
     }
 
+    /**
+     * Persists the books in one transaction, flushing and clearing the
+     * persistence context every {@code app.catalog.bulk.flush-size} entities so
+     * the book rows and their book_authors links each go out as one JDBC batch.
+     * Authors are attached as references, so linking them costs no extra reads
+     * beyond one existence check per batch.
+     */
+    @Override
+    public List<BookResponse> createAll(@NonNull List<CreateBookRequest> requests) {
+        CatalogProperties.Bulk bulk = catalogProperties.getBulk();
+        if (requests.size() > bulk.getMaxItems()) {
+            throw new BadRequestException(String.format("A bulk create may contain at most %d books, got %d",
+                    bulk.getMaxItems(), requests.size()));
+        }
+        int flushSize = Math.max(bulk.getFlushSize(), 1);
+        log.info("Creating {} books in batches of {}", requests.size(), flushSize);
+
+        List<BookResponse> responses = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += flushSize) {
+            List<CreateBookRequest> chunk = requests.subList(from, Math.min(from + flushSize, requests.size()));
+            verifyAuthorsExist(chunk);
+            List<Book> batch = chunk.stream()
+                    .map(this::toEntityWithAuthorReferences)
+                    .toList();
+            bookRepository.saveAll(batch);
+            entityManager.flush();
+            batch.stream().map(bookMapper::toResponse).forEach(responses::add);
+            entityManager.clear();
+        }
+        cacheEvictor.evictAuthorBooks();
+        suggestIndex.put(responses.stream()
+                .map(response -> Suggestion.book(response.getId(), response.getTitle(), response.getIsbn()))
+                .toList());
+        log.info("Created {} books", responses.size());
+        return responses;
+    }
+
+    private void verifyAuthorsExist(List<CreateBookRequest> chunk) {
+        Set<Long> authorIds = chunk.stream()
+                .map(CreateBookRequest::getAuthorIds)
+                .filter(Objects::nonNull)
+                .flatMap(Set::stream)
+                .collect(Collectors.toSet());
+        if (!authorIds.isEmpty() && authorRepository.countByIdIn(authorIds) != authorIds.size()) {
+            throw new ResourceNotFoundException("One or more authors not found");
+        }
+    }
+
+    @SuppressWarnings("null")
+    private Book toEntityWithAuthorReferences(CreateBookRequest request) {
+        Book book = bookMapper.toEntity(request);
+        if (request.getAuthorIds() != null) {
+            book.setAuthors(request.getAuthorIds().stream()
+                    .map(authorRepository::getReferenceById)
+                    .collect(Collectors.toSet()));
+        }
+        return book;
+    }
+
     @Override
     @SuppressWarnings("null")
     public BookResponse update(@NonNull Long id, @NonNull UpdateBookRequest request) {
@@ -77,6 +202,8 @@ public class BookServiceImpl implements BookService {
         validateAndSetAuthors(book, request.getAuthorIds());
 
         Book updated = bookRepository.save(book);
+        cacheEvictor.evictAuthorBooks();
+        suggestIndex.put(Suggestion.book(updated.getId(), updated.getTitle(), updated.getIsbn()));
         log.info("Updated book with id: {}", updated.getId());
         return bookMapper.toResponse(updated);
     }
@@ -88,6 +215,8 @@ public class BookServiceImpl implements BookService {
             throw new ResourceNotFoundException("Book", id);
         }
         bookRepository.deleteById(id);
+        cacheEvictor.evictAuthorBooks();
+        suggestIndex.remove(Suggestion.Type.BOOK, id);
         log.info("Deleted book with id: {}", id);
     }
 
@@ -0,0 +1,50 @@
+package org.acme.web.service.impl;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Drops second-level cache entries for collections Hibernate does not keep up
+ * to date by itself: the inverse side of the book/author many-to-many
+ * ({@code Author.books}) when books change, and the owning side
+ * ({@code Book.authors}) when the database cascades an author delete into
+ * book_authors. Eviction runs after commit so other transactions cannot cache
+ * the old state again in between. A no-op when the cache is disabled.
+ */
+@Component
+public class CatalogCacheEvictor {
+
+    static final String AUTHOR_BOOKS = "org.acme.web.entity.Author.books";
+    static final String BOOK_AUTHORS = "org.acme.web.entity.Book.authors";
+
+    private final Cache cache;
+
+    public CatalogCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+
+    public void evictAuthorBooks() {
+        evictAfterCommit(AUTHOR_BOOKS);
+    }
+
+    public void evictBookAuthors() {
+        evictAfterCommit(BOOK_AUTHORS);
+    }
+
+    private void evictAfterCommit(String role) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evictCollectionData(role);
+                }
+            });
+        } else {
+            cache.evictCollectionData(role);
+        }
+    }
+}
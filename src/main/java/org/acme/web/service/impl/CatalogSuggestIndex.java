@@ -0,0 +1,238 @@
+package org.acme.web.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.acme.web.config.CatalogProperties;
+import org.acme.web.dto.response.Suggestion;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Typeahead index over book titles and ISBNs and author names. Reads use
+ * whichever state is current and take no locks.
+ * <p>
+ * Most of the catalog sits in one large {@link SuggestSegment} built by
+ * {@link #load}. Books and authors changed since are kept in a small second
+ * segment, rebuilt on every change, and hide their old entries in the large
+ * one. Once {@code app.catalog.suggest.merge-threshold} of them have changed,
+ * both are merged into a new large segment. Changes are applied after their
+ * transaction commits, so a rolled-back write never shows up; only changes
+ * made through this instance are seen. Published as
+ * {@code catalog.suggest.size} and {@code catalog.suggest.memory}.
+ */
+@Slf4j
+@Component
+public class CatalogSuggestIndex {
+
+    // Digits, X and separators only: also looked up as the start of an ISBN
+    private static final Pattern ISBN_PREFIX = Pattern.compile("[0-9][0-9xX -]*");
+
+    private static final Comparator<Suggestion> BY_TYPE_AND_ID = Comparator.comparing(Suggestion::getType)
+            .thenComparingLong(Suggestion::getId);
+
+    private static final BitSet NONE_REPLACED = new BitSet();
+
+    private final CatalogProperties.Suggest settings;
+
+    // Not synchronized: virtual threads waiting out a merge would pin their carriers
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile State state = State.EMPTY;
+
+    public CatalogSuggestIndex(CatalogProperties catalogProperties, MeterRegistry meterRegistry) {
+        this.settings = catalogProperties.getSuggest();
+        Gauge.builder("catalog.suggest.size", this, index -> index.state.size())
+                .description("Books and authors in the typeahead index")
+                .register(meterRegistry);
+        Gauge.builder("catalog.suggest.memory", this, index -> index.state.memoryBytes())
+                .description("Heap taken by the typeahead index's arrays")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Replaces the index with the given suggestions, which must come in
+     * (type, id) order. Changes applied while the suggestions were being read
+     * are kept on top.
+     */
+    public void load(@NonNull Stream<Suggestion> suggestions) {
+        SuggestSegment.Builder builder = new SuggestSegment.Builder();
+        suggestions.forEach(builder::add);
+        SuggestSegment main = builder.build();
+        writeLock.lock();
+        try {
+            state = State.of(main, new BitSet(), state.pending(), state.pending());
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("Loaded typeahead index: {} books and authors, {} KB", main.size(), main.memoryBytes() / 1024);
+    }
+
+    /**
+     * Up to {@code limit} books and authors with a word (or, for books, the
+     * ISBN) starting with the query, ordered by the matching text. The query
+     * is normalized like the labels: case, accents and punctuation are
+     * ignored, and several words must follow each other in the label.
+     */
+    @NonNull
+    public List<Suggestion> suggest(@NonNull String query, int limit) {
+        String normalized = SuggestSegment.normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        State current = state;
+        List<SuggestSegment.Match> matches = new ArrayList<>();
+        current.match(normalized, limit, matches);
+        if (ISBN_PREFIX.matcher(query.strip()).matches()) {
+            String isbn = SuggestSegment.compactIsbn(query);
+            if (!isbn.equals(normalized)) {
+                current.match(isbn, limit, matches);
+            }
+        }
+        Collections.sort(matches);
+        return matches.stream()
+                .limit(limit)
+                .map(SuggestSegment.Match::suggestion)
+                .toList();
+    }
+
+    public void put(@NonNull Suggestion suggestion) {
+        put(List.of(suggestion));
+    }
+
+    public void put(@NonNull Collection<Suggestion> suggestions) {
+        Map<Key, Suggestion> changes = new LinkedHashMap<>();
+        for (Suggestion suggestion : suggestions) {
+            changes.put(new Key(suggestion.getType(), suggestion.getId()), suggestion);
+        }
+        applyAfterCommit(changes);
+    }
+
+    public void remove(@NonNull Suggestion.Type type, long id) {
+        Map<Key, Suggestion> changes = new HashMap<>();
+        changes.put(new Key(type, id), null);
+        applyAfterCommit(changes);
+    }
+
+    private void applyAfterCommit(Map<Key, Suggestion> changes) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(changes);
+                }
+            });
+        } else {
+            apply(changes);
+        }
+    }
+
+    private void apply(Map<Key, Suggestion> changes) {
+        writeLock.lock();
+        try {
+            State current = state;
+            Map<Key, Suggestion> pending = new HashMap<>(current.pending());
+            pending.putAll(changes);
+            if (pending.size() < settings.getMergeThreshold()) {
+                state = State.of(current.main(), current.replaced(), changes, pending);
+            } else {
+                state = State.of(merge(current.main(), pending), new BitSet(), Map.of(), Map.of());
+                log.debug("Merged typeahead index: {} books and authors", state.main().size());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static SuggestSegment merge(SuggestSegment main, Map<Key, Suggestion> pending) {
+        List<Suggestion> changed = pending.values().stream()
+                .filter(Objects::nonNull)
+                .sorted(BY_TYPE_AND_ID)
+                .toList();
+        SuggestSegment.Builder builder = new SuggestSegment.Builder();
+        int next = 0;
+        for (int i = 0; i < main.size(); i++) {
+            Suggestion kept = main.get(i);
+            if (pending.containsKey(new Key(kept.getType(), kept.getId()))) {
+                continue;
+            }
+            while (next < changed.size() && BY_TYPE_AND_ID.compare(changed.get(next), kept) < 0) {
+                builder.add(changed.get(next++));
+            }
+            builder.add(kept);
+        }
+        while (next < changed.size()) {
+            builder.add(changed.get(next++));
+        }
+        return builder.build();
+    }
+
+    private record Key(Suggestion.Type type, long id) {
+    }
+
+    /**
+     * Immutable once published. {@code replaced} marks entries of
+     * {@code main} superseded by {@code pending}, where null means deleted;
+     * {@code recent} indexes the rest of {@code pending}.
+     */
+    private record State(SuggestSegment main, BitSet replaced, Map<Key, Suggestion> pending,
+            SuggestSegment recent) {
+
+        static final State EMPTY = new State(SuggestSegment.EMPTY, new BitSet(), Map.of(), SuggestSegment.EMPTY);
+
+        /**
+         * {@code changes} are the keys of {@code pending} not yet reflected in
+         * {@code replaced}.
+         */
+        static State of(SuggestSegment main, BitSet replaced, Map<Key, Suggestion> changes,
+                Map<Key, Suggestion> pending) {
+            BitSet nextReplaced = (BitSet) replaced.clone();
+            for (Key key : changes.keySet()) {
+                int index = main.indexOf(key.type(), key.id());
+                if (index >= 0) {
+                    nextReplaced.set(index);
+                }
+            }
+            SuggestSegment.Builder builder = new SuggestSegment.Builder();
+            pending.values().stream()
+                    .filter(Objects::nonNull)
+                    .sorted(BY_TYPE_AND_ID)
+                    .forEach(builder::add);
+            return new State(main, nextReplaced, Collections.unmodifiableMap(pending), builder.build());
+        }
+
+        void match(String prefix, int limit, List<SuggestSegment.Match> out) {
+            byte[] bytes = prefix.getBytes(StandardCharsets.UTF_8);
+            main.match(bytes, limit, replaced, out);
+            recent.match(bytes, limit, NONE_REPLACED, out);
+        }
+
+        long size() {
+            return main.size() - replaced.cardinality() + recent.size();
+        }
+
+        long memoryBytes() {
+            return main.memoryBytes() + recent.memoryBytes();
+        }
+    }
+}
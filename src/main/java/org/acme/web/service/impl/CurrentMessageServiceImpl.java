@@ -0,0 +1,153 @@
+package org.acme.web.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.acme.web.config.MessageProperties;
+import org.acme.web.dto.response.MessageResponse;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
+import org.acme.web.repository.MessageRepository;
+import org.acme.web.service.CurrentMessageService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps every PUBLISHED message whose effective period has not ended in an
+ * immutable snapshot, grouped by type. Reads use whichever snapshot is current
+ * and take no locks; {@link #refresh()} builds a new one and swaps it in.
+ * <p>
+ * The first refresh loads all such messages; later ones only read rows with
+ * updated_at past the watermark (minus {@code app.messages.snapshot.overlap}),
+ * adding, replacing or dropping them by id. Messages whose effectiveEnd has
+ * passed are dropped on every refresh. Published as
+ * {@code messages.snapshot.size} and {@code messages.snapshot.age}.
+ */
+@Slf4j
+@Service
+public class CurrentMessageServiceImpl implements CurrentMessageService {
+
+    private static final Comparator<MessageResponse> BY_EFFECTIVE_START = Comparator
+            .comparing(MessageResponse::getEffectiveStart)
+            .thenComparing(MessageResponse::getId);
+
+    private final MessageRepository messageRepository;
+    private final MessageProperties messageProperties;
+
+    // Not synchronized: a virtual thread blocked on JDBC inside a monitor pins its carrier
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public CurrentMessageServiceImpl(MessageRepository messageRepository, MessageProperties messageProperties,
+            MeterRegistry meterRegistry) {
+        this.messageRepository = messageRepository;
+        this.messageProperties = messageProperties;
+        Gauge.builder("messages.snapshot.size", this, service -> service.snapshot.byId().size())
+                .description("Messages held in the current-messages snapshot")
+                .register(meterRegistry);
+        Gauge.builder("messages.snapshot.age", this, CurrentMessageServiceImpl::ageSeconds)
+                .description("Time since the current-messages snapshot was last refreshed")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<MessageResponse> findCurrent(MessageType type) {
+        Snapshot current = snapshot;
+        List<MessageResponse> candidates = type == null ? current.all()
+                : current.byType().getOrDefault(type, List.of());
+        LocalDate today = LocalDate.now();
+        // The snapshot also holds messages that start later
+        return candidates.stream()
+                .filter(message -> !message.getEffectiveStart().isAfter(today) && !hasEnded(message, today))
+                .toList();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.messages.snapshot.refresh-interval:10s}")
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            refreshFrom(snapshot);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void refreshFrom(Snapshot current) {
+        LocalDate today = LocalDate.now();
+        Map<Long, MessageResponse> byId;
+        LocalDateTime watermark;
+        if (current.watermark() == null) {
+            // Read the watermark first so rows written during the load are read again
+            watermark = messageRepository.findMaxUpdatedAt();
+            byId = new HashMap<>();
+            for (MessageResponse message : messageRepository.findPublishedNotEndedBefore(today)) {
+                byId.put(message.getId(), message);
+            }
+        } else {
+            watermark = current.watermark();
+            byId = new HashMap<>(current.byId());
+            Duration overlap = messageProperties.getSnapshot().getOverlap();
+            for (MessageResponse message : messageRepository.findUpdatedSince(watermark.minus(overlap))) {
+                if (message.getStatus() == MessageStatus.PUBLISHED && !hasEnded(message, today)) {
+                    byId.put(message.getId(), message);
+                } else {
+                    byId.remove(message.getId());
+                }
+                if (message.getUpdatedAt().isAfter(watermark)) {
+                    watermark = message.getUpdatedAt();
+                }
+            }
+        }
+        byId.values().removeIf(message -> hasEnded(message, today));
+
+        Snapshot next = Snapshot.of(byId, watermark, Instant.now());
+        snapshot = next;
+        log.debug("Refreshed message snapshot: {} messages, watermark {}", next.byId().size(), watermark);
+    }
+
+    private static boolean hasEnded(MessageResponse message, LocalDate today) {
+        return message.getEffectiveEnd() != null && message.getEffectiveEnd().isBefore(today);
+    }
+
+    private double ageSeconds() {
+        Instant refreshedAt = snapshot.refreshedAt();
+        return refreshedAt == null ? Double.NaN
+                : Duration.between(refreshedAt, Instant.now()).toMillis() / 1000.0;
+    }
+
+    /**
+     * Immutable; a null watermark means the next refresh is a full load.
+     */
+    private record Snapshot(Map<Long, MessageResponse> byId, List<MessageResponse> all,
+            Map<MessageType, List<MessageResponse>> byType, LocalDateTime watermark, Instant refreshedAt) {
+
+        static final Snapshot EMPTY = new Snapshot(Map.of(), List.of(), Map.of(), null, null);
+
+        static Snapshot of(Map<Long, MessageResponse> byId, LocalDateTime watermark, Instant refreshedAt) {
+            List<MessageResponse> all = byId.values().stream().sorted(BY_EFFECTIVE_START).toList();
+            Map<MessageType, List<MessageResponse>> byType = all.stream()
+                    .collect(Collectors.groupingBy(MessageResponse::getMessageType,
+                            () -> new EnumMap<>(MessageType.class), Collectors.toUnmodifiableList()));
+            return new Snapshot(Map.copyOf(byId), all, Collections.unmodifiableMap(byType), watermark,
+                    refreshedAt);
+        }
+    }
+}
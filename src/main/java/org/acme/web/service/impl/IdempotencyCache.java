@@ -0,0 +1,86 @@
+package org.acme.web.service.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import org.acme.web.config.MessageProperties;
+import org.acme.web.dto.request.CreateMessageRequest;
+import org.acme.web.dto.response.MessageUpsertResult;
+import org.acme.web.exception.IdempotencyKeyReusedException;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Results of message uploads by Idempotency-Key, kept for
+ * {@code app.messages.idempotency.window} from the key's first use (at most
+ * {@code maximum-size} finished uploads). A repeated key is answered with the
+ * stored result; while the upload for a key is still running, repeats wait for
+ * it rather than running their own. Running uploads do not count towards the
+ * maximum size, so a burst of other keys cannot evict one and let its retry
+ * run a second time. A failed upload is not kept, so the next request with its
+ * key runs again. Replays are counted as {@code messages.upload.replays}.
+ */
+@Component
+public class IdempotencyCache {
+
+    private final Cache<String, Upload> uploads;
+    private final Counter replays;
+
+    public IdempotencyCache(MessageProperties messageProperties, MeterRegistry meterRegistry) {
+        MessageProperties.Idempotency settings = messageProperties.getIdempotency();
+        this.uploads = Caffeine.newBuilder()
+                .maximumWeight(settings.getMaximumSize())
+                .weigher((String key, Upload upload) -> upload.result().isDone() ? 1 : 0)
+                .expireAfter(Expiry.creating((String key, Upload upload) -> settings.getWindow()))
+                .build();
+        this.replays = Counter.builder("messages.upload.replays")
+                .description("Message uploads answered from an earlier request with the same Idempotency-Key")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code upload} unless {@code key} was used before, in which case the
+     * result of that earlier upload is returned.
+     *
+     * @throws IdempotencyKeyReusedException if the key was used for a different
+     *                                       message
+     */
+    public MessageUpsertResult execute(String key, CreateMessageRequest request,
+            Supplier<MessageUpsertResult> upload) {
+        Upload mine = new Upload(request, new CompletableFuture<>());
+        Upload first = uploads.asMap().putIfAbsent(key, mine);
+        if (first != null) {
+            if (!first.request().equals(request)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            replays.increment();
+            try {
+                return first.result().join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            MessageUpsertResult result = upload.get();
+            mine.result().complete(result);
+            // Weighs the entry again, now that it may be evicted
+            uploads.asMap().replace(key, mine, mine);
+            return result;
+        } catch (RuntimeException e) {
+            uploads.asMap().remove(key, mine);
+            mine.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private record Upload(CreateMessageRequest request, CompletableFuture<MessageUpsertResult> result) {
+    }
+}
@@ -0,0 +1,94 @@
+package org.acme.web.service.impl;
+
+import java.util.function.Supplier;
+
+import org.acme.web.config.MessageProperties;
+import org.acme.web.dto.response.MessageResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded in-process cache of message lookups, one cache per key
+ * ({@code messages-by-id}, {@code messages-by-msg-id}). Writes are applied
+ * after the surrounding transaction commits, so an entry never reflects a row
+ * that could still be rolled back. A loader runs at most once per key at a
+ * time, and an update for that key waits for it, so a read that started before
+ * a commit cannot leave the old row behind. Loaders must read the primary
+ * (see {@link org.acme.web.datasource.ReadYourWrites#onPrimary}): a replica
+ * that has not replayed the commit yet would hand back the old row after the
+ * eviction, to stay cached until it expires. Hits, misses, evictions and size
+ * are published as {@code cache.*} metrics.
+ */
+@Component
+public class MessageCache {
+
+    static final String BY_ID = "messages-by-id";
+    static final String BY_MSG_ID = "messages-by-msg-id";
+
+    private final Cache<Long, MessageResponse> byId;
+    private final Cache<String, MessageResponse> byMsgId;
+
+    public MessageCache(MessageProperties messageProperties, MeterRegistry meterRegistry) {
+        MessageProperties.Cache settings = messageProperties.getCache();
+        this.byId = CaffeineCacheMetrics.monitor(meterRegistry, build(settings), BY_ID);
+        this.byMsgId = CaffeineCacheMetrics.monitor(meterRegistry, build(settings), BY_MSG_ID);
+    }
+
+    private static <K> Cache<K, MessageResponse> build(MessageProperties.Cache settings) {
+        return Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+    }
+
+    public MessageResponse getById(Long id, Supplier<MessageResponse> loader) {
+        return byId.get(id, key -> loader.get());
+    }
+
+    public MessageResponse getByMsgId(String msgId, Supplier<MessageResponse> loader) {
+        return byMsgId.get(msgId, key -> loader.get());
+    }
+
+    /**
+     * Stores the row returned by an upsert under both keys once the transaction
+     * commits.
+     */
+    public void putAfterCommit(MessageResponse message) {
+        afterCommit(() -> {
+            byId.put(message.getId(), message);
+            byMsgId.put(message.getMsgId(), message);
+        });
+    }
+
+    /**
+     * Drops both keys of a row once the transaction commits; used when only the
+     * keys of the stored row are known.
+     */
+    public void evictAfterCommit(Long id, String msgId) {
+        afterCommit(() -> {
+            byId.invalidate(id);
+            byMsgId.invalidate(msgId);
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.acme.web.service.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import javax.xml.namespace.QName;
+
+import jakarta.persistence.EntityManager;
+
+import org.acme.web.dto.response.MessageResponse;
+import org.acme.web.entity.Message;
+import org.acme.web.mapper.MessageMapper;
+import org.acme.web.repository.MessageRepository;
+import org.acme.web.service.MessageExportService;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams the messages table straight from a database cursor to the response.
+ * Each row is mapped and written as soon as it is read, and the persistence
+ * context is cleared every {@link #BATCH_SIZE} rows, so memory use does not
+ * grow with the size of the table.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class MessageExportServiceImpl implements MessageExportService {
+
+    static final int BATCH_SIZE = 500;
+
+    private final MessageRepository messageRepository;
+    private final MessageMapper messageMapper;
+    private final EntityManager entityManager;
+    private final ObjectWriter jsonWriter;
+    private final ObjectMapper jsonMapper;
+    private final ObjectWriter xmlWriter;
+    private final XmlMapper xmlMapper;
+
+    public MessageExportServiceImpl(MessageRepository messageRepository, MessageMapper messageMapper,
+            EntityManager entityManager, ObjectMapper objectMapper, Jackson2ObjectMapperBuilder mapperBuilder) {
+        this.messageRepository = messageRepository;
+        this.messageMapper = messageMapper;
+        this.entityManager = entityManager;
+        this.jsonMapper = objectMapper;
+        this.jsonWriter = objectMapper.writerFor(MessageResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        // Same builder Spring Boot uses for the XML message converter, so the
+        // export matches the format of the regular XML endpoints
+        this.xmlMapper = mapperBuilder.createXmlMapper(true).build();
+        this.xmlWriter = xmlMapper.writerFor(MessageResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    public long exportNdjson(@NonNull OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            long count = forEachMessage(generator, response -> {
+                jsonWriter.writeValue(generator, response);
+                generator.writeRaw('\n');
+            });
+            log.info("Exported {} messages as NDJSON", count);
+            return count;
+        }
+    }
+
+    @Override
+    public long exportXml(@NonNull OutputStream out) throws IOException {
+        try (ToXmlGenerator generator = xmlMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setNextName(new QName("messages"));
+            generator.writeStartObject();
+            long count = forEachMessage(generator, response -> {
+                generator.writeFieldName("message");
+                xmlWriter.writeValue(generator, response);
+            });
+            generator.writeEndObject();
+            log.info("Exported {} messages as XML", count);
+            return count;
+        }
+    }
+
+    private long forEachMessage(JsonGenerator generator, MessageWriter writer) throws IOException {
+        long count = 0;
+        try (Stream<Message> messages = messageRepository.streamAll()) {
+            Iterator<Message> iterator = messages.iterator();
+            while (iterator.hasNext()) {
+                writer.write(messageMapper.toResponse(iterator.next()));
+                if (++count % BATCH_SIZE == 0) {
+                    // Detach everything read so far and push the batch to the client
+                    entityManager.clear();
+                    generator.flush();
+                }
+            }
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    private interface MessageWriter {
+        void write(MessageResponse response) throws IOException;
+    }
+}
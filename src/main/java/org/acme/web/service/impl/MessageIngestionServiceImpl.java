@@ -0,0 +1,329 @@
+package org.acme.web.service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+import org.acme.web.config.MessageProperties;
+import org.acme.web.dto.request.CreateMessageRequest;
+import org.acme.web.dto.response.BulkMessageResponse;
+import org.acme.web.dto.response.BulkMessageResult;
+import org.acme.web.dto.response.IngestionStatusResponse;
+import org.acme.web.dto.response.MessageResponse;
+import org.acme.web.dto.response.MessageUpsertResult;
+import org.acme.web.exception.BadRequestException;
+import org.acme.web.exception.ResourceNotFoundException;
+import org.acme.web.service.MessageIngestionService;
+import org.acme.web.service.MessageService;
+import org.acme.web.spool.SegmentLog;
+import org.acme.web.spool.SpoolFailedException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Spools submitted messages to a {@link SegmentLog} in
+ * {@code app.messages.spool.directory} and applies them from a drainer thread
+ * through {@link MessageService#uploadAll}, {@code batch-size} at a time, so
+ * submissions keep being accepted while the database is slow or down.
+ * <p>
+ * A batch the database cannot be reached for is retried every
+ * {@code retry-interval}. One it rejects is applied a message at a time, and
+ * the messages it still rejects are marked FAILED. The spool is released past a
+ * batch once it is applied; messages spooled before a restart and not yet
+ * released are applied again after it, which the upsert makes harmless (they
+ * then report inserted=false).
+ * <p>
+ * Pending statuses are kept until applied, others for
+ * {@code status-retention}; statuses of messages applied before a restart are
+ * lost. Published as {@code messages.spool.pending} and
+ * {@code messages.spool.disk.usage}.
+ * <p>
+ * If the spool cannot be flushed, submissions fail with 503 and the drainer
+ * stops once it has applied the messages that were flushed.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "app.messages.spool", name = "enabled", havingValue = "true")
+public class MessageIngestionServiceImpl implements MessageIngestionService, SmartLifecycle {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(500);
+
+    private final MessageService messageService;
+    private final ObjectMapper objectMapper;
+    private final MessageProperties.Spool settings;
+    private final SegmentLog spool;
+
+    private final Map<String, IngestionStatusResponse> pending = new ConcurrentHashMap<>();
+    private final Cache<String, IngestionStatusResponse> completed;
+
+    private volatile boolean running;
+    private Thread drainer;
+
+    public MessageIngestionServiceImpl(MessageService messageService, ObjectMapper objectMapper,
+            MessageProperties messageProperties, MeterRegistry meterRegistry) throws IOException {
+        this.messageService = messageService;
+        this.objectMapper = objectMapper;
+        this.settings = messageProperties.getSpool();
+        long segmentBytes = settings.getSegmentSize().toBytes();
+        long maxSegments = settings.getMaxSize().toBytes() / segmentBytes;
+        if (maxSegments < 2) {
+            throw new IllegalStateException(String.format(
+                    "app.messages.spool.max-size (%s) must hold at least two segments of segment-size (%s)",
+                    settings.getMaxSize(), settings.getSegmentSize()));
+        }
+        this.spool = SegmentLog.open(Path.of(settings.getDirectory()), (int) segmentBytes,
+                (int) Math.min(maxSegments, Integer.MAX_VALUE));
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(settings.getStatusMaximumSize())
+                .expireAfterWrite(settings.getStatusRetention())
+                .build();
+        recoverPending();
+        Gauge.builder("messages.spool.pending", pending, Map::size)
+                .description("Spooled messages not yet applied")
+                .register(meterRegistry);
+        Gauge.builder("messages.spool.disk.usage", spool, SegmentLog::getDiskUsage)
+                .description("Disk taken by the message spool's segment files")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public IngestionStatusResponse submit(@NonNull CreateMessageRequest request) {
+        String trackingId = UUID.randomUUID().toString();
+        IngestionStatusResponse status = IngestionStatusResponse.builder()
+                .trackingId(trackingId)
+                .state(IngestionStatusResponse.State.PENDING)
+                .acceptedAt(LocalDateTime.now())
+                .build();
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(new SpooledMessage(trackingId, status.getAcceptedAt(), request));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Registered first: the drainer may apply the message before append returns
+        pending.put(trackingId, status);
+        try {
+            spool.append(payload);
+        } catch (IllegalArgumentException e) {
+            pending.remove(trackingId);
+            throw new BadRequestException("Message is too large to spool", e);
+        } catch (IOException e) {
+            pending.remove(trackingId);
+            throw new UncheckedIOException("Could not spool the message", e);
+        } catch (RuntimeException e) {
+            pending.remove(trackingId);
+            throw e;
+        }
+        log.debug("Spooled message {} (type={}, issue={})", trackingId, request.getMessageType(), request.getIssue());
+        return status;
+    }
+
+    @Override
+    public IngestionStatusResponse getStatus(@NonNull String trackingId) {
+        IngestionStatusResponse status = pending.get(trackingId);
+        if (status == null) {
+            status = completed.getIfPresent(trackingId);
+        }
+        if (status == null) {
+            throw new ResourceNotFoundException("Ingestion", trackingId);
+        }
+        return status;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        drainer = new Thread(this::drain, "spool-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+            spool.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Could not close the message spool", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the web server, so no request is accepted
+     * into a closed spool, and stops before the data source is closed.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void recoverPending() {
+        long position = spool.getCheckpoint();
+        List<SegmentLog.Entry> entries;
+        while (!(entries = spool.read(position, settings.getBatchSize())).isEmpty()) {
+            for (SegmentLog.Entry entry : entries) {
+                SpooledMessage message = decode(entry);
+                if (message != null) {
+                    pending.put(message.trackingId(), IngestionStatusResponse.builder()
+                            .trackingId(message.trackingId())
+                            .state(IngestionStatusResponse.State.PENDING)
+                            .acceptedAt(message.acceptedAt())
+                            .build());
+                }
+            }
+            position = entries.get(entries.size() - 1).next();
+        }
+        if (!pending.isEmpty()) {
+            log.info("Recovered {} spooled messages to apply", pending.size());
+        }
+    }
+
+    private void drain() {
+        long position = spool.getCheckpoint();
+        while (running) {
+            try {
+                List<SegmentLog.Entry> batch = spool.read(position, Math.max(settings.getBatchSize(), 1));
+                if (batch.isEmpty()) {
+                    spool.awaitRecords(position, POLL_INTERVAL);
+                    continue;
+                }
+                apply(batch);
+                position = spool.release(batch.get(batch.size() - 1).next());
+            } catch (InterruptedException e) {
+                return;
+            } catch (SpoolFailedException e) {
+                // Nothing more will be flushed; waiting for it would spin
+                log.error("Message spool failed; stopped applying spooled messages until restart", e);
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not apply spooled messages, retrying in {}: {}", settings.getRetryInterval(),
+                        e.getMessage());
+                LockSupport.parkNanos(settings.getRetryInterval().toNanos());
+            }
+        }
+    }
+
+    private void apply(List<SegmentLog.Entry> batch) {
+        List<SpooledMessage> messages = new ArrayList<>(batch.size());
+        for (SegmentLog.Entry entry : batch) {
+            SpooledMessage message = decode(entry);
+            if (message != null) {
+                messages.add(message);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+        try {
+            BulkMessageResponse response = messageService
+                    .uploadAll(messages.stream().map(SpooledMessage::request).toList());
+            for (int i = 0; i < messages.size(); i++) {
+                BulkMessageResult result = response.getResults().get(i);
+                applied(messages.get(i), result.getId(), result.getMsgId(), result.isInserted());
+            }
+            log.debug("Applied {} spooled messages", messages.size());
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                throw e;
+            }
+            log.warn("Batch of {} spooled messages was rejected, applying them one at a time: {}", messages.size(),
+                    e.getMessage());
+            messages.forEach(this::applyOne);
+        }
+    }
+
+    private void applyOne(SpooledMessage message) {
+        try {
+            MessageUpsertResult result = messageService.upload(message.request());
+            MessageResponse stored = result.getMessage();
+            applied(message, stored.getId(), stored.getMsgId(), result.isInserted());
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                throw e;
+            }
+            log.warn("Spooled message {} was rejected: {}", message.trackingId(), e.getMessage());
+            complete(message, IngestionStatusResponse.builder()
+                    .state(IngestionStatusResponse.State.FAILED)
+                    .error(e.getMessage()));
+        }
+    }
+
+    private void applied(SpooledMessage message, Long id, String msgId, boolean inserted) {
+        complete(message, IngestionStatusResponse.builder()
+                .state(IngestionStatusResponse.State.APPLIED)
+                .id(id)
+                .msgId(msgId)
+                .inserted(inserted));
+    }
+
+    private void complete(SpooledMessage message, IngestionStatusResponse.IngestionStatusResponseBuilder status) {
+        String trackingId = message.trackingId();
+        completed.put(trackingId, status.trackingId(trackingId)
+                .acceptedAt(message.acceptedAt())
+                .completedAt(LocalDateTime.now())
+                .build());
+        pending.remove(trackingId);
+    }
+
+    private SpooledMessage decode(SegmentLog.Entry entry) {
+        try {
+            return objectMapper.readValue(entry.payload(), SpooledMessage.class);
+        } catch (IOException e) {
+            log.error("Skipping unreadable spool record at offset {}", entry.offset(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Failures that say nothing about the messages, only that the database
+     * could not be used right now.
+     */
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException || e instanceof CannotCreateTransactionException;
+    }
+
+    /**
+     * A spool record. acceptedAt has its own format: the application's only
+     * applies to writing.
+     */
+    record SpooledMessage(String trackingId,
+            @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss.SSS") LocalDateTime acceptedAt,
+            CreateMessageRequest request) {
+    }
+}
@@ -0,0 +1,49 @@
+package org.acme.web.service.impl;
+
+import java.time.LocalDate;
+
+import org.acme.web.config.MessageProperties;
+import org.acme.web.repository.MessageRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates the monthly partitions of messages for the current month and the
+ * next {@code app.messages.partitions.months-ahead}, so uploads for them find
+ * their partition in place. The write functions create a missing partition
+ * themselves, which covers messages dated outside that range.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.messages.partitions", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class MessagePartitionMaintenance {
+
+    private final MessageRepository messageRepository;
+    private final MessageProperties.Partitions settings;
+
+    public MessagePartitionMaintenance(MessageRepository messageRepository, MessageProperties messageProperties) {
+        this.messageRepository = messageRepository;
+        this.settings = messageProperties.getPartitions();
+    }
+
+    @Scheduled(fixedDelayString = "${app.messages.partitions.check-interval:6h}")
+    public void createAhead() {
+        LocalDate today = LocalDate.now();
+        LocalDate until = today.plusMonths(settings.getMonthsAhead());
+        try {
+            int created = messageRepository.createPartitions(today, until);
+            if (created > 0) {
+                log.info("Created {} message partitions, now covering up to {}", created,
+                        until.withDayOfMonth(until.lengthOfMonth()));
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not create message partitions, retrying in {}: {}", settings.getCheckInterval(),
+                    e.getMessage());
+        }
+    }
+}
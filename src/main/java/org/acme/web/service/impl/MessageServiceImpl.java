@@ -1,16 +1,41 @@
 package org.acme.web.service.impl;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.acme.web.config.MessageProperties;
+import org.acme.web.datasource.ReadYourWrites;
 import org.acme.web.dto.request.CreateMessageRequest;
+import org.acme.web.dto.response.BulkMessageResponse;
+import org.acme.web.dto.response.BulkMessageResult;
+import org.acme.web.dto.response.MessagePageResponse;
 import org.acme.web.dto.response.MessageResponse;
+import org.acme.web.dto.response.MessageSearchHit;
+import org.acme.web.dto.response.MessageSearchResponse;
+import org.acme.web.dto.response.MessageSearchResult;
+import org.acme.web.dto.response.MessageUpsertResult;
+import org.acme.web.entity.Message;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
+import org.acme.web.exception.BadRequestException;
 import org.acme.web.exception.ResourceNotFoundException;
 import org.acme.web.mapper.MessageMapper;
 import org.acme.web.repository.MessageRepository;
+import org.acme.web.service.MessageCursor;
+import org.acme.web.service.MessageSearchCursor;
 import org.acme.web.service.MessageService;
+import org.springframework.data.domain.Limit;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -19,53 +44,149 @@ import lombok.extern.slf4j.Slf4j;
 @Transactional
 public class MessageServiceImpl implements MessageService {
 
+    static final int MAX_PAGE_SIZE = 500;
+
+    static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    static final int MAX_SEARCH_QUERY_LENGTH = 500;
+
+    // Audit user recorded as updated_by for uploads until authentication exists
+    private static final Long SYSTEM_USER_ID = 1L;
+
     private final MessageRepository messageRepository;
     private final MessageMapper messageMapper;
+    private final MessageProperties messageProperties;
+    private final MessageCache messageCache;
+    private final IdempotencyCache idempotencyCache;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
 
-    public MessageServiceImpl(MessageRepository messageRepository, MessageMapper messageMapper) {
+    public MessageServiceImpl(MessageRepository messageRepository, MessageMapper messageMapper,
+            MessageProperties messageProperties, MessageCache messageCache, IdempotencyCache idempotencyCache,
+            PlatformTransactionManager transactionManager) {
         this.messageRepository = messageRepository;
         this.messageMapper = messageMapper;
+        this.messageProperties = messageProperties;
+        this.messageCache = messageCache;
+        this.idempotencyCache = idempotencyCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
     @Override
-    @SuppressWarnings("null")
-    public MessageResponse upload(@NonNull CreateMessageRequest request) {
+    public MessageUpsertResult upload(@NonNull CreateMessageRequest request) {
         log.info("Uploading message: {} (type={}, issue={})", request.getTitle(), request.getMessageType(),
                 request.getIssue());
-        Long id = messageRepository.callInsertMessage(
-                request.getTitle(),
-                request.getMessage(),
-                request.getCreatedAt(),
-                request.getMessageType().name(),
-                request.getIssue(),
-                request.getStatus().name(),
-                request.getEffectiveStart(),
-                request.getEffectiveEnd(),
-                request.getCreatedBy(),
-                1L);
-        MessageResponse response = findById(id);
-        log.info("Uploaded message id={}, msgId={}", response.getId(), response.getMsgId());
-        return response;
+        // upsert_message returns the stored row, so no read-back query is needed
+        MessageUpsertResult result = messageRepository.upsert(request, SYSTEM_USER_ID);
+        messageCache.putAfterCommit(result.getMessage());
+        log.info("Uploaded message id={}, msgId={} ({})", result.getMessage().getId(),
+                result.getMessage().getMsgId(), result.isInserted() ? "inserted" : "updated");
+        return result;
     }
 
+    /**
+     * The upload runs in its own transaction, so requests waiting on the same
+     * key only see its result once it is committed.
+     */
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public MessageUpsertResult upload(@NonNull CreateMessageRequest request, @NonNull String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new BadRequestException(String.format("Idempotency-Key must be 1 to %d characters",
+                    MAX_IDEMPOTENCY_KEY_LENGTH));
+        }
+        return idempotencyCache.execute(idempotencyKey, request,
+                () -> transactionTemplate.execute(status -> upload(request)));
+    }
+
+    /**
+     * Applies the batch through insert_messages in chunks of
+     * {@code app.messages.bulk.chunk-size}, each in its own transaction. If a
+     * chunk fails, the chunks before it stay committed; retrying the whole
+     * request is safe because the upsert is idempotent. A message whose key
+     * appears earlier in the request counts as an update, as if the messages
+     * had been uploaded one by one.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkMessageResponse uploadAll(@NonNull List<CreateMessageRequest> requests) {
+        MessageProperties.Bulk bulk = messageProperties.getBulk();
+        if (requests.size() > bulk.getMaxItems()) {
+            throw new BadRequestException(String.format("A bulk upload may contain at most %d messages, got %d",
+                    bulk.getMaxItems(), requests.size()));
+        }
+        int chunkSize = Math.max(bulk.getChunkSize(), 1);
+        log.info("Uploading {} messages in chunks of {}", requests.size(), chunkSize);
+
+        List<BulkMessageResult> results = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            List<CreateMessageRequest> chunk = requests.subList(from, Math.min(from + chunkSize, requests.size()));
+            results.addAll(transactionTemplate.execute(status -> upsertChunk(chunk)));
+        }
+
+        int inserted = (int) results.stream().filter(BulkMessageResult::isInserted).count();
+        log.info("Uploaded {} messages ({} inserted, {} updated)", results.size(), inserted,
+                results.size() - inserted);
+        return new BulkMessageResponse(results.size(), inserted, results.size() - inserted, results);
+    }
+
+    private List<BulkMessageResult> upsertChunk(List<CreateMessageRequest> chunk) {
+        Map<String, BulkMessageResult> byMsgId = new HashMap<>();
+        for (BulkMessageResult row : messageRepository.upsertAll(chunk, SYSTEM_USER_ID)) {
+            byMsgId.put(row.getMsgId(), row);
+            messageCache.evictAfterCommit(row.getId(), row.getMsgId());
+        }
+        // insert_messages returns one row per distinct key; expand back to one
+        // result per submitted message, in request order. A key repeated in
+        // the chunk is stored once, with the last occurrence's values, so the
+        // repeats are reported as updates of the first occurrence.
+        Set<String> seen = new HashSet<>();
+        return chunk.stream()
+                .map(request -> {
+                    BulkMessageResult row = byMsgId.get(msgIdOf(request));
+                    return seen.add(row.getMsgId()) ? row : new BulkMessageResult(row.getId(), row.getMsgId(), false);
+                })
+                .toList();
+    }
+
+    private static String msgIdOf(CreateMessageRequest request) {
+        // Same business key as insert_message: YYYY-MM-DD/TYPE/ISSUE
+        return request.getCreatedAt().toLocalDate() + "/" + request.getMessageType().name() + "/"
+                + request.getIssue();
+    }
+
+    /**
+     * Served from {@link MessageCache}; a hit does not open a transaction or
+     * borrow a connection. Misses load in a read-only transaction on the
+     * primary: the entry outlives the request, and a lagging replica could
+     * hand back a row an upload just replaced and evicted. Unknown ids are not
+     * cached.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @SuppressWarnings("null")
     public MessageResponse findById(@NonNull Long id) {
         log.debug("Finding message by id: {}", id);
-        return messageRepository.findById(id)
-                .map(messageMapper::toResponse)
-                .orElseThrow(() -> new ResourceNotFoundException("Message", id));
+        return messageCache.getById(id, () -> ReadYourWrites.onPrimary(() -> readOnlyTransactionTemplate
+                .execute(status -> messageRepository.findById(id)
+                        .map(messageMapper::toResponse)
+                        .orElseThrow(() -> new ResourceNotFoundException("Message", id)))));
     }
 
+    /**
+     * Cached like {@link #findById(Long)}.
+     */
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @SuppressWarnings("null")
     public MessageResponse findByMsgId(@NonNull String msgId) {
         log.debug("Finding message by msgId: {}", msgId);
-        return messageRepository.findByMsgId(msgId)
-                .map(messageMapper::toResponse)
-                .orElseThrow(() -> new ResourceNotFoundException("Message", msgId));
+        return messageCache.getByMsgId(msgId, () -> ReadYourWrites.onPrimary(() -> readOnlyTransactionTemplate
+                .execute(status -> messageRepository.findByMsgId(msgId)
+                        .map(messageMapper::toResponse)
+                        .orElseThrow(() -> new ResourceNotFoundException("Message", msgId)))));
     }
 
     @Override
@@ -75,4 +196,65 @@ public class MessageServiceImpl implements MessageService {
                 .map(messageMapper::toResponse)
                 .toList();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MessagePageResponse findPage(String cursor, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        // Fetch one extra row to find out whether another page exists
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<Message> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = messageRepository.findFirstPage(fetchLimit);
+        } else {
+            MessageCursor position = MessageCursor.decode(cursor);
+            log.debug("Finding messages after cursor: {}", position);
+            rows = messageRepository.findPageAfter(position.createdAt(), position.id(), fetchLimit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Message> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            Message last = page.get(page.size() - 1);
+            nextCursor = new MessageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        List<MessageResponse> items = page.stream()
+                .map(messageMapper::toResponse)
+                .toList();
+        return new MessagePageResponse(items, pageSize, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MessageSearchResponse search(@NonNull String query, String cursor, int limit) {
+        if (query.isBlank() || query.length() > MAX_SEARCH_QUERY_LENGTH) {
+            throw new BadRequestException(String.format("Search query must be 1 to %d characters",
+                    MAX_SEARCH_QUERY_LENGTH));
+        }
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        MessageSearchCursor after = cursor == null || cursor.isBlank() ? null : MessageSearchCursor.decode(cursor);
+        log.debug("Searching messages for '{}' after cursor: {}", query, after);
+        // Fetch one extra row to find out whether another page exists
+        MessageSearchResult result = messageRepository.search(query,
+                messageProperties.getSearch().getMaxCandidates(), after != null ? after.rank() : null,
+                after != null ? after.id() : null, pageSize + 1);
+        List<MessageSearchHit> rows = result.getHits();
+
+        boolean hasMore = rows.size() > pageSize;
+        List<MessageSearchHit> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            MessageSearchHit last = page.get(page.size() - 1);
+            nextCursor = new MessageSearchCursor(last.getRank(), last.getMessage().getId()).encode();
+        }
+        return new MessageSearchResponse(page, pageSize, nextCursor, result.isTruncated());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MessageResponse> findActive(@NonNull LocalDate on, MessageType type, @NonNull MessageStatus status) {
+        log.debug("Finding {} messages in effect on {} (type={})", status, on, type);
+        return messageRepository.findActive(on, type, status);
+    }
 }
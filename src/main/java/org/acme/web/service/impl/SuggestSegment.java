@@ -0,0 +1,394 @@
+package org.acme.web.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.acme.web.dto.response.Suggestion;
+import org.springframework.lang.NonNull;
+
+/**
+ * Immutable prefix index over a set of {@link Suggestion}s, held in a handful
+ * of primitive arrays instead of an object per word:
+ * <ul>
+ * <li>{@code text}: each suggestion's searchable fields (normalized label, then
+ * the ISBN without separators) as UTF-8, each followed by a 0 byte;</li>
+ * <li>{@code keys}: offsets into {@code text} where a word of the label, or
+ * the ISBN, starts, sorted by the bytes from there to the end of the field.
+ * The keys starting with a given prefix are contiguous and found by binary
+ * search, and a multi-word prefix matches across the words of a label;</li>
+ * <li>{@code types} and {@code ids} in (type, id) order, so a suggestion's
+ * position is a binary search too; {@code display} holds the label and ISBN
+ * as given.</li>
+ * </ul>
+ * UTF-8 byte order is code point order, so comparing bytes sorts the way
+ * comparing the strings would.
+ */
+final class SuggestSegment {
+
+    static final SuggestSegment EMPTY = new Builder().build();
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Suggestion.Type[] TYPES = Suggestion.Type.values();
+    private static final int INSERTION_SORT_THRESHOLD = 12;
+
+    private final byte[] types;
+    private final long[] ids;
+    private final int[] textStart;
+    private final byte[] text;
+    private final int[] keys;
+    private final int[] displayStart;
+    private final byte[] display;
+
+    private SuggestSegment(byte[] types, long[] ids, int[] textStart, byte[] text, int[] keys, int[] displayStart,
+            byte[] display) {
+        this.types = types;
+        this.ids = ids;
+        this.textStart = textStart;
+        this.text = text;
+        this.keys = keys;
+        this.displayStart = displayStart;
+        this.display = display;
+    }
+
+    /**
+     * Lower case, accents removed, every run of characters other than letters
+     * and digits turned into one space. Applied to labels and queries alike.
+     */
+    @NonNull
+    static String normalize(@NonNull String value) {
+        String folded = isAscii(value) ? value
+                : MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        StringBuilder normalized = new StringBuilder(folded.length());
+        boolean separated = false;
+        for (int i = 0; i < folded.length();) {
+            int codePoint = folded.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetter(codePoint) || Character.isDigit(codePoint)) {
+                if (separated && !normalized.isEmpty()) {
+                    normalized.append(' ');
+                }
+                normalized.appendCodePoint(Character.toLowerCase(codePoint));
+                separated = false;
+            } else {
+                separated = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * An ISBN (or the start of one) without hyphens or spaces.
+     */
+    @NonNull
+    static String compactIsbn(@NonNull String value) {
+        StringBuilder compact = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9' || c >= 'a' && c <= 'z') {
+                compact.append(c);
+            } else if (c >= 'A' && c <= 'Z') {
+                compact.append((char) (c + ('a' - 'A')));
+            }
+        }
+        return compact.toString();
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long memoryBytes() {
+        return types.length + 8L * ids.length + 4L * textStart.length + text.length + 4L * keys.length
+                + 4L * displayStart.length + display.length;
+    }
+
+    /**
+     * Position of the given suggestion, or -1.
+     */
+    int indexOf(@NonNull Suggestion.Type type, long id) {
+        int low = 0;
+        int high = ids.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = types[mid] != type.ordinal() ? Integer.compare(types[mid], type.ordinal())
+                    : Long.compare(ids[mid], id);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @NonNull
+    Suggestion get(int index) {
+        int start = displayStart[index];
+        int separator = displayStart[index + 1] - 1;
+        while (display[separator] != 0) {
+            separator--;
+        }
+        String label = new String(display, start, separator - start, StandardCharsets.UTF_8);
+        String isbn = separator + 1 < displayStart[index + 1]
+                ? new String(display, separator + 1, displayStart[index + 1] - separator - 1, StandardCharsets.UTF_8)
+                : null;
+        return new Suggestion(TYPES[types[index]], ids[index], label, isbn);
+    }
+
+    /**
+     * Adds to {@code out}, in key order, up to {@code limit} suggestions with a
+     * word starting with {@code prefix}, skipping those set in {@code removed}
+     * and those already in {@code out}.
+     */
+    void match(@NonNull byte[] prefix, int limit, @NonNull BitSet removed, @NonNull List<Match> out) {
+        int found = 0;
+        for (int k = lowerBound(prefix); k < keys.length && found < limit && comparePrefix(keys[k], prefix) == 0;
+                k++) {
+            int index = indexOfOffset(keys[k]);
+            if (!removed.get(index) && !contains(out, index)) {
+                out.add(new Match(this, index, keys[k]));
+                found++;
+            }
+        }
+    }
+
+    private boolean contains(List<Match> matches, int index) {
+        for (Match match : matches) {
+            if (match.segment == this && match.index == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int lowerBound(byte[] prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparePrefix(keys[mid], prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // 0 when the field at offset starts with prefix; the terminating 0 sorts
+    // below any byte of a prefix, so this never reads past the field
+    private int comparePrefix(int offset, byte[] prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            int cmp = (text[offset + i] & 0xFF) - (prefix[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    private int indexOfOffset(int offset) {
+        int found = Arrays.binarySearch(textStart, offset);
+        return found >= 0 ? found : -found - 2;
+    }
+
+    private static int compareFields(byte[] a, int i, byte[] b, int j) {
+        while (true) {
+            int x = a[i++] & 0xFF;
+            int y = b[j++] & 0xFF;
+            if (x != y || x == 0) {
+                return x - y;
+            }
+        }
+    }
+
+    /**
+     * A suggestion found through the key at {@code offset}; orders by the
+     * matched text, then by type and id.
+     */
+    record Match(SuggestSegment segment, int index, int offset) implements Comparable<Match> {
+
+        @NonNull
+        Suggestion suggestion() {
+            return segment.get(index);
+        }
+
+        @Override
+        public int compareTo(Match other) {
+            int cmp = compareFields(segment.text, offset, other.segment.text, other.offset);
+            if (cmp == 0) {
+                cmp = Integer.compare(segment.types[index], other.segment.types[other.index]);
+            }
+            return cmp != 0 ? cmp : Long.compare(segment.ids[index], other.segment.ids[other.index]);
+        }
+    }
+
+    /**
+     * Collects suggestions, which must be added in (type, id) order, and sorts
+     * their keys once in {@link #build()}.
+     */
+    static final class Builder {
+
+        private byte[] types = new byte[16];
+        private long[] ids = new long[16];
+        private int[] textStart = new int[17];
+        private byte[] text = new byte[256];
+        private int[] keys = new int[64];
+        private int[] displayStart = new int[17];
+        private byte[] display = new byte[256];
+        private int size;
+        private int textLength;
+        private int keyCount;
+        private int displayLength;
+
+        @NonNull
+        Builder add(@NonNull Suggestion suggestion) {
+            int type = suggestion.getType().ordinal();
+            if (size > 0 && (type < types[size - 1]
+                    || type == types[size - 1] && suggestion.getId() <= ids[size - 1])) {
+                throw new IllegalArgumentException("Suggestions must be added in (type, id) order, got "
+                        + suggestion.getType() + " " + suggestion.getId() + " after " + TYPES[types[size - 1]] + " "
+                        + ids[size - 1]);
+            }
+            if (size == ids.length) {
+                types = Arrays.copyOf(types, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+                textStart = Arrays.copyOf(textStart, size * 2 + 1);
+                displayStart = Arrays.copyOf(displayStart, size * 2 + 1);
+            }
+            types[size] = (byte) type;
+            ids[size] = suggestion.getId();
+            textStart[size] = textLength;
+            displayStart[size] = displayLength;
+
+            String isbn = suggestion.getIsbn() == null || suggestion.getIsbn().isEmpty() ? null : suggestion.getIsbn();
+            addField(normalize(suggestion.getLabel()), true);
+            if (isbn != null) {
+                addField(compactIsbn(isbn), false);
+            }
+            byte[] label = suggestion.getLabel().getBytes(StandardCharsets.UTF_8);
+            byte[] isbnBytes = isbn == null ? new byte[0] : isbn.getBytes(StandardCharsets.UTF_8);
+            display = ensure(display, displayLength + label.length + 1 + isbnBytes.length);
+            System.arraycopy(label, 0, display, displayLength, label.length);
+            displayLength += label.length;
+            display[displayLength++] = 0;
+            System.arraycopy(isbnBytes, 0, display, displayLength, isbnBytes.length);
+            displayLength += isbnBytes.length;
+            size++;
+            return this;
+        }
+
+        private void addField(String value, boolean words) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            int start = textLength;
+            text = ensure(text, textLength + bytes.length + 1);
+            System.arraycopy(bytes, 0, text, textLength, bytes.length);
+            textLength += bytes.length;
+            text[textLength++] = 0;
+            if (bytes.length == 0) {
+                return;
+            }
+            addKey(start);
+            if (words) {
+                // normalize leaves single spaces between words
+                for (int i = 0; i < bytes.length; i++) {
+                    if (bytes[i] == ' ') {
+                        addKey(start + i + 1);
+                    }
+                }
+            }
+        }
+
+        private void addKey(int offset) {
+            if (keyCount == keys.length) {
+                keys = Arrays.copyOf(keys, keyCount * 2);
+            }
+            keys[keyCount++] = offset;
+        }
+
+        private static byte[] ensure(byte[] array, int length) {
+            return length <= array.length ? array : Arrays.copyOf(array, Math.max(length, array.length * 2));
+        }
+
+        @NonNull
+        SuggestSegment build() {
+            textStart[size] = textLength;
+            displayStart[size] = displayLength;
+            byte[] builtText = Arrays.copyOf(text, textLength);
+            int[] sortedKeys = Arrays.copyOf(keys, keyCount);
+            sort(builtText, sortedKeys, 0, keyCount, 0);
+            return new SuggestSegment(Arrays.copyOf(types, size), Arrays.copyOf(ids, size),
+                    Arrays.copyOf(textStart, size + 1), builtText, sortedKeys, Arrays.copyOf(displayStart, size + 1),
+                    Arrays.copyOf(display, displayLength));
+        }
+
+        /*
+         * Three-way radix quicksort (Bentley and Sedgewick) of keys[from, to),
+         * all equal in their first depth bytes: partitions on the byte at depth
+         * and only moves on to the next byte within the equal part, so shared
+         * prefixes are not compared over and over as with a comparator.
+         */
+        private static void sort(byte[] text, int[] keys, int from, int to, int depth) {
+            while (to - from > INSERTION_SORT_THRESHOLD) {
+                int pivot = medianOfThree(byteAt(text, keys[from], depth),
+                        byteAt(text, keys[(from + to) >>> 1], depth), byteAt(text, keys[to - 1], depth));
+                int lt = from;
+                int gt = to - 1;
+                int i = from;
+                while (i <= gt) {
+                    int b = byteAt(text, keys[i], depth);
+                    if (b < pivot) {
+                        swap(keys, lt++, i++);
+                    } else if (b > pivot) {
+                        swap(keys, i, gt--);
+                    } else {
+                        i++;
+                    }
+                }
+                sort(text, keys, from, lt, depth);
+                sort(text, keys, gt + 1, to, depth);
+                if (pivot == 0) {
+                    // The equal part ended its fields at depth: all the same
+                    return;
+                }
+                from = lt;
+                to = gt + 1;
+                depth++;
+            }
+            for (int i = from + 1; i < to; i++) {
+                for (int j = i; j > from && compareFields(text, keys[j - 1] + depth, text, keys[j] + depth) > 0; j--) {
+                    swap(keys, j - 1, j);
+                }
+            }
+        }
+
+        private static int byteAt(byte[] text, int offset, int depth) {
+            return text[offset + depth] & 0xFF;
+        }
+
+        private static int medianOfThree(int a, int b, int c) {
+            return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+        }
+
+        private static void swap(int[] keys, int i, int j) {
+            int key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.acme.web.service.impl;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.acme.web.config.CatalogProperties;
+import org.acme.web.datasource.ReadYourWrites;
+import org.acme.web.dto.response.Suggestion;
+import org.acme.web.repository.AuthorRepository;
+import org.acme.web.repository.BookRepository;
+import org.acme.web.service.SuggestService;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serves suggestions from {@link CatalogSuggestIndex}, which it fills from the
+ * database before the web server starts taking requests.
+ */
+@Slf4j
+@Service
+public class SuggestServiceImpl implements SuggestService, SmartLifecycle {
+
+    static final int MAX_LIMIT = 50;
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final CatalogSuggestIndex suggestIndex;
+    private final CatalogProperties catalogProperties;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private volatile boolean running;
+
+    public SuggestServiceImpl(BookRepository bookRepository, AuthorRepository authorRepository,
+            CatalogSuggestIndex suggestIndex, CatalogProperties catalogProperties,
+            PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.suggestIndex = suggestIndex;
+        this.catalogProperties = catalogProperties;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public List<Suggestion> suggest(@NonNull String query, int limit) {
+        return suggestIndex.suggest(query, Math.min(Math.max(limit, 1), MAX_LIMIT));
+    }
+
+    /**
+     * Streams books, then authors, each in id order as the index expects,
+     * without holding the rows in memory. Reads the primary: writes only add
+     * their own rows to the index, so anything a lagging replica has not
+     * received yet would be missing until the next rebuild.
+     */
+    @Override
+    public void rebuild() {
+        long started = System.nanoTime();
+        ReadYourWrites.runOnPrimary(() -> readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Suggestion> books = bookRepository.streamSuggestions();
+                    Stream<Suggestion> authors = authorRepository.streamSuggestions()) {
+                suggestIndex.load(Stream.concat(books, authors));
+            }
+        }));
+        log.info("Built typeahead index in {} ms", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Override
+    public void start() {
+        if (catalogProperties.getSuggest().isBuildOnStartup()) {
+            rebuild();
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before the web server, so the first request already sees the
+     * whole catalog.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.acme.web.dto.request.CreateUserRequest;
 import org.acme.web.dto.request.UpdateUserRequest;
+import org.acme.web.dto.response.ResourceVersion;
 import org.acme.web.dto.response.UserResponse;
 import org.acme.web.entity.User;
 import org.acme.web.exception.ResourceNotFoundException;
@@ -48,6 +49,14 @@ public class UserServiceImpl implements UserService {
         return userMapper.toResponse(user);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("null")
+    public ResourceVersion findVersion(@NonNull Long id) {
+        return userRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User", id));
+    }
+
     @Override
     @SuppressWarnings("null")
     public UserResponse create(@NonNull CreateUserRequest request) {
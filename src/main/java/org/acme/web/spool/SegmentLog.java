@@ -0,0 +1,503 @@
+package org.acme.web.spool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only log of records in fixed-size, memory-mapped segment files. A
+ * record is its payload length, a CRC32 of the payload and the payload; its
+ * offset is its position in the log, so each segment file is named after the
+ * offset of its first byte. A record that does not fit in the rest of a segment
+ * starts the next one.
+ * <p>
+ * {@link #append} returns once the record is on disk. A single flusher thread
+ * forces everything appended since its previous force, so concurrent appends
+ * share one fsync (group commit). Readers only see records that are on disk.
+ * <p>
+ * {@link #release} records in a checkpoint file how far the log has been
+ * consumed and deletes the segments before it. New segment files and the
+ * renamed checkpoint are made durable by forcing the directory as well. On {@link #open}, records past
+ * the checkpoint are read back; the log ends at the first record that is torn
+ * or fails its CRC, which can only be one whose append never returned. At most
+ * {@code maxSegments} segments exist at a time; an append that needs another
+ * one fails with {@link SpoolFullException}.
+ * <p>
+ * If a flush fails, the log stops: appends, and waits for records past the
+ * last flushed one, fail with {@link SpoolFailedException}. Records flushed
+ * before the failure can still be read and released.
+ */
+@Slf4j
+public class SegmentLog implements Closeable {
+
+    // Payload length and CRC32
+    static final int HEADER_BYTES = 8;
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private long writeOffset;
+    private long durableOffset;
+    private long checkpoint;
+    private RuntimeException flushFailure;
+    private boolean closed;
+
+    private final Thread flusher;
+
+    SegmentLog(Path directory, int segmentBytes, int maxSegments) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        recover();
+        this.flusher = new Thread(this::flushLoop, "spool-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Opens the log in {@code directory}, creating it if needed, and recovers
+     * the records past the checkpoint.
+     *
+     * @param segmentBytes size of new segment files
+     * @param maxSegments  segment files that may exist at a time, at least 2:
+     *                     one being drained and one being appended to
+     */
+    public static SegmentLog open(Path directory, int segmentBytes, int maxSegments) throws IOException {
+        if (segmentBytes <= HEADER_BYTES) {
+            throw new IllegalArgumentException("Segment size must exceed " + HEADER_BYTES + " bytes");
+        }
+        if (maxSegments < 2) {
+            throw new IllegalArgumentException("At least 2 segments are needed, got " + maxSegments);
+        }
+        return new SegmentLog(directory, segmentBytes, maxSegments);
+    }
+
+    /**
+     * Appends one record and waits until it is on disk.
+     *
+     * @return the offset of the record
+     * @throws SpoolFullException       if the record needs a new segment and
+     *                                  none may be created
+     * @throws SpoolFailedException     if the log could not be flushed, now
+     *                                  or before
+     * @throws IllegalArgumentException if the record is larger than a segment
+     */
+    public long append(byte[] payload) throws IOException {
+        int size = HEADER_BYTES + payload.length;
+        if (size > segmentBytes) {
+            throw new IllegalArgumentException(
+                    String.format("Record of %d bytes does not fit in a %d byte segment", size, segmentBytes));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        lock.lock();
+        try {
+            if (flushFailure != null) {
+                throw failed();
+            }
+            if (closed) {
+                throw new IllegalStateException("Spool is closed");
+            }
+            Segment segment = segments.lastEntry().getValue();
+            int position = (int) (writeOffset - segment.base());
+            if (position + size > segment.capacity()) {
+                if (segments.size() >= maxSegments) {
+                    throw new SpoolFullException(String.format(
+                            "Spool is full: %d segments of %d bytes hold undrained messages", segments.size(),
+                            segmentBytes));
+                }
+                segment = createSegment(segment.base() + segment.capacity());
+                position = 0;
+            }
+            // Length last: until it is written the record reads as the end of the segment
+            segment.buffer().putInt(position + 4, (int) crc.getValue());
+            segment.buffer().put(position + HEADER_BYTES, payload);
+            segment.buffer().putInt(position, payload.length);
+            long offset = segment.base() + position;
+            writeOffset = offset + size;
+            appended.signal();
+
+            while (durableOffset < offset + size) {
+                if (flushFailure != null) {
+                    throw failed();
+                }
+                flushed.await();
+            }
+            return offset;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the spool to flush");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads up to {@code maxRecords} records that are on disk, starting with the
+     * one at {@code offset}.
+     */
+    public List<Entry> read(long offset, int maxRecords) {
+        long end;
+        TreeMap<Long, Segment> snapshot;
+        lock.lock();
+        try {
+            end = durableOffset;
+            snapshot = new TreeMap<>(segments);
+        } finally {
+            lock.unlock();
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        long position = offset;
+        while (position < end && entries.size() < maxRecords) {
+            Map.Entry<Long, Segment> floor = snapshot.floorEntry(position);
+            if (floor == null) {
+                throw new IllegalArgumentException("Offset " + offset + " is before the start of the spool");
+            }
+            Segment segment = floor.getValue();
+            int index = (int) (position - segment.base());
+            int length = index + HEADER_BYTES <= segment.capacity() ? segment.buffer().getInt(index) : 0;
+            if (length == 0) {
+                // Unused tail of the segment
+                position = segment.base() + segment.capacity();
+                continue;
+            }
+            byte[] payload = new byte[length];
+            segment.buffer().get(index + HEADER_BYTES, payload);
+            long next = position + HEADER_BYTES + length;
+            entries.add(new Entry(position, next, payload));
+            position = next;
+        }
+        return entries;
+    }
+
+    /**
+     * Waits up to {@code timeout} for a record to be on disk at or past
+     * {@code offset}.
+     *
+     * @return whether there is one
+     * @throws SpoolFailedException if there is none and, since the log could
+     *                              not be flushed, never will be
+     */
+    public boolean awaitRecords(long offset, Duration timeout) throws InterruptedException {
+        long nanos = timeout.toNanos();
+        lock.lock();
+        try {
+            while (durableOffset <= offset && nanos > 0 && !closed) {
+                nanos = flushed.awaitNanos(nanos);
+            }
+            if (durableOffset <= offset && flushFailure != null) {
+                throw failed();
+            }
+            return durableOffset > offset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks everything before {@code offset} as consumed: a later
+     * {@link #open} starts reading there, and segments that end at or before
+     * it are deleted.
+     *
+     * @return the new checkpoint, which is {@code offset} or, past the last
+     *         record of a segment, the start of the next one
+     */
+    public long release(long offset) throws IOException {
+        lock.lock();
+        try {
+            // Past the last record of a segment that is no longer written to: the segment is done
+            Map.Entry<Long, Segment> floor = segments.floorEntry(offset);
+            Long nextBase = segments.higherKey(offset);
+            if (floor != null && nextBase != null) {
+                Segment segment = floor.getValue();
+                int index = (int) (offset - segment.base());
+                if (index + HEADER_BYTES > segment.capacity() || segment.buffer().getInt(index) == 0) {
+                    offset = nextBase;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, offset));
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE);
+        // Until the rename is on disk, a crash would bring back the old checkpoint and replay what was applied
+        forceDirectory();
+
+        lock.lock();
+        try {
+            checkpoint = offset;
+            while (segments.size() > 1) {
+                Segment oldest = segments.firstEntry().getValue();
+                if (oldest.base() + oldest.capacity() > offset) {
+                    break;
+                }
+                segments.pollFirstEntry();
+                // The mapping, and with it the disk space, goes when the buffer is collected
+                Files.deleteIfExists(oldest.path());
+            }
+            return offset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Offset of the first record not yet released.
+     */
+    public long getCheckpoint() {
+        lock.lock();
+        try {
+            return checkpoint;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Size of the segment files, allocated up front when each is created.
+     */
+    public long getDiskUsage() {
+        lock.lock();
+        try {
+            return segments.values().stream().mapToLong(Segment::capacity).sum();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for appended records to be flushed and stops the flusher.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            appended.signalAll();
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing the spool");
+        }
+    }
+
+    private SpoolFailedException failed() {
+        return new SpoolFailedException("Could not flush the spool", flushFailure);
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long from;
+            long to;
+            List<Segment> dirty;
+            lock.lock();
+            try {
+                while (writeOffset == durableOffset && !closed) {
+                    appended.awaitUninterruptibly();
+                }
+                if (writeOffset == durableOffset) {
+                    return;
+                }
+                from = durableOffset;
+                to = writeOffset;
+                Long first = segments.floorKey(from);
+                dirty = new ArrayList<>(segments.subMap(first != null ? first : segments.firstKey(), true, to, false)
+                        .values());
+            } finally {
+                lock.unlock();
+            }
+
+            RuntimeException failure = null;
+            try {
+                for (Segment segment : dirty) {
+                    int start = (int) Math.max(from - segment.base(), 0);
+                    int end = (int) Math.min(to - segment.base(), segment.capacity());
+                    if (end > start) {
+                        force(segment.buffer(), start, end - start);
+                    }
+                }
+            } catch (UncheckedIOException e) {
+                log.error("Could not flush the spool", e);
+                failure = e;
+            }
+
+            lock.lock();
+            try {
+                if (failure != null) {
+                    // Waiting appends fail; nothing past this point is acknowledged
+                    flushFailure = failure;
+                    closed = true;
+                } else {
+                    durableOffset = to;
+                }
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (failure != null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Forces part of a segment to disk; overridden in tests to make it fail.
+     */
+    void force(MappedByteBuffer buffer, int index, int length) {
+        buffer.force(index, length);
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpointFile)) {
+            checkpoint = ByteBuffer.wrap(Files.readAllBytes(checkpointFile)).getLong();
+        }
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        boolean torn = false;
+        for (Path file : files) {
+            long base = Long.parseLong(file.getFileName().toString().replace(SEGMENT_SUFFIX, ""));
+            long capacity = Files.size(file);
+            if (torn || base + capacity <= checkpoint) {
+                Files.delete(file);
+                continue;
+            }
+            Segment segment = map(file, base, capacity);
+            segments.put(base, segment);
+            int end = scan(segment);
+            writeOffset = base + end;
+            if (hasBytesAfter(segment, end)) {
+                // Appends continue from here and must not leave part of the torn record behind
+                log.warn("Spool segment {} ends in a torn record at {}; dropping the rest of the spool", file, end);
+                for (int i = end; i < segment.capacity(); i++) {
+                    segment.buffer().put(i, (byte) 0);
+                }
+                segment.buffer().force();
+                torn = true;
+            }
+        }
+        if (segments.isEmpty()) {
+            createSegment(checkpoint);
+        }
+        durableOffset = writeOffset;
+        if (writeOffset > checkpoint) {
+            log.info("Recovered spool in {}: {} bytes past the checkpoint", directory, writeOffset - checkpoint);
+        }
+    }
+
+    /**
+     * @return the end of the last intact record in the segment
+     */
+    private static int scan(Segment segment) {
+        ByteBuffer buffer = segment.buffer();
+        int position = 0;
+        while (position + HEADER_BYTES <= segment.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > segment.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private static boolean hasBytesAfter(Segment segment, int position) {
+        for (int i = position; i < segment.capacity(); i++) {
+            if (segment.buffer().get(i) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Segment createSegment(long base) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+        Segment segment = map(file, base, segmentBytes);
+        // Forcing the records alone would leave the file's length and its directory entry
+        // unsynced, and a crash could lose the whole segment with acknowledged records in it
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        forceDirectory();
+        segments.put(base, segment);
+        writeOffset = base;
+        return segment;
+    }
+
+    private void forceDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private static Segment map(Path file, long base, long capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // Mapping past the end grows the file; the mapping outlives the channel
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            return new Segment(base, (int) capacity, file, buffer);
+        }
+    }
+
+    private record Segment(long base, int capacity, Path path, MappedByteBuffer buffer) {
+    }
+
+    /**
+     * A record and the offset of the one after it.
+     */
+    public record Entry(long offset, long next, byte[] payload) {
+    }
+}
@@ -0,0 +1,12 @@
+package org.acme.web.spool;
+
+/**
+ * Thrown once the spool could not be flushed to disk. It takes no more
+ * messages and hands out no records past the last flushed one until it is
+ * reopened.
+ */
+public class SpoolFailedException extends RuntimeException {
+    public SpoolFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
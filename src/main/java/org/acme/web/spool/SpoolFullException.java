@@ -0,0 +1,11 @@
+package org.acme.web.spool;
+
+/**
+ * Thrown when the spool has no room for another message until the drainer
+ * catches up.
+ */
+public class SpoolFullException extends RuntimeException {
+    public SpoolFullException(String message) {
+        super(message);
+    }
+}
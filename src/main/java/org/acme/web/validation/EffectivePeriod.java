@@ -0,0 +1,29 @@
+package org.acme.web.validation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+/**
+ * A message's effective period must not end before it starts. PostgreSQL
+ * cannot build the daterange behind idx_messages_effective_range from such a
+ * period, and ck_message_effective_period rejects it; checking it here
+ * answers 400 instead. Reported on {@code effectiveEnd}.
+ */
+@Documented
+@Constraint(validatedBy = EffectivePeriodValidator.class)
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface EffectivePeriod {
+
+    String message() default "Effective end date must not be before the effective start date";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,24 @@
+package org.acme.web.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+import org.acme.web.dto.request.CreateMessageRequest;
+
+public class EffectivePeriodValidator implements ConstraintValidator<EffectivePeriod, CreateMessageRequest> {
+
+    @Override
+    public boolean isValid(CreateMessageRequest request, ConstraintValidatorContext context) {
+        // A missing start is reported by @NotNull; a missing end is open-ended
+        if (request == null || request.getEffectiveStart() == null || request.getEffectiveEnd() == null
+                || !request.getEffectiveEnd().isBefore(request.getEffectiveStart())) {
+            return true;
+        }
+        // On the field, so the error lists it like the other field errors
+        context.disableDefaultConstraintViolation();
+        context.buildConstraintViolationWithTemplate(context.getDefaultConstraintMessageTemplate())
+                .addPropertyNode("effectiveEnd")
+                .addConstraintViolation();
+        return false;
+    }
+}
@@ -0,0 +1,5 @@
+-- Indexes backing the sort orders of the paged author and book listings, each
+-- ending in id (the tie-breaker) so a page of ids can be read from the index
+CREATE INDEX idx_authors_last_name_first_name_id ON authors(last_name, first_name, id);
+CREATE INDEX idx_books_title_id ON books(title, id);
+CREATE INDEX idx_books_publication_year_id ON books(publication_year, id);
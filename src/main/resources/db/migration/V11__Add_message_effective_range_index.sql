@@ -0,0 +1,27 @@
+-- GiST index over each message's effective period, so "in effect on date D"
+-- (daterange(...) @> D) is a single index range scan instead of a combination
+-- of the separate effective_start / effective_end B-tree indexes. Both bounds
+-- are inclusive; a NULL effective_end leaves the range open-ended.
+--
+-- A period ending before it starts has no daterange: building the index on
+-- it, or writing it afterwards, fails with "range lower bound must be less
+-- than or equal to range upper bound". Such a message was never in effect,
+-- and there is no right end date to guess, so existing ones stop the
+-- migration until they are corrected, and new ones are rejected by a check.
+DO $$
+DECLARE
+    v_inverted BIGINT;
+BEGIN
+    SELECT count(*) INTO v_inverted FROM messages WHERE effective_end < effective_start;
+    IF v_inverted > 0 THEN
+        RAISE EXCEPTION '% messages have effective_end before effective_start', v_inverted
+            USING HINT = 'Correct effective_start / effective_end of those rows, then rerun the migration';
+    END IF;
+END;
+$$;
+
+ALTER TABLE messages ADD CONSTRAINT ck_message_effective_period
+    CHECK (effective_end IS NULL OR effective_end >= effective_start);
+
+CREATE INDEX idx_messages_effective_range
+    ON messages USING gist (daterange(effective_start, effective_end, '[]'));
@@ -0,0 +1,3 @@
+-- Supports the incremental refresh of the in-memory snapshot of current
+-- messages, which polls for rows changed since its last watermark
+CREATE INDEX idx_messages_updated_at ON messages(updated_at);
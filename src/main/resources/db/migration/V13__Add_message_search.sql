@@ -0,0 +1,14 @@
+-- Full-text search over subject and body. A stored generated column is
+-- recomputed by every INSERT and ON CONFLICT ... DO UPDATE, so insert_message,
+-- upsert_message and insert_messages keep it current in the same statement.
+-- Subject words weigh more (A) than body words (B) in ts_rank.
+--
+-- Adding the column rewrites the table under an exclusive lock; on a large
+-- table run this in a maintenance window.
+ALTER TABLE messages
+    ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', subject), 'A') ||
+        setweight(to_tsvector('english', message), 'B')
+    ) STORED;
+
+CREATE INDEX idx_messages_search_vector ON messages USING gin (search_vector);
@@ -0,0 +1,362 @@
+-- Range-partition messages by month of created_date, so index maintenance,
+-- vacuum and analyze work on one month at a time instead of the whole history,
+-- and queries that pin created_date only touch the months they need.
+--
+-- PostgreSQL cannot partition on a generated column, so created_date becomes
+-- a plain column that every writer sets, and a CHECK keeps it equal to
+-- created_at::date. Unique constraints on a partitioned table must contain the
+-- partition key: the primary key becomes (id, created_date), and msg_id, which
+-- is built from created_date, issue and message_type, is held to that by a
+-- CHECK and stays unique through uk_message_date_issue_type.
+--
+-- Every row is copied into the new table, which recomputes search_vector and
+-- rebuilds every index; like V13, run this in a maintenance window on a large
+-- table. It needs free disk for a second copy of messages until it commits.
+
+-- Creates the monthly partitions covering p_from to p_to that do not exist
+-- yet, named messages_YYYY_MM; returns how many it created. Called by the
+-- message writers for the months they write to and ahead of time by the
+-- application. The table is created on its own and then attached, which
+-- locks messages against other attaches and ANALYZE only, not against reads
+-- and writes as CREATE TABLE ... PARTITION OF would.
+CREATE OR REPLACE FUNCTION create_message_partitions(p_from DATE, p_to DATE)
+RETURNS INTEGER
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_month DATE := date_trunc('month', p_from)::date;
+    v_name TEXT;
+    v_created INTEGER := 0;
+BEGIN
+    WHILE v_month <= p_to LOOP
+        v_name := 'messages_' || to_char(v_month, 'YYYY_MM');
+        IF to_regclass(v_name) IS NULL THEN
+            BEGIN
+                EXECUTE format('CREATE TABLE %I (LIKE messages INCLUDING DEFAULTS INCLUDING CONSTRAINTS '
+                    'INCLUDING GENERATED)', v_name);
+                EXECUTE format('ALTER TABLE messages ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                    v_name, v_month, (v_month + INTERVAL '1 month')::date);
+                v_created := v_created + 1;
+            EXCEPTION WHEN duplicate_table OR unique_violation THEN
+                -- Created by a concurrent call
+                NULL;
+            END;
+        END IF;
+        v_month := (v_month + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN v_created;
+END;
+$$;
+
+ALTER TABLE messages RENAME TO messages_unpartitioned;
+-- Keep the id sequence when the old table is dropped
+ALTER SEQUENCE messages_id_seq OWNED BY NONE;
+
+-- Constraints and indexes are added after the copy: building them once is
+-- cheaper than maintaining them row by row, and the old table still holds
+-- their names until it is dropped
+CREATE TABLE messages (
+    id BIGINT NOT NULL DEFAULT nextval('messages_id_seq'),
+    msg_id VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    message TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    created_date DATE NOT NULL,
+    message_type message_type_enum NOT NULL,
+    issue BIGINT NOT NULL,
+    status message_status_enum NOT NULL,
+    effective_start DATE NOT NULL,
+    effective_end DATE,
+    created_by BIGINT,
+    updated_by BIGINT,
+    updated_at TIMESTAMP,
+    search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', subject), 'A') ||
+        setweight(to_tsvector('english', message), 'B')
+    ) STORED,
+    CONSTRAINT ck_message_created_date CHECK (created_date = created_at::date),
+    CONSTRAINT ck_message_effective_period CHECK (effective_end IS NULL OR effective_end >= effective_start),
+    CONSTRAINT ck_message_msg_id
+        CHECK (msg_id = TO_CHAR(created_date, 'YYYY-MM-DD') || '/' || message_type::text || '/' || issue)
+) PARTITION BY RANGE (created_date);
+
+SELECT create_message_partitions(MIN(created_date), MAX(created_date))
+FROM messages_unpartitioned;
+
+INSERT INTO messages (id, msg_id, subject, message, created_at, created_date, message_type, issue, status,
+    effective_start, effective_end, created_by, updated_by, updated_at)
+SELECT id, msg_id, subject, message, created_at, created_date, message_type, issue, status,
+    effective_start, effective_end, created_by, updated_by, updated_at
+FROM messages_unpartitioned;
+
+DROP TABLE messages_unpartitioned;
+ALTER SEQUENCE messages_id_seq OWNED BY messages.id;
+
+ALTER TABLE messages
+    ADD CONSTRAINT messages_pkey PRIMARY KEY (id, created_date),
+    ADD CONSTRAINT uk_message_date_issue_type UNIQUE (created_date, issue, message_type),
+    ADD CONSTRAINT fk_message_created_by FOREIGN KEY (created_by) REFERENCES users(id),
+    ADD CONSTRAINT fk_message_updated_by FOREIGN KEY (updated_by) REFERENCES users(id);
+
+-- As before, except idx_messages_created_at_issue_type, which duplicated
+-- uk_message_date_issue_type
+CREATE INDEX idx_messages_msg_id ON messages(msg_id);
+CREATE INDEX idx_messages_effective_start ON messages(effective_start);
+CREATE INDEX idx_messages_effective_end ON messages(effective_end);
+CREATE INDEX idx_messages_created_by ON messages(created_by);
+CREATE INDEX idx_messages_updated_by ON messages(updated_by);
+CREATE INDEX idx_messages_created_at_id ON messages(created_at, id);
+CREATE INDEX idx_messages_effective_range
+    ON messages USING gist (daterange(effective_start, effective_end, '[]'));
+CREATE INDEX idx_messages_updated_at ON messages(updated_at);
+CREATE INDEX idx_messages_search_vector ON messages USING gin (search_vector);
+
+ANALYZE messages;
+
+-- The writers now set created_date, and first make sure the partitions for
+-- their rows exist. They update existing rows first and insert only the rest:
+-- INSERT ... ON CONFLICT takes an id for every row it proposes, including one
+-- that ends up updating, and each nextval spends a block of 50 ids (V9). The
+-- ON CONFLICT clause still catches a row inserted concurrently between the two
+-- steps, at the cost of one id. A partitioned table cannot return xmax, so
+-- upsert_message and insert_messages draw the id for a new row themselves: the
+-- row was inserted when it comes back with that id, and updated when it kept
+-- its own. PostgreSQL 17 fails a SQL function whose result is a UNION ALL of
+-- the UPDATE and the INSERT CTEs, so upsert_message runs them as two plpgsql
+-- statements and insert_messages joins both back to its batch.
+
+CREATE OR REPLACE FUNCTION insert_message(
+    p_subject VARCHAR(255),
+    p_message TEXT,
+    p_created_at TIMESTAMP,
+    p_message_type message_type_enum,
+    p_issue BIGINT,
+    p_status message_status_enum,
+    p_effective_start DATE,
+    p_effective_end DATE,
+    p_created_by BIGINT,
+    p_updated_by BIGINT
+)
+RETURNS BIGINT
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_id BIGINT;
+BEGIN
+    PERFORM create_message_partitions(p_created_at::date, p_created_at::date);
+
+    UPDATE messages SET
+        subject = p_subject,
+        message = p_message,
+        status = p_status,
+        effective_start = p_effective_start,
+        effective_end = p_effective_end,
+        updated_by = p_updated_by,
+        updated_at = CURRENT_TIMESTAMP
+    WHERE created_date = p_created_at::date AND issue = p_issue AND message_type = p_message_type
+    RETURNING id INTO v_id;
+    IF FOUND THEN
+        RETURN v_id;
+    END IF;
+
+    INSERT INTO messages (msg_id, subject, message, created_at, created_date, message_type, issue, status, effective_start, effective_end, created_by, updated_by, updated_at)
+    VALUES (
+        TO_CHAR(p_created_at, 'YYYY-MM-DD') || '/' || p_message_type::text || '/' || p_issue,
+        p_subject,
+        p_message,
+        p_created_at,
+        p_created_at::date,
+        p_message_type,
+        p_issue,
+        p_status,
+        p_effective_start,
+        p_effective_end,
+        p_created_by,
+        p_updated_by,
+        CURRENT_TIMESTAMP
+    )
+    ON CONFLICT (created_date, issue, message_type)
+    DO UPDATE SET
+        subject = EXCLUDED.subject,
+        message = EXCLUDED.message,
+        status = EXCLUDED.status,
+        effective_start = EXCLUDED.effective_start,
+        effective_end = EXCLUDED.effective_end,
+        updated_by = EXCLUDED.updated_by,
+        updated_at = CURRENT_TIMESTAMP
+    RETURNING id INTO v_id;
+
+    RETURN v_id;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION upsert_message(
+    p_subject VARCHAR(255),
+    p_message TEXT,
+    p_created_at TIMESTAMP,
+    p_message_type message_type_enum,
+    p_issue BIGINT,
+    p_status message_status_enum,
+    p_effective_start DATE,
+    p_effective_end DATE,
+    p_created_by BIGINT,
+    p_updated_by BIGINT
+)
+RETURNS TABLE (
+    id BIGINT,
+    msg_id VARCHAR(255),
+    subject VARCHAR(255),
+    message TEXT,
+    created_at TIMESTAMP,
+    message_type message_type_enum,
+    issue BIGINT,
+    status message_status_enum,
+    effective_start DATE,
+    effective_end DATE,
+    created_by BIGINT,
+    updated_by BIGINT,
+    updated_at TIMESTAMP,
+    inserted BOOLEAN
+)
+LANGUAGE plpgsql
+AS $$
+#variable_conflict use_column
+BEGIN
+    PERFORM create_message_partitions(p_created_at::date, p_created_at::date);
+
+    RETURN QUERY
+    UPDATE messages AS m SET
+        subject = p_subject,
+        message = p_message,
+        status = p_status,
+        effective_start = p_effective_start,
+        effective_end = p_effective_end,
+        updated_by = p_updated_by,
+        updated_at = CURRENT_TIMESTAMP
+    WHERE m.created_date = p_created_at::date AND m.issue = p_issue AND m.message_type = p_message_type
+    RETURNING m.id, m.msg_id, m.subject, m.message, m.created_at, m.message_type, m.issue, m.status,
+        m.effective_start, m.effective_end, m.created_by, m.updated_by, m.updated_at, false;
+    IF FOUND THEN
+        RETURN;
+    END IF;
+
+    RETURN QUERY
+    WITH new_row AS MATERIALIZED (
+        SELECT nextval('messages_id_seq') AS id
+    )
+    INSERT INTO messages AS m (id, msg_id, subject, message, created_at, created_date, message_type, issue, status, effective_start, effective_end, created_by, updated_by, updated_at)
+    SELECT
+        new_row.id,
+        TO_CHAR(p_created_at, 'YYYY-MM-DD') || '/' || p_message_type::text || '/' || p_issue,
+        p_subject,
+        p_message,
+        p_created_at,
+        p_created_at::date,
+        p_message_type,
+        p_issue,
+        p_status,
+        p_effective_start,
+        p_effective_end,
+        p_created_by,
+        p_updated_by,
+        CURRENT_TIMESTAMP
+    FROM new_row
+    ON CONFLICT (created_date, issue, message_type)
+    DO UPDATE SET
+        subject = EXCLUDED.subject,
+        message = EXCLUDED.message,
+        status = EXCLUDED.status,
+        effective_start = EXCLUDED.effective_start,
+        effective_end = EXCLUDED.effective_end,
+        updated_by = EXCLUDED.updated_by,
+        updated_at = CURRENT_TIMESTAMP
+    RETURNING m.id, m.msg_id, m.subject, m.message, m.created_at, m.message_type, m.issue, m.status,
+        m.effective_start, m.effective_end, m.created_by, m.updated_by, m.updated_at,
+        m.id = (SELECT new_row.id FROM new_row);
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION insert_messages(
+    p_subjects VARCHAR(255)[],
+    p_messages TEXT[],
+    p_created_ats TIMESTAMP[],
+    p_message_types message_type_enum[],
+    p_issues BIGINT[],
+    p_statuses message_status_enum[],
+    p_effective_starts DATE[],
+    p_effective_ends DATE[],
+    p_created_bys BIGINT[],
+    p_updated_by BIGINT
+)
+RETURNS TABLE (id BIGINT, msg_id VARCHAR(255), inserted BOOLEAN)
+LANGUAGE sql
+AS $$
+    SELECT create_message_partitions(month, month)
+    FROM (SELECT DISTINCT date_trunc('month', c)::date AS month FROM unnest(p_created_ats) AS c) AS months;
+
+    WITH batch AS MATERIALIZED (
+        SELECT DISTINCT ON (t.created_at::date, t.issue, t.message_type)
+            TO_CHAR(t.created_at, 'YYYY-MM-DD') || '/' || t.message_type::text || '/' || t.issue AS msg_id,
+            t.subject,
+            t.message,
+            t.created_at,
+            t.message_type,
+            t.issue,
+            t.status,
+            t.effective_start,
+            t.effective_end,
+            t.created_by
+        FROM unnest(
+            p_subjects,
+            p_messages,
+            p_created_ats,
+            p_message_types,
+            p_issues,
+            p_statuses,
+            p_effective_starts,
+            p_effective_ends,
+            p_created_bys
+        ) WITH ORDINALITY AS t(subject, message, created_at, message_type, issue, status, effective_start, effective_end, created_by, ord)
+        ORDER BY t.created_at::date, t.issue, t.message_type, t.ord DESC
+    ),
+    updated AS (
+        UPDATE messages AS m SET
+            subject = b.subject,
+            message = b.message,
+            status = b.status,
+            effective_start = b.effective_start,
+            effective_end = b.effective_end,
+            updated_by = p_updated_by,
+            updated_at = CURRENT_TIMESTAMP
+        FROM batch AS b
+        WHERE m.created_date = b.created_at::date AND m.issue = b.issue AND m.message_type = b.message_type
+        RETURNING m.id, m.msg_id
+    ),
+    new_rows AS MATERIALIZED (
+        SELECT nextval('messages_id_seq') AS id, b.*
+        FROM batch AS b
+        WHERE NOT EXISTS (SELECT 1 FROM updated WHERE updated.msg_id = b.msg_id)
+    ),
+    stored AS (
+        INSERT INTO messages AS m (id, msg_id, subject, message, created_at, created_date, message_type, issue, status, effective_start, effective_end, created_by, updated_by, updated_at)
+        SELECT id, msg_id, subject, message, created_at, created_at::date, message_type, issue, status,
+            effective_start, effective_end, created_by, p_updated_by, CURRENT_TIMESTAMP
+        FROM new_rows
+        ON CONFLICT (created_date, issue, message_type)
+        DO UPDATE SET
+            subject = EXCLUDED.subject,
+            message = EXCLUDED.message,
+            status = EXCLUDED.status,
+            effective_start = EXCLUDED.effective_start,
+            effective_end = EXCLUDED.effective_end,
+            updated_by = EXCLUDED.updated_by,
+            updated_at = CURRENT_TIMESTAMP
+        RETURNING m.id, m.msg_id
+    )
+    -- msg_id is unique within the batch, as the key it is built from is
+    SELECT COALESCE(updated.id, stored.id), batch.msg_id, stored.id IS NOT NULL AND stored.id = new_rows.id
+    FROM batch
+    LEFT JOIN updated ON updated.msg_id = batch.msg_id
+    LEFT JOIN new_rows ON new_rows.msg_id = batch.msg_id
+    LEFT JOIN stored ON stored.msg_id = batch.msg_id;
+$$;
@@ -0,0 +1,2 @@
+-- Composite index for keyset pagination ordered by (created_at, id)
+CREATE INDEX idx_messages_created_at_id ON messages(created_at, id);
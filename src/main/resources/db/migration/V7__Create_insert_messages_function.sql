@@ -0,0 +1,58 @@
+-- insert_messages: set-based variant of insert_message. Upserts a whole batch by
+-- (created_date, issue, message_type) in one statement. The arrays are parallel
+-- (element i of each array describes message i). When a batch contains the same
+-- key more than once the last occurrence wins, as it would with sequential
+-- insert_message calls. Returns one row per distinct key with its id, msg_id and
+-- whether it was inserted (true) or updated (false).
+CREATE OR REPLACE FUNCTION insert_messages(
+    p_subjects VARCHAR(255)[],
+    p_messages TEXT[],
+    p_created_ats TIMESTAMP[],
+    p_message_types message_type_enum[],
+    p_issues BIGINT[],
+    p_statuses message_status_enum[],
+    p_effective_starts DATE[],
+    p_effective_ends DATE[],
+    p_created_bys BIGINT[],
+    p_updated_by BIGINT
+)
+RETURNS TABLE (id BIGINT, msg_id VARCHAR(255), inserted BOOLEAN)
+LANGUAGE sql
+AS $$
+    INSERT INTO messages AS m (msg_id, subject, message, created_at, message_type, issue, status, effective_start, effective_end, created_by, updated_by, updated_at)
+    SELECT DISTINCT ON (t.created_at::date, t.issue, t.message_type)
+        TO_CHAR(t.created_at, 'YYYY-MM-DD') || '/' || t.message_type::text || '/' || t.issue,
+        t.subject,
+        t.message,
+        t.created_at,
+        t.message_type,
+        t.issue,
+        t.status,
+        t.effective_start,
+        t.effective_end,
+        t.created_by,
+        p_updated_by,
+        CURRENT_TIMESTAMP
+    FROM unnest(
+        p_subjects,
+        p_messages,
+        p_created_ats,
+        p_message_types,
+        p_issues,
+        p_statuses,
+        p_effective_starts,
+        p_effective_ends,
+        p_created_bys
+    ) WITH ORDINALITY AS t(subject, message, created_at, message_type, issue, status, effective_start, effective_end, created_by, ord)
+    ORDER BY t.created_at::date, t.issue, t.message_type, t.ord DESC
+    ON CONFLICT (created_date, issue, message_type)
+    DO UPDATE SET
+        subject = EXCLUDED.subject,
+        message = EXCLUDED.message,
+        status = EXCLUDED.status,
+        effective_start = EXCLUDED.effective_start,
+        effective_end = EXCLUDED.effective_end,
+        updated_by = EXCLUDED.updated_by,
+        updated_at = CURRENT_TIMESTAMP
+    RETURNING m.id, m.msg_id, (m.xmax = 0);
+$$;
@@ -0,0 +1,60 @@
+-- upsert_message: same upsert as insert_message, but returns the stored row
+-- itself plus whether it was inserted (true) or updated (false), so callers do
+-- not need a second query to read back what was written.
+CREATE OR REPLACE FUNCTION upsert_message(
+    p_subject VARCHAR(255),
+    p_message TEXT,
+    p_created_at TIMESTAMP,
+    p_message_type message_type_enum,
+    p_issue BIGINT,
+    p_status message_status_enum,
+    p_effective_start DATE,
+    p_effective_end DATE,
+    p_created_by BIGINT,
+    p_updated_by BIGINT
+)
+RETURNS TABLE (
+    id BIGINT,
+    msg_id VARCHAR(255),
+    subject VARCHAR(255),
+    message TEXT,
+    created_at TIMESTAMP,
+    message_type message_type_enum,
+    issue BIGINT,
+    status message_status_enum,
+    effective_start DATE,
+    effective_end DATE,
+    created_by BIGINT,
+    updated_by BIGINT,
+    updated_at TIMESTAMP,
+    inserted BOOLEAN
+)
+LANGUAGE sql
+AS $$
+    INSERT INTO messages AS m (msg_id, subject, message, created_at, message_type, issue, status, effective_start, effective_end, created_by, updated_by, updated_at)
+    VALUES (
+        TO_CHAR(p_created_at, 'YYYY-MM-DD') || '/' || p_message_type::text || '/' || p_issue,
+        p_subject,
+        p_message,
+        p_created_at,
+        p_message_type,
+        p_issue,
+        p_status,
+        p_effective_start,
+        p_effective_end,
+        p_created_by,
+        p_updated_by,
+        CURRENT_TIMESTAMP
+    )
+    ON CONFLICT (created_date, issue, message_type)
+    DO UPDATE SET
+        subject = EXCLUDED.subject,
+        message = EXCLUDED.message,
+        status = EXCLUDED.status,
+        effective_start = EXCLUDED.effective_start,
+        effective_end = EXCLUDED.effective_end,
+        updated_by = EXCLUDED.updated_by,
+        updated_at = CURRENT_TIMESTAMP
+    RETURNING m.id, m.msg_id, m.subject, m.message, m.created_at, m.message_type, m.issue, m.status,
+        m.effective_start, m.effective_end, m.created_by, m.updated_by, m.updated_at, (m.xmax = 0);
+$$;
@@ -0,0 +1,19 @@
+-- Switch entity ids from IDENTITY to pooled sequence generation.
+-- Hibernate reserves a block of 50 ids per nextval() call (allocationSize = 50)
+-- instead of reading each generated key back after its INSERT, which lets it
+-- batch inserts. The BIGSERIAL defaults stay in place for rows written by SQL
+-- (seed data, insert_message/upsert_message); those simply consume one block
+-- each. Hibernate's pooled optimizer treats a nextval() result N as the block
+-- N-49..N, so setval() puts the next value a full block above the highest id
+-- already in use.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+SELECT setval('users_id_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 50, false);
+
+ALTER SEQUENCE authors_id_seq INCREMENT BY 50;
+SELECT setval('authors_id_seq', COALESCE((SELECT MAX(id) FROM authors), 0) + 50, false);
+
+ALTER SEQUENCE books_id_seq INCREMENT BY 50;
+SELECT setval('books_id_seq', COALESCE((SELECT MAX(id) FROM books), 0) + 50, false);
+
+ALTER SEQUENCE messages_id_seq INCREMENT BY 50;
+SELECT setval('messages_id_seq', COALESCE((SELECT MAX(id) FROM messages), 0) + 50, false);
@@ -0,0 +1,44 @@
+// Typeahead for the search box in the navigation bar: fills its datalist from
+// /api/search/suggest and opens the book or author page once one is picked.
+(function () {
+    const input = document.getElementById('suggest');
+    const list = document.getElementById('suggestions');
+    if (!input || !list) {
+        return;
+    }
+    const base = input.dataset.base || '/';
+    let links = new Map();
+    let pending = null;
+
+    input.addEventListener('input', () => {
+        const href = links.get(input.value);
+        if (href) {
+            window.location.href = href;
+            return;
+        }
+        const q = input.value.trim();
+        if (pending) {
+            pending.abort();
+        }
+        if (!q) {
+            list.replaceChildren();
+            return;
+        }
+        pending = new AbortController();
+        fetch(base + 'api/search/suggest?limit=8&q=' + encodeURIComponent(q),
+                { headers: { Accept: 'application/json' }, signal: pending.signal })
+            .then(response => response.ok ? response.json() : [])
+            .then(suggestions => {
+                links = new Map();
+                list.replaceChildren(...suggestions.map(s => {
+                    const value = s.isbn ? s.label + ' (' + s.isbn + ')' : s.label;
+                    links.set(value, base + (s.type === 'BOOK' ? 'books/' : 'authors/') + s.id);
+                    const option = document.createElement('option');
+                    option.value = value;
+                    option.label = s.type === 'BOOK' ? 'Book' : 'Author';
+                    return option;
+                }));
+            })
+            .catch(() => {});
+    });
+})();
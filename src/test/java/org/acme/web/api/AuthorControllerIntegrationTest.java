@@ -1,5 +1,7 @@
 package org.acme.web.api;
 
+import static org.acme.web.support.SqlStatements.sqlStatements;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
@@ -7,13 +9,20 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.List;
+import java.util.stream.IntStream;
+
+import jakarta.persistence.EntityManager;
+
 import org.acme.web.dto.request.CreateAuthorRequest;
 import org.acme.web.dto.request.UpdateAuthorRequest;
 import org.acme.web.entity.Author;
 import org.acme.web.entity.User;
+import org.acme.web.monitoring.SqlStatementCountFilter;
 import org.acme.web.repository.AuthorRepository;
 import org.acme.web.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,6 +30,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -46,6 +56,9 @@ class AuthorControllerIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private User testUser;
     private Author testAuthor;
 
@@ -70,22 +83,71 @@ class AuthorControllerIntegrationTest {
                 .updatedBy(testUser)
                 .build();
         testAuthor = authorRepository.save(testAuthor);
+        flushAndClear();
+    }
+
+    /**
+     * Writes pending changes and empties the persistence context, so the next
+     * request loads everything itself, as it would in production. Requests run
+     * inside the test transaction and do not commit, so their own writes are
+     * only flushed (and counted) when one of their queries needs them.
+     */
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
     }
 
     @Test
     void testGetAllAuthors() throws Exception {
+        authorRepository.save(Author.builder().firstName("Anna").lastName("Adams").createdBy(testUser).build());
+        authorRepository.save(Author.builder().firstName("Zoe").lastName("Young").createdBy(testUser).build());
+        flushAndClear();
+
         mockMvc.perform(get("/api/authors"))
                 .andExpect(status().isOk())
+                // One projection query, however many authors there are
+                .andExpect(sqlStatements(1))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$", hasSize(3)))
                 .andExpect(jsonPath("$[0].firstName", is("John")))
                 .andExpect(jsonPath("$[0].lastName", is("Doe")));
     }
 
+    @Test
+    void testGetAuthorPage() throws Exception {
+        authorRepository.save(Author.builder().firstName("Anna").lastName("Adams").build());
+        authorRepository.save(Author.builder().firstName("Zoe").lastName("Young").build());
+        flushAndClear();
+
+        mockMvc.perform(get("/api/authors/page")
+                .param("size", "2")
+                .param("sort", "name")
+                .param("direction", "desc"))
+                .andExpect(status().isOk())
+                .andExpect(sqlStatements(4))
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].lastName", is("Young")))
+                .andExpect(jsonPath("$.content[1].lastName", is("Doe")))
+                .andExpect(jsonPath("$.page", is(0)))
+                .andExpect(jsonPath("$.size", is(2)))
+                .andExpect(jsonPath("$.totalElements", is(3)))
+                .andExpect(jsonPath("$.totalPages", is(2)));
+    }
+
+    @Test
+    void testGetAuthorPageInvalidSort() throws Exception {
+        mockMvc.perform(get("/api/authors/page").param("sort", "bio"))
+                .andExpect(status().isBadRequest())
+                .andExpect(sqlStatements(0))
+                .andExpect(jsonPath("$.status", is(400)));
+    }
+
     @Test
     void testGetAuthorById() throws Exception {
         mockMvc.perform(get("/api/authors/{id}", testAuthor.getId()))
                 .andExpect(status().isOk())
+                .andExpect(sqlStatements(2))
+                .andExpect(header().string(SqlStatementCountFilter.HEADER, "2"))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id", is(testAuthor.getId().intValue())))
                 .andExpect(jsonPath("$.firstName", is("John")))
@@ -93,10 +155,40 @@ class AuthorControllerIntegrationTest {
                 .andExpect(jsonPath("$.bio", is("Test author biography")));
     }
 
+    @Test
+    void testGetAuthorByIdNotModified() throws Exception {
+        String eTag = mockMvc.perform(get("/api/authors/{id}", testAuthor.getId()))
+                .andExpect(status().isOk())
+                .andExpect(sqlStatements(2))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("\"json-");
+
+        mockMvc.perform(get("/api/authors/{id}", testAuthor.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                // Only the version lookup
+                .andExpect(sqlStatements(1))
+                .andExpect(header().stringValues(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        UpdateAuthorRequest update = new UpdateAuthorRequest();
+        update.setFirstName("Jane");
+        update.setLastName("Doe");
+        mockMvc.perform(put("/api/authors/{id}", testAuthor.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/authors/{id}", testAuthor.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", is("Jane")));
+    }
+
     @Test
     void testGetAuthorByIdNotFound() throws Exception {
         mockMvc.perform(get("/api/authors/{id}", 999L))
                 .andExpect(status().isNotFound())
+                .andExpect(sqlStatements(1))
                 .andExpect(jsonPath("$.status", is(404)))
                 .andExpect(jsonPath("$.error", is("Not Found")));
     }
@@ -111,6 +203,7 @@ class AuthorControllerIntegrationTest {
         mockMvc.perform(post("/api/authors")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
+                // Write counts are in CatalogWriteCountIntegrationTest: here the insert is never flushed
                 .andExpect(status().isCreated())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.firstName", is("Jane")))
@@ -128,10 +221,50 @@ class AuthorControllerIntegrationTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isBadRequest())
+                .andExpect(sqlStatements(0))
                 .andExpect(jsonPath("$.status", is(400)))
                 .andExpect(jsonPath("$.error", is("Validation Failed")));
     }
 
+    @Test
+    void testCreateAuthorsBulk() throws Exception {
+        List<CreateAuthorRequest> requests = IntStream.range(0, 120)
+                .mapToObj(i -> {
+                    CreateAuthorRequest request = new CreateAuthorRequest();
+                    request.setFirstName("First" + i);
+                    request.setLastName("Last" + i);
+                    return request;
+                })
+                .toList();
+
+        mockMvc.perform(post("/api/authors/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(120)))
+                .andExpect(jsonPath("$[0].firstName", is("First0")))
+                .andExpect(jsonPath("$[119].firstName", is("First119")))
+                .andExpect(jsonPath("$[119].id").exists());
+
+        assertThat(authorRepository.count()).isEqualTo(121);
+    }
+
+    @Test
+    void testCreateAuthorsBulkValidationError() throws Exception {
+        CreateAuthorRequest valid = new CreateAuthorRequest();
+        valid.setFirstName("Jane");
+        valid.setLastName("Smith");
+
+        mockMvc.perform(post("/api/authors/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(valid, new CreateAuthorRequest()))))
+                .andExpect(status().isBadRequest())
+                .andExpect(sqlStatements(0))
+                .andExpect(jsonPath("$.error", is("Validation Failed")))
+                .andExpect(jsonPath("$.errors['authors[1].firstName']", is("First name is required")));
+    }
+
     @Test
     void testUpdateAuthor() throws Exception {
         UpdateAuthorRequest request = new UpdateAuthorRequest();
@@ -157,7 +290,8 @@ class AuthorControllerIntegrationTest {
         mockMvc.perform(put("/api/authors/{id}", 999L)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
-                .andExpect(status().isNotFound());
+                .andExpect(status().isNotFound())
+                .andExpect(sqlStatements(1));
     }
 
     @Test
@@ -173,6 +307,7 @@ class AuthorControllerIntegrationTest {
     @Test
     void testDeleteAuthorNotFound() throws Exception {
         mockMvc.perform(delete("/api/authors/{id}", 999L))
-                .andExpect(status().isNotFound());
+                .andExpect(status().isNotFound())
+                .andExpect(sqlStatements(1));
     }
 }
@@ -0,0 +1,147 @@
+package org.acme.web.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.acme.web.dto.request.CreateAuthorRequest;
+import org.acme.web.dto.request.CreateUserRequest;
+import org.acme.web.entity.Author;
+import org.acme.web.repository.AuthorRepository;
+import org.acme.web.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * CBOR and Smile request and response bodies. They are decoded with plain
+ * mappers, so the tests also check what a client without the application's
+ * configuration gets.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class BinaryContentNegotiationIntegrationTest {
+
+    private final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+    private final ObjectMapper smile = new ObjectMapper(new SmileFactory());
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Author testAuthor;
+
+    @BeforeEach
+    void setUp() {
+        authorRepository.deleteAll();
+        userRepository.deleteAll();
+        testAuthor = authorRepository.save(Author.builder().firstName("John").lastName("Doe").build());
+    }
+
+    @Test
+    void testCreateAuthorWithCbor() throws Exception {
+        CreateAuthorRequest request = new CreateAuthorRequest();
+        request.setFirstName("Jane");
+        request.setLastName("Smith");
+
+        byte[] body = mockMvc.perform(post("/api/authors")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .content(cbor.writeValueAsBytes(request)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode author = cbor.readTree(body);
+        assertThat(author.get("firstName").asText()).isEqualTo("Jane");
+        assertThat(author.get("lastName").asText()).isEqualTo("Smith");
+        // Same date format as JSON
+        assertThat(author.get("createdAt").asText()).matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}");
+    }
+
+    @Test
+    void testListAuthorsWithSmile() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/authors").accept(ApiMediaTypes.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ApiMediaTypes.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode authors = smile.readTree(body);
+        assertThat(authors).hasSize(1);
+        assertThat(authors.get(0).get("lastName").asText()).isEqualTo("Doe");
+    }
+
+    @Test
+    void testCreateUserWithSmileAndReadItAsJson() throws Exception {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setUsername("binary");
+        request.setEmail("binary@example.com");
+
+        mockMvc.perform(post("/api/users")
+                .contentType(ApiMediaTypes.APPLICATION_SMILE)
+                .content(smile.writeValueAsBytes(request)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void testEachRepresentationHasItsOwnEntityTag() throws Exception {
+        String json = eTag(MediaType.APPLICATION_JSON);
+        String cborETag = eTag(MediaType.APPLICATION_CBOR);
+        String smileETag = eTag(ApiMediaTypes.APPLICATION_SMILE);
+        assertThat(json).startsWith("\"json-");
+        assertThat(cborETag).startsWith("\"cbor-");
+        assertThat(smileETag).startsWith("\"smile-");
+
+        mockMvc.perform(get("/api/authors/{id}", testAuthor.getId())
+                .accept(MediaType.APPLICATION_CBOR)
+                .header(HttpHeaders.IF_NONE_MATCH, cborETag))
+                .andExpect(status().isNotModified());
+        // A cached JSON representation does not validate a CBOR request
+        mockMvc.perform(get("/api/authors/{id}", testAuthor.getId())
+                .accept(MediaType.APPLICATION_CBOR)
+                .header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+    }
+
+    @Test
+    void testUnsupportedMediaTypeIsRejected() throws Exception {
+        mockMvc.perform(post("/api/authors")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content(new byte[] { 1, 2, 3 }))
+                .andExpect(status().isUnsupportedMediaType())
+                .andExpect(header().string(HttpHeaders.ACCEPT, containsString(ApiMediaTypes.APPLICATION_SMILE_VALUE)));
+    }
+
+    private String eTag(MediaType mediaType) throws Exception {
+        return mockMvc.perform(get("/api/authors/{id}", testAuthor.getId()).accept(mediaType))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(mediaType))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,206 @@
+package org.acme.web.api;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.acme.web.dto.request.CreateAuthorRequest;
+import org.acme.web.dto.request.CreateBookRequest;
+import org.acme.web.dto.request.UpdateAuthorRequest;
+import org.acme.web.dto.request.UpdateBookRequest;
+import org.acme.web.entity.Author;
+import org.acme.web.entity.Book;
+import org.acme.web.repository.AuthorRepository;
+import org.acme.web.repository.BookRepository;
+import org.acme.web.support.SqlStatements;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * SQL statement counts of the author and book write endpoints. Not
+ * transactional: in a rolled-back test transaction the requests' inserts and
+ * updates would wait for a flush that never comes, and go uncounted. The rows
+ * are committed here and removed after each test.
+ * <p>
+ * Ids come from sequences in blocks of 50, so a request also runs a nextval
+ * whenever it starts a new block; how often depends on the ids earlier tests
+ * used, and the counts add the blocks each request drew.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CatalogWriteCountIntegrationTest {
+
+    private static final int ID_BLOCK = 50;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> authorIds = new ArrayList<>();
+    private final List<Long> bookIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (String lastName : List.of("Pratchett", "Gaiman")) {
+            authorIds.add(authorRepository.save(Author.builder().firstName("Writer").lastName(lastName).build())
+                    .getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAllById(bookIds);
+        authorRepository.deleteAllById(authorIds);
+    }
+
+    @Test
+    void testCreateAuthor() throws Exception {
+        CreateAuthorRequest request = new CreateAuthorRequest();
+        request.setFirstName("Jane");
+        request.setLastName("Smith");
+        long before = nextValue("AUTHORS_ID_SEQ");
+
+        authorIds.add(id(mockMvc.perform(post("/api/authors")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                // The INSERT
+                .andExpect(sqlStatements(1, "AUTHORS_ID_SEQ", before))));
+    }
+
+    @Test
+    void testCreateAuthorsBulk() throws Exception {
+        List<CreateAuthorRequest> requests = IntStream.range(0, 120)
+                .mapToObj(i -> {
+                    CreateAuthorRequest request = new CreateAuthorRequest();
+                    request.setFirstName("First" + i);
+                    request.setLastName("Last" + i);
+                    return request;
+                })
+                .toList();
+        long before = nextValue("AUTHORS_ID_SEQ");
+
+        JsonNode created = body(mockMvc.perform(post("/api/authors/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(120)))
+                // An INSERT batch per flush of 50
+                .andExpect(sqlStatements(3, "AUTHORS_ID_SEQ", before)));
+        created.forEach(author -> authorIds.add(author.get("id").asLong()));
+    }
+
+    @Test
+    void testUpdateAuthor() throws Exception {
+        UpdateAuthorRequest request = new UpdateAuthorRequest();
+        request.setFirstName("Terence");
+        request.setLastName("Pratchett");
+
+        mockMvc.perform(put("/api/authors/{id}", authorIds.get(0))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", is("Terence")))
+                // The SELECT and the UPDATE
+                .andExpect(SqlStatements.sqlStatements(2));
+    }
+
+    @Test
+    void testDeleteAuthor() throws Exception {
+        mockMvc.perform(delete("/api/authors/{id}", authorIds.get(1)))
+                .andExpect(status().isNoContent())
+                // The existence check, the load deleteById makes and the DELETE
+                .andExpect(SqlStatements.sqlStatements(3));
+    }
+
+    @Test
+    void testCreateBook() throws Exception {
+        CreateBookRequest request = new CreateBookRequest();
+        request.setTitle("Good Omens");
+        request.setAuthorIds(Set.copyOf(authorIds));
+        long before = nextValue("BOOKS_ID_SEQ");
+
+        bookIds.add(id(mockMvc.perform(post("/api/books")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.authorIds", hasSize(2)))
+                // The authors, the INSERT and one batch of author links
+                .andExpect(sqlStatements(3, "BOOKS_ID_SEQ", before))));
+    }
+
+    @Test
+    void testUpdateBook() throws Exception {
+        Book book = bookRepository.save(Book.builder().title("Good Omens").build());
+        bookIds.add(book.getId());
+        UpdateBookRequest request = new UpdateBookRequest();
+        request.setTitle("Good Omens");
+        request.setPublicationYear(1990);
+        request.setAuthorIds(Set.copyOf(authorIds));
+
+        mockMvc.perform(put("/api/books/{id}", book.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.publicationYear", is(1990)))
+                .andExpect(jsonPath("$.authorIds", hasSize(2)))
+                // The book, the authors, the UPDATE and one batch of author links
+                .andExpect(SqlStatements.sqlStatements(4));
+    }
+
+    /**
+     * Expects {@code statements} plus a nextval for each block of ids the
+     * request drew from {@code sequence}, which stood at {@code before}.
+     */
+    private ResultMatcher sqlStatements(int statements, String sequence, long before) {
+        return result -> SqlStatements.sqlStatements(
+                statements + (int) ((nextValue(sequence) - before) / ID_BLOCK)).match(result);
+    }
+
+    private long nextValue(String sequence) {
+        return jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?", Long.class, sequence);
+    }
+
+    private JsonNode body(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString());
+    }
+
+    private long id(ResultActions result) throws Exception {
+        return body(result).get("id").asLong();
+    }
+}
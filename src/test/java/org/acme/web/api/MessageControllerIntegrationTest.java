@@ -1,34 +1,55 @@
 package org.acme.web.api;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.xpath;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import org.acme.web.dto.request.CreateMessageRequest;
+import org.acme.web.dto.response.BulkMessageResponse;
+import org.acme.web.dto.response.BulkMessageResult;
+import org.acme.web.dto.response.MessagePageResponse;
 import org.acme.web.dto.response.MessageResponse;
+import org.acme.web.dto.response.MessageSearchHit;
+import org.acme.web.dto.response.MessageSearchResponse;
+import org.acme.web.dto.response.MessageUpsertResult;
 import org.acme.web.entity.MessageStatus;
 import org.acme.web.entity.MessageType;
+import org.acme.web.exception.BadRequestException;
+import org.acme.web.exception.IdempotencyKeyReusedException;
 import org.acme.web.exception.ResourceNotFoundException;
+import org.acme.web.service.CurrentMessageService;
 import org.acme.web.service.MessageService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 
 @WebMvcTest(MessageController.class)
 class MessageControllerIntegrationTest {
@@ -42,6 +63,9 @@ class MessageControllerIntegrationTest {
     @MockBean
     private MessageService messageService;
 
+    @MockBean
+    private CurrentMessageService currentMessageService;
+
     private MessageResponse sampleResponse() {
         MessageResponse r = new MessageResponse();
         r.setId(1L);
@@ -83,6 +107,115 @@ class MessageControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].msgId", is("2025-02-02/NEWS/42")));
     }
 
+    @Test
+    void testGetMessagePage() throws Exception {
+        when(messageService.findPage(null, 50))
+                .thenReturn(new MessagePageResponse(List.of(sampleResponse()), 50, "next-token"));
+
+        mockMvc.perform(get("/api/messages/page"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].msgId", is("2025-02-02/NEWS/42")))
+                .andExpect(jsonPath("$.limit", is(50)))
+                .andExpect(jsonPath("$.nextCursor", is("next-token")));
+    }
+
+    @Test
+    void testGetMessagePageXml() throws Exception {
+        when(messageService.findPage(eq("abc"), eq(10)))
+                .thenReturn(new MessagePageResponse(List.of(sampleResponse()), 10, null));
+
+        mockMvc.perform(get("/api/messages/page")
+                .param("cursor", "abc")
+                .param("limit", "10")
+                .accept(MediaType.APPLICATION_XML))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_XML))
+                .andExpect(xpath("/messagePage/messages/message/msgId").string("2025-02-02/NEWS/42"))
+                .andExpect(xpath("/messagePage/limit").string("10"));
+    }
+
+    @Test
+    void testGetMessagePageInvalidCursor() throws Exception {
+        when(messageService.findPage(eq("bad"), eq(50))).thenThrow(new BadRequestException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/messages/page").param("cursor", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is(400)))
+                .andExpect(jsonPath("$.message", is("Invalid cursor")));
+    }
+
+    @Test
+    void testSearchMessages() throws Exception {
+        when(messageService.search("weekly", "abc", 10)).thenReturn(new MessageSearchResponse(
+                List.of(new MessageSearchHit(sampleResponse(), 0.6f, "<b>Weekly</b> digest")), 10, "def", true));
+
+        mockMvc.perform(get("/api/messages/search")
+                .param("q", "weekly")
+                .param("cursor", "abc")
+                .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].message.msgId", is("2025-02-02/NEWS/42")))
+                .andExpect(jsonPath("$.items[0].snippet", is("<b>Weekly</b> digest")))
+                .andExpect(jsonPath("$.nextCursor", is("def")))
+                .andExpect(jsonPath("$.truncated", is(true)));
+    }
+
+    @Test
+    void testSearchMessagesWithoutQuery() throws Exception {
+        mockMvc.perform(get("/api/messages/search"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Missing parameter 'q'")));
+
+        verify(messageService, never()).search(any(), any(), anyInt());
+    }
+
+    @Test
+    void testGetActiveMessages() throws Exception {
+        when(messageService.findActive(LocalDate.of(2025, 2, 5), MessageType.NEWS, MessageStatus.PUBLISHED))
+                .thenReturn(List.of(sampleResponse()));
+
+        mockMvc.perform(get("/api/messages/active")
+                .param("on", "2025-02-05")
+                .param("type", "NEWS"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].msgId", is("2025-02-02/NEWS/42")));
+    }
+
+    @Test
+    void testGetActiveMessagesDefaultsToTodayAndAnyType() throws Exception {
+        when(messageService.findActive(any(), any(), any())).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/messages/active").param("status", "ARCHIVED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        verify(messageService).findActive(LocalDate.now(), null, MessageStatus.ARCHIVED);
+    }
+
+    @Test
+    void testGetActiveMessagesInvalidDate() throws Exception {
+        mockMvc.perform(get("/api/messages/active").param("on", "05/02/2025"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is(400)));
+
+        verify(messageService, never()).findActive(any(), any(), any());
+    }
+
+    @Test
+    void testGetCurrentMessages() throws Exception {
+        when(currentMessageService.findCurrent(MessageType.NEWS)).thenReturn(List.of(sampleResponse()));
+
+        mockMvc.perform(get("/api/messages/current").param("type", "NEWS"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].msgId", is("2025-02-02/NEWS/42")));
+        verify(messageService, never()).findActive(any(), any(), any());
+    }
+
     @Test
     void testGetMessageById() throws Exception {
         MessageResponse msg = sampleResponse();
@@ -96,6 +229,32 @@ class MessageControllerIntegrationTest {
                 .andExpect(jsonPath("$.msgId", is("2025-02-02/NEWS/42")));
     }
 
+    @Test
+    void testGetMessageByIdNotModified() throws Exception {
+        MessageResponse msg = sampleResponse();
+        msg.setUpdatedAt(LocalDateTime.of(2025, 2, 3, 8, 0, 0));
+        when(messageService.findById(1L)).thenReturn(msg);
+
+        String jsonTag = mockMvc.perform(get("/api/messages/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String xmlTag = mockMvc.perform(get("/api/messages/{id}", 1L).accept(MediaType.APPLICATION_XML))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(xmlTag).isNotEqualTo(jsonTag);
+
+        mockMvc.perform(get("/api/messages/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, jsonTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/messages/{id}", 1L).accept(MediaType.APPLICATION_XML)
+                .header(HttpHeaders.IF_NONE_MATCH, jsonTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/messages/{id}", 1L).header(HttpHeaders.IF_MODIFIED_SINCE,
+                "Tue, 04 Feb 2025 12:00:00 GMT"))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     void testGetMessageByIdNotFound() throws Exception {
         when(messageService.findById(999L)).thenThrow(new ResourceNotFoundException("Message", 999L));
@@ -130,22 +289,51 @@ class MessageControllerIntegrationTest {
     void testUploadMessageJson() throws Exception {
         CreateMessageRequest request = sampleRequest();
         MessageResponse response = sampleResponse();
-        when(messageService.upload(any(CreateMessageRequest.class))).thenReturn(response);
+        when(messageService.upload(any(CreateMessageRequest.class)))
+                .thenReturn(new MessageUpsertResult(response, true));
 
         mockMvc.perform(post("/api/messages")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
-                .andExpect(status().isOk())
+                .andExpect(status().isCreated())
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id", is(1)))
                 .andExpect(jsonPath("$.title", is("Weekly digest")))
                 .andExpect(jsonPath("$.msgId", is("2025-02-02/NEWS/42")));
     }
 
+    @Test
+    void testUploadMessageWithIdempotencyKey() throws Exception {
+        when(messageService.upload(any(CreateMessageRequest.class), eq("order-7")))
+                .thenReturn(new MessageUpsertResult(sampleResponse(), true));
+
+        mockMvc.perform(post("/api/messages")
+                .header("Idempotency-Key", "order-7")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sampleRequest())))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", is(1)));
+
+        verify(messageService, never()).upload(any(CreateMessageRequest.class));
+    }
+
+    @Test
+    void testUploadMessageWithReusedIdempotencyKey() throws Exception {
+        when(messageService.upload(any(CreateMessageRequest.class), eq("order-7")))
+                .thenThrow(new IdempotencyKeyReusedException("order-7"));
+
+        mockMvc.perform(post("/api/messages")
+                .header("Idempotency-Key", "order-7")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sampleRequest())))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
     @Test
     void testUploadMessageXml() throws Exception {
         MessageResponse response = sampleResponse();
-        when(messageService.upload(any(CreateMessageRequest.class))).thenReturn(response);
+        when(messageService.upload(any(CreateMessageRequest.class)))
+                .thenReturn(new MessageUpsertResult(response, false));
 
         // Use a single-element XML for dates so Jackson can deserialize
         // LocalDateTime/LocalDate
@@ -154,7 +342,7 @@ class MessageControllerIntegrationTest {
                 <message>
                   <title>Weekly digest</title>
                   <message>Summary of updates.</message>
-                  <createdAt>2025-02-02T14:30:00</createdAt>
+                  <createdAt>2025-02-02 14:30:00</createdAt>
                   <messageType>NEWS</messageType>
                   <issue>42</issue>
                   <status>PUBLISHED</status>
@@ -171,6 +359,26 @@ class MessageControllerIntegrationTest {
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_XML));
     }
 
+    @Test
+    void testUploadMessageCbor() throws Exception {
+        when(messageService.upload(any(CreateMessageRequest.class)))
+                .thenReturn(new MessageUpsertResult(sampleResponse(), true));
+        ObjectMapper cbor = objectMapper.copyWith(new CBORFactory());
+        ObjectMapper smile = objectMapper.copyWith(new SmileFactory());
+
+        byte[] body = mockMvc.perform(post("/api/messages")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(ApiMediaTypes.APPLICATION_SMILE)
+                .content(cbor.writeValueAsBytes(sampleRequest())))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(ApiMediaTypes.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        verify(messageService).upload(argThat(r -> r.getIssue() == 42L
+                && r.getCreatedAt().equals(LocalDateTime.of(2025, 2, 2, 14, 30, 0))));
+        assertThat(smile.readTree(body).get("msgId").asText()).isEqualTo("2025-02-02/NEWS/42");
+    }
+
     @Test
     void testUploadMessageValidationError() throws Exception {
         CreateMessageRequest request = new CreateMessageRequest();
@@ -184,4 +392,118 @@ class MessageControllerIntegrationTest {
                 .andExpect(jsonPath("$.status", is(400)))
                 .andExpect(jsonPath("$.error", is("Validation Failed")));
     }
+
+    @Test
+    void testUploadMessageEndingBeforeItStarts() throws Exception {
+        CreateMessageRequest request = sampleRequest();
+        request.setEffectiveEnd(request.getEffectiveStart().minusDays(1));
+
+        mockMvc.perform(post("/api/messages")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Validation Failed")))
+                .andExpect(jsonPath("$.errors.effectiveEnd",
+                        is("Effective end date must not be before the effective start date")));
+
+        verify(messageService, never()).upload(any());
+    }
+
+    @Test
+    void testUploadMessagesBulkJson() throws Exception {
+        BulkMessageResponse response = new BulkMessageResponse(2, 1, 1, List.of(
+                new BulkMessageResult(1L, "2025-02-02/NEWS/42", true),
+                new BulkMessageResult(2L, "2025-02-02/NEWS/43", false)));
+        when(messageService.uploadAll(anyList())).thenReturn(response);
+
+        CreateMessageRequest second = sampleRequest();
+        second.setIssue(43L);
+        mockMvc.perform(post("/api/messages/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(sampleRequest(), second))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(2)))
+                .andExpect(jsonPath("$.inserted", is(1)))
+                .andExpect(jsonPath("$.updated", is(1)))
+                .andExpect(jsonPath("$.results", hasSize(2)))
+                .andExpect(jsonPath("$.results[0].msgId", is("2025-02-02/NEWS/42")))
+                .andExpect(jsonPath("$.results[1].inserted", is(false)));
+
+        verify(messageService).uploadAll(argThat(requests -> requests.size() == 2
+                && requests.get(1).getIssue().equals(43L)));
+    }
+
+    @Test
+    void testUploadMessagesBulkXml() throws Exception {
+        BulkMessageResponse response = new BulkMessageResponse(2, 2, 0, List.of(
+                new BulkMessageResult(1L, "2025-02-02/NEWS/42", true),
+                new BulkMessageResult(2L, "2025-02-02/ALERT/7", true)));
+        when(messageService.uploadAll(anyList())).thenReturn(response);
+
+        String xml = """
+                <?xml version='1.0' encoding='UTF-8'?>
+                <messages>
+                  <message>
+                    <title>Weekly digest</title>
+                    <message>Summary of updates.</message>
+                    <createdAt>2025-02-02 14:30:00</createdAt>
+                    <messageType>NEWS</messageType>
+                    <issue>42</issue>
+                    <status>PUBLISHED</status>
+                    <effectiveStart>2025-02-02</effectiveStart>
+                  </message>
+                  <message>
+                    <title>Outage</title>
+                    <message>Service degraded.</message>
+                    <createdAt>2025-02-02 15:00:00</createdAt>
+                    <messageType>ALERT</messageType>
+                    <issue>7</issue>
+                    <status>PUBLISHED</status>
+                    <effectiveStart>2025-02-02</effectiveStart>
+                  </message>
+                </messages>
+                """;
+
+        mockMvc.perform(post("/api/messages/bulk")
+                .contentType(MediaType.APPLICATION_XML)
+                .accept(MediaType.APPLICATION_XML)
+                .content(xml))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_XML))
+                .andExpect(xpath("/bulkResult/total").string("2"))
+                .andExpect(xpath("/bulkResult/results/result[2]/msgId").string("2025-02-02/ALERT/7"));
+
+        verify(messageService).uploadAll(argThat(requests -> requests.size() == 2
+                && requests.get(1).getMessageType() == MessageType.ALERT));
+    }
+
+    @Test
+    void testUploadMessagesBulkValidationError() throws Exception {
+        CreateMessageRequest invalid = sampleRequest();
+        invalid.setTitle(null);
+
+        mockMvc.perform(post("/api/messages/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(sampleRequest(), invalid))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Validation Failed")))
+                .andExpect(jsonPath("$.errors['messages[1].title']", is("Title is required")));
+
+        verify(messageService, never()).uploadAll(anyList());
+    }
+
+    @Test
+    void testUploadMessagesBulkEndingBeforeItStarts() throws Exception {
+        CreateMessageRequest inverted = sampleRequest();
+        inverted.setEffectiveEnd(inverted.getEffectiveStart().minusDays(1));
+
+        mockMvc.perform(post("/api/messages/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(sampleRequest(), inverted))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors['messages[1].effectiveEnd']",
+                        is("Effective end date must not be before the effective start date")));
+
+        verify(messageService, never()).uploadAll(anyList());
+    }
 }
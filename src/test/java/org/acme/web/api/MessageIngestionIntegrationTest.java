@@ -0,0 +1,211 @@
+package org.acme.web.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.acme.web.config.MessageProperties;
+import org.acme.web.dto.request.CreateMessageRequest;
+import org.acme.web.dto.response.BulkMessageResponse;
+import org.acme.web.dto.response.BulkMessageResult;
+import org.acme.web.dto.response.MessageResponse;
+import org.acme.web.dto.response.MessageUpsertResult;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
+import org.acme.web.service.MessageService;
+import org.acme.web.service.impl.MessageIngestionServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Asynchronous upload through a real spool in a temporary directory. The
+ * message service is mocked: insert_messages only exists in PostgreSQL.
+ * Segments hold two messages, so the drainer moves across segments.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:spooltest;DB_CLOSE_DELAY=-1",
+        "app.messages.spool.enabled=true",
+        "app.messages.spool.segment-size=1KB",
+        "app.messages.spool.retry-interval=100ms" })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class MessageIngestionIntegrationTest {
+
+    @TempDir
+    static Path spoolDirectory;
+
+    @DynamicPropertySource
+    static void spoolProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.messages.spool.directory", spoolDirectory::toString);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private MessageService messageService;
+
+    @Test
+    void testMaxSizeBelowTwoSegmentsIsRejectedAtStartup() {
+        MessageProperties properties = new MessageProperties();
+        properties.getSpool().setDirectory(spoolDirectory.resolve("too-small").toString());
+        properties.getSpool().setSegmentSize(DataSize.ofMegabytes(16));
+        properties.getSpool().setMaxSize(DataSize.ofMegabytes(24));
+
+        assertThatThrownBy(() -> new MessageIngestionServiceImpl(messageService, objectMapper, properties,
+                new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("at least two segments");
+    }
+
+    @Test
+    void testSubmittedMessageIsAcceptedAndApplied() throws Exception {
+        when(messageService.uploadAll(anyList())).thenAnswer(invocation -> stored(invocation.getArgument(0)));
+
+        String location = mockMvc.perform(post("/api/messages/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request(1))))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, startsWith("/api/messages/async/")))
+                .andExpect(jsonPath("$.state", is("PENDING")))
+                .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+
+        JsonNode status = awaitCompletion(location);
+        assertThat(status.get("state").asText()).isEqualTo("APPLIED");
+        assertThat(status.get("msgId").asText()).isEqualTo("2025-02-02/NEWS/1");
+        assertThat(status.get("inserted").asBoolean()).isTrue();
+    }
+
+    @Test
+    void testMessagesWaitInTheSpoolWhileTheDatabaseIsDown() throws Exception {
+        when(messageService.uploadAll(anyList()))
+                .thenThrow(new CannotCreateTransactionException("Connection refused"))
+                .thenThrow(new CannotCreateTransactionException("Connection refused"))
+                .thenAnswer(invocation -> stored(invocation.getArgument(0)));
+
+        String location = submit(request(2));
+
+        assertThat(awaitCompletion(location).get("state").asText()).isEqualTo("APPLIED");
+    }
+
+    @Test
+    void testRejectedMessageFailsWithoutHoldingUpOthers() throws Exception {
+        CreateMessageRequest rejected = request(3);
+        CreateMessageRequest accepted = request(4);
+        when(messageService.uploadAll(anyList())).thenThrow(new DataIntegrityViolationException("bad row"));
+        when(messageService.upload(argThat(r -> r != null && r.getIssue() == 3L)))
+                .thenThrow(new DataIntegrityViolationException("bad row"));
+        when(messageService.upload(argThat(r -> r != null && r.getIssue() == 4L)))
+                .thenAnswer(invocation -> new MessageUpsertResult(response(invocation.getArgument(0)), true));
+
+        String rejectedLocation = submit(rejected);
+        String acceptedLocation = submit(accepted);
+
+        JsonNode failed = awaitCompletion(rejectedLocation);
+        assertThat(failed.get("state").asText()).isEqualTo("FAILED");
+        assertThat(failed.get("error").asText()).isEqualTo("bad row");
+        assertThat(awaitCompletion(acceptedLocation).get("state").asText()).isEqualTo("APPLIED");
+    }
+
+    @Test
+    void testInvalidMessageIsNotSpooled() throws Exception {
+        CreateMessageRequest invalid = request(5);
+        invalid.setTitle(null);
+
+        mockMvc.perform(post("/api/messages/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(invalid)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/messages/async/no-such-id"))
+                .andExpect(status().isNotFound());
+    }
+
+    private String submit(CreateMessageRequest request) throws Exception {
+        return mockMvc.perform(post("/api/messages/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+    }
+
+    private JsonNode awaitCompletion(String location) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            String body = mockMvc.perform(get(location).accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode status = objectMapper.readTree(body);
+            if (!"PENDING".equals(status.get("state").asText()) || System.currentTimeMillis() > deadline) {
+                return status;
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static BulkMessageResponse stored(List<CreateMessageRequest> requests) {
+        List<BulkMessageResult> results = requests.stream()
+                .map(request -> new BulkMessageResult(request.getIssue(), msgIdOf(request), true))
+                .toList();
+        return new BulkMessageResponse(results.size(), results.size(), 0, results);
+    }
+
+    private static MessageResponse response(CreateMessageRequest request) {
+        MessageResponse response = new MessageResponse();
+        response.setId(request.getIssue());
+        response.setMsgId(msgIdOf(request));
+        return response;
+    }
+
+    private static String msgIdOf(CreateMessageRequest request) {
+        return request.getCreatedAt().toLocalDate() + "/" + request.getMessageType() + "/" + request.getIssue();
+    }
+
+    private static CreateMessageRequest request(long issue) {
+        CreateMessageRequest request = new CreateMessageRequest();
+        request.setTitle("Weekly digest " + issue);
+        request.setMessage("Summary of updates.");
+        request.setCreatedAt(LocalDateTime.of(2025, 2, 2, 14, 30));
+        request.setMessageType(MessageType.NEWS);
+        request.setIssue(issue);
+        request.setStatus(MessageStatus.PUBLISHED);
+        request.setEffectiveStart(LocalDate.of(2025, 2, 2));
+        return request;
+    }
+}
@@ -0,0 +1,121 @@
+package org.acme.web.api;
+
+import static org.acme.web.support.SqlStatements.sqlStatements;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.acme.web.entity.Message;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
+import org.acme.web.entity.User;
+import org.acme.web.repository.MessageRepository;
+import org.acme.web.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * SQL statement counts of the message read endpoints against the real
+ * service and repositories (MessageControllerIntegrationTest mocks them). Not
+ * transactional: lookups by id run outside the caller's transaction, so the
+ * rows are committed here and removed after each test. Each message has a
+ * different author, so loading users per row would show up in the counts.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MessageQueryCountIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Message> messages = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 3; i++) {
+            User user = userRepository.save(User.builder()
+                    .username("counter" + i)
+                    .email("counter" + i + "@example.com")
+                    .build());
+            users.add(user);
+            messages.add(messageRepository.save(Message.builder()
+                    .msgId("2025-02-0" + i + "/NEWS/" + i)
+                    .subject("Subject " + i)
+                    .message("Body " + i)
+                    .createdAt(LocalDateTime.of(2025, 2, i, 9, 0))
+                    .messageType(MessageType.NEWS)
+                    .issue((long) i)
+                    .status(MessageStatus.PUBLISHED)
+                    .effectiveStart(LocalDate.of(2025, 2, i))
+                    .createdBy(user)
+                    .updatedBy(user)
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        messageRepository.deleteAll(messages);
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void testGetAllMessages() throws Exception {
+        mockMvc.perform(get("/api/messages"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(sqlStatements(1));
+    }
+
+    @Test
+    void testGetMessagePage() throws Exception {
+        mockMvc.perform(get("/api/messages/page").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(sqlStatements(1));
+    }
+
+    @Test
+    void testGetMessageByIdIsCached() throws Exception {
+        Long id = messages.get(0).getId();
+
+        mockMvc.perform(get("/api/messages/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("Subject 1")))
+                .andExpect(sqlStatements(1));
+
+        // Served from the message cache
+        mockMvc.perform(get("/api/messages/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(sqlStatements(0));
+    }
+
+    @Test
+    void testGetMessageByMsgId() throws Exception {
+        mockMvc.perform(get("/api/messages/msg-id/2025-02-02/NEWS/2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("Subject 2")))
+                .andExpect(sqlStatements(1));
+    }
+}
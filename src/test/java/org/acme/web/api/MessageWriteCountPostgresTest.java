@@ -0,0 +1,142 @@
+package org.acme.web.api;
+
+import static org.acme.web.support.SqlStatements.sqlStatements;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.acme.web.dto.request.CreateMessageRequest;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
+import org.acme.web.support.EmbeddedPostgresDatabase;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * SQL statement counts of the message upload endpoints, which call
+ * upsert_message and insert_messages and so need PostgreSQL. Not
+ * transactional: uploads commit, and the rows are removed after each test.
+ * Bulk chunks are 2 messages here.
+ */
+@SpringBootTest(properties = "app.messages.bulk.chunk-size=2")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@DisabledIfSystemProperty(named = "user.name", matches = "root", disabledReason = "PostgreSQL refuses to run as root")
+class MessageWriteCountPostgresTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2030, 4, 1, 9, 0);
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgresDatabase.start(registry);
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM messages WHERE created_at = ?", CREATED_AT);
+    }
+
+    @Test
+    void testUploadMessage() throws Exception {
+        mockMvc.perform(post("/api/messages")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request(1, "First"))))
+                .andExpect(status().isCreated())
+                // The upsert_message call, which returns the stored row
+                .andExpect(sqlStatements(1));
+
+        mockMvc.perform(post("/api/messages")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request(1, "Second"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("Second")))
+                .andExpect(sqlStatements(1));
+    }
+
+    @Test
+    void testRepeatedUploadWithIdempotencyKey() throws Exception {
+        String body = objectMapper.writeValueAsString(request(2, "Once"));
+
+        mockMvc.perform(post("/api/messages")
+                .header(MessageController.IDEMPOTENCY_KEY, "count-once")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(sqlStatements(1));
+
+        mockMvc.perform(post("/api/messages")
+                .header(MessageController.IDEMPOTENCY_KEY, "count-once")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(sqlStatements(0));
+    }
+
+    @Test
+    void testUploadMessagesBulk() throws Exception {
+        List<CreateMessageRequest> requests = LongStream.rangeClosed(1, 5)
+                .mapToObj(issue -> request(issue, "Bulk " + issue))
+                .toList();
+
+        mockMvc.perform(post("/api/messages/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results", hasSize(5)))
+                // An insert_messages call per chunk, not per message
+                .andExpect(sqlStatements(3));
+    }
+
+    private static CreateMessageRequest request(long issue, String title) {
+        CreateMessageRequest request = new CreateMessageRequest();
+        request.setTitle(title);
+        request.setMessage("Body of " + title);
+        request.setCreatedAt(CREATED_AT);
+        request.setMessageType(MessageType.NEWS);
+        request.setIssue(issue);
+        request.setStatus(MessageStatus.PUBLISHED);
+        request.setEffectiveStart(LocalDate.of(2030, 4, 1));
+        return request;
+    }
+}
@@ -0,0 +1,81 @@
+package org.acme.web.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.acme.web.dto.request.CreateMessageRequest;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
+import org.acme.web.repository.AuthorRepository;
+import org.acme.web.repository.MessageRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Scrapes /actuator/prometheus with metrics export enabled (off by default in
+ * tests). Uses its own in-memory database, like SecondLevelCacheTest.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:metricstest")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class PrometheusEndpointIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Test
+    void testPoolAndHibernateMetricsAreScraped() throws Exception {
+        authorRepository.findAll();
+
+        String scrape = scrape();
+
+        assertThat(scrape).contains("hikaricp_connections_active{", "hikaricp_connections_idle{",
+                "hikaricp_connections_pending{", "hikaricp_connections_acquire_seconds_bucket{");
+        assertThat(scrape).contains("hibernate_query_executions_total{", "hibernate_entities_loads_total{",
+                "hibernate_collections_fetches_total{", "hibernate_flushes_total{");
+    }
+
+    @Test
+    void testMessageFunctionCallsAreTimed() throws Exception {
+        CreateMessageRequest request = new CreateMessageRequest();
+        request.setTitle("Weekly digest");
+        request.setMessage("Summary of updates.");
+        request.setCreatedAt(LocalDateTime.of(2025, 2, 2, 14, 30));
+        request.setMessageType(MessageType.NEWS);
+        request.setIssue(42L);
+        request.setStatus(MessageStatus.PUBLISHED);
+        request.setEffectiveStart(LocalDate.of(2025, 2, 2));
+
+        // upsert_message is PostgreSQL-only; the failed call is still timed
+        assertThatThrownBy(() -> messageRepository.upsert(request, null)).isInstanceOf(DataAccessException.class);
+
+        assertThat(scrape()).contains(
+                "messages_db_function_calls_seconds_count{function=\"upsert_message\",outcome=\"error\"} 1");
+    }
+
+    private String scrape() throws Exception {
+        return mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
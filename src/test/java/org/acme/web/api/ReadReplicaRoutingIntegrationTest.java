@@ -0,0 +1,152 @@
+package org.acme.web.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.servlet.http.Cookie;
+
+import org.acme.web.datasource.ReadYourWritesFilter;
+import org.acme.web.dto.request.CreateAuthorRequest;
+import org.acme.web.entity.Message;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
+import org.acme.web.repository.AuthorRepository;
+import org.acme.web.repository.MessageRepository;
+import org.acme.web.service.SuggestService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Routing with one read replica, which is the primary's in-memory database
+ * reached through the replica pool; the pool's hikaricp.connections.usage
+ * timer shows which requests were routed to it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicatest;DB_CLOSE_DELAY=-1",
+        "app.datasource.read-replicas.enabled=true",
+        "app.datasource.read-replicas.replicas[0].url=jdbc:h2:mem:replicatest;DB_CLOSE_DELAY=-1",
+        "app.datasource.read-replicas.read-your-writes-window=5s",
+        // No health checks while requests are counted
+        "app.datasource.read-replicas.health-check-interval=1h" })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class ReadReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private SuggestService suggestService;
+
+    @AfterEach
+    void tearDown() {
+        authorRepository.deleteAll();
+        messageRepository.deleteAll();
+    }
+
+    @Test
+    void testReadOnlyTransactionsUseTheReplica() throws Exception {
+        long before = replicaConnections();
+
+        mockMvc.perform(get("/api/authors"))
+                .andExpect(status().isOk())
+                .andExpect(cookie().doesNotExist(ReadYourWritesFilter.COOKIE));
+        mockMvc.perform(get("/api/authors/page"))
+                .andExpect(status().isOk());
+
+        assertThat(replicaConnections()).isEqualTo(before + 2);
+    }
+
+    @Test
+    void testWritesStayOnThePrimaryAndPinTheClient() throws Exception {
+        CreateAuthorRequest request = new CreateAuthorRequest();
+        request.setFirstName("Ursula");
+        request.setLastName("Le Guin");
+        long before = replicaConnections();
+
+        Cookie lastWrite = mockMvc.perform(post("/api/authors")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists(ReadYourWritesFilter.COOKIE))
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+
+        mockMvc.perform(get("/api/authors").cookie(lastWrite))
+                .andExpect(status().isOk());
+        assertThat(replicaConnections()).isEqualTo(before);
+
+        // Past the window
+        mockMvc.perform(get("/api/authors").cookie(new Cookie(ReadYourWritesFilter.COOKIE,
+                Long.toString(System.currentTimeMillis() - 10_000))))
+                .andExpect(status().isOk());
+        assertThat(replicaConnections()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void testMessageCacheMissesLoadFromThePrimary() throws Exception {
+        Message message = messageRepository.save(Message.builder()
+                .msgId("2025-03-03/NEWS/7")
+                .subject("Weekly digest")
+                .message("Summary of updates.")
+                .createdAt(LocalDateTime.of(2025, 3, 3, 9, 0))
+                .messageType(MessageType.NEWS)
+                .issue(7L)
+                .status(MessageStatus.PUBLISHED)
+                .effectiveStart(LocalDate.of(2025, 3, 3))
+                .build());
+        long before = replicaConnections();
+
+        // The entries outlive the request, so a lagging replica's row must not fill them
+        mockMvc.perform(get("/api/messages/{id}", message.getId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/messages/msg-id/{msgId}", message.getMsgId()))
+                .andExpect(status().isOk());
+
+        assertThat(replicaConnections()).isEqualTo(before);
+    }
+
+    @Test
+    void testSuggestIndexIsRebuiltFromThePrimary() {
+        long before = replicaConnections();
+
+        suggestService.rebuild();
+
+        assertThat(replicaConnections()).isEqualTo(before);
+    }
+
+    private long replicaConnections() {
+        Timer usage = meterRegistry.find("hikaricp.connections.usage").tag("pool", "replica-1").timer();
+        return usage == null ? 0 : usage.count();
+    }
+}
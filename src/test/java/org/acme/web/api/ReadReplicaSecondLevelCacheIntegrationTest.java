@@ -0,0 +1,84 @@
+package org.acme.web.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.Cookie;
+
+import org.acme.web.datasource.ReadYourWritesFilter;
+import org.acme.web.entity.Author;
+import org.acme.web.repository.AuthorRepository;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * The "cache" profile with one read replica, which is the primary's in-memory
+ * database reached through the replica pool. Reads routed to the replica may
+ * use the second-level cache but must not fill it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicacachetest;DB_CLOSE_DELAY=-1",
+        "app.datasource.read-replicas.enabled=true",
+        "app.datasource.read-replicas.replicas[0].url=jdbc:h2:mem:replicacachetest;DB_CLOSE_DELAY=-1",
+        "app.datasource.read-replicas.read-your-writes-window=5s",
+        "app.datasource.read-replicas.health-check-interval=1h" })
+@AutoConfigureMockMvc
+@ActiveProfiles({ "test", "cache" })
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class ReadReplicaSecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long authorId;
+
+    @BeforeEach
+    void setUp() {
+        authorId = authorRepository.save(Author.builder().firstName("Ursula").lastName("Le Guin").build()).getId();
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    @AfterEach
+    void tearDown() {
+        authorRepository.deleteAll();
+    }
+
+    @Test
+    void testReadsFromTheReplicaDoNotFillTheCache() throws Exception {
+        mockMvc.perform(get("/api/authors/{id}", authorId))
+                .andExpect(status().isOk());
+
+        assertThat(entityManagerFactory.getCache().contains(Author.class, authorId)).isFalse();
+    }
+
+    @Test
+    void testReadsPinnedToThePrimaryFillTheCache() throws Exception {
+        mockMvc.perform(get("/api/authors/{id}", authorId).cookie(new Cookie(ReadYourWritesFilter.COOKIE,
+                Long.toString(System.currentTimeMillis()))))
+                .andExpect(status().isOk());
+
+        assertThat(entityManagerFactory.getCache().contains(Author.class, authorId)).isTrue();
+
+        // Cached entries still serve replica reads
+        mockMvc.perform(get("/api/authors/{id}", authorId))
+                .andExpect(status().isOk());
+        assertThat(entityManagerFactory.getCache().contains(Author.class, authorId)).isTrue();
+    }
+}
@@ -0,0 +1,72 @@
+package org.acme.web.api;
+
+import static org.acme.web.support.SqlStatements.sqlStatements;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.acme.web.dto.response.Suggestion;
+import org.acme.web.service.impl.CatalogSuggestIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SuggestControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CatalogSuggestIndex suggestIndex;
+
+    @AfterEach
+    void tearDown() {
+        suggestIndex.remove(Suggestion.Type.BOOK, 9001L);
+        suggestIndex.remove(Suggestion.Type.AUTHOR, 9001L);
+    }
+
+    @Test
+    void testSuggest() throws Exception {
+        // Outside a transaction, so applied right away
+        suggestIndex.put(List.of(
+                Suggestion.book(9001L, "Île Mystérieuse", "978-2-000000-01-1"),
+                Suggestion.author(9001L, "Ilse", "Aichinger")));
+
+        mockMvc.perform(get("/api/search/suggest").param("q", "il").param("limit", "5"))
+                .andExpect(status().isOk())
+                // Answered from memory
+                .andExpect(sqlStatements(0))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].type", is("BOOK")))
+                .andExpect(jsonPath("$[0].id", is(9001)))
+                .andExpect(jsonPath("$[0].label", is("Île Mystérieuse")))
+                .andExpect(jsonPath("$[0].isbn", is("978-2-000000-01-1")))
+                .andExpect(jsonPath("$[1].type", is("AUTHOR")))
+                .andExpect(jsonPath("$[1].label", is("Ilse Aichinger")))
+                .andExpect(jsonPath("$[1].isbn", nullValue()));
+
+        mockMvc.perform(get("/api/search/suggest").param("q", "978200"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].label", is("Île Mystérieuse")));
+    }
+
+    @Test
+    void testSuggestWithoutQuery() throws Exception {
+        mockMvc.perform(get("/api/search/suggest"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Missing parameter 'q'")));
+    }
+}
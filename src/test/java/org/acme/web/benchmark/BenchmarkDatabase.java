@@ -0,0 +1,40 @@
+package org.acme.web.benchmark;
+
+import java.io.IOException;
+
+import org.acme.web.support.EmbeddedPostgresDatabase;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * PostgreSQL for the benchmark tests. Uses the server given by
+ * {@code benchmark.datasource.url} (plus {@code .username} /
+ * {@code .password}) if set; that database is migrated and seeded, so it must
+ * be a dedicated one. Otherwise starts an embedded PostgreSQL, which refuses
+ * to run as root.
+ */
+final class BenchmarkDatabase {
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Points the datasource at the benchmark database.
+     *
+     * @return the embedded server, for the caller to close after its tests, or
+     *         {@code null} if an external server is used
+     */
+    static EmbeddedPostgres register(DynamicPropertyRegistry registry) throws IOException {
+        String url = System.getProperty("benchmark.datasource.url");
+        if (url != null) {
+            registry.add("spring.datasource.url", () -> url);
+            registry.add("spring.datasource.username",
+                    () -> System.getProperty("benchmark.datasource.username", "library"));
+            registry.add("spring.datasource.password",
+                    () -> System.getProperty("benchmark.datasource.password", "library"));
+            return null;
+        }
+        return EmbeddedPostgresDatabase.start(registry);
+    }
+}
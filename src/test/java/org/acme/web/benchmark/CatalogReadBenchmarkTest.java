@@ -0,0 +1,195 @@
+package org.acme.web.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import jakarta.persistence.EntityManager;
+
+import org.acme.web.dto.response.BookResponse;
+import org.acme.web.entity.Book;
+import org.acme.web.mapper.BookMapper;
+import org.acme.web.repository.BookRepository;
+import org.acme.web.service.CurrentMessageService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Compares the entity read path for the book list with the JDBC projection at
+ * 100k books (two authors each) on PostgreSQL. Reports median latency and bytes
+ * allocated by the calling thread per full read. Opt-in, see the surefire
+ * configuration in the pom:
+ *
+ * <pre>
+ * mvn test -Dgroups=benchmark -Dsurefire.excludedGroups= -Dtest=CatalogReadBenchmarkTest
+ * </pre>
+ *
+ * The database is chosen as for {@link RepositoryQueryBenchmarkTest}. Every
+ * path reads all books in it, so use an empty one.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class CatalogReadBenchmarkTest {
+
+    private static final int BOOKS = 100_000;
+    private static final int AUTHORS = 1_000;
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURED_ITERATIONS = 5;
+
+    // The list query before the projection: collection fetch join + DISTINCT
+    private static final String LEGACY_FIND_ALL = """
+            SELECT DISTINCT b
+            FROM Book b
+            LEFT JOIN FETCH b.authors
+            LEFT JOIN FETCH b.createdBy
+            LEFT JOIN FETCH b.updatedBy
+            """;
+
+    private static final String SEED_AUTHORS = """
+            INSERT INTO authors (id, first_name, last_name, created_by, created_at, updated_by, updated_at)
+            SELECT ? + i, 'First' || i, 'Last' || i, 1, LOCALTIMESTAMP, 1, LOCALTIMESTAMP
+            FROM generate_series(1, ?) AS i
+            """;
+
+    private static final String SEED_BOOKS = """
+            INSERT INTO books (id, title, isbn, publication_year, created_by, created_at, updated_by, updated_at)
+            SELECT ? + i, 'Title ' || i, 'read-bench-' || (? + i), 1900 + i % 120,
+                   1, LOCALTIMESTAMP, 1, LOCALTIMESTAMP
+            FROM generate_series(1, ?) AS i
+            """;
+
+    // Two authors per book
+    private static final String SEED_BOOK_AUTHORS = """
+            INSERT INTO book_authors (book_id, author_id, created_at)
+            SELECT ? + i, ? + 1 + (i + k) % ?, LOCALTIMESTAMP
+            FROM generate_series(1, ?) AS i CROSS JOIN generate_series(0, 1) AS k
+            """;
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookMapper bookMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Keeps the snapshot's scheduled full load out of the measurements
+    @MockBean
+    private CurrentMessageService currentMessageService;
+
+    private TransactionTemplate readOnly;
+    private int books;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = BenchmarkDatabase.register(registry);
+    }
+
+    @AfterAll
+    void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeAll
+    void seed() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        long authorBase = maxId("authors");
+        long bookBase = maxId("books");
+        jdbcTemplate.update(SEED_AUTHORS, authorBase, AUTHORS);
+        jdbcTemplate.update(SEED_BOOKS, bookBase, bookBase, BOOKS);
+        jdbcTemplate.update(SEED_BOOK_AUTHORS, bookBase, authorBase, AUTHORS, BOOKS);
+        jdbcTemplate.execute("ANALYZE");
+        books = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Integer.class);
+    }
+
+    private long maxId(String table) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+    }
+
+    @Test
+    void compareBookListReadPaths() {
+        Result legacy = measure("entities, collection fetch join", () -> readOnly.execute(status -> entityManager
+                .createQuery(LEGACY_FIND_ALL, Book.class)
+                .getResultList().stream()
+                .map(bookMapper::toResponse)
+                .toList()));
+        Result entities = measure("entities, batched collections", () -> readOnly.execute(status -> bookRepository
+                .findAll().stream()
+                .map(bookMapper::toResponse)
+                .toList()));
+        Result projection = measure("JDBC projection (array_agg)",
+                () -> readOnly.execute(status -> bookRepository.findAllResponses()));
+
+        System.out.printf("%nBook list read, %,d books x 2 authors, PostgreSQL %s (median of %d runs)%n", books,
+                jdbcTemplate.queryForObject("SHOW server_version", String.class), MEASURED_ITERATIONS);
+        for (Result result : List.of(legacy, entities, projection)) {
+            System.out.printf("  %-34s %8.1f ms %10.1f MB allocated%n", result.name(), result.millis(),
+                    result.megabytes());
+        }
+
+        assertThat(projection.rows()).isEqualTo(books);
+        assertThat(entities.rows()).isEqualTo(books);
+        assertThat(legacy.rows()).isEqualTo(books);
+    }
+
+    private Result measure(String name, Supplier<List<BookResponse>> read) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            read.get();
+        }
+        long[] nanos = new long[MEASURED_ITERATIONS];
+        long[] bytes = new long[MEASURED_ITERATIONS];
+        int rows = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            rows = read.get().size();
+            nanos[i] = System.nanoTime() - start;
+            bytes[i] = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        }
+        return new Result(name, median(nanos) / 1_000_000.0, median(bytes) / (1024.0 * 1024.0), rows);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private record Result(String name, double millis, double megabytes, int rows) {
+    }
+}
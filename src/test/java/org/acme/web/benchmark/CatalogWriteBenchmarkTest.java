@@ -0,0 +1,159 @@
+package org.acme.web.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import org.acme.web.config.CatalogProperties;
+import org.acme.web.dto.request.CreateBookRequest;
+import org.acme.web.service.BookService;
+import org.acme.web.service.CurrentMessageService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Books created per second on PostgreSQL, two authors each, through
+ * {@code BookService.create} once per book (one transaction and one INSERT
+ * per row, the only way to load books before the bulk endpoint) and through
+ * {@code BookService.createAll} in requests of {@code app.catalog.bulk.max-items}
+ * (JDBC batches of {@code flush-size}). Opt-in, see the surefire configuration
+ * in the pom:
+ *
+ * <pre>
+ * mvn test -Dgroups=benchmark -Dsurefire.excludedGroups= -Dtest=CatalogWriteBenchmarkTest -Dbenchmark.books=50000
+ * </pre>
+ *
+ * The database is chosen as for {@link RepositoryQueryBenchmarkTest}; books
+ * are added to whatever it holds.
+ */
+@Tag("benchmark")
+// The per-session statistics log would cost the one-per-book path a log entry per book
+@SpringBootTest(properties = "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class CatalogWriteBenchmarkTest {
+
+    private static final int BOOKS = Integer.getInteger("benchmark.books", 20_000);
+    private static final int WARMUP_BOOKS = 2_000;
+    private static final int AUTHORS = 1_000;
+
+    private static final String SEED_AUTHORS = """
+            INSERT INTO authors (id, first_name, last_name, created_by, created_at, updated_by, updated_at)
+            SELECT ? + i, 'First' || i, 'Last' || i, 1, LOCALTIMESTAMP, 1, LOCALTIMESTAMP
+            FROM generate_series(1, ?) AS i
+            """;
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CatalogProperties catalogProperties;
+
+    // Keeps the snapshot's scheduled full load out of the measurements
+    @MockBean
+    private CurrentMessageService currentMessageService;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    private long authorBase;
+    private String runId;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = BenchmarkDatabase.register(registry);
+    }
+
+    @AfterAll
+    void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeAll
+    void seed() {
+        authorBase = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM authors", Long.class);
+        jdbcTemplate.update(SEED_AUTHORS, authorBase, AUTHORS);
+        // Past the explicit ids, a full pooled block above (see V9)
+        jdbcTemplate.execute("SELECT setval('authors_id_seq', (SELECT MAX(id) FROM authors) + 50, false)");
+        jdbcTemplate.execute("ANALYZE");
+        // ISBNs are unique, so every run writes its own
+        runId = Long.toString(System.currentTimeMillis(), 36);
+    }
+
+    @Test
+    void compareBookCreatePaths() {
+        createOneByOne(books("warmup-row", WARMUP_BOOKS));
+        createInBulk(books("warmup-bulk", WARMUP_BOOKS));
+
+        double perRow = booksPerSecond(() -> createOneByOne(books("row", BOOKS)));
+        double bulk = booksPerSecond(() -> createInBulk(books("bulk", BOOKS)));
+
+        System.out.printf("%nBook creation, %,d books x 2 authors, PostgreSQL %s%n", BOOKS,
+                jdbcTemplate.queryForObject("SHOW server_version", String.class));
+        System.out.printf("  %-44s %10.0f books/s%n", "create, one per book", perRow);
+        System.out.printf("  %-44s %10.0f books/s%n", String.format("createAll, %d per request, batches of %d",
+                catalogProperties.getBulk().getMaxItems(), catalogProperties.getBulk().getFlushSize()), bulk);
+        System.out.printf("  speed-up %.1fx%n", bulk / perRow);
+
+        for (String path : List.of("row", "bulk")) {
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books WHERE isbn LIKE ?", Long.class,
+                    "bench-" + runId + "-" + path + "-%")).isEqualTo(BOOKS);
+            assertThat(jdbcTemplate.queryForObject("""
+                    SELECT COUNT(*) FROM book_authors ba JOIN books b ON b.id = ba.book_id WHERE b.isbn LIKE ?
+                    """, Long.class, "bench-" + runId + "-" + path + "-%")).isEqualTo(2L * BOOKS);
+        }
+    }
+
+    private void createOneByOne(List<CreateBookRequest> books) {
+        books.forEach(bookService::create);
+    }
+
+    private void createInBulk(List<CreateBookRequest> books) {
+        int maxItems = catalogProperties.getBulk().getMaxItems();
+        for (int from = 0; from < books.size(); from += maxItems) {
+            bookService.createAll(books.subList(from, Math.min(from + maxItems, books.size())));
+        }
+    }
+
+    private static double booksPerSecond(Runnable load) {
+        long start = System.nanoTime();
+        load.run();
+        return BOOKS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private List<CreateBookRequest> books(String path, int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> {
+                    CreateBookRequest request = new CreateBookRequest();
+                    request.setTitle("Benchmark book " + i);
+                    request.setIsbn("bench-" + runId + "-" + path + "-" + i);
+                    request.setPublicationYear(1900 + i % 125);
+                    long first = authorBase + 1 + random.nextInt(AUTHORS);
+                    request.setAuthorIds(Set.of(first, authorBase + 1 + (first - authorBase) % AUTHORS));
+                    return request;
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,504 @@
+package org.acme.web.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+
+import org.acme.web.config.MessageProperties;
+import org.acme.web.dto.request.CreateMessageRequest;
+import org.acme.web.entity.Message;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
+import org.acme.web.repository.AuthorRepository;
+import org.acme.web.repository.BookRepository;
+import org.acme.web.repository.MessageRepository;
+import org.acme.web.service.CurrentMessageService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Latency of every repository query against PostgreSQL with the real Flyway
+ * migrations (enum types, PL/pgSQL functions, indexes), on a seeded dataset of
+ * {@code benchmark.scale} books and messages. Opt-in, see the surefire
+ * configuration in the pom:
+ *
+ * <pre>
+ * mvn test -Dgroups=benchmark -Dsurefire.excludedGroups= -Dtest=RepositoryQueryBenchmarkTest -Dbenchmark.scale=1m
+ * </pre>
+ *
+ * Starts an embedded PostgreSQL unless {@code benchmark.datasource.url} (plus
+ * {@code .username} / {@code .password}) points to a server; that database is
+ * migrated and seeded, so it must be a dedicated, empty one. PostgreSQL refuses
+ * to run as root, so the embedded server needs a non-root user.
+ *
+ * Reports p50/p90/p99/max per query to stdout and as JSON in
+ * {@code target/benchmark-reports/repository-queries-<scale>.json}, for diffing
+ * between releases. Reads whose result grows with the table (findAll,
+ * findAllResponses, streamAll) are skipped above {@value #FULL_READ_LIMIT} rows.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class RepositoryQueryBenchmarkTest {
+
+    private static final String SCALE_LABEL = System.getProperty("benchmark.scale", "10k");
+    private static final int SCALE = parseScale(SCALE_LABEL);
+    private static final int WARMUP_ITERATIONS = Integer.getInteger("benchmark.warmup", 20);
+    private static final int MEASURED_ITERATIONS = Integer.getInteger("benchmark.iterations", 200);
+    private static final int FULL_READ_LIMIT = 100_000;
+    private static final int FULL_READ_WARMUP_ITERATIONS = 2;
+    private static final int FULL_READ_ITERATIONS = 5;
+    private static final int SEED_CHUNK = 1_000_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int SEARCH_CANDIDATES = new MessageProperties.Search().getMaxCandidates();
+    private static final int BULK_SIZE = 100;
+    private static final int SAMPLE_SIZE = 1_000;
+    // Above the issue numbers of the seed migrations
+    private static final long ISSUE_BASE = 1_000_000L;
+    // Seeded messages are spread over the two years up to now
+    private static final double MESSAGE_SPAN_SECONDS = 2 * 365 * 24 * 3600.0;
+
+    private static final String SEED_AUTHORS = """
+            INSERT INTO authors (id, first_name, last_name, bio, created_by, created_at, updated_by, updated_at)
+            SELECT ? + i, 'First' || i, 'Last' || (i % 5000), 'Biography of author ' || i,
+                   1, LOCALTIMESTAMP, 1, LOCALTIMESTAMP
+            FROM generate_series(?, ?) AS i
+            """;
+
+    private static final String SEED_BOOKS = """
+            INSERT INTO books (id, title, isbn, publication_year, created_by, created_at, updated_by, updated_at)
+            SELECT ? + i, 'Title ' || md5(i::text), 'bench-' || i, 1900 + i % 125,
+                   1, LOCALTIMESTAMP, 1, LOCALTIMESTAMP
+            FROM generate_series(?, ?) AS i
+            """;
+
+    // Two authors per book
+    private static final String SEED_BOOK_AUTHORS = """
+            INSERT INTO book_authors (book_id, author_id, created_at)
+            SELECT ? + i, ? + 1 + (i + k) % ?, LOCALTIMESTAMP
+            FROM generate_series(?, ?) AS i CROSS JOIN generate_series(0, 1) AS k
+            """;
+
+    // Half published; active for up to two weeks, one in a thousand open-ended
+    private static final String SEED_MESSAGES = """
+            INSERT INTO messages (id, msg_id, subject, message, created_at, created_date, message_type, issue,
+                                  status, effective_start, effective_end, created_by, updated_by, updated_at)
+            SELECT ? + s.i,
+                   TO_CHAR(s.created_at, 'YYYY-MM-DD') || '/' || s.message_type::text || '/' || s.issue,
+                   'Subject ' || s.i, 'Benchmark message ' || md5(s.i::text),
+                   s.created_at, s.created_at::date, s.message_type, s.issue, s.status,
+                   s.created_at::date,
+                   CASE WHEN s.i % 1000 = 0 THEN NULL ELSE s.created_at::date + (s.i % 14) END,
+                   1, 1, s.created_at
+            FROM (
+                SELECT i,
+                       LOCALTIMESTAMP - make_interval(secs => (? - i) * CAST(? AS double precision)) AS created_at,
+                       (ARRAY['NEWS', 'ALERT', 'NOTICE'])[1 + i % 3]::message_type_enum AS message_type,
+                       ? + i AS issue,
+                       (ARRAY['PUBLISHED', 'DRAFT', 'PUBLISHED', 'ARCHIVED', 'PUBLISHED', 'RETRACTED'])[1 + i % 6]
+                           ::message_status_enum AS status
+                FROM generate_series(?, ?) AS i
+            ) s
+            """;
+
+    private static final String INSERT_MESSAGE = """
+            SELECT insert_message(?, ?, ?, CAST(? AS message_type_enum), ?, CAST(? AS message_status_enum), ?, ?, 1, 1)
+            """;
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Keeps the snapshot's scheduled full load out of the measurements
+    @MockBean
+    private CurrentMessageService currentMessageService;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final List<Result> results = new ArrayList<>();
+    private final Map<String, Long> rows = new LinkedHashMap<>();
+
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+    private long authorBase;
+    private long bookBase;
+    private long messageBase;
+    private int authors;
+    private List<SampledMessage> sampledMessages;
+    private AtomicLong nextIssue;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = BenchmarkDatabase.register(registry);
+    }
+
+    @AfterAll
+    void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeAll
+    void seed() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+
+        authors = Math.max(SCALE / 10, 10);
+        authorBase = maxId("authors");
+        bookBase = maxId("books");
+        messageBase = maxId("messages");
+        // Plain INSERTs, unlike the write functions, need the partitions to exist
+        jdbcTemplate.queryForObject("SELECT create_message_partitions(CURRENT_DATE - ?, CURRENT_DATE)",
+                Integer.class, (int) (MESSAGE_SPAN_SECONDS / (24 * 3600)) + 1);
+        for (int from = 1; from <= SCALE; from += SEED_CHUNK) {
+            int to = Math.min(from + SEED_CHUNK - 1, SCALE);
+            if (from <= authors) {
+                jdbcTemplate.update(SEED_AUTHORS, authorBase, from, Math.min(to, authors));
+            }
+            jdbcTemplate.update(SEED_BOOKS, bookBase, from, to);
+            jdbcTemplate.update(SEED_BOOK_AUTHORS, bookBase, authorBase, authors, from, to);
+            jdbcTemplate.update(SEED_MESSAGES, messageBase, SCALE, MESSAGE_SPAN_SECONDS / SCALE, ISSUE_BASE, from,
+                    to);
+        }
+        // Past the explicit ids, a full pooled block above (see V9)
+        for (String table : List.of("authors", "books", "messages")) {
+            jdbcTemplate.execute("SELECT setval('" + table + "_id_seq', (SELECT MAX(id) FROM " + table
+                    + ") + 50, false)");
+        }
+        jdbcTemplate.execute("ANALYZE");
+
+        for (String table : List.of("users", "authors", "books", "book_authors", "messages")) {
+            rows.put(table, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class));
+        }
+        String ids = LongStream.generate(() -> messageBase + 1 + random.nextInt(SCALE))
+                .limit(SAMPLE_SIZE)
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining(","));
+        sampledMessages = jdbcTemplate.query(
+                "SELECT id, msg_id, created_at, message_type, issue FROM messages WHERE id IN (" + ids + ")",
+                (rs, rowNum) -> new SampledMessage(rs.getLong("id"), rs.getString("msg_id"),
+                        rs.getTimestamp("created_at").toLocalDateTime(),
+                        MessageType.valueOf(rs.getString("message_type")), rs.getLong("issue")));
+        nextIssue = new AtomicLong(ISSUE_BASE + SCALE + 1);
+    }
+
+    @Test
+    void measureRepositoryQueries() throws IOException {
+        String startedAt = OffsetDateTime.now().toString();
+
+        fullRead("book.findAll", rows.get("books"), () -> bookRepository.findAll().size());
+        fullRead("book.findAllResponses", rows.get("books"), () -> bookRepository.findAllResponses().size());
+        read("book.findIdPage(first)",
+                () -> bookRepository.findIdPage(PageRequest.of(0, PAGE_SIZE, titleOrder())).getNumberOfElements());
+        read("book.findIdPage(deep)", () -> bookRepository
+                .findIdPage(PageRequest.of(deepPage(SCALE), PAGE_SIZE, titleOrder())).getNumberOfElements());
+        read("book.findAllWithUsersByIdIn", () -> bookRepository.findAllWithUsersByIdIn(bookIds()).size());
+        read("book.findById", () -> bookRepository.findById(bookId()).orElseThrow());
+        read("book.findByIsbn", () -> bookRepository.findByIsbn("bench-" + (1 + random.nextInt(SCALE)))
+                .orElseThrow());
+        read("book.findVersionById", () -> bookRepository.findVersionById(bookId()).orElseThrow());
+
+        fullRead("author.findAll", rows.get("authors"), () -> authorRepository.findAll().size());
+        fullRead("author.findAllResponses", rows.get("authors"),
+                () -> authorRepository.findAllResponses().size());
+        read("author.findIdPage(first)", () -> authorRepository
+                .findIdPage(PageRequest.of(0, PAGE_SIZE, nameOrder())).getNumberOfElements());
+        read("author.findIdPage(deep)", () -> authorRepository
+                .findIdPage(PageRequest.of(deepPage(authors), PAGE_SIZE, nameOrder())).getNumberOfElements());
+        read("author.findAllWithUsersByIdIn", () -> authorRepository.findAllWithUsersByIdIn(authorIds()).size());
+        read("author.findById", () -> authorRepository.findById(authorId()).orElseThrow());
+        read("author.countByIdIn", () -> authorRepository.countByIdIn(authorIds()));
+        read("author.findVersionById", () -> authorRepository.findVersionById(authorId()).orElseThrow());
+
+        fullRead("message.findAll", rows.get("messages"), () -> messageRepository.findAll().size());
+        fullRead("message.streamAll", rows.get("messages"), () -> {
+            try (Stream<Message> messages = messageRepository.streamAll()) {
+                return messages.peek(entityManager::detach).count();
+            }
+        });
+        read("message.findById", () -> messageRepository.findById(sampledMessage().id()).orElseThrow());
+        read("message.findByMsgId", () -> messageRepository.findByMsgId(sampledMessage().msgId()).orElseThrow());
+        read("message.findMaxUpdatedAt", () -> messageRepository.findMaxUpdatedAt());
+        read("message.findFirstPage", () -> messageRepository.findFirstPage(Limit.of(PAGE_SIZE)).size());
+        read("message.findPageAfter", () -> {
+            SampledMessage cursor = sampledMessage();
+            return messageRepository.findPageAfter(cursor.createdAt(), cursor.id(), Limit.of(PAGE_SIZE)).size();
+        });
+        read("message.findActive", () -> messageRepository.findActive(activeDate(), null, MessageStatus.PUBLISHED)
+                .size());
+        read("message.findActive(type)",
+                () -> messageRepository.findActive(activeDate(), messageType(), MessageStatus.PUBLISHED).size());
+        // As the snapshot's full load calls it; earlier dates include everything since
+        read("message.findPublishedNotEndedBefore",
+                () -> messageRepository.findPublishedNotEndedBefore(LocalDate.now()).size());
+        // Every seeded body contains "benchmark": ranking is bounded by max-candidates
+        read("message.search(common)", () -> messageRepository
+                .search("benchmark message", SEARCH_CANDIDATES, null, null, PAGE_SIZE + 1).getHits().size());
+        read("message.search(rare)", () -> messageRepository
+                .search(seededDigest(sampledMessage()), SEARCH_CANDIDATES, null, null, PAGE_SIZE + 1).getHits().size());
+        read("message.findUpdatedSince",
+                () -> messageRepository.findUpdatedSince(LocalDateTime.now().minusHours(1)).size());
+
+        write("message.insert_message(insert)", () -> insertMessage(newMessage()));
+        write("message.insert_message(update)", () -> insertMessage(existingMessage()));
+        write("message.upsert(insert)", () -> messageRepository.upsert(newMessage(), 1L));
+        write("message.upsert(update)", () -> messageRepository.upsert(existingMessage(), 1L));
+        write("message.upsertAll(" + BULK_SIZE + ")",
+                () -> messageRepository.upsertAll(Stream.generate(this::newMessage).limit(BULK_SIZE).toList(), 1L)
+                        .size());
+
+        Report report = new Report("repository-queries", System.getProperty("project.version", "unknown"),
+                jdbcTemplate.queryForObject("SHOW server_version", String.class), SCALE_LABEL, SCALE, rows,
+                startedAt, WARMUP_ITERATIONS, MEASURED_ITERATIONS, results);
+        Path file = writeReport(report);
+        print(report, file);
+
+        assertThat(results).allSatisfy(result -> assertThat(result.skipped() != null || result.samples() > 0)
+                .isTrue());
+    }
+
+    private void read(String name, Supplier<?> query) {
+        results.add(measure(name, WARMUP_ITERATIONS, MEASURED_ITERATIONS,
+                () -> readOnly.execute(status -> query.get())));
+    }
+
+    private void write(String name, Supplier<?> statement) {
+        results.add(measure(name, WARMUP_ITERATIONS, MEASURED_ITERATIONS,
+                () -> readWrite.execute(status -> statement.get())));
+    }
+
+    private void fullRead(String name, long tableRows, Supplier<?> query) {
+        if (tableRows > FULL_READ_LIMIT) {
+            results.add(Result.skipped(name, "table has more than " + FULL_READ_LIMIT + " rows"));
+            return;
+        }
+        results.add(measure(name, FULL_READ_WARMUP_ITERATIONS, FULL_READ_ITERATIONS,
+                () -> readOnly.execute(status -> query.get())));
+    }
+
+    private static Result measure(String name, int warmup, int iterations, Runnable call) {
+        for (int i = 0; i < warmup; i++) {
+            call.run();
+        }
+        long[] nanos = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            call.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return new Result(name, iterations, millis(percentile(nanos, 0.50)), millis(percentile(nanos, 0.90)),
+                millis(percentile(nanos, 0.99)), millis(nanos[nanos.length - 1]),
+                millis((long) LongStream.of(nanos).average().orElse(0)), null);
+    }
+
+    // Nearest-rank percentile of sorted values
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.max(0, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private Long insertMessage(CreateMessageRequest request) {
+        return jdbcTemplate.queryForObject(INSERT_MESSAGE, Long.class, request.getTitle(), request.getMessage(),
+                request.getCreatedAt(), request.getMessageType().name(), request.getIssue(),
+                request.getStatus().name(), request.getEffectiveStart(), request.getEffectiveEnd());
+    }
+
+    private CreateMessageRequest newMessage() {
+        return message(LocalDateTime.now().withNano(0), messageType(), nextIssue.getAndIncrement());
+    }
+
+    // Same (created_date, issue, message_type) key as a seeded row, so the upsert updates it
+    private CreateMessageRequest existingMessage() {
+        SampledMessage sample = sampledMessage();
+        return message(sample.createdAt(), sample.messageType(), sample.issue());
+    }
+
+    private CreateMessageRequest message(LocalDateTime createdAt, MessageType type, long issue) {
+        CreateMessageRequest request = new CreateMessageRequest();
+        request.setTitle("Benchmark upsert");
+        request.setMessage("Written by the repository query benchmark.");
+        request.setCreatedAt(createdAt);
+        request.setMessageType(type);
+        request.setIssue(issue);
+        request.setStatus(MessageStatus.PUBLISHED);
+        request.setEffectiveStart(createdAt.toLocalDate());
+        request.setEffectiveEnd(createdAt.toLocalDate().plusDays(7));
+        return request;
+    }
+
+    private long maxId(String table) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+    }
+
+    private Long bookId() {
+        return bookBase + 1 + random.nextInt(SCALE);
+    }
+
+    private Long authorId() {
+        return authorBase + 1 + random.nextInt(authors);
+    }
+
+    private List<Long> bookIds() {
+        return Stream.generate(this::bookId).limit(PAGE_SIZE).toList();
+    }
+
+    private List<Long> authorIds() {
+        return Stream.generate(this::authorId).limit(PAGE_SIZE).toList();
+    }
+
+    private SampledMessage sampledMessage() {
+        return sampledMessages.get(random.nextInt(sampledMessages.size()));
+    }
+
+    // The md5 the seed put in the message's body, a word no other message contains
+    private String seededDigest(SampledMessage message) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5")
+                    .digest(Long.toString(message.id() - messageBase).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private MessageType messageType() {
+        return MessageType.values()[random.nextInt(MessageType.values().length)];
+    }
+
+    // A day within the seeded two years
+    private LocalDate activeDate() {
+        return LocalDate.now().minusDays(random.nextInt(730));
+    }
+
+    // A page in the second half of the listing
+    private int deepPage(int total) {
+        int pages = Math.max(total / PAGE_SIZE, 1);
+        return pages / 2 + random.nextInt(Math.max(pages / 2, 1));
+    }
+
+    private static Sort titleOrder() {
+        return Sort.by("title").and(Sort.by("id"));
+    }
+
+    private static Sort nameOrder() {
+        return Sort.by("lastName", "firstName").and(Sort.by("id"));
+    }
+
+    private static Path writeReport(Report report) throws IOException {
+        Path file = Path.of(System.getProperty("benchmark.report-dir", "target/benchmark-reports"),
+                "repository-queries-" + report.scaleLabel().toLowerCase(Locale.ROOT) + ".json");
+        Files.createDirectories(file.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        return file;
+    }
+
+    private static void print(Report report, Path file) {
+        System.out.printf("%nRepository queries, PostgreSQL %s, %s rows %s%n", report.postgres(),
+                report.scaleLabel(), report.rows());
+        System.out.printf("  %-40s %9s %9s %9s %9s%n", "query", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (Result result : report.results()) {
+            if (result.skipped() != null) {
+                System.out.printf("  %-40s skipped: %s%n", result.query(), result.skipped());
+            } else {
+                System.out.printf("  %-40s %9.3f %9.3f %9.3f %9.3f%n", result.query(), result.p50Ms(),
+                        result.p90Ms(), result.p99Ms(), result.maxMs());
+            }
+        }
+        System.out.printf("Report written to %s%n", file.toAbsolutePath());
+    }
+
+    private static int parseScale(String label) {
+        String value = label.trim().toLowerCase(Locale.ROOT);
+        if (value.endsWith("k")) {
+            return Integer.parseInt(value.substring(0, value.length() - 1)) * 1_000;
+        }
+        if (value.endsWith("m")) {
+            return Integer.parseInt(value.substring(0, value.length() - 1)) * 1_000_000;
+        }
+        return Integer.parseInt(value);
+    }
+
+    private record SampledMessage(long id, String msgId, LocalDateTime createdAt, MessageType messageType,
+            long issue) {
+    }
+
+    private record Report(String suite, String version, String postgres, String scaleLabel, int scale,
+            Map<String, Long> rows, String startedAt, int warmupIterations, int measuredIterations,
+            List<Result> results) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private record Result(String query, Integer samples, Double p50Ms, Double p90Ms, Double p99Ms, Double maxMs,
+            Double meanMs, String skipped) {
+
+        static Result skipped(String query, String reason) {
+            return new Result(query, null, null, null, null, null, null, reason);
+        }
+    }
+}
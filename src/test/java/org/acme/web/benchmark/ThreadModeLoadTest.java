@@ -0,0 +1,226 @@
+package org.acme.web.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.acme.web.LibraryApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Load test of GET /api/authors/{id} with {@code benchmark.concurrency}
+ * requests in flight (default 2000) against a 10-connection pool, comparing:
+ * <ul>
+ * <li>platform - Tomcat's pool of 200 platform threads (the default)</li>
+ * <li>virtual - virtual threads, every request competing for the pool</li>
+ * <li>virtual-limited - the "virtual-threads" profile: virtual threads queued
+ * by the connection limiter</li>
+ * </ul>
+ * The pool's connection-timeout is 2 s in every mode. Opt-in, like
+ * RepositoryQueryBenchmarkTest; the virtual modes need Java 21 and are reported
+ * as skipped on older runtimes:
+ *
+ * <pre>
+ * mvn test -Dgroups=benchmark -Dsurefire.excludedGroups= -Dtest=ThreadModeLoadTest
+ * </pre>
+ *
+ * Each mode starts the application on a random port against the same database
+ * (an embedded PostgreSQL unless {@code benchmark.datasource.url} is set).
+ * Reports throughput, latency percentiles and failed requests to stdout and to
+ * {@code target/benchmark-reports/thread-modes.json}.
+ */
+@Tag("benchmark")
+class ThreadModeLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 2_000);
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20_000);
+    private static final int WARMUP_REQUESTS = Integer.getInteger("benchmark.warmup", 2_000);
+    private static final int POOL_SIZE = 10;
+    private static final int POOL_TIMEOUT_MS = 2_000;
+    // Ids of the authors in V2__Seed_data.sql
+    private static final int AUTHORS = 4;
+
+    private static EmbeddedPostgres postgres;
+    private static String url;
+    private static String username;
+    private static String password;
+
+    @BeforeAll
+    static void startPostgres() throws IOException {
+        url = System.getProperty("benchmark.datasource.url");
+        if (url != null) {
+            username = System.getProperty("benchmark.datasource.username", "library");
+            password = System.getProperty("benchmark.datasource.password", "library");
+            return;
+        }
+        postgres = EmbeddedPostgres.builder().start();
+        url = postgres.getJdbcUrl("postgres", "postgres");
+        username = "postgres";
+        password = "";
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void testCompareThreadModes() throws Exception {
+        List<Result> results = new ArrayList<>();
+        results.add(run("platform"));
+        if (Runtime.version().feature() >= 21) {
+            results.add(run("virtual", "--spring.threads.virtual.enabled=true"));
+            results.add(run("virtual-limited", "--spring.profiles.active=virtual-threads"));
+        } else {
+            results.add(Result.skipped("virtual", "needs Java 21"));
+            results.add(Result.skipped("virtual-limited", "needs Java 21"));
+        }
+
+        Report report = new Report("thread-modes", System.getProperty("project.version", "unknown"),
+                Runtime.version().toString(), OffsetDateTime.now().toString(), CONCURRENCY, REQUESTS, POOL_SIZE,
+                POOL_TIMEOUT_MS, results);
+        Path file = writeReport(report);
+        print(report, file);
+
+        // Under this load the limiter queues callers instead of failing them
+        assertThat(results).filteredOn(result -> result.mode().equals("virtual-limited") && result.skipped() == null)
+                .allSatisfy(result -> assertThat(result.failed()).isZero());
+    }
+
+    private static Result run(String mode, String... args) throws InterruptedException {
+        List<String> arguments = new ArrayList<>(List.of("--server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + username,
+                "--spring.datasource.password=" + password,
+                "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                "--spring.datasource.hikari.connection-timeout=" + POOL_TIMEOUT_MS,
+                "--logging.level.root=WARN",
+                "--logging.level.org.acme.web=ERROR"));
+        arguments.addAll(Arrays.asList(args));
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryApplication.class)
+                .run(arguments.toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            String baseUrl = "http://localhost:" + port + "/api/authors/";
+            load(client, baseUrl, WARMUP_REQUESTS, mode);
+            return load(client, baseUrl, REQUESTS, mode);
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    // Keeps CONCURRENCY requests in flight until all have been sent
+    private static Result load(HttpClient client, String baseUrl, int requests, String mode)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger failed = new AtomicInteger();
+        long[] nanos = new long[requests];
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int index = i;
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + (1 + i % AUTHORS)))
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                nanos[index] = System.nanoTime() - sent;
+                if (error != null || response.statusCode() != 200) {
+                    failed.incrementAndGet();
+                }
+                inFlight.release();
+                done.countDown();
+            });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Arrays.sort(nanos);
+        return new Result(mode, requests, failed.get(), Math.round(requests / seconds * 10) / 10.0,
+                millis(percentile(nanos, 0.50)), millis(percentile(nanos, 0.90)), millis(percentile(nanos, 0.99)),
+                millis(nanos[nanos.length - 1]), null);
+    }
+
+    // Nearest-rank percentile of sorted values
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.max(0, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private static Path writeReport(Report report) throws IOException {
+        Path file = Path.of(System.getProperty("benchmark.report-dir", "target/benchmark-reports"),
+                "thread-modes.json");
+        Files.createDirectories(file.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        return file;
+    }
+
+    private static void print(Report report, Path file) {
+        System.out.printf("%nThread modes, Java %s, %d requests, %d in flight, pool of %d (timeout %d ms)%n",
+                report.java(), report.requests(), report.concurrency(), report.poolSize(),
+                report.poolTimeoutMs());
+        System.out.printf("  %-16s %9s %9s %9s %9s %9s %9s%n", "mode", "req/s", "failed", "p50 ms", "p90 ms",
+                "p99 ms", "max ms");
+        for (Result result : report.results()) {
+            if (result.skipped() != null) {
+                System.out.printf("  %-16s skipped: %s%n", result.mode(), result.skipped());
+            } else {
+                System.out.printf("  %-16s %9.1f %9d %9.1f %9.1f %9.1f %9.1f%n", result.mode(),
+                        result.throughput(), result.failed(), result.p50Ms(), result.p90Ms(), result.p99Ms(),
+                        result.maxMs());
+            }
+        }
+        System.out.printf("Report written to %s%n", file.toAbsolutePath());
+    }
+
+    private record Report(String suite, String version, String java, String startedAt, int concurrency,
+            int requests, int poolSize, int poolTimeoutMs, List<Result> results) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private record Result(String mode, Integer requests, Integer failed, Double throughput, Double p50Ms,
+            Double p90Ms, Double p99Ms, Double maxMs, String skipped) {
+
+        static Result skipped(String mode, String reason) {
+            return new Result(mode, null, null, null, null, null, null, null, reason);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.acme.web.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+class ConnectionLimitingDataSourceTest {
+
+    private DataSource pool;
+    private ConnectionLimitingDataSource limiter;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = mock(DataSource.class);
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        limiter = new ConnectionLimitingDataSource(pool, 2, Duration.ofMillis(100));
+    }
+
+    @Test
+    void testPermitIsReturnedOnceWhenConnectionIsClosed() throws SQLException {
+        Connection connection = limiter.getConnection();
+        assertThat(limiter.getAvailablePermits()).isEqualTo(1);
+
+        connection.close();
+        connection.close();
+
+        assertThat(limiter.getAvailablePermits()).isEqualTo(2);
+        verify(DataSourceUtils.getTargetConnection(connection), times(2)).close();
+    }
+
+    @Test
+    void testConnectionRequestFailsWhenNoPermitFreesUpInTime() throws SQLException {
+        limiter.getConnection();
+        limiter.getConnection();
+
+        assertThatThrownBy(limiter::getConnection).isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("2 in use");
+    }
+
+    @Test
+    void testWaiterGetsTheConnectionReleasedByAnotherCaller() throws Exception {
+        limiter = new ConnectionLimitingDataSource(pool, 1, Duration.ofSeconds(5));
+        Connection first = limiter.getConnection();
+
+        CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (limiter.getQueueLength() == 0) {
+            Thread.onSpinWait();
+        }
+        first.close();
+
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(limiter.getAvailablePermits()).isZero();
+    }
+
+    @Test
+    void testPermitIsReturnedWhenThePoolFails() throws SQLException {
+        when(pool.getConnection()).thenThrow(new SQLTransientConnectionException("pool exhausted"));
+
+        List<SQLException> failures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            try {
+                limiter.getConnection();
+            } catch (SQLException e) {
+                failures.add(e);
+            }
+        }
+
+        assertThat(failures).extracting(Throwable::getMessage).containsExactly("pool exhausted", "pool exhausted",
+                "pool exhausted");
+        assertThat(limiter.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void testProxyIsEqualOnlyToItself() throws SQLException {
+        Connection connection = limiter.getConnection();
+        Connection other = limiter.getConnection();
+
+        assertThat(connection).isEqualTo(connection).isNotEqualTo(other);
+        assertThat(connection.hashCode()).isEqualTo(connection.hashCode());
+    }
+}
@@ -0,0 +1,98 @@
+package org.acme.web.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection firstConnection = mock(Connection.class);
+    private final Connection secondConnection = mock(Connection.class);
+
+    private DataSource first;
+    private DataSource second;
+    private ReadReplicas replicas;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource primary = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        first = mock(DataSource.class);
+        when(first.getConnection()).thenReturn(firstConnection);
+        second = mock(DataSource.class);
+        when(second.getConnection()).thenReturn(secondConnection);
+        replicas = new ReadReplicas(List.of(new ReadReplicas.Replica("replica-1", first, () -> {
+        }), new ReadReplicas.Replica("replica-2", second, () -> {
+        })));
+        routing = new ReplicaRoutingDataSource(primary, replicas);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.clear();
+    }
+
+    @Test
+    void testReadsAlternateBetweenReplicas() throws SQLException {
+        assertThat(List.of(routing.getConnection(), routing.getConnection(), routing.getConnection()))
+                .containsExactly(firstConnection, secondConnection, firstConnection);
+    }
+
+    @Test
+    void testFailingReplicaIsTakenOutOfRotationUntilHealthy() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        assertThat(routing.getConnection()).isSameAs(secondConnection);
+        assertThat(replicas.getReplicas().get(0).isUp()).isFalse();
+        assertThat(List.of(routing.getConnection(), routing.getConnection()))
+                .containsExactly(secondConnection, secondConnection);
+
+        when(firstConnection.isValid(2)).thenReturn(true);
+        when(secondConnection.isValid(2)).thenReturn(true);
+        reset(first);
+        when(first.getConnection()).thenReturn(firstConnection);
+        replicas.checkHealth();
+
+        assertThat(replicas.getReplicas().get(0).isUp()).isTrue();
+    }
+
+    @Test
+    void testReadsFallBackToPrimaryWhenNoReplicaIsUp() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(second.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(replicas.rotation()).isEmpty();
+    }
+
+    @Test
+    void testBusyReplicaStaysInRotation() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLTransientConnectionException("request timed out"));
+        when(second.getConnection()).thenThrow(new SQLTransientConnectionException("request timed out"));
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(replicas.rotation()).hasSize(2);
+    }
+
+    @Test
+    void testPinnedThreadReadsFromPrimary() throws SQLException {
+        ReadYourWrites.pinToPrimary();
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+    }
+}
@@ -0,0 +1,96 @@
+package org.acme.web.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.acme.web.config.GeneratorProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SyntheticDataTest {
+
+    private GeneratorProperties properties;
+    private SyntheticData.IdBases bases;
+
+    @BeforeEach
+    void setUp() {
+        properties = new GeneratorProperties();
+        properties.setUsers(10);
+        properties.setAuthors(50);
+        properties.setBooks(2_000);
+        properties.setMessages(2_000);
+        properties.setMessageDays(10);
+        bases = new SyntheticData.IdBases(3, 4, 5, 12, 6);
+    }
+
+    @Test
+    void testSameSeedProducesSameRows() throws IOException {
+        String first = messages(new SyntheticData(properties, bases), 1, 1_000);
+        String second = messages(new SyntheticData(properties, bases), 1, 1_000);
+        properties.setSeed(7);
+        String otherSeed = messages(new SyntheticData(properties, bases), 1, 1_000);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(otherSeed).isNotEqualTo(first);
+    }
+
+    @Test
+    void testMessagesRespectUniqueKey() throws IOException {
+        List<String[]> rows = rows(messages(new SyntheticData(properties, bases), 1, 2_000));
+
+        Set<String> keys = new HashSet<>();
+        for (String[] row : rows) {
+            String createdDate = row[4].substring(0, 10);
+            // msg_id is created_date/message_type/issue, as insert_message builds it
+            assertThat(row[1]).isEqualTo(createdDate + "/" + row[5] + "/" + row[6]);
+            // created_date, the partition key, is written explicitly
+            assertThat(row[13]).isEqualTo(createdDate);
+            assertThat(keys.add(createdDate + "|" + row[6] + "|" + row[5])).isTrue();
+        }
+        assertThat(rows).hasSize(2_000);
+        assertThat(rows.get(0)[0]).isEqualTo("13");
+        assertThat(rows.get(0)[6]).isEqualTo("7");
+        assertThat(rows.get(rows.size() - 1)[4]).startsWith("2024-01-10");
+    }
+
+    @Test
+    void testBookAuthorsAreDistinctPerBookAndBounded() throws IOException {
+        StringWriter out = new StringWriter();
+        new SyntheticData(properties, bases).bookAuthors(1, 2_000, new CopyRowWriter(out));
+
+        Map<String, Set<String>> authorsByBook = new HashMap<>();
+        for (String[] row : rows(out.toString())) {
+            assertThat(Long.parseLong(row[1])).isBetween(5L, 54L);
+            assertThat(authorsByBook.computeIfAbsent(row[0], book -> new HashSet<>()).add(row[1])).isTrue();
+        }
+        assertThat(authorsByBook).hasSize(2_000);
+        assertThat(authorsByBook.values()).allSatisfy(authors -> assertThat(authors).hasSizeBetween(1, 5));
+        assertThat(authorsByBook.values().stream().filter(authors -> authors.size() == 1).count())
+                .isBetween(1_200L, 1_600L);
+    }
+
+    @Test
+    void testCopyRowWriterEscapesText() throws IOException {
+        StringWriter out = new StringWriter();
+        new CopyRowWriter(out).value("a\tb\\c\nd").value(null).value(42).endRow();
+
+        assertThat(out.toString()).isEqualTo("a\\tb\\\\c\\nd\t\\N\t42\n");
+    }
+
+    private static String messages(SyntheticData data, long from, long to) throws IOException {
+        StringWriter out = new StringWriter();
+        data.messages(from, to, new CopyRowWriter(out));
+        return out.toString();
+    }
+
+    private static List<String[]> rows(String copyText) {
+        return copyText.lines().map(line -> line.split("\t")).toList();
+    }
+}
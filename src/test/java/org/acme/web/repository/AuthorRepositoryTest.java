@@ -7,7 +7,10 @@ import java.util.List;
 import java.util.Optional;
 
 import org.acme.web.config.JpaAuditingConfig;
+import org.acme.web.dto.response.AuthorResponse;
 import org.acme.web.entity.Author;
+import org.acme.web.entity.Book;
+import org.acme.web.entity.BookAuthor;
 import org.acme.web.entity.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +18,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 
 @DataJpaTest
@@ -112,7 +118,7 @@ class AuthorRepositoryTest {
     @Test
     void testFindAllWithEagerLoading() {
         List<Author> authors = authorRepository.findAll();
-        // Verify that books collection is eagerly loaded (no
+        // Verify that books collection is loaded (batch-initialized, no
         // LazyInitializationException)
         assertThat(authors).isNotEmpty();
         authors.forEach(author -> {
@@ -121,6 +127,44 @@ class AuthorRepositoryTest {
         });
     }
 
+    @Test
+    void testFindIdPage() {
+        persistAuthor("Alice", "Brown");
+        persistAuthor("Carl", "Adams");
+
+        Page<Long> page = authorRepository.findIdPage(PageRequest.of(0, 2, Sort.by("lastName", "id")));
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getTotalPages()).isEqualTo(2);
+        List<Author> authors = authorRepository.findAllWithUsersByIdIn(page.getContent());
+        assertThat(authors).extracting(Author::getLastName).containsExactlyInAnyOrder("Adams", "Brown");
+    }
+
+    private void persistAuthor(String firstName, String lastName) {
+        entityManager.persistAndFlush(Author.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Test
+    void testFindAllResponsesAggregatesBookIds() {
+        Book first = entityManager.persist(Book.builder().title("First").createdAt(LocalDateTime.now()).build());
+        Book second = entityManager.persist(Book.builder().title("Second").createdAt(LocalDateTime.now()).build());
+        entityManager.persist(BookAuthor.builder().book(first).author(testAuthor).build());
+        entityManager.persist(BookAuthor.builder().book(second).author(testAuthor).build());
+        persistAuthor("Alice", "Brown");
+
+        List<AuthorResponse> responses = authorRepository.findAllResponses();
+
+        assertThat(responses).hasSize(2);
+        assertThat(responses.get(0).getId()).isEqualTo(testAuthor.getId());
+        assertThat(responses.get(0).getBookIds()).containsExactly(first.getId(), second.getId());
+        assertThat(responses.get(0).getCreatedById()).isEqualTo(testUser.getId());
+        assertThat(responses.get(1).getBookIds()).isEmpty();
+    }
+
     @Test
     void testFindByIdWithEagerLoading() {
         Optional<Author> found = authorRepository.findById(testAuthor.getId());
@@ -0,0 +1,166 @@
+package org.acme.web.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.acme.web.dto.request.CreateMessageRequest;
+import org.acme.web.dto.response.BulkMessageResult;
+import org.acme.web.dto.response.MessageResponse;
+import org.acme.web.dto.response.MessageUpsertResult;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
+import org.acme.web.support.EmbeddedPostgresDatabase;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Message queries and constraints that depend on PostgreSQL: the daterange
+ * GiST index behind findActive, the check that keeps inverted effective
+ * periods out of it, and the upsert functions.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@DisabledIfSystemProperty(named = "user.name", matches = "root", disabledReason = "PostgreSQL refuses to run as root")
+class MessageRepositoryPostgresTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2030, 3, 1, 9, 0);
+    private static final LocalDate START = LocalDate.of(2030, 3, 10);
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgresDatabase.start(registry);
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        messageRepository.upsertAll(List.of(
+                request(1, MessageType.NEWS, MessageStatus.PUBLISHED, START, START.plusDays(5)),
+                request(2, MessageType.ALERT, MessageStatus.PUBLISHED, START.plusDays(3), null),
+                // A single day
+                request(3, MessageType.NEWS, MessageStatus.PUBLISHED, START.plusDays(5), START.plusDays(5)),
+                request(4, MessageType.NEWS, MessageStatus.DRAFT, START, null)), null);
+    }
+
+    @Test
+    void testFindActiveIncludesBothEndsAndOpenEndedPeriods() {
+        assertThat(issues(START.minusDays(1), null, MessageStatus.PUBLISHED)).isEmpty();
+        assertThat(issues(START, null, MessageStatus.PUBLISHED)).containsExactly(1L);
+        assertThat(issues(START.plusDays(5), null, MessageStatus.PUBLISHED)).containsExactly(1L, 2L, 3L);
+        assertThat(issues(START.plusDays(6), null, MessageStatus.PUBLISHED)).containsExactly(2L);
+        assertThat(issues(START.plusYears(10), null, MessageStatus.PUBLISHED)).containsExactly(2L);
+    }
+
+    @Test
+    void testFindActiveFiltersByTypeAndStatus() {
+        assertThat(issues(START.plusDays(5), MessageType.NEWS, MessageStatus.PUBLISHED)).containsExactly(1L, 3L);
+        assertThat(issues(START.plusDays(5), MessageType.ALERT, MessageStatus.PUBLISHED)).containsExactly(2L);
+        assertThat(issues(START.plusDays(5), null, MessageStatus.DRAFT)).containsExactly(4L);
+    }
+
+    @Test
+    void testUpdatesDrawNoIds() {
+        long before = lastMessageId();
+
+        MessageUpsertResult updated = messageRepository.upsert(
+                request(1, MessageType.NEWS, MessageStatus.ARCHIVED, START, START.plusDays(5)), null);
+        List<BulkMessageResult> bulkUpdated = messageRepository.upsertAll(List.of(
+                request(2, MessageType.ALERT, MessageStatus.PUBLISHED, START.plusDays(3), null),
+                request(4, MessageType.NEWS, MessageStatus.PUBLISHED, START, null)), null);
+
+        assertThat(updated.isInserted()).isFalse();
+        assertThat(updated.getMessage().getStatus()).isEqualTo(MessageStatus.ARCHIVED);
+        assertThat(bulkUpdated).extracting(BulkMessageResult::isInserted).containsExactly(false, false);
+        assertThat(lastMessageId()).isEqualTo(before);
+
+        // One nextval, a block of 50 ids, for the one new message
+        List<BulkMessageResult> mixed = messageRepository.upsertAll(List.of(
+                request(3, MessageType.NEWS, MessageStatus.PUBLISHED, START, null),
+                request(6, MessageType.NEWS, MessageStatus.PUBLISHED, START, null)), null);
+
+        assertThat(mixed).extracting(BulkMessageResult::getMsgId, BulkMessageResult::isInserted)
+                .containsExactlyInAnyOrder(tuple("2030-03-01/NEWS/3", false), tuple("2030-03-01/NEWS/6", true));
+        assertThat(lastMessageId()).isEqualTo(before + 50);
+    }
+
+    @Test
+    void testPeriodEndingBeforeItStartsIsRejectedByTheCheck() {
+        CreateMessageRequest inverted = request(5, MessageType.NEWS, MessageStatus.PUBLISHED, START,
+                START.minusDays(1));
+
+        // Not the daterange error the index would raise
+        assertThatThrownBy(() -> messageRepository.upsert(inverted, null))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining("ck_message_effective_period");
+    }
+
+    @Test
+    void testBulkPeriodEndingBeforeItStartsIsRejectedByTheCheck() {
+        CreateMessageRequest inverted = request(5, MessageType.NEWS, MessageStatus.PUBLISHED, START,
+                START.minusDays(1));
+
+        assertThatThrownBy(() -> messageRepository.upsertAll(List.of(inverted), null))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining("ck_message_effective_period");
+    }
+
+    private long lastMessageId() {
+        return jdbcTemplate.queryForObject("SELECT last_value FROM messages_id_seq", Long.class);
+    }
+
+    private List<Long> issues(LocalDate on, MessageType type, MessageStatus status) {
+        // The seed migrations' open-ended messages are in effect too
+        return messageRepository.findActive(on, type, status).stream()
+                .filter(message -> message.getCreatedAt().equals(CREATED_AT))
+                .map(MessageResponse::getIssue)
+                .sorted()
+                .toList();
+    }
+
+    private static CreateMessageRequest request(long issue, MessageType type, MessageStatus status,
+            LocalDate effectiveStart, LocalDate effectiveEnd) {
+        CreateMessageRequest request = new CreateMessageRequest();
+        request.setTitle("Notice " + issue);
+        request.setMessage("Body " + issue);
+        request.setCreatedAt(CREATED_AT);
+        request.setMessageType(type);
+        request.setIssue(issue);
+        request.setStatus(status);
+        request.setEffectiveStart(effectiveStart);
+        request.setEffectiveEnd(effectiveEnd);
+        return request;
+    }
+}
@@ -0,0 +1,96 @@
+package org.acme.web.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.acme.web.config.JpaAuditingConfig;
+import org.acme.web.entity.Message;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+@DataJpaTest
+@Import(JpaAuditingConfig.class)
+@ActiveProfiles("test")
+class MessageRepositoryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 6, 9, 0, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Two rows share a created_at so the id tie-breaker is exercised
+        persist(BASE, 1L);
+        persist(BASE, 2L);
+        persist(BASE.plusDays(1), 3L);
+        persist(BASE.plusDays(2), 4L);
+        persist(BASE.plusDays(3), 5L);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void persist(LocalDateTime createdAt, Long issue) {
+        entityManager.persist(Message.builder()
+                .msgId(createdAt.toLocalDate() + "/NEWS/" + issue)
+                .subject("Subject " + issue)
+                .message("Body " + issue)
+                .createdAt(createdAt)
+                .messageType(MessageType.NEWS)
+                .issue(issue)
+                .status(MessageStatus.PUBLISHED)
+                .effectiveStart(LocalDate.of(2025, 1, 6))
+                .build());
+    }
+
+    @Test
+    void testFindByMsgIdLooksOnTheDateItStartsWith() {
+        assertThat(messageRepository.findByMsgId("2025-01-07/NEWS/3")).hasValueSatisfying(message -> {
+            assertThat(message.getIssue()).isEqualTo(3L);
+            assertThat(message.getCreatedDate()).isEqualTo(LocalDate.of(2025, 1, 7));
+        });
+        assertThat(messageRepository.findByMsgId("unknown")).isEmpty();
+    }
+
+    @Test
+    void testFindFirstPage() {
+        List<Message> page = messageRepository.findFirstPage(Limit.of(2));
+        assertThat(page).extracting(Message::getIssue).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void testFindPageAfterWalksAllRowsWithoutGapsOrDuplicates() {
+        List<Message> first = messageRepository.findFirstPage(Limit.of(2));
+        Message last = first.get(first.size() - 1);
+
+        List<Message> second = messageRepository.findPageAfter(last.getCreatedAt(), last.getId(), Limit.of(2));
+        assertThat(second).extracting(Message::getIssue).containsExactly(3L, 4L);
+
+        last = second.get(second.size() - 1);
+        List<Message> third = messageRepository.findPageAfter(last.getCreatedAt(), last.getId(), Limit.of(2));
+        assertThat(third).extracting(Message::getIssue).containsExactly(5L);
+    }
+
+    @Test
+    void testFindPageAfterBreaksTiesById() {
+        Message firstOfTie = messageRepository.findFirstPage(Limit.of(1)).get(0);
+
+        List<Message> page = messageRepository.findPageAfter(firstOfTie.getCreatedAt(), firstOfTie.getId(),
+                Limit.of(1));
+        assertThat(page).extracting(Message::getIssue).containsExactly(2L);
+    }
+}
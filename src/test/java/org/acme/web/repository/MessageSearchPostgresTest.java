@@ -0,0 +1,180 @@
+package org.acme.web.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.acme.web.dto.request.CreateMessageRequest;
+import org.acme.web.dto.response.MessageSearchHit;
+import org.acme.web.dto.response.MessageSearchResult;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
+import org.acme.web.support.EmbeddedPostgresDatabase;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Full-text search against PostgreSQL with the real migrations, which H2
+ * cannot run. With {@value #MAX_CANDIDATES} candidates the newest window is
+ * 1000 messages, and a query goes to the whole history when fewer than 2 of
+ * them could match it. The newest 1000 messages all mention the harbour, and
+ * one in ten says "keeper of the lighthouse"; a few older messages sit
+ * outside that window.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@DisabledIfSystemProperty(named = "user.name", matches = "root", disabledReason = "PostgreSQL refuses to run as root")
+class MessageSearchPostgresTest {
+
+    private static final int MAX_CANDIDATES = 20;
+    private static final int WINDOW = 1000;
+    private static final LocalDateTime NEWEST = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final LocalDateTime OLDER = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgresDatabase.start(registry);
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        List<CreateMessageRequest> requests = new ArrayList<>();
+        for (int i = 1; i <= WINDOW; i++) {
+            // Ranks differ by how often the harbour is named, and tie within each group
+            String body = i % 3 == 0 ? "Routine notice about the harbour and the harbour fees."
+                    : "Routine notice about the harbour.";
+            if (i % 10 == 0) {
+                body += " The keeper of the lighthouse reports calm seas.";
+            }
+            requests.add(request(NEWEST.plusMinutes(i), i, "Notice " + i, body));
+        }
+        requests.add(request(NEWEST.plusDays(1), 1, "Tug", "The tug pilot boarded the tanker."));
+        requests.add(request(NEWEST.plusDays(1), 2, "Tug", "The pilot of the tug was late."));
+        requests.add(request(NEWEST.plusDays(1), 3, "Tug", "The tug pilot boarded during the storm."));
+        requests.add(request(OLDER, 1, "Sighting", "A quokka was seen near the pier."));
+        requests.add(request(OLDER, 2, "Retirement", "The lighthouse keeper retired."));
+        messageRepository.upsertAll(requests, null);
+    }
+
+    @Test
+    void testPhraseMatchesWordsInOrderOnly() {
+        assertThat(subjects(search("\"tug pilot\""))).containsExactlyInAnyOrder("Tug 1", "Tug 3");
+        assertThat(subjects(search("tug pilot"))).containsExactlyInAnyOrder("Tug 1", "Tug 2", "Tug 3");
+    }
+
+    @Test
+    void testExcludedWordsRemoveMatches() {
+        assertThat(subjects(search("tug pilot -storm"))).containsExactlyInAnyOrder("Tug 1", "Tug 2");
+        assertThat(subjects(search("\"tug pilot\" -storm"))).containsExactly("Tug 1");
+        assertThat(subjects(search("tug -tanker -storm"))).containsExactly("Tug 2");
+    }
+
+    @Test
+    void testRareWordsAreLookedUpInTheWholeHistory() {
+        MessageSearchResult quokka = search("quokka");
+        assertThat(subjects(quokka)).containsExactly("Sighting 1");
+        assertThat(quokka.isTruncated()).isFalse();
+
+        // "retired" is rare in the window, so the phrase's words are looked up everywhere
+        MessageSearchResult retired = search("\"lighthouse keeper\" retired");
+        assertThat(subjects(retired)).containsExactly("Retirement 2");
+        assertThat(retired.isTruncated()).isFalse();
+
+        MessageSearchResult excluded = search("quokka -pier");
+        assertThat(excluded.getHits()).isEmpty();
+        assertThat(excluded.isTruncated()).isFalse();
+    }
+
+    @Test
+    void testPhraseOfCommonWordsStaysInTheWindowAndSaysSo() {
+        MessageSearchResult result = search("\"lighthouse keeper\"");
+
+        // The only match is older than the window; the window's 100 "keeper of the lighthouse" are rechecked only
+        assertThat(result.getHits()).isEmpty();
+        assertThat(result.isTruncated()).isTrue();
+    }
+
+    @Test
+    void testOnlyTheNewestCandidatesAreRankedAndTheCapIsReported() {
+        MessageSearchResult result = search("harbour");
+
+        assertThat(result.getHits()).hasSize(MAX_CANDIDATES);
+        assertThat(result.isTruncated()).isTrue();
+        // Notices 981 to 1000, the newest matches, whatever their rank
+        assertThat(result.getHits()).allSatisfy(hit -> assertThat(hit.getMessage().getIssue()).isGreaterThan(980L));
+        assertThat(result.getHits().get(0).getSnippet()).contains("<b>harbour</b>");
+    }
+
+    @Test
+    void testCursorWalksTheRankedCandidatesWithoutGapsOrDuplicates() {
+        List<MessageSearchHit> all = search("harbour").getHits();
+        assertThat(all).extracting(MessageSearchHit::getRank).isSortedAccordingTo((a, b) -> Float.compare(b, a));
+
+        List<MessageSearchHit> walked = new ArrayList<>();
+        Float afterRank = null;
+        Long afterId = null;
+        List<MessageSearchHit> page;
+        do {
+            page = messageRepository.search("harbour", MAX_CANDIDATES, afterRank, afterId, 3).getHits();
+            walked.addAll(page);
+            if (!page.isEmpty()) {
+                MessageSearchHit last = page.get(page.size() - 1);
+                afterRank = last.getRank();
+                afterId = last.getMessage().getId();
+            }
+        } while (page.size() == 3);
+
+        assertThat(walked).extracting(hit -> hit.getMessage().getId())
+                .containsExactlyElementsOf(all.stream().map(hit -> hit.getMessage().getId()).toList());
+    }
+
+    private MessageSearchResult search(String query) {
+        return messageRepository.search(query, MAX_CANDIDATES, null, null, 50);
+    }
+
+    private static List<String> subjects(MessageSearchResult result) {
+        return result.getHits().stream()
+                .map(hit -> hit.getMessage().getTitle() + " " + hit.getMessage().getIssue())
+                .toList();
+    }
+
+    private static CreateMessageRequest request(LocalDateTime createdAt, long issue, String subject, String body) {
+        CreateMessageRequest request = new CreateMessageRequest();
+        request.setTitle(subject);
+        request.setMessage(body);
+        request.setCreatedAt(createdAt);
+        request.setMessageType(MessageType.NEWS);
+        request.setIssue(issue);
+        request.setStatus(MessageStatus.PUBLISHED);
+        request.setEffectiveStart(LocalDate.of(2025, 1, 6));
+        request.setCreatedBy(1L);
+        return request;
+    }
+}
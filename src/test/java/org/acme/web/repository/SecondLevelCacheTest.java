@@ -0,0 +1,123 @@
+package org.acme.web.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.acme.web.entity.Author;
+import org.acme.web.entity.Book;
+import org.acme.web.entity.BookAuthor;
+import org.acme.web.entity.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs with the "cache" profile on top of the H2 test setup. Each read runs in
+ * its own transaction (and persistence context), as a request would. A separate
+ * in-memory database keeps this context from dropping the schema of the shared
+ * test context when it closes.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:cachetest")
+@ActiveProfiles({ "test", "cache" })
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+    private Long bookId;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        bookId = transaction.execute(status -> {
+            User user = userRepository.save(User.builder()
+                    .username("cache-" + System.nanoTime())
+                    .email(System.nanoTime() + "@example.com")
+                    .build());
+            Author author = authorRepository.save(Author.builder().firstName("Ursula").lastName("Le Guin")
+                    .createdBy(user).build());
+            Book book = bookRepository.save(Book.builder().title("The Dispossessed").createdBy(user).build());
+            entityManager.persist(BookAuthor.builder().book(book).author(author).createdAt(LocalDateTime.now())
+                    .build());
+            return book.getId();
+        });
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        statistics.clear();
+    }
+
+    @Test
+    void testRepeatedFindByIdIsServedFromCache() {
+        transaction.execute(status -> bookRepository.findById(bookId).orElseThrow().getAuthors().size());
+        long statementsAfterFirstRead = statistics.getPrepareStatementCount();
+        assertThat(statementsAfterFirstRead).isPositive();
+        assertThat(entityManagerFactory.getCache().contains(Book.class, bookId)).isTrue();
+
+        Book book = transaction.execute(status -> {
+            Book found = bookRepository.findById(bookId).orElseThrow();
+            found.getAuthors().size();
+            found.getCreatedBy().getUsername();
+            return found;
+        });
+
+        assertThat(book.getTitle()).isEqualTo("The Dispossessed");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterFirstRead);
+        assertThat(statistics.getQueryCacheHitCount()).isPositive();
+    }
+
+    @Test
+    void testUpdateInvalidatesCachedQuery() {
+        transaction.execute(status -> bookRepository.findById(bookId).orElseThrow());
+        transaction.execute(status -> {
+            bookRepository.findById(bookId).orElseThrow().setTitle("The Lathe of Heaven");
+            return null;
+        });
+
+        Book book = transaction.execute(status -> bookRepository.findById(bookId).orElseThrow());
+
+        assertThat(book.getTitle()).isEqualTo("The Lathe of Heaven");
+    }
+
+    @Test
+    void testRegionMetricsArePublished() {
+        assertThat(meterRegistry.find("cache.gets").tag("cache", "book").meters())
+                .isNotEmpty();
+        assertThat(meterRegistry.find("cache.evictions").tag("cache", "book-authors")
+                .meters()).isNotEmpty();
+    }
+}
@@ -3,28 +3,41 @@ package org.acme.web.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
 import java.util.Optional;
 
+import jakarta.persistence.EntityManager;
+
+import org.acme.web.config.CatalogProperties;
 import org.acme.web.dto.request.CreateAuthorRequest;
 import org.acme.web.dto.request.UpdateAuthorRequest;
 import org.acme.web.dto.response.AuthorResponse;
+import org.acme.web.dto.response.PageResponse;
+import org.acme.web.dto.response.Suggestion;
 import org.acme.web.entity.Author;
 import org.acme.web.entity.User;
+import org.acme.web.exception.BadRequestException;
 import org.acme.web.exception.ResourceNotFoundException;
 import org.acme.web.mapper.AuthorMapper;
 import org.acme.web.repository.AuthorRepository;
 import org.acme.web.service.impl.AuthorServiceImpl;
+import org.acme.web.service.impl.CatalogCacheEvictor;
+import org.acme.web.service.impl.CatalogSuggestIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 
 @ExtendWith(MockitoExtension.class)
 class AuthorServiceTest {
@@ -35,6 +48,18 @@ class AuthorServiceTest {
     @Mock
     private AuthorMapper authorMapper;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private CatalogProperties catalogProperties = new CatalogProperties();
+
+    @Mock
+    private CatalogCacheEvictor cacheEvictor;
+
+    @Mock
+    private CatalogSuggestIndex suggestIndex;
+
     @InjectMocks
     private AuthorServiceImpl authorService;
 
@@ -68,15 +93,56 @@ class AuthorServiceTest {
 
     @Test
     void testFindAll() {
-        when(authorRepository.findAll()).thenReturn(List.of(testAuthor));
-        when(authorMapper.toResponse(testAuthor)).thenReturn(testAuthorResponse);
+        when(authorRepository.findAllResponses()).thenReturn(List.of(testAuthorResponse));
 
         List<AuthorResponse> result = authorService.findAll();
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getFirstName()).isEqualTo("John");
-        verify(authorRepository).findAll();
-        verify(authorMapper).toResponse(testAuthor);
+        verify(authorRepository).findAllResponses();
+        // Projection path: no entities are loaded or mapped
+        verify(authorRepository, never()).findAll();
+        verify(authorMapper, never()).toResponse(any());
+    }
+
+    @Test
+    void testFindPageKeepsIdOrder() {
+        Author other = Author.builder().id(2L).firstName("Anna").lastName("Adams").build();
+        AuthorResponse otherResponse = new AuthorResponse();
+        otherResponse.setId(2L);
+        when(authorRepository.findIdPage(any())).thenReturn(new PageImpl<>(List.of(2L, 1L), PageRequest.of(0, 2), 5));
+        // Second phase returns rows in arbitrary order
+        when(authorRepository.findAllWithUsersByIdIn(List.of(2L, 1L))).thenReturn(List.of(testAuthor, other));
+        when(authorMapper.toResponse(testAuthor)).thenReturn(testAuthorResponse);
+        when(authorMapper.toResponse(other)).thenReturn(otherResponse);
+
+        PageResponse<AuthorResponse> result = authorService.findPage(0, 2, "name", "asc");
+
+        assertThat(result.getContent()).extracting(AuthorResponse::getId).containsExactly(2L, 1L);
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        assertThat(result.getTotalPages()).isEqualTo(3);
+    }
+
+    @Test
+    void testFindPageSkipsAuthorsDeletedAfterTheIdQuery() {
+        when(authorRepository.findIdPage(any())).thenReturn(new PageImpl<>(List.of(2L, 1L), PageRequest.of(0, 2), 5));
+        // Author 2 was deleted in between
+        when(authorRepository.findAllWithUsersByIdIn(List.of(2L, 1L))).thenReturn(List.of(testAuthor));
+        when(authorMapper.toResponse(testAuthor)).thenReturn(testAuthorResponse);
+
+        PageResponse<AuthorResponse> result = authorService.findPage(0, 2, "name", "asc");
+
+        assertThat(result.getContent()).extracting(AuthorResponse::getId).containsExactly(1L);
+        verify(authorMapper, times(1)).toResponse(any());
+    }
+
+    @Test
+    void testFindPageRejectsUnknownSort() {
+        assertThatThrownBy(() -> authorService.findPage(0, 20, "bio", "asc"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("bio");
+
+        verify(authorRepository, never()).findIdPage(any());
     }
 
     @Test
@@ -123,6 +189,36 @@ class AuthorServiceTest {
         verify(authorMapper).toEntity(request);
         verify(authorRepository).save(testAuthor);
         verify(authorMapper).toResponse(testAuthor);
+        verify(suggestIndex).put(Suggestion.author(1L, "John", "Doe"));
+    }
+
+    @Test
+    void testCreateAllFlushesEveryBatch() {
+        catalogProperties.getBulk().setFlushSize(2);
+        List<CreateAuthorRequest> requests = List.of(new CreateAuthorRequest(), new CreateAuthorRequest(),
+                new CreateAuthorRequest());
+        when(authorMapper.toEntity(any())).thenReturn(testAuthor);
+        when(authorMapper.toResponse(testAuthor)).thenReturn(testAuthorResponse);
+
+        List<AuthorResponse> result = authorService.createAll(requests);
+
+        assertThat(result).hasSize(3);
+        // 3 authors with a flush size of 2: one full batch, one partial batch
+        verify(authorRepository, times(2)).saveAll(anyList());
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void testCreateAllRejectsOversizedBatch() {
+        catalogProperties.getBulk().setMaxItems(1);
+        List<CreateAuthorRequest> requests = List.of(new CreateAuthorRequest(), new CreateAuthorRequest());
+
+        assertThatThrownBy(() -> authorService.createAll(requests))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("at most 1");
+
+        verify(authorRepository, never()).saveAll(anyList());
     }
 
     @Test
@@ -164,6 +260,8 @@ class AuthorServiceTest {
 
         verify(authorRepository).existsById(1L);
         verify(authorRepository).deleteById(1L);
+        verify(cacheEvictor).evictBookAuthors();
+        verify(suggestIndex).remove(Suggestion.Type.AUTHOR, 1L);
     }
 
     @Test
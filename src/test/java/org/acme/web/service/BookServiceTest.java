@@ -0,0 +1,158 @@
+package org.acme.web.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+
+import jakarta.persistence.EntityManager;
+
+import org.acme.web.config.CatalogProperties;
+import org.acme.web.dto.request.CreateBookRequest;
+import org.acme.web.dto.response.BookResponse;
+import org.acme.web.dto.response.PageResponse;
+import org.acme.web.dto.response.Suggestion;
+import org.acme.web.entity.Author;
+import org.acme.web.entity.Book;
+import org.acme.web.exception.BadRequestException;
+import org.acme.web.exception.ResourceNotFoundException;
+import org.acme.web.mapper.BookMapper;
+import org.acme.web.repository.AuthorRepository;
+import org.acme.web.repository.BookRepository;
+import org.acme.web.service.impl.BookServiceImpl;
+import org.acme.web.service.impl.CatalogCacheEvictor;
+import org.acme.web.service.impl.CatalogSuggestIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+@ExtendWith(MockitoExtension.class)
+class BookServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @Mock
+    private BookMapper bookMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private CatalogProperties catalogProperties = new CatalogProperties();
+
+    @Mock
+    private CatalogCacheEvictor cacheEvictor;
+
+    @Mock
+    private CatalogSuggestIndex suggestIndex;
+
+    @InjectMocks
+    private BookServiceImpl bookService;
+
+    @Test
+    void testFindPageSkipsBooksDeletedAfterTheIdQuery() {
+        Book first = Book.builder().id(1L).title("Mort").build();
+        Book third = Book.builder().id(3L).title("Guards! Guards!").build();
+        BookResponse firstResponse = new BookResponse();
+        firstResponse.setId(1L);
+        BookResponse thirdResponse = new BookResponse();
+        thirdResponse.setId(3L);
+        when(bookRepository.findIdPage(any())).thenReturn(new PageImpl<>(List.of(3L, 2L, 1L), PageRequest.of(0, 3), 3));
+        // Book 2 was deleted in between
+        when(bookRepository.findAllWithUsersByIdIn(List.of(3L, 2L, 1L))).thenReturn(List.of(first, third));
+        when(bookMapper.toResponse(first)).thenReturn(firstResponse);
+        when(bookMapper.toResponse(third)).thenReturn(thirdResponse);
+
+        PageResponse<BookResponse> result = bookService.findPage(0, 3, "title", "desc");
+
+        assertThat(result.getContent()).extracting(BookResponse::getId).containsExactly(3L, 1L);
+        verify(bookMapper, times(2)).toResponse(any());
+    }
+
+    @Test
+    void testCreateAllFlushesEveryBatchAndLinksAuthorReferences() {
+        catalogProperties.getBulk().setFlushSize(2);
+        List<CreateBookRequest> requests = List.of(request(1, Set.of(10L, 11L)), request(2, Set.of(10L)),
+                request(3, null));
+        for (CreateBookRequest request : requests) {
+            Book book = Book.builder().id((long) request.getPublicationYear()).title(request.getTitle()).build();
+            when(bookMapper.toEntity(request)).thenReturn(book);
+            when(bookMapper.toResponse(book)).thenReturn(response(book.getId(), book.getTitle()));
+        }
+        when(authorRepository.countByIdIn(Set.of(10L, 11L))).thenReturn(2L);
+        when(authorRepository.getReferenceById(any()))
+                .thenAnswer(invocation -> Author.builder().id(invocation.getArgument(0)).build());
+
+        List<BookResponse> result = bookService.createAll(requests);
+
+        assertThat(result).extracting(BookResponse::getId).containsExactly(1L, 2L, 3L);
+        // 3 books with a flush size of 2: one full batch, one partial batch
+        verify(bookRepository, times(2)).saveAll(anyList());
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        // One existence check for the first batch; the second links no authors
+        verify(authorRepository, times(1)).countByIdIn(any());
+        verify(authorRepository, never()).findAllById(any());
+        verify(cacheEvictor).evictAuthorBooks();
+        verify(suggestIndex).put(List.of(Suggestion.book(1L, "Book 1", "isbn-1"),
+                Suggestion.book(2L, "Book 2", "isbn-2"), Suggestion.book(3L, "Book 3", "isbn-3")));
+    }
+
+    @Test
+    void testCreateAllRejectsUnknownAuthorsBeforeSaving() {
+        List<CreateBookRequest> requests = List.of(request(1, Set.of(10L, 99L)));
+        when(authorRepository.countByIdIn(Set.of(10L, 99L))).thenReturn(1L);
+
+        assertThatThrownBy(() -> bookService.createAll(requests))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("authors not found");
+
+        verify(bookRepository, never()).saveAll(anyList());
+        verify(suggestIndex, never()).put(anyList());
+    }
+
+    @Test
+    void testCreateAllRejectsOversizedBatch() {
+        catalogProperties.getBulk().setMaxItems(1);
+        List<CreateBookRequest> requests = List.of(request(1, null), request(2, null));
+
+        assertThatThrownBy(() -> bookService.createAll(requests))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("at most 1");
+
+        verify(bookRepository, never()).saveAll(anyList());
+    }
+
+    private static CreateBookRequest request(int number, Set<Long> authorIds) {
+        CreateBookRequest request = new CreateBookRequest();
+        request.setTitle("Book " + number);
+        request.setIsbn("isbn-" + number);
+        request.setPublicationYear(number);
+        request.setAuthorIds(authorIds);
+        return request;
+    }
+
+    private static BookResponse response(Long id, String title) {
+        BookResponse response = new BookResponse();
+        response.setId(id);
+        response.setTitle(title);
+        response.setIsbn("isbn-" + id);
+        return response;
+    }
+}
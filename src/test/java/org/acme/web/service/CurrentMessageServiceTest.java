@@ -0,0 +1,121 @@
+package org.acme.web.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.acme.web.config.MessageProperties;
+import org.acme.web.dto.response.MessageResponse;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
+import org.acme.web.repository.MessageRepository;
+import org.acme.web.service.impl.CurrentMessageServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class CurrentMessageServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final LocalDateTime WATERMARK = LocalDateTime.of(2025, 2, 2, 12, 0, 0);
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    private MeterRegistry meterRegistry;
+    private CurrentMessageService currentMessageService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        currentMessageService = new CurrentMessageServiceImpl(messageRepository, new MessageProperties(),
+                meterRegistry);
+    }
+
+    private MessageResponse message(long id, MessageType type, MessageStatus status, LocalDate start,
+            LocalDate end, LocalDateTime updatedAt) {
+        MessageResponse r = new MessageResponse();
+        r.setId(id);
+        r.setMsgId("2025-02-02/" + type + "/" + id);
+        r.setMessageType(type);
+        r.setStatus(status);
+        r.setEffectiveStart(start);
+        r.setEffectiveEnd(end);
+        r.setUpdatedAt(updatedAt);
+        return r;
+    }
+
+    private void loadInitialSnapshot(MessageResponse... messages) {
+        when(messageRepository.findMaxUpdatedAt()).thenReturn(WATERMARK);
+        when(messageRepository.findPublishedNotEndedBefore(TODAY)).thenReturn(List.of(messages));
+        currentMessageService.refresh();
+    }
+
+    @Test
+    void testFindCurrentIsEmptyBeforeFirstRefresh() {
+        assertThat(currentMessageService.findCurrent(null)).isEmpty();
+    }
+
+    @Test
+    void testFirstRefreshLoadsPublishedMessagesByType() {
+        loadInitialSnapshot(
+                message(1L, MessageType.NEWS, MessageStatus.PUBLISHED, TODAY.minusDays(3), null, WATERMARK),
+                message(2L, MessageType.ALERT, MessageStatus.PUBLISHED, TODAY.minusDays(1), TODAY, WATERMARK),
+                // Starts tomorrow: held, but not current yet
+                message(3L, MessageType.NEWS, MessageStatus.PUBLISHED, TODAY.plusDays(1), null, WATERMARK));
+
+        assertThat(currentMessageService.findCurrent(null)).extracting(MessageResponse::getId)
+                .containsExactly(1L, 2L);
+        assertThat(currentMessageService.findCurrent(MessageType.NEWS)).extracting(MessageResponse::getId)
+                .containsExactly(1L);
+        assertThat(currentMessageService.findCurrent(MessageType.NOTICE)).isEmpty();
+        assertThat(meterRegistry.get("messages.snapshot.size").gauge().value()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("messages.snapshot.age").gauge().value()).isGreaterThanOrEqualTo(0.0);
+    }
+
+    @Test
+    void testRefreshAppliesOnlyRowsChangedSinceWatermark() {
+        loadInitialSnapshot(
+                message(1L, MessageType.NEWS, MessageStatus.PUBLISHED, TODAY.minusDays(3), null, WATERMARK),
+                message(2L, MessageType.ALERT, MessageStatus.PUBLISHED, TODAY.minusDays(1), null, WATERMARK));
+        LocalDateTime later = WATERMARK.plusMinutes(5);
+        when(messageRepository.findUpdatedSince(WATERMARK.minusMinutes(1))).thenReturn(List.of(
+                message(2L, MessageType.ALERT, MessageStatus.RETRACTED, TODAY.minusDays(1), null, later),
+                message(4L, MessageType.NOTICE, MessageStatus.PUBLISHED, TODAY, TODAY.plusDays(7), later)));
+
+        currentMessageService.refresh();
+
+        assertThat(currentMessageService.findCurrent(null)).extracting(MessageResponse::getId)
+                .containsExactly(1L, 4L);
+        // Still only the initial full load
+        verify(messageRepository).findPublishedNotEndedBefore(TODAY);
+
+        // The next refresh starts from the newest updated_at seen
+        when(messageRepository.findUpdatedSince(later.minusMinutes(1))).thenReturn(List.of());
+        currentMessageService.refresh();
+        verify(messageRepository).findUpdatedSince(later.minusMinutes(1));
+    }
+
+    @Test
+    void testRefreshDropsMessagesThatHaveEnded() {
+        loadInitialSnapshot(
+                message(1L, MessageType.NEWS, MessageStatus.PUBLISHED, TODAY.minusDays(3), TODAY, WATERMARK));
+        when(messageRepository.findUpdatedSince(WATERMARK.minusMinutes(1))).thenReturn(List.of(
+                message(5L, MessageType.NEWS, MessageStatus.PUBLISHED, TODAY.minusDays(9), TODAY.minusDays(1),
+                        WATERMARK.plusMinutes(1))));
+
+        currentMessageService.refresh();
+
+        assertThat(currentMessageService.findCurrent(null)).extracting(MessageResponse::getId).containsExactly(1L);
+    }
+}
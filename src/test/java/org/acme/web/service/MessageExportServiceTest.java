@@ -0,0 +1,111 @@
+package org.acme.web.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+
+import org.acme.web.dto.response.MessageResponse;
+import org.acme.web.entity.Message;
+import org.acme.web.entity.MessageStatus;
+import org.acme.web.entity.MessageType;
+import org.acme.web.mapper.MessageMapper;
+import org.acme.web.repository.MessageRepository;
+import org.acme.web.service.impl.MessageExportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+@ExtendWith(MockitoExtension.class)
+class MessageExportServiceTest {
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private MessageMapper messageMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private MessageExportServiceImpl exportService;
+
+    private Message first;
+    private Message second;
+
+    @BeforeEach
+    void setUp() {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder()
+                .serializers(new LocalDateTimeSerializer(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+        ObjectMapper objectMapper = builder.build();
+        exportService = new MessageExportServiceImpl(messageRepository, messageMapper, entityManager, objectMapper,
+                builder);
+
+        first = Message.builder().id(1L).build();
+        second = Message.builder().id(2L).build();
+        when(messageRepository.streamAll()).thenReturn(Stream.of(first, second));
+        when(messageMapper.toResponse(first)).thenReturn(response(1L, "2025-02-02/NEWS/42"));
+        when(messageMapper.toResponse(second)).thenReturn(response(2L, "2025-02-02/ALERT/7"));
+    }
+
+    private MessageResponse response(Long id, String msgId) {
+        MessageResponse r = new MessageResponse();
+        r.setId(id);
+        r.setMsgId(msgId);
+        r.setTitle("Weekly digest");
+        r.setMessage("Summary of updates.");
+        r.setCreatedAt(LocalDateTime.of(2025, 2, 2, 14, 30, 0));
+        r.setMessageType(MessageType.NEWS);
+        r.setIssue(42L);
+        r.setStatus(MessageStatus.PUBLISHED);
+        r.setEffectiveStart(LocalDate.of(2025, 2, 2));
+        return r;
+    }
+
+    @Test
+    void testExportNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.exportNdjson(out);
+
+        assertThat(count).isEqualTo(2);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        ObjectMapper reader = new ObjectMapper();
+        JsonNode firstLine = reader.readTree(lines[0]);
+        assertThat(firstLine.get("msgId").asText()).isEqualTo("2025-02-02/NEWS/42");
+        assertThat(firstLine.get("createdAt").asText()).isEqualTo("2025-02-02 14:30:00");
+        assertThat(reader.readTree(lines[1]).get("id").asLong()).isEqualTo(2L);
+        verify(messageRepository).streamAll();
+    }
+
+    @Test
+    void testExportXml() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.exportXml(out);
+
+        assertThat(count).isEqualTo(2);
+        String xml = out.toString(StandardCharsets.UTF_8);
+        assertThat(xml).startsWith("<messages><message>");
+        assertThat(xml).endsWith("</message></messages>");
+        assertThat(xml).contains("<msgId>2025-02-02/NEWS/42</msgId>");
+        assertThat(xml).contains("<msgId>2025-02-02/ALERT/7</msgId>");
+        assertThat(xml).contains("<createdAt>2025-02-02 14:30:00</createdAt>");
+    }
+}
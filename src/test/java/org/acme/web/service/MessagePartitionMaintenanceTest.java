@@ -0,0 +1,52 @@
+package org.acme.web.service;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+
+import org.acme.web.config.MessageProperties;
+import org.acme.web.repository.MessageRepository;
+import org.acme.web.service.impl.MessagePartitionMaintenance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+@ExtendWith(MockitoExtension.class)
+class MessagePartitionMaintenanceTest {
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    private MessageProperties messageProperties;
+    private MessagePartitionMaintenance maintenance;
+
+    @BeforeEach
+    void setUp() {
+        messageProperties = new MessageProperties();
+        messageProperties.getPartitions().setMonthsAhead(2);
+        maintenance = new MessagePartitionMaintenance(messageRepository, messageProperties);
+    }
+
+    @Test
+    void testCreatesPartitionsFromTodayToMonthsAhead() {
+        LocalDate today = LocalDate.now();
+
+        maintenance.createAhead();
+
+        verify(messageRepository).createPartitions(today, today.plusMonths(2));
+    }
+
+    @Test
+    void testFailureIsRetriedOnTheNextCheck() {
+        LocalDate today = LocalDate.now();
+        when(messageRepository.createPartitions(today, today.plusMonths(2)))
+                .thenThrow(new QueryTimeoutException("canceling statement due to lock timeout"));
+
+        assertThatCode(maintenance::createAhead).doesNotThrowAnyException();
+    }
+}
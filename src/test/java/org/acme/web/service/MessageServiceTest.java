@@ -4,7 +4,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -12,23 +16,47 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.acme.web.config.MessageProperties;
 import org.acme.web.dto.request.CreateMessageRequest;
+import org.acme.web.dto.response.BulkMessageResponse;
+import org.acme.web.dto.response.BulkMessageResult;
+import org.acme.web.dto.response.MessagePageResponse;
 import org.acme.web.dto.response.MessageResponse;
+import org.acme.web.dto.response.MessageSearchHit;
+import org.acme.web.dto.response.MessageSearchResponse;
+import org.acme.web.dto.response.MessageSearchResult;
+import org.acme.web.dto.response.MessageUpsertResult;
 import org.acme.web.entity.Message;
 import org.acme.web.entity.MessageStatus;
 import org.acme.web.entity.MessageType;
+import org.acme.web.exception.BadRequestException;
+import org.acme.web.exception.IdempotencyKeyReusedException;
 import org.acme.web.exception.ResourceNotFoundException;
 import org.acme.web.mapper.MessageMapper;
 import org.acme.web.repository.MessageRepository;
+import org.acme.web.service.impl.IdempotencyCache;
+import org.acme.web.service.impl.MessageCache;
 import org.acme.web.service.impl.MessageServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class MessageServiceTest {
 
@@ -38,6 +66,19 @@ class MessageServiceTest {
     @Mock
     private MessageMapper messageMapper;
 
+    @Spy
+    private MessageProperties messageProperties = new MessageProperties();
+
+    @Spy
+    private MessageCache messageCache = new MessageCache(new MessageProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private IdempotencyCache idempotencyCache = new IdempotencyCache(new MessageProperties(),
+            new SimpleMeterRegistry());
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private MessageServiceImpl messageService;
 
@@ -82,30 +123,123 @@ class MessageServiceTest {
 
     @Test
     void testUpload() {
-        when(messageRepository.callInsertMessage(
-                eq("Weekly digest"),
-                eq("Summary of updates."),
-                any(),
-                eq("NEWS"),
-                eq(42L),
-                eq("PUBLISHED"),
-                any(),
-                any(),
-                eq(null),
-                eq(null)))
-                .thenReturn(1L);
-        when(messageRepository.findById(1L)).thenReturn(Optional.of(testMessage));
-        when(messageMapper.toResponse(testMessage)).thenReturn(testMessageResponse);
+        when(messageRepository.upsert(createRequest, 1L))
+                .thenReturn(new MessageUpsertResult(testMessageResponse, true));
 
-        MessageResponse result = messageService.upload(createRequest);
+        MessageUpsertResult result = messageService.upload(createRequest);
 
-        assertThat(result).isNotNull();
-        assertThat(result.getId()).isEqualTo(1L);
-        assertThat(result.getMsgId()).isEqualTo("2025-02-02/NEWS/42");
-        assertThat(result.getTitle()).isEqualTo("Weekly digest");
-        verify(messageRepository).callInsertMessage(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
-        verify(messageRepository).findById(1L);
-        verify(messageMapper).toResponse(testMessage);
+        assertThat(result.isInserted()).isTrue();
+        assertThat(result.getMessage().getId()).isEqualTo(1L);
+        assertThat(result.getMessage().getMsgId()).isEqualTo("2025-02-02/NEWS/42");
+        assertThat(result.getMessage().getTitle()).isEqualTo("Weekly digest");
+        verify(messageRepository).upsert(createRequest, 1L);
+        // The upsert returns the stored row; nothing is read back
+        verify(messageRepository, never()).findById(any());
+        verify(messageMapper, never()).toResponse(any());
+    }
+
+    @Test
+    void testRepeatedIdempotencyKeyIsAnsweredWithoutUpsert() {
+        when(messageRepository.upsert(createRequest, 1L))
+                .thenReturn(new MessageUpsertResult(testMessageResponse, true));
+
+        MessageUpsertResult first = messageService.upload(createRequest, "key-1");
+        MessageUpsertResult repeat = messageService.upload(createRequest, "key-1");
+
+        assertThat(repeat).isSameAs(first);
+        assertThat(repeat.isInserted()).isTrue();
+        verify(messageRepository, times(1)).upsert(createRequest, 1L);
+    }
+
+    @Test
+    void testConcurrentRepeatWaitsForTheFirstUpload() throws Exception {
+        CountDownLatch upserting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(messageRepository.upsert(createRequest, 1L)).thenAnswer(invocation -> {
+            upserting.countDown();
+            release.await();
+            return new MessageUpsertResult(testMessageResponse, true);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<MessageUpsertResult> first = executor.submit(() -> messageService.upload(createRequest, "key-2"));
+            assertThat(upserting.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<MessageUpsertResult> repeat = executor.submit(() -> messageService.upload(createRequest, "key-2"));
+            Thread.sleep(100);
+            assertThat(repeat.isDone()).isFalse();
+
+            release.countDown();
+            assertThat(repeat.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(messageRepository, times(1)).upsert(createRequest, 1L);
+    }
+
+    @Test
+    void testFailedUploadIsRunAgainForItsKey() {
+        when(messageRepository.upsert(createRequest, 1L))
+                .thenThrow(new IllegalStateException("connection reset"))
+                .thenReturn(new MessageUpsertResult(testMessageResponse, true));
+
+        assertThatThrownBy(() -> messageService.upload(createRequest, "key-3"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(messageService.upload(createRequest, "key-3").isInserted()).isTrue();
+        verify(messageRepository, times(2)).upsert(createRequest, 1L);
+    }
+
+    @Test
+    void testRunningUploadIsNotEvictedByOtherKeys() throws Exception {
+        MessageProperties properties = new MessageProperties();
+        properties.getIdempotency().setMaximumSize(1);
+        IdempotencyCache cache = new IdempotencyCache(properties, new SimpleMeterRegistry());
+        MessageUpsertResult result = new MessageUpsertResult(testMessageResponse, true);
+        AtomicInteger uploads = new AtomicInteger();
+        CountDownLatch uploading = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<MessageUpsertResult> first = executor.submit(() -> cache.execute("key-5", createRequest, () -> {
+                uploads.incrementAndGet();
+                uploading.countDown();
+                release.join();
+                return result;
+            }));
+            assertThat(uploading.await(5, TimeUnit.SECONDS)).isTrue();
+            // Far more finished uploads than the cache keeps
+            for (int i = 0; i < 100; i++) {
+                cache.execute("other-" + i, createRequest, () -> result);
+            }
+            Future<MessageUpsertResult> retry = executor.submit(() -> cache.execute("key-5", createRequest, () -> {
+                uploads.incrementAndGet();
+                return result;
+            }));
+            Thread.sleep(100);
+            assertThat(retry.isDone()).isFalse();
+
+            release.complete(null);
+            assertThat(retry.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(uploads).hasValue(1);
+    }
+
+    @Test
+    void testIdempotencyKeyCannotBeReusedForAnotherMessage() {
+        when(messageRepository.upsert(createRequest, 1L))
+                .thenReturn(new MessageUpsertResult(testMessageResponse, true));
+        messageService.upload(createRequest, "key-4");
+
+        CreateMessageRequest other = new CreateMessageRequest();
+        other.setTitle("Something else");
+
+        assertThatThrownBy(() -> messageService.upload(other, "key-4"))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+        assertThatThrownBy(() -> messageService.upload(createRequest, " "))
+                .isInstanceOf(BadRequestException.class);
     }
 
     @Test
@@ -161,6 +295,74 @@ class MessageServiceTest {
         verify(messageMapper, never()).toResponse(any());
     }
 
+    @Test
+    void testFindByMsgIdIsCached() {
+        when(messageRepository.findByMsgId("2025-02-02/NEWS/42")).thenReturn(Optional.of(testMessage));
+        when(messageMapper.toResponse(testMessage)).thenReturn(testMessageResponse);
+
+        messageService.findByMsgId("2025-02-02/NEWS/42");
+        MessageResponse result = messageService.findByMsgId("2025-02-02/NEWS/42");
+
+        assertThat(result.getTitle()).isEqualTo("Weekly digest");
+        verify(messageRepository, times(1)).findByMsgId("2025-02-02/NEWS/42");
+    }
+
+    @Test
+    void testFindByIdNotFoundIsNotCached() {
+        when(messageRepository.findById(999L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> messageService.findById(999L)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> messageService.findById(999L)).isInstanceOf(ResourceNotFoundException.class);
+
+        verify(messageRepository, times(2)).findById(999L);
+    }
+
+    @Test
+    void testUploadRefreshesCachedLookups() {
+        when(messageRepository.findByMsgId("2025-02-02/NEWS/42")).thenReturn(Optional.of(testMessage));
+        when(messageMapper.toResponse(testMessage)).thenReturn(testMessageResponse);
+        messageService.findByMsgId("2025-02-02/NEWS/42");
+
+        MessageResponse updated = new MessageResponse();
+        updated.setId(1L);
+        updated.setMsgId("2025-02-02/NEWS/42");
+        updated.setTitle("Weekly digest (corrected)");
+        when(messageRepository.upsert(createRequest, 1L)).thenReturn(new MessageUpsertResult(updated, false));
+        messageService.upload(createRequest);
+
+        assertThat(messageService.findByMsgId("2025-02-02/NEWS/42").getTitle())
+                .isEqualTo("Weekly digest (corrected)");
+        assertThat(messageService.findById(1L).getTitle()).isEqualTo("Weekly digest (corrected)");
+        verify(messageRepository, times(1)).findByMsgId("2025-02-02/NEWS/42");
+        verify(messageRepository, never()).findById(any());
+    }
+
+    @Test
+    void testUploadAllEvictsCachedLookups() {
+        when(messageRepository.findByMsgId("2025-02-02/NEWS/42")).thenReturn(Optional.of(testMessage));
+        when(messageMapper.toResponse(testMessage)).thenReturn(testMessageResponse);
+        messageService.findByMsgId("2025-02-02/NEWS/42");
+
+        List<CreateMessageRequest> requests = List.of(requestWithIssue(42));
+        when(messageRepository.upsertAll(requests, 1L)).thenReturn(List.of(
+                new BulkMessageResult(1L, "2025-02-02/NEWS/42", false)));
+        messageService.uploadAll(requests);
+        messageService.findByMsgId("2025-02-02/NEWS/42");
+
+        verify(messageRepository, times(2)).findByMsgId("2025-02-02/NEWS/42");
+    }
+
+    @Test
+    void testFindActive() {
+        LocalDate on = LocalDate.of(2025, 2, 5);
+        when(messageRepository.findActive(on, null, MessageStatus.PUBLISHED)).thenReturn(List.of(testMessageResponse));
+
+        List<MessageResponse> result = messageService.findActive(on, null, MessageStatus.PUBLISHED);
+
+        assertThat(result).extracting(MessageResponse::getMsgId).containsExactly("2025-02-02/NEWS/42");
+        verify(messageRepository).findActive(on, null, MessageStatus.PUBLISHED);
+    }
+
     @Test
     void testFindAll() {
         when(messageRepository.findAll()).thenReturn(List.of(testMessage));
@@ -173,4 +375,165 @@ class MessageServiceTest {
         verify(messageRepository).findAll();
         verify(messageMapper).toResponse(testMessage);
     }
+
+    @Test
+    void testFindFirstPageWithMoreRows() {
+        Message second = Message.builder()
+                .id(2L)
+                .createdAt(LocalDateTime.of(2025, 2, 3, 9, 0, 0))
+                .build();
+        when(messageRepository.findFirstPage(Limit.of(2))).thenReturn(List.of(testMessage, second));
+        when(messageMapper.toResponse(testMessage)).thenReturn(testMessageResponse);
+
+        MessagePageResponse result = messageService.findPage(null, 1);
+
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.getLimit()).isEqualTo(1);
+        assertThat(result.getNextCursor()).isNotNull();
+        MessageCursor cursor = MessageCursor.decode(result.getNextCursor());
+        assertThat(cursor.createdAt()).isEqualTo(testMessage.getCreatedAt());
+        assertThat(cursor.id()).isEqualTo(1L);
+        verify(messageMapper, never()).toResponse(second);
+    }
+
+    @Test
+    void testFindPageAfterCursorOnLastPage() {
+        String cursor = new MessageCursor(LocalDateTime.of(2025, 1, 1, 0, 0, 0), 7L).encode();
+        when(messageRepository.findPageAfter(LocalDateTime.of(2025, 1, 1, 0, 0, 0), 7L, Limit.of(51)))
+                .thenReturn(List.of(testMessage));
+        when(messageMapper.toResponse(testMessage)).thenReturn(testMessageResponse);
+
+        MessagePageResponse result = messageService.findPage(cursor, 50);
+
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void testFindPageClampsLimit() {
+        when(messageRepository.findFirstPage(isA(Limit.class))).thenReturn(List.of());
+
+        MessagePageResponse result = messageService.findPage(null, 100_000);
+
+        assertThat(result.getLimit()).isEqualTo(500);
+        verify(messageRepository).findFirstPage(Limit.of(501));
+    }
+
+    @Test
+    void testFindPageInvalidCursor() {
+        assertThatThrownBy(() -> messageService.findPage("not-a-cursor", 10))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Invalid cursor");
+
+        verify(messageRepository, never()).findPageAfter(any(), any(), any());
+    }
+
+    @Test
+    void testSearchFirstPageWithMoreHits() {
+        MessageResponse second = new MessageResponse();
+        second.setId(2L);
+        when(messageRepository.search("weekly digest", 1000, null, null, 2)).thenReturn(new MessageSearchResult(
+                List.of(new MessageSearchHit(testMessageResponse, 0.6079271f, "<b>Weekly</b> <b>digest</b>"),
+                        new MessageSearchHit(second, 0.1f, "...")),
+                false));
+
+        MessageSearchResponse result = messageService.search("weekly digest", null, 1);
+
+        assertThat(result.getItems()).extracting(hit -> hit.getMessage().getId()).containsExactly(1L);
+        assertThat(result.getLimit()).isEqualTo(1);
+        MessageSearchCursor cursor = MessageSearchCursor.decode(result.getNextCursor());
+        // Exactly the rank PostgreSQL returned, or the next page would repeat or skip rows
+        assertThat(cursor.rank()).isEqualTo(0.6079271f);
+        assertThat(cursor.id()).isEqualTo(1L);
+        assertThat(result.isTruncated()).isFalse();
+    }
+
+    @Test
+    void testSearchAfterCursorOnLastPage() {
+        String cursor = new MessageSearchCursor(0.25f, 7L).encode();
+        when(messageRepository.search("digest", 1000, 0.25f, 7L, 21))
+                .thenReturn(new MessageSearchResult(
+                        List.of(new MessageSearchHit(testMessageResponse, 0.2f, "<b>digest</b>")), true));
+
+        MessageSearchResponse result = messageService.search("digest", cursor, 20);
+
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.getNextCursor()).isNull();
+        // The last page of what was searched, not necessarily of all matches
+        assertThat(result.isTruncated()).isTrue();
+    }
+
+    @Test
+    void testSearchRejectsBlankQueryAndInvalidCursor() {
+        assertThatThrownBy(() -> messageService.search(" ", null, 10))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Search query");
+        assertThatThrownBy(() -> messageService.search("digest", "not-a-cursor", 10))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Invalid cursor");
+
+        verify(messageRepository, never()).search(any(), anyInt(), any(), any(), anyInt());
+    }
+
+    private CreateMessageRequest requestWithIssue(long issue) {
+        CreateMessageRequest r = new CreateMessageRequest();
+        r.setTitle("Weekly digest");
+        r.setMessage("Summary of updates.");
+        r.setCreatedAt(LocalDateTime.of(2025, 2, 2, 14, 30, 0));
+        r.setMessageType(MessageType.NEWS);
+        r.setIssue(issue);
+        r.setStatus(MessageStatus.PUBLISHED);
+        r.setEffectiveStart(LocalDate.of(2025, 2, 2));
+        return r;
+    }
+
+    @Test
+    void testUploadAllAppliesChunksInSeparateTransactions() {
+        messageProperties.getBulk().setChunkSize(2);
+        List<CreateMessageRequest> requests = List.of(requestWithIssue(1), requestWithIssue(2), requestWithIssue(3));
+        when(messageRepository.upsertAll(eq(requests.subList(0, 2)), eq(1L))).thenReturn(List.of(
+                new BulkMessageResult(10L, "2025-02-02/NEWS/1", true),
+                new BulkMessageResult(11L, "2025-02-02/NEWS/2", false)));
+        when(messageRepository.upsertAll(eq(requests.subList(2, 3)), eq(1L))).thenReturn(List.of(
+                new BulkMessageResult(12L, "2025-02-02/NEWS/3", true)));
+
+        BulkMessageResponse result = messageService.uploadAll(requests);
+
+        assertThat(result.getTotal()).isEqualTo(3);
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getResults()).extracting(BulkMessageResult::getId).containsExactly(10L, 11L, 12L);
+        verify(messageRepository, times(2)).upsertAll(anyList(), eq(1L));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void testUploadAllReportsRepeatedKeysAsUpdatesOfTheFirstOccurrence() {
+        List<CreateMessageRequest> requests = List.of(requestWithIssue(5), requestWithIssue(6), requestWithIssue(5),
+                requestWithIssue(5));
+        when(messageRepository.upsertAll(requests, 1L)).thenReturn(List.of(
+                new BulkMessageResult(20L, "2025-02-02/NEWS/5", true),
+                new BulkMessageResult(21L, "2025-02-02/NEWS/6", false)));
+
+        BulkMessageResponse result = messageService.uploadAll(requests);
+
+        assertThat(result.getResults()).extracting(BulkMessageResult::getId).containsExactly(20L, 21L, 20L, 20L);
+        assertThat(result.getResults()).extracting(BulkMessageResult::isInserted)
+                .containsExactly(true, false, false, false);
+        // One row was inserted; the database holds two rows for the four messages
+        assertThat(result.getTotal()).isEqualTo(4);
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getUpdated()).isEqualTo(3);
+    }
+
+    @Test
+    void testUploadAllRejectsOversizedBatch() {
+        messageProperties.getBulk().setMaxItems(1);
+
+        assertThatThrownBy(() -> messageService.uploadAll(List.of(requestWithIssue(1), requestWithIssue(2))))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("at most 1");
+
+        verify(messageRepository, never()).upsertAll(anyList(), any());
+    }
 }
@@ -0,0 +1,150 @@
+package org.acme.web.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.acme.web.config.CatalogProperties;
+import org.acme.web.dto.response.Suggestion;
+import org.acme.web.repository.AuthorRepository;
+import org.acme.web.repository.BookRepository;
+import org.acme.web.service.impl.CatalogSuggestIndex;
+import org.acme.web.service.impl.SuggestServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CatalogProperties catalogProperties;
+    private CatalogSuggestIndex suggestIndex;
+    private SuggestService suggestService;
+
+    @BeforeEach
+    void setUp() {
+        catalogProperties = new CatalogProperties();
+        suggestIndex = new CatalogSuggestIndex(catalogProperties, new SimpleMeterRegistry());
+        suggestService = new SuggestServiceImpl(bookRepository, authorRepository, suggestIndex, catalogProperties,
+                transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void load(Stream<Suggestion> books, Stream<Suggestion> authors) {
+        when(bookRepository.streamSuggestions()).thenReturn(books);
+        when(authorRepository.streamSuggestions()).thenReturn(authors);
+        suggestService.rebuild();
+    }
+
+    private void loadCatalog() {
+        load(Stream.of(
+                Suggestion.book(1L, "The Great Novel", "978-0-123456-78-9"),
+                Suggestion.book(2L, "Greatest Hits", "978-0-222222-22-2"),
+                Suggestion.book(3L, "A River Runs Through It", null)),
+                Stream.of(
+                        Suggestion.author(1L, "Zoë", "Green"),
+                        Suggestion.author(2L, "Jane", "Doe")));
+    }
+
+    private List<String> labels(String query) {
+        return suggestService.suggest(query, 10).stream().map(Suggestion::getLabel).toList();
+    }
+
+    @Test
+    void testMatchesWordPrefixesIgnoringCaseAndAccents() {
+        loadCatalog();
+
+        // Ordered by the matching text: "great novel" < "greatest hits" < "green"
+        assertThat(labels("GRE")).containsExactly("The Great Novel", "Greatest Hits", "Zoë Green");
+        assertThat(labels("zoe")).containsExactly("Zoë Green");
+        assertThat(labels("great nov")).containsExactly("The Great Novel");
+        assertThat(labels("runs-through")).containsExactly("A River Runs Through It");
+        assertThat(labels("novel great")).isEmpty();
+        assertThat(labels("  ")).isEmpty();
+    }
+
+    @Test
+    void testMatchesIsbnPrefixWithOrWithoutHyphens() {
+        loadCatalog();
+
+        assertThat(suggestService.suggest("978-0-12", 10)).singleElement()
+                .isEqualTo(Suggestion.book(1L, "The Great Novel", "978-0-123456-78-9"));
+        assertThat(labels("97802")).containsExactly("Greatest Hits");
+        assertThat(labels("978")).containsExactly("The Great Novel", "Greatest Hits");
+    }
+
+    @Test
+    void testLimitIsClamped() {
+        load(LongStream.rangeClosed(1, 100).mapToObj(id -> Suggestion.book(id, "Volume " + id, null)),
+                Stream.empty());
+
+        assertThat(suggestService.suggest("volume", 0)).hasSize(1);
+        assertThat(suggestService.suggest("volume", 1000)).hasSize(50);
+    }
+
+    @Test
+    void testChangesHideOldEntriesUntilAndAfterMerge() {
+        catalogProperties.getSuggest().setMergeThreshold(3);
+        loadCatalog();
+
+        suggestIndex.put(Suggestion.book(1L, "The Good Novel", "978-0-123456-78-9"));
+        suggestIndex.remove(Suggestion.Type.AUTHOR, 1L);
+        assertThat(labels("gr")).containsExactly("Greatest Hits");
+        assertThat(labels("novel")).containsExactly("The Good Novel");
+
+        // Third change: merged into the main segment
+        suggestIndex.put(Suggestion.author(3L, "Ada", "Greer"));
+        assertThat(labels("gr")).containsExactly("Greatest Hits", "Ada Greer");
+        assertThat(labels("novel")).containsExactly("The Good Novel");
+        assertThat(labels("zoe")).isEmpty();
+    }
+
+    @Test
+    void testChangesInsideTransactionApplyAfterCommit() {
+        loadCatalog();
+        TransactionSynchronizationManager.initSynchronization();
+
+        suggestIndex.put(Suggestion.book(4L, "Great Expectations", null));
+        assertThat(labels("great e")).isEmpty();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(labels("great e")).containsExactly("Great Expectations");
+    }
+
+    @Test
+    void testReloadKeepsChangesMadeSinceTheLastLoad() {
+        loadCatalog();
+        suggestIndex.put(Suggestion.book(4L, "Great Expectations", null));
+
+        // Read before book 4 was created
+        load(Stream.of(Suggestion.book(1L, "The Great Novel", null)), Stream.empty());
+
+        assertThat(labels("great")).containsExactly("Great Expectations", "The Great Novel");
+    }
+}
@@ -0,0 +1,194 @@
+package org.acme.web.spool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SegmentLogTest {
+
+    // Room for three 100-byte records per segment
+    private static final int SEGMENT_BYTES = 3 * (SegmentLog.HEADER_BYTES + 100) + 10;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecordsAreReadBackInOrderAcrossSegments() throws IOException {
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_BYTES, 10)) {
+            for (int i = 0; i < 7; i++) {
+                log.append(record(i));
+            }
+
+            assertThat(payloads(log.read(0, 100))).containsExactly(text(0), text(1), text(2), text(3), text(4),
+                    text(5), text(6));
+            assertThat(segmentFiles()).hasSize(3);
+
+            List<SegmentLog.Entry> firstTwo = log.read(0, 2);
+            assertThat(payloads(log.read(firstTwo.get(1).next(), 2))).containsExactly(text(2), text(3));
+        }
+    }
+
+    @Test
+    void testReopenedLogResumesAfterTheCheckpoint() throws IOException {
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_BYTES, 10)) {
+            for (int i = 0; i < 5; i++) {
+                log.append(record(i));
+            }
+            log.release(log.read(0, 4).get(3).next());
+        }
+        // The first segment held only released records
+        assertThat(segmentFiles()).hasSize(1);
+
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_BYTES, 10)) {
+            assertThat(payloads(log.read(log.getCheckpoint(), 100))).containsExactly(text(4));
+            log.append(record(5));
+            assertThat(payloads(log.read(log.getCheckpoint(), 100))).containsExactly(text(4), text(5));
+        }
+    }
+
+    @Test
+    void testTornRecordEndsTheRecoveredLog() throws IOException {
+        long third;
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_BYTES, 10)) {
+            for (int i = 0; i < 3; i++) {
+                log.append(record(i));
+            }
+            third = log.read(0, 3).get(2).offset();
+        }
+        // A crash while the third record was being flushed: its payload never made it
+        try (FileChannel channel = FileChannel.open(segmentFiles().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(50), third + SegmentLog.HEADER_BYTES);
+        }
+
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_BYTES, 10)) {
+            assertThat(payloads(log.read(0, 100))).containsExactly(text(0), text(1));
+            log.append(record(3));
+            assertThat(payloads(log.read(0, 100))).containsExactly(text(0), text(1), text(3));
+        }
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_BYTES, 10)) {
+            assertThat(payloads(log.read(0, 100))).containsExactly(text(0), text(1), text(3));
+        }
+    }
+
+    @Test
+    void testFullSpoolRefusesAppendsUntilReleased() throws IOException {
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_BYTES, 2)) {
+            for (int i = 0; i < 6; i++) {
+                log.append(record(i));
+            }
+
+            assertThatThrownBy(() -> log.append(record(6))).isInstanceOf(SpoolFullException.class);
+            assertThat(log.getDiskUsage()).isEqualTo(2L * SEGMENT_BYTES);
+
+            log.release(log.read(0, 3).get(2).next());
+            log.append(record(6));
+            assertThat(payloads(log.read(log.getCheckpoint(), 100))).containsExactly(text(3), text(4), text(5),
+                    text(6));
+        }
+    }
+
+    @Test
+    void testFewerThanTwoSegmentsAreRejected() {
+        assertThatThrownBy(() -> SegmentLog.open(directory, SEGMENT_BYTES, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("At least 2 segments");
+    }
+
+    @Test
+    void testFailedFlushStopsAppendsAndWaitsForRecords() throws Exception {
+        AtomicBoolean failing = new AtomicBoolean();
+        try (SegmentLog log = new SegmentLog(directory, SEGMENT_BYTES, 10) {
+            @Override
+            void force(MappedByteBuffer buffer, int index, int length) {
+                if (failing.get()) {
+                    throw new UncheckedIOException(new IOException("No space left on device"));
+                }
+                super.force(buffer, index, length);
+            }
+        }) {
+            long next = log.append(record(0)) + SegmentLog.HEADER_BYTES + 100;
+            failing.set(true);
+
+            assertThatThrownBy(() -> log.append(record(1))).isInstanceOf(SpoolFailedException.class)
+                    .hasRootCauseMessage("No space left on device");
+            assertThatThrownBy(() -> log.append(record(2))).isInstanceOf(SpoolFailedException.class);
+
+            // The record flushed before the failure can still be drained
+            assertThat(log.awaitRecords(0, Duration.ofSeconds(5))).isTrue();
+            assertThat(payloads(log.read(0, 100))).containsExactly(text(0));
+            // Rather than returning at once forever after, which would spin the drainer
+            assertThatThrownBy(() -> log.awaitRecords(next, Duration.ofSeconds(5)))
+                    .isInstanceOf(SpoolFailedException.class);
+        }
+    }
+
+    @Test
+    void testConcurrentAppendsAreAllDurable() throws Exception {
+        int threads = 8;
+        int perThread = 200;
+        List<Long> offsets = new ArrayList<>();
+        try (SegmentLog log = SegmentLog.open(directory, 64 * 1024, 100)) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<List<Long>>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    futures.add(executor.submit(() -> {
+                        List<Long> appended = new ArrayList<>();
+                        for (int i = 0; i < perThread; i++) {
+                            appended.add(log.append(record(i)));
+                        }
+                        return appended;
+                    }));
+                }
+                for (Future<List<Long>> future : futures) {
+                    offsets.addAll(future.get());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        try (SegmentLog log = SegmentLog.open(directory, 64 * 1024, 100)) {
+            List<SegmentLog.Entry> entries = log.read(0, threads * perThread + 1);
+            assertThat(entries).extracting(SegmentLog.Entry::offset).containsExactlyInAnyOrderElementsOf(offsets);
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+
+    private static byte[] record(int i) {
+        return text(i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(int i) {
+        return String.format("%-100s", "record " + i);
+    }
+
+    private static List<String> payloads(List<SegmentLog.Entry> entries) {
+        return entries.stream().map(entry -> new String(entry.payload(), StandardCharsets.UTF_8)).toList();
+    }
+}
@@ -0,0 +1,31 @@
+package org.acme.web.support;
+
+import java.io.IOException;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Embedded PostgreSQL for tests that need what H2 cannot run: the real Flyway
+ * migrations, PL/pgSQL functions, partitions, range and full-text indexes.
+ * PostgreSQL refuses to run as root, so such tests are disabled for root.
+ */
+public final class EmbeddedPostgresDatabase {
+
+    private EmbeddedPostgresDatabase() {
+    }
+
+    /**
+     * Starts a server and points the datasource at it.
+     *
+     * @return the server, for the caller to close after its tests
+     */
+    public static EmbeddedPostgres start(DynamicPropertyRegistry registry) throws IOException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        return postgres;
+    }
+}
@@ -0,0 +1,26 @@
+package org.acme.web.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.acme.web.monitoring.SqlStatementCountFilter;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * MockMvc expectation on the number of SQL statements a request
+ * executed, as recorded by {@link SqlStatementCountFilter}. Exact counts make
+ * a new lazy load per row (an N+1) fail the build. Requests should start with
+ * an empty persistence context (flush and clear after test setup), as they do
+ * in production.
+ */
+public final class SqlStatements {
+
+    private SqlStatements() {
+    }
+
+    public static ResultMatcher sqlStatements(int expected) {
+        return result -> assertThat(result.getRequest().getAttribute(SqlStatementCountFilter.COUNT_ATTRIBUTE))
+                .as("SQL statements executed by %s %s", result.getRequest().getMethod(),
+                        result.getRequest().getRequestURI())
+                .isEqualTo(expected);
+    }
+}